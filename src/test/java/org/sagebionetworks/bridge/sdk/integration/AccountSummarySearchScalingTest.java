@@ -0,0 +1,212 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.SUBSTUDY_ID_1;
+import static org.sagebionetworks.bridge.sdk.integration.Tests.SUBSTUDY_ID_2;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForResearchersApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.AccountSummarySearch;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.sdk.integration.AccountSummarySearchTest.ThrowingFunction;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Scaling suite for account summary search. AccountSummarySearchTest checks the filters against three accounts; this
+ * seeds populations of thousands of accounts concurrently, with data groups, languages and substudies spread across
+ * them, and measures searchAccountSummaries latency for each filter combination and page size through the researcher,
+ * participants and worker APIs.
+ *
+ * Populations are topped up in steps (-DaccountSearch.populations=1000,10000,30000), so one run gives latency against
+ * population size. Accounts are created through ParticipantsApi.createParticipant, which doesn't sign them in, with
+ * -DaccountSearch.threads at a time. Set page sizes with -DaccountSearch.pageSizes and searches per point with
+ * -DaccountSearch.repetitions. The curve is written to target/scaling/account-summary-search.tsv. A failed search is
+ * counted by HTTP status (e.g. "error 504") or exception class and the sweep goes on; the test fails at the end if any
+ * search did.
+ */
+@Category(LoadTest.class)
+public class AccountSummarySearchScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(AccountSummarySearchScalingTest.class);
+
+    private static final List<Integer> POPULATIONS = ScalingCurve.getSweep("accountSearch.populations", "1000,5000");
+    private static final List<Integer> PAGE_SIZES = ScalingCurve.getSweep("accountSearch.pageSizes", "10,50,100");
+    private static final int REPETITIONS = Integer.getInteger("accountSearch.repetitions", 5);
+    private static final int THREADS = Integer.getInteger("accountSearch.threads", 32);
+
+    private static final List<String> DATA_GROUPS = ImmutableList.of("sdk-int-1", "sdk-int-2", "group1");
+    private static final List<String> LANGUAGES = ImmutableList.of("en", "fr", "es", "de");
+    private static final List<String> SUBSTUDIES = ImmutableList.of(SUBSTUDY_ID_1, SUBSTUDY_ID_2);
+
+    private static String emailPrefix;
+    private static TestUser admin;
+    private static TestUser researcher;
+    private static TestUser worker;
+    private static int seeded;
+    private static DateTime seedingStarted;
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        // Email filter is a '%[emailFilter]%' LIKE, so a prefix limits searches to this run's accounts.
+        emailPrefix = "bridge-testing+AccountSummarySearchScalingTest-" + RandomStringUtils.randomAlphabetic(4) + "-";
+        admin = TestUserHelper.getSignedInAdmin();
+        researcher = TestUserPool.lease(false, Role.RESEARCHER);
+        worker = TestUserPool.lease(false, Role.WORKER);
+        executor = LoadThreads.newExecutor("account-search-%d", THREADS);
+        seedingStarted = DateTime.now();
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(AccountSummarySearchScalingTest.class);
+    }
+
+    @AfterClass
+    public static void releaseUsers() throws Exception {
+        TestUserPool.release(researcher);
+        TestUserPool.release(worker);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void searchScaling() throws Exception {
+        Map<String, ThrowingFunction<AccountSummarySearch, ?>> apis = new LinkedHashMap<>();
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
+        apis.put("researchers", search -> researcherApi.searchAccountSummaries(search).execute());
+        apis.put("participants", search -> participantsApi.searchAccountSummaries(search).execute());
+        apis.put("workers", search -> workerApi.searchAccountSummariesForStudy(IntegTestUtils.STUDY_ID, search)
+                .execute());
+
+        ScalingCurve curve = new ScalingCurve("account-summary-search");
+        LoadMetrics errors = new LoadMetrics("Account summary search errors");
+        for (int population : POPULATIONS) {
+            seed(population);
+            LoadMetrics metrics = new LoadMetrics("Account summary search, " + population + " accounts");
+            Map<String, UnaryOperator<AccountSummarySearch>> filters = getFilters(population);
+            for (Map.Entry<String, ThrowingFunction<AccountSummarySearch, ?>> api : apis.entrySet()) {
+                for (Map.Entry<String, UnaryOperator<AccountSummarySearch>> filter : filters.entrySet()) {
+                    for (int pageSize : PAGE_SIZES) {
+                        String metric = api.getKey() + ", " + filter.getKey() + ", pageSize " + pageSize;
+                        for (int i = 0; i < REPETITIONS; i++) {
+                            AccountSummarySearch search = filter.getValue().apply(new AccountSummarySearch()
+                                    .pageSize(pageSize));
+                            search(api.getValue(), search, metric, metrics, errors);
+                        }
+                        curve.add(ImmutableMap.of("accounts", population, "api", api.getKey(), "filter",
+                                filter.getKey(), "pageSize", pageSize), metrics.histogram(metric));
+                    }
+                }
+            }
+            metrics.log();
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+        errors.log();
+        assertEquals(0, errors.getCount("errors"));
+    }
+
+    private static void search(ThrowingFunction<AccountSummarySearch, ?> api, AccountSummarySearch search,
+            String metric, LoadMetrics metrics, LoadMetrics errors) {
+        long start = System.nanoTime();
+        try {
+            api.apply(search);
+            metrics.record(metric, System.nanoTime() - start);
+        } catch (Exception e) {
+            errors.countError("Searching account summaries failed", e);
+        }
+    }
+
+    /** The filter combinations coordinators use, over this run's accounts unless noted. */
+    private static Map<String, UnaryOperator<AccountSummarySearch>> getFilters(int population) {
+        // A window over the middle of seeding, so the date range excludes some of the population at both ends.
+        DateTime now = DateTime.now();
+        long seedingMillis = now.getMillis() - seedingStarted.getMillis();
+        DateTime rangeStart = seedingStarted.plus(seedingMillis / 4);
+        DateTime rangeEnd = now.minus(seedingMillis / 4);
+
+        Map<String, UnaryOperator<AccountSummarySearch>> filters = new LinkedHashMap<>();
+        filters.put("whole study", search -> search);
+        filters.put("emailFilter prefix", search -> search.emailFilter(emailPrefix));
+        // Part of an address, as coordinators type it; matches a handful of accounts.
+        filters.put("emailFilter infix", search -> search.emailFilter(emailPrefix.substring(15) + (population / 2)));
+        filters.put("allOfGroups", search -> search.emailFilter(emailPrefix)
+                .allOfGroups(ImmutableList.of("sdk-int-1", "group1")));
+        filters.put("noneOfGroups", search -> search.emailFilter(emailPrefix).noneOfGroups(ImmutableList.of("group1")));
+        filters.put("language", search -> search.emailFilter(emailPrefix).language("fr"));
+        filters.put("date range", search -> search.emailFilter(emailPrefix).startTime(rangeStart).endTime(rangeEnd));
+        filters.put("all filters", search -> search.emailFilter(emailPrefix)
+                .allOfGroups(ImmutableList.of("sdk-int-1")).noneOfGroups(ImmutableList.of("group1")).language("fr")
+                .startTime(rangeStart).endTime(rangeEnd));
+        filters.put("deep page", search -> search.emailFilter(emailPrefix).offsetBy(population / 2));
+        return filters;
+    }
+
+    /** Creates accounts concurrently until the population reaches the given size. */
+    private static void seed(int population) throws Exception {
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
+        List<Callable<Void>> creates = new ArrayList<>();
+        for (int i = seeded; i < population; i++) {
+            int index = i;
+            creates.add(() -> {
+                String id = participantsApi.createParticipant(makeSignUp(index)).execute().body().getIdentifier();
+                Teardown.register(AccountSummarySearchScalingTest.class, Teardown.Stage.USER, "account " + id,
+                        () -> ApiClients.of(admin, ForAdminsApi.class).deleteUser(id).execute());
+                return null;
+            });
+        }
+        long start = System.nanoTime();
+        for (Future<Void> future : executor.invokeAll(creates)) {
+            future.get();
+        }
+        LOG.info(String.format("Seeded %d accounts in %.1f s", creates.size(), (System.nanoTime() - start) / 1e9));
+        seeded = Math.max(seeded, population);
+    }
+
+    /**
+     * Spreads attributes so each filter matches a different share of the population: every account has one or two of
+     * the data groups, one language, and one substudy.
+     */
+    private static SignUp makeSignUp(int index) {
+        List<String> dataGroups = new ArrayList<>();
+        dataGroups.add(DATA_GROUPS.get(index % DATA_GROUPS.size()));
+        if (index % 5 == 0) {
+            dataGroups.add(DATA_GROUPS.get((index + 1) % DATA_GROUPS.size()));
+        }
+        return new SignUp().study(IntegTestUtils.STUDY_ID).email(emailPrefix + index + "@sagebase.org")
+                .password("P@ssword`1").dataGroups(dataGroups)
+                .languages(ImmutableList.of(LANGUAGES.get(index % LANGUAGES.size())))
+                .substudyIds(ImmutableList.of(SUBSTUDIES.get(index % SUBSTUDIES.size())));
+    }
+}
@@ -53,69 +53,56 @@ public class AccountSummarySearchTest {
                 .withSignUp(new SignUp().email(emailPrefix + "test@sagebase.org")
                         .languages(Lists.newArrayList("es"))
                         .dataGroups(TEST_USER_GROUPS)).createUser();
+        Teardown.register(AccountSummarySearchTest.class, testUser);
         taggedUser = new TestUserHelper.Builder(AccountSummarySearchTest.class)
                 .withSignUp(new SignUp().email(emailPrefix + "tagged@sagebase.org")
                         .languages(Lists.newArrayList("es"))
                         .dataGroups(TAGGED_USER_GROUPS)).createUser();
+        Teardown.register(AccountSummarySearchTest.class, taggedUser);
         frenchUser = new TestUserHelper.Builder(AccountSummarySearchTest.class)
                 .withSignUp(new SignUp().email(emailPrefix + "french@sagebase.org")
                         .languages(Lists.newArrayList("fr"))
                         .dataGroups(FRENCH_USER_GROUPS)).createUser();
+        Teardown.register(AccountSummarySearchTest.class, frenchUser);
         
-        researcher = TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, Role.RESEARCHER);
-        worker = TestUserHelper.createAndSignInUser(AccountSummarySearchTest.class, false, Role.WORKER);
+        researcher = TestUserPool.lease(false, Role.RESEARCHER);
+        worker = TestUserPool.lease(false, Role.WORKER);
     }
     
     @AfterClass
-    public static void deleteTestUser() throws Exception {
-        if (testUser != null) {
-           testUser.signOutAndDeleteUser();
-        }
-    }
-    
-    @AfterClass
-    public static void deleteTaggedUser() throws Exception {
-        if (taggedUser != null) {
-           taggedUser.signOutAndDeleteUser();
-        }
-    }
-    
-    @AfterClass
-    public static void deleteFrenchUser() throws Exception {
-        if (frenchUser != null) {
-           frenchUser.signOutAndDeleteUser();
-        }
+    public static void deleteUsers() throws Exception {
+        Teardown.run(AccountSummarySearchTest.class);
     }
     
     @AfterClass
     public static void deleteResearcher() throws Exception {
         if (researcher != null) {
-           researcher.signOutAndDeleteUser();
+           TestUserPool.release(researcher);
         }
     }
     
     @AfterClass
     public static void deleteWorker() throws Exception {
         if (worker != null) {
-           worker.signOutAndDeleteUser();
+           TestUserPool.release(worker);
         }
     }
     
     @Test
     public void testSearchingApiForResearcher() throws Exception {
-        ForResearchersApi researcherApi = researcher.getClient(ForResearchersApi.class);
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
         testSuite(search -> researcherApi.searchAccountSummaries(search).execute().body());
     }
     
     @Test
     public void testSearchForParticipantApi() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         testSuite(search -> participantsApi.searchAccountSummaries(search).execute().body());
     }
     
     @Test
     public void testSearchingApiForWorker() throws Exception {
-        ForWorkersApi workerApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
         testSuite(search -> workerApi.searchAccountSummariesForStudy("api", search).execute().body());
     }
     
@@ -29,6 +29,7 @@ import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.rest.model.StudyParticipant;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class ActivityEventTest {
     private static final String EVENT_KEY = "event1";
     private static final String TWO_WEEKS_AFTER_KEY = "2-weeks-after";
@@ -43,10 +44,10 @@ public class ActivityEventTest {
     @BeforeClass
     public static void beforeAll() throws Exception {
         researcher = TestUserHelper.createAndSignInUser(ActivityEventTest.class, true, Role.RESEARCHER);
-        researchersApi = researcher.getClient(ForResearchersApi.class);
+        researchersApi = ApiClients.of(researcher, ForResearchersApi.class);
 
         developer = TestUserHelper.createAndSignInUser(ActivityEventTest.class, false, Role.DEVELOPER);
-        ForDevelopersApi developersApi = developer.getClient(ForDevelopersApi.class);
+        ForDevelopersApi developersApi = ApiClients.of(developer, ForDevelopersApi.class);
 
         Study study = developersApi.getUsersStudy().execute().body();
         boolean updateStudy = false;
@@ -69,7 +70,7 @@ public class ActivityEventTest {
 
         // Create user last, so the automatic custom events are created
         user = TestUserHelper.createAndSignInUser(ActivityEventTest.class, true);
-        usersApi = user.getClient(ForConsentedUsersApi.class);
+        usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
     }
 
     @AfterClass
@@ -0,0 +1,187 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.HTTP;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+import org.sagebionetworks.bridge.rest.ApiClientProvider;
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Creates the generated *Api clients the tests call, wrapped so every call is timed per endpoint (see
+ * {@link EndpointLatency}) and can be recorded or replayed (see {@link Cassette}). The client manager and test user
+ * classes come from other libraries and have no hook for this, so tests get their clients here rather than from
+ * getClient() directly:
+ *
+ * <pre>
+ * SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
+ * </pre>
+ */
+public final class ApiClients {
+    private static final Map<Method, String> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private ApiClients() {
+    }
+
+    public static <T> T of(TestUser user, Class<T> apiClass) {
+        return decorate(apiClass, user.getClient(apiClass));
+    }
+
+    public static <T> T of(ClientManager manager, Class<T> apiClass) {
+        return decorate(apiClass, manager.getClient(apiClass));
+    }
+
+    public static <T> T of(ApiClientProvider provider, Class<T> apiClass) {
+        return decorate(apiClass, provider.getClient(apiClass));
+    }
+
+    /** The same client behind a CompletableFuture facade; see {@link AsyncApi}. */
+    public static <T> AsyncApi<T> async(TestUser user, Class<T> apiClass) {
+        return new AsyncApi<>(of(user, apiClass));
+    }
+
+    public static <T> AsyncApi<T> async(ClientManager manager, Class<T> apiClass) {
+        return new AsyncApi<>(of(manager, apiClass));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T decorate(Class<T> apiClass, T client) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(client, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Call) {
+                String endpoint = getEndpoint(method);
+                // Timing goes innermost, so cassette keying and recording aren't counted as endpoint latency (and
+                // replayed calls, which never reach the server, aren't timed at all).
+                return Cassette.wrap(method, endpoint, new TimedCall<>((Call<Object>) result, endpoint));
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(apiClass.getClassLoader(), new Class<?>[] { apiClass }, handler);
+    }
+
+    /** Bytes of the request body as sent, or -1 if its length isn't known. 0 for a request with no body. */
+    public static long getRequestBytes(Response<?> response) throws IOException {
+        RequestBody body = response.raw().request().body();
+        return body == null ? 0 : body.contentLength();
+    }
+
+    /**
+     * Bytes of the response body as it crossed the wire (compressed, if the server compressed it), from the network
+     * response's Content-Length, or -1 if the length isn't known (a chunked response, or a replayed one).
+     */
+    public static long getResponseBytes(Response<?> response) {
+        okhttp3.Response network = response.raw().networkResponse();
+        if (network != null) {
+            String contentLength = network.header("Content-Length");
+            return contentLength == null ? -1 : Long.parseLong(contentLength);
+        }
+        ResponseBody body = response.raw().body();
+        return body == null ? -1 : body.contentLength();
+    }
+
+    /** The method and path template from the method's Retrofit annotation, e.g. "GET /v3/participants/{userId}". */
+    static String getEndpoint(Method method) {
+        return ENDPOINTS.computeIfAbsent(method, m -> {
+            for (Annotation annotation : m.getAnnotations()) {
+                if (annotation instanceof GET) {
+                    return "GET " + ((GET) annotation).value();
+                } else if (annotation instanceof POST) {
+                    return "POST " + ((POST) annotation).value();
+                } else if (annotation instanceof PUT) {
+                    return "PUT " + ((PUT) annotation).value();
+                } else if (annotation instanceof DELETE) {
+                    return "DELETE " + ((DELETE) annotation).value();
+                } else if (annotation instanceof HTTP) {
+                    return ((HTTP) annotation).method() + " " + ((HTTP) annotation).path();
+                }
+            }
+            return m.getDeclaringClass().getSimpleName() + "." + m.getName();
+        });
+    }
+
+    private static final class TimedCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final String endpoint;
+
+        TimedCall(Call<T> delegate, String endpoint) {
+            this.delegate = delegate;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            long start = System.nanoTime();
+            try {
+                return delegate.execute();
+            } finally {
+                EndpointLatency.record(endpoint, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            long start = System.nanoTime();
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    EndpointLatency.record(endpoint, System.nanoTime() - start);
+                    callback.onResponse(TimedCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    EndpointLatency.record(endpoint, System.nanoTime() - start);
+                    callback.onFailure(TimedCall.this, t);
+                }
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return delegate.isExecuted();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new TimedCall<>(delegate.clone(), endpoint);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class AppConfigElementTest {
         admin = TestUserHelper.getSignedInAdmin();
         id = Tests.randomIdentifier(AppConfigElementTest.class);
         id2 = Tests.randomIdentifier(AppConfigElementTest.class);
-        adminConfigsApi = admin.getClient(AppConfigsApi.class);
+        adminConfigsApi = ApiClients.of(admin, AppConfigsApi.class);
     }
 
     @After
@@ -59,7 +59,7 @@ public class AppConfigElementTest {
 
     @Test
     public void crudAppConfigElement() throws Exception {
-        AppConfigsApi configsApi = developer.getClient(AppConfigsApi.class);
+        AppConfigsApi configsApi = ApiClients.of(developer, AppConfigsApi.class);
 
         StudyParticipant participantV1 = new StudyParticipant();
         participantV1.setExternalId("externalId1");
@@ -192,7 +192,7 @@ public class AppConfigElementTest {
 
     @Test
     public void testMostRecentVersions() throws Exception {
-        AppConfigsApi configsApi = developer.getClient(AppConfigsApi.class);
+        AppConfigsApi configsApi = ApiClients.of(developer, AppConfigsApi.class);
 
         AppConfigElement elementID1V1 = new AppConfigElement();
         elementID1V1.setId(id);
@@ -83,11 +83,11 @@ public class AppConfigTest {
         developer = TestUserHelper.createAndSignInUser(AppConfigTest.class, false, Role.DEVELOPER);
         admin = TestUserHelper.getSignedInAdmin();
         
-        adminApi = admin.getClient(ForAdminsApi.class);
-        appConfigsApi = developer.getClient(AppConfigsApi.class);
-        schemasApi = developer.getClient(UploadSchemasApi.class);
-        surveysApi = developer.getClient(SurveysApi.class);
-        filesApi = developer.getClient(FilesApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
+        appConfigsApi = ApiClients.of(developer, AppConfigsApi.class);
+        schemasApi = ApiClients.of(developer, UploadSchemasApi.class);
+        surveysApi = ApiClients.of(developer, SurveysApi.class);
+        filesApi = ApiClients.of(developer, FilesApi.class);
         
         // App configs with no criteria will conflict with the run of this test. Set the range on these
         // for Android to 1-1.
@@ -114,7 +114,7 @@ public class AppConfigTest {
     @After
     public void deleteSurveys() throws IOException {
         if (surveyKeys != null) {
-            admin.getClient(SurveysApi.class).deleteSurvey(
+            ApiClients.of(admin, SurveysApi.class).deleteSurvey(
                 surveyKeys.getGuid(), surveyKeys.getCreatedOn(), true).execute();
         }
     }
@@ -184,7 +184,7 @@ public class AppConfigTest {
         
         // create it
         schemaKeys = schemasApi.createOrUpdateUploadSchema(schema).execute().body();
-        StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
         int initialCount = appConfigsApi.getAppConfigs(false).execute().body().getItems().size();
 
         SurveyReference surveyRef1 = new SurveyReference().guid(surveyKeys.getGuid()).createdOn(surveyKeys.getCreatedOn());
@@ -322,7 +322,7 @@ public class AppConfigTest {
         AppConfig retrieved = appConfigsApi.getAppConfig(keys.getGuid()).execute().body();
         assertTrue(retrieved.isDeleted());
         
-        admin.getClient(AppConfigsApi.class).deleteAppConfig(keys.getGuid(), true).execute();
+        ApiClients.of(admin, AppConfigsApi.class).deleteAppConfig(keys.getGuid(), true).execute();
         
         try {
             appConfigsApi.getAppConfig(keys.getGuid()).execute();
@@ -366,7 +366,7 @@ public class AppConfigTest {
         assertEquals(new Long(1), retrieved.getConfigReferences().get(0).getRevision());
         
         // Verify that for the user, the config is included in the app config itself
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         AppConfig usersAppConfig = userApi.getAppConfigForStudy(user.getStudyId()).execute().body();
         
         SchedulePlan plan = RestUtils.toType(usersAppConfig.getConfigElements().get(elementId), SchedulePlan.class);        
@@ -383,7 +383,7 @@ public class AppConfigTest {
         assertEquals("Persistent schedule", secondPlan.getLabel());
 
         // delete the element, verify the config is returned, but without it.
-        admin.getClient(AppConfigsApi.class).deleteAppConfigElement(element.getId(), element.getRevision(), false).execute();
+        ApiClients.of(admin, AppConfigsApi.class).deleteAppConfigElement(element.getId(), element.getRevision(), false).execute();
         
         try {
             // This should now be invalid because it references a non-existent element.
@@ -411,6 +411,6 @@ public class AppConfigTest {
         String study = developer.getStudyId();
         
         ApiClientProvider provider = new ApiClientProvider(baseUrl, userAgent, acceptLanguage, study);
-        return provider.getClient(clazz);
+        return ApiClients.of(provider, clazz);
     }
 }
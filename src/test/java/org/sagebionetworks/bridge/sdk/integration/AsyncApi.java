@@ -0,0 +1,150 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import retrofit2.Call;
+
+import org.sagebionetworks.bridge.sdk.integration.Await.ThrowingRunnable;
+import org.sagebionetworks.bridge.sdk.integration.Await.ThrowingSupplier;
+
+/**
+ * Async facade over a generated *Api client: calls return CompletableFutures of the response body, run on an executor
+ * and failed with a TimeoutException if they take too long. Cancelling a call's future, or its timing out, cancels the
+ * HTTP call. Get one from {@link ApiClients}, so calls are still timed and recorded:
+ *
+ * <pre>
+ * AsyncApi&lt;SurveysApi&gt; surveysApi = ApiClients.async(developer, SurveysApi.class);
+ * CompletableFuture&lt;Survey&gt; survey = surveysApi.call(api -&gt; api.getSurvey(guid, createdOn));
+ * </pre>
+ *
+ * Fixture steps that make several calls in order can run the same way with {@link #supply} and {@link #run}, so
+ * independent steps overlap; {@link #join} waits and rethrows a failure as the exception the call threw. Calls are
+ * created on the calling thread, and steps run under the calling test's cassette, so recordings stay per test class.
+ * The default executor has -DasyncApi.threads threads and the default timeout is -DasyncApi.timeoutMillis.
+ */
+public final class AsyncApi<T> {
+    public static final long DEFAULT_TIMEOUT_MILLIS = Long.getLong("asyncApi.timeoutMillis", 120000);
+    private static final int DEFAULT_THREADS = Integer.getInteger("asyncApi.threads", 32);
+
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newFixedThreadPool(DEFAULT_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("async-api-%d").setDaemon(true).build());
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("async-api-timeout").setDaemon(true).build());
+
+    private final T api;
+    private final Executor executor;
+    private final long timeoutMillis;
+
+    AsyncApi(T api) {
+        this(api, DEFAULT_EXECUTOR, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    private AsyncApi(T api, Executor executor, long timeoutMillis) {
+        this.api = api;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** A copy that runs calls on the given executor, e.g. a load test's own pool. */
+    public AsyncApi<T> withExecutor(Executor executor) {
+        return new AsyncApi<>(api, executor, timeoutMillis);
+    }
+
+    public AsyncApi<T> withTimeout(long timeout, TimeUnit unit) {
+        return new AsyncApi<>(api, executor, unit.toMillis(timeout));
+    }
+
+    /** The blocking client underneath. */
+    public T getApi() {
+        return api;
+    }
+
+    /** Executes the call made by the given function and completes with the response body. */
+    public <R> CompletableFuture<R> call(Function<T, Call<R>> request) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        Call<R> call;
+        try {
+            call = request.apply(api);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((body, e) -> {
+            if (e instanceof CancellationException || e instanceof TimeoutException) {
+                call.cancel();
+            }
+        });
+        execute(future, () -> call.execute().body(), executor);
+        return withTimeout(future, timeoutMillis);
+    }
+
+    /**
+     * Runs a step on the default executor. The step's thread isn't interrupted when the future is cancelled or times
+     * out, so a step that must stop early should check for itself.
+     */
+    public static <R> CompletableFuture<R> supply(ThrowingSupplier<R> step) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        execute(future, Cassette.inCallersCassette(step), DEFAULT_EXECUTOR);
+        return withTimeout(future, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public static CompletableFuture<Void> run(ThrowingRunnable step) {
+        return supply(() -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /** Waits for the future and returns its value, rethrowing a failure as the exception it failed with. */
+    public static <R> R join(CompletableFuture<R> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <R> void execute(CompletableFuture<R> future, ThrowingSupplier<R> step, Executor executor) {
+        try {
+            executor.execute(() -> {
+                // Cancelled or timed out while queued.
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(step.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static <R> CompletableFuture<R> withTimeout(CompletableFuture<R> future, long timeoutMillis) {
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> future.completeExceptionally(
+                new TimeoutException("Timed out after " + timeoutMillis + " ms")), timeoutMillis,
+                TimeUnit.MILLISECONDS);
+        future.whenComplete((value, e) -> timeout.cancel(false));
+        return future;
+    }
+}
@@ -54,6 +54,7 @@ import static org.junit.Assert.fail;
 
 @Category(IntegrationSmokeTest.class)
 @SuppressWarnings("unchecked")
+@ResourceLock(ResourceLock.API_STUDY)
 public class AuthenticationTest {
     private static TestUser adminUser;
     private static TestUser researchUser;
@@ -65,16 +66,19 @@ public class AuthenticationTest {
     @BeforeClass
     public static void beforeClass() throws IOException {
         researchUser = TestUserHelper.createAndSignInUser(AuthenticationTest.class, true, Role.RESEARCHER);
+        Teardown.register(AuthenticationTest.class, researchUser);
         
         // Make a test user with a phone number.
         SignUp phoneOnlyUser = new SignUp().study(IntegTestUtils.STUDY_ID).consent(true).phone(IntegTestUtils.PHONE);
         phoneOnlyTestUser = new TestUserHelper.Builder(AuthenticationTest.class).withConsentUser(true)
                 .withSignUp(phoneOnlyUser).createUser();
+        Teardown.register(AuthenticationTest.class, phoneOnlyTestUser);
         testUser = TestUserHelper.createAndSignInUser(AuthenticationTest.class, true);
-        authApi = testUser.getClient(AuthenticationApi.class);
+        Teardown.register(AuthenticationTest.class, testUser);
+        authApi = ApiClients.of(testUser, AuthenticationApi.class);
 
         adminUser = TestUserHelper.getSignedInAdmin();
-        adminApi = adminUser.getClient(ForAdminsApi.class);
+        adminApi = ApiClients.of(adminUser, ForAdminsApi.class);
 
         // Verify necessary flags (health code export, email sign in, phone sign in, reauth) are enabled
         Study study = adminApi.getUsersStudy().execute().body();
@@ -86,22 +90,8 @@ public class AuthenticationTest {
     }
     
     @AfterClass
-    public static void deleteResearcher() throws Exception {
-        if (researchUser != null) {
-            researchUser.signOutAndDeleteUser();
-        }
-    }
-    @AfterClass
-    public static void deleteUser() throws Exception {
-        if (testUser != null) {
-            testUser.signOutAndDeleteUser();
-        }
-    }
-    @AfterClass
-    public static void deletePhoneUser() throws Exception {
-        if (phoneOnlyTestUser != null) {
-            phoneOnlyTestUser.signOutAndDeleteUser();
-        }
+    public static void deleteUsers() throws Exception {
+        Teardown.run(AuthenticationTest.class);
     }
 
     @AfterClass
@@ -238,7 +228,7 @@ public class AuthenticationTest {
                         .password(testUser.getPassword());
                 ClientManager otherStudyManager = new ClientManager.Builder().withSignIn(otherStudySignIn).build();
                 
-                AuthenticationApi authClient = otherStudyManager.getClient(AuthenticationApi.class);
+                AuthenticationApi authClient = ApiClients.of(otherStudyManager, AuthenticationApi.class);
                 
                 authClient.signInV4(otherStudySignIn).execute();
                 fail("Should not have allowed sign in");
@@ -255,8 +245,8 @@ public class AuthenticationTest {
     public void emailVerificationThrowsTheCorrectError() throws Exception {
         String hostUrl = testUser.getClientManager().getHostUrl();
 
-        HttpResponse response = Request.Post(hostUrl + "/v3/auth/verifyEmail?study=api")
-                .body(new StringEntity("{\"sptoken\":\"testtoken\",\"study\":\"api\"}")).execute().returnResponse();
+        HttpResponse response = RawHttp.execute(Request.Post(hostUrl + "/v3/auth/verifyEmail?study=api")
+                .body(new StringEntity("{\"sptoken\":\"testtoken\",\"study\":\"api\"}"))).returnResponse();
         assertEquals(400, response.getStatusLine().getStatusCode());
         
         JsonNode node = new ObjectMapper().readTree(EntityUtils.toString(response.getEntity()));
@@ -267,8 +257,8 @@ public class AuthenticationTest {
     public void phoneVerificationThrowsTheCorrectError() throws Exception {
         String hostUrl = testUser.getClientManager().getHostUrl();
 
-        HttpResponse response = Request.Post(hostUrl + "/v3/auth/verifyPhone?study=api")
-                .body(new StringEntity("{\"sptoken\":\"testtoken\",\"study\":\"api\"}")).execute().returnResponse();
+        HttpResponse response = RawHttp.execute(Request.Post(hostUrl + "/v3/auth/verifyPhone?study=api")
+                .body(new StringEntity("{\"sptoken\":\"testtoken\",\"study\":\"api\"}"))).returnResponse();
         assertEquals(400, response.getStatusLine().getStatusCode());
         
         JsonNode node = new ObjectMapper().readTree(EntityUtils.toString(response.getEntity()));
@@ -289,7 +279,7 @@ public class AuthenticationTest {
                     .password(testUser.getPassword());
             
             // This should not throw an exception.
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             authApi.signUp(signUp).execute();
             
         } finally {
@@ -299,7 +289,7 @@ public class AuthenticationTest {
     
     @Test(expected = InvalidEntityException.class)
     public void requestPhoneSignInWithoutPhone() throws Exception {
-        AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
 
         PhoneSignInRequest phoneSignIn = new PhoneSignInRequest().study(testUser.getStudyId());
 
@@ -310,7 +300,7 @@ public class AuthenticationTest {
     @Test
     public void requestPhoneSignInWithPhone() throws Exception {
         // Request phone sign-in.
-        AuthenticationApi authApi = phoneOnlyTestUser.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(phoneOnlyTestUser, AuthenticationApi.class);
         
         PhoneSignInRequest phoneSignIn = new PhoneSignInRequest().phone(phoneOnlyTestUser.getPhone())
                 .study(phoneOnlyTestUser.getStudyId());
@@ -324,7 +314,7 @@ public class AuthenticationTest {
 
     @Test(expected = AuthenticationFailedException.class)
     public void phoneSignInThrows() throws Exception {
-        AuthenticationApi authApi = phoneOnlyTestUser.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(phoneOnlyTestUser, AuthenticationApi.class);
 
         PhoneSignIn phoneSignIn = new PhoneSignIn().phone(IntegTestUtils.PHONE).study(phoneOnlyTestUser.getStudyId()).token("test-token");
 
@@ -333,7 +323,7 @@ public class AuthenticationTest {
     
     @Test
     public void signInAndReauthenticateV4() throws IOException {
-        AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
         authApi.signOut().execute();
         
         UserSessionInfo session = authApi.signInV4(testUser.getSignIn()).execute().body();
@@ -344,7 +334,7 @@ public class AuthenticationTest {
     public void sessionInvalidationTest() throws Exception {
         // Test account is shared across multiple tests, at least one of which signs out and signs back in. Sign in and
         // get the new session Id.
-        AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
         UserSessionInfo session = authApi.signIn(testUser.getSignIn()).execute().body();
         verifySession(200, session.getSessionToken());
 
@@ -399,14 +389,14 @@ public class AuthenticationTest {
     // activity events.
     private static void verifySession(int expectedStatusCode, String sessionId) throws Exception {
         String hostUrl = testUser.getClientManager().getHostUrl();
-        HttpResponse httpResponse = Request.Get(hostUrl + "/v1/activityevents")
-                .setHeader("Bridge-Session", sessionId).execute().returnResponse();
+        HttpResponse httpResponse = RawHttp.execute(Request.Get(hostUrl + "/v1/activityevents")
+                .setHeader("Bridge-Session", sessionId)).returnResponse();
         assertEquals(expectedStatusCode, httpResponse.getStatusLine().getStatusCode());
     }
 
     private static void verifyTransactionalMessage() throws Exception {
         // Verify message logs contains the expected message.
-        SmsMessage message = adminUser.getClient(InternalApi.class).getMostRecentSmsMessage(phoneOnlyTestUser
+        SmsMessage message = ApiClients.of(adminUser, InternalApi.class).getMostRecentSmsMessage(phoneOnlyTestUser
                 .getUserId()).execute().body();
         assertEquals(phoneOnlyTestUser.getPhone().getNumber(), message.getPhoneNumber());
         assertNotNull(message.getMessageId());
@@ -421,14 +411,14 @@ public class AuthenticationTest {
         assertTrue(message.getSentOn().isAfter(DateTime.now().minusHours(1)));
 
         // Verify the health code matches.
-        StudyParticipant participant = researchUser.getClient(ForResearchersApi.class).getParticipantById(
+        StudyParticipant participant = ApiClients.of(researchUser, ForResearchersApi.class).getParticipantById(
                 phoneOnlyTestUser.getUserId(), false).execute().body();
         assertEquals(participant.getHealthCode(), message.getHealthCode());
 
         // Verify the SMS message log was written to health data.
         Thread.sleep(2000);
         DateTime messageSentOn = message.getSentOn();
-        List<HealthDataRecord> recordList = phoneOnlyTestUser.getClient(InternalApi.class).getHealthDataByCreatedOn(
+        List<HealthDataRecord> recordList = ApiClients.of(phoneOnlyTestUser, InternalApi.class).getHealthDataByCreatedOn(
                 messageSentOn, messageSentOn).execute().body().getItems();
         HealthDataRecord smsMessageRecord = recordList.stream()
                 .filter(r -> r.getSchemaId().equals("sms-messages-sent-from-bridge")).findAny().get();
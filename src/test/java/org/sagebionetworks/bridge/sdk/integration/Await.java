@@ -0,0 +1,198 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.HashMap;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the server until an eventually consistent read (usually a DynamoDB global secondary index) catches up, instead
+ * of sleeping for a fixed worst-case interval. Polling backs off exponentially with jitter until a deadline, and the
+ * time each kind of wait actually took is recorded under its description, so slow index propagation shows up in the
+ * logs at the end of the run.
+ *
+ * <pre>
+ * SurveyList list = Await.until("published surveys index", () -> api.getPublishedSurveys(false).execute().body(),
+ *         l -> l.getItems().size() >= 2);
+ * </pre>
+ */
+public final class Await {
+    private static final Logger LOG = LoggerFactory.getLogger(Await.class);
+
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 100;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 2000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 15000;
+
+    private static final Map<String, LongSummaryStatistics> CONVERGENCE_TIMES = new HashMap<>();
+    private static final Map<String, Integer> TIMEOUTS = new HashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Await::logConvergenceTimes, "await-stats"));
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private final String description;
+    private long initialDelayMillis = DEFAULT_INITIAL_DELAY_MILLIS;
+    private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private ImmutableList<Class<? extends Exception>> ignoredExceptions = ImmutableList.of();
+
+    private Await(String description) {
+        this.description = description;
+    }
+
+    /** Starts configuring a wait. The description groups the recorded timings, so reuse it for the same index. */
+    public static Await poll(String description) {
+        return new Await(description);
+    }
+
+    /** Polls with default settings until the condition holds for the supplied value, then returns that value. */
+    public static <T> T until(String description, ThrowingSupplier<T> supplier, Predicate<? super T> condition)
+            throws Exception {
+        return poll(description).until(supplier, condition);
+    }
+
+    /** Polls with default settings until the block runs without throwing an AssertionError. */
+    public static void untilPasses(String description, ThrowingRunnable assertions) throws Exception {
+        poll(description).untilPasses(assertions);
+    }
+
+    public Await initialDelay(long millis) {
+        this.initialDelayMillis = millis;
+        return this;
+    }
+
+    public Await maxDelay(long millis) {
+        this.maxDelayMillis = millis;
+        return this;
+    }
+
+    public Await timeout(long millis) {
+        this.timeoutMillis = millis;
+        return this;
+    }
+
+    /** Exceptions of these types are treated like an unmet condition instead of failing immediately. */
+    @SafeVarargs
+    public final Await ignoring(Class<? extends Exception>... exceptionTypes) {
+        this.ignoredExceptions = ImmutableList.copyOf(exceptionTypes);
+        return this;
+    }
+
+    public <T> T until(ThrowingSupplier<T> supplier, Predicate<? super T> condition) throws Exception {
+        long start = System.currentTimeMillis();
+        long delay = initialDelayMillis;
+        T value = null;
+        Exception lastException = null;
+        while (true) {
+            try {
+                value = supplier.get();
+                lastException = null;
+                if (condition.test(value)) {
+                    record(System.currentTimeMillis() - start, false);
+                    return value;
+                }
+            } catch (Exception e) {
+                if (!isIgnored(e)) {
+                    throw e;
+                }
+                lastException = e;
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            if (elapsed >= timeoutMillis) {
+                record(elapsed, true);
+                AssertionError error = new AssertionError("Timed out after " + elapsed + " ms waiting for "
+                        + description + (lastException == null ? ", last value: " + value : ""));
+                if (lastException != null) {
+                    error.initCause(lastException);
+                }
+                throw error;
+            }
+            Thread.sleep(Math.min(jitter(delay), timeoutMillis - elapsed));
+            delay = Math.min(delay * 2, maxDelayMillis);
+        }
+    }
+
+    public void untilPasses(ThrowingRunnable assertions) throws Exception {
+        AssertionError[] lastError = new AssertionError[1];
+        try {
+            until(() -> {
+                try {
+                    assertions.run();
+                    return true;
+                } catch (AssertionError e) {
+                    lastError[0] = e;
+                    return false;
+                }
+            }, passed -> passed);
+        } catch (AssertionError e) {
+            // Report the assertion that kept failing, not the timeout.
+            throw lastError[0] != null ? lastError[0] : e;
+        }
+    }
+
+    /** Snapshot of how long each described wait took to converge, in milliseconds. */
+    public static Map<String, LongSummaryStatistics> getConvergenceTimes() {
+        synchronized (CONVERGENCE_TIMES) {
+            ImmutableMap.Builder<String, LongSummaryStatistics> builder = ImmutableMap.builder();
+            for (Map.Entry<String, LongSummaryStatistics> entry : CONVERGENCE_TIMES.entrySet()) {
+                LongSummaryStatistics copy = new LongSummaryStatistics();
+                copy.combine(entry.getValue());
+                builder.put(entry.getKey(), copy);
+            }
+            return builder.build();
+        }
+    }
+
+    private boolean isIgnored(Exception e) {
+        for (Class<? extends Exception> type : ignoredExceptions) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "Equal jitter": half the delay is fixed, the other half random, so concurrent tests don't poll in lockstep.
+    private static long jitter(long delay) {
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private void record(long elapsedMillis, boolean timedOut) {
+        LOG.debug("Waited " + elapsedMillis + " ms for " + description + (timedOut ? " (timed out)" : ""));
+        synchronized (CONVERGENCE_TIMES) {
+            CONVERGENCE_TIMES.computeIfAbsent(description, k -> new LongSummaryStatistics()).accept(elapsedMillis);
+            if (timedOut) {
+                TIMEOUTS.merge(description, 1, Integer::sum);
+            }
+        }
+    }
+
+    private static void logConvergenceTimes() {
+        synchronized (CONVERGENCE_TIMES) {
+            for (Map.Entry<String, LongSummaryStatistics> entry : new TreeMap<>(CONVERGENCE_TIMES).entrySet()) {
+                LongSummaryStatistics stats = entry.getValue();
+                LOG.info(String.format("Await %s: n=%d, avg=%.0f ms, max=%d ms, timeouts=%d", entry.getKey(),
+                        stats.getCount(), stats.getAverage(), stats.getMax(),
+                        TIMEOUTS.getOrDefault(entry.getKey(), 0)));
+            }
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hashing;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.rest.RestUtils;
+
+/**
+ * Record/replay for calls made through {@link ApiClients}. With -Dcassette=record, every call's response (or the
+ * Bridge exception it threw) is saved to one cassette per test class under target/cassettes (or -Dcassette.dir), as
+ * one JSON line per call. With -Dcassette=replay, calls are answered from the cassette without touching the network,
+ * so a replayed run measures the client's own overhead (request building, model mapping) apart from server time.
+ *
+ * Requests are matched on endpoint (method and path template), the path and query parameters, and a hash of the
+ * request body, with run-specific values (UUIDs, timestamps, generated identifiers and email addresses) masked out of
+ * all three. A request with no exact match gets the next unused response recorded for the same endpoint.
+ *
+ * Test users are created by TestUserHelper, which doesn't go through ApiClients, so replay those against the stub
+ * server by also passing -Dstub.
+ */
+public final class Cassette {
+    private static final Logger LOG = LoggerFactory.getLogger(Cassette.class);
+
+    public static final String MODE_PROPERTY = "cassette";
+    public static final String DIRECTORY_PROPERTY = "cassette.dir";
+    private static final String DEFAULT_DIRECTORY = "target/cassettes";
+    private static final String SHARED_CASSETTE = "shared";
+    private static final String TEST_PACKAGE = Cassette.class.getPackage().getName() + ".";
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+
+    private static final Pattern UUID = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern TIMESTAMP = Pattern.compile(
+            "\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:\\d{2})?");
+    private static final Pattern IDENTIFIER = Pattern.compile("sdk-[a-z0-9]+-[a-z]{5}");
+    private static final Pattern EMAIL = Pattern.compile("[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+");
+
+    enum Mode { OFF, RECORD, REPLAY }
+
+    private static final Mode MODE = Mode.valueOf(
+            System.getProperty(MODE_PROPERTY, "off").toUpperCase(Locale.ENGLISH));
+    private static final Map<String, List<ObjectNode>> RECORDINGS = new ConcurrentHashMap<>();
+    private static final Map<String, Tape> TAPES = new ConcurrentHashMap<>();
+    // Set while a step runs on another thread for a test (see AsyncApi), naming the cassette the test would use.
+    private static final ThreadLocal<String> CASSETTE_OVERRIDE = new ThreadLocal<>();
+
+    static {
+        if (MODE == Mode.RECORD) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Cassette::writeRecordings, "cassette-writer"));
+        }
+    }
+
+    private Cassette() {
+    }
+
+    /** Wraps a call from the given API method for recording or replay, or returns it as is when cassettes are off. */
+    static <T> Call<T> wrap(Method method, String endpoint, Call<T> call) {
+        if (MODE == Mode.OFF) {
+            return call;
+        }
+        return new CassetteCall<>(call, endpoint, getResponseType(method), getCassetteName());
+    }
+
+    /**
+     * Wraps a step that will run on another thread so the calls it creates go to the cassette of the test class
+     * calling this, rather than the shared one.
+     */
+    static <R> Await.ThrowingSupplier<R> inCallersCassette(Await.ThrowingSupplier<R> step) {
+        if (MODE == Mode.OFF) {
+            return step;
+        }
+        String cassetteName = getCassetteName();
+        return () -> {
+            String previous = CASSETTE_OVERRIDE.get();
+            CASSETTE_OVERRIDE.set(cassetteName);
+            try {
+                return step.get();
+            } finally {
+                CASSETTE_OVERRIDE.set(previous);
+            }
+        };
+    }
+
+    private static Type getResponseType(Method method) {
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            return ((ParameterizedType) returnType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+
+    // The cassette is named for the test class on the stack of the thread that created the call, so a call created
+    // by a test and executed elsewhere (e.g. by AsyncApi) still goes to the test's cassette. Calls created on other
+    // threads (e.g. load harness workers) share one cassette.
+    private static String getCassetteName() {
+        String override = CASSETTE_OVERRIDE.get();
+        if (override != null) {
+            return override;
+        }
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith(TEST_PACKAGE)) {
+                int nested = className.indexOf('$');
+                String topLevel = nested < 0 ? className : className.substring(0, nested);
+                if (topLevel.endsWith("Test")) {
+                    return topLevel.substring(TEST_PACKAGE.length());
+                }
+            }
+        }
+        return SHARED_CASSETTE;
+    }
+
+    // The endpoint template alone doesn't tell getSurvey(g1) from getSurvey(g2), or one page of a list from the next,
+    // so the decoded path and the query parameters (sorted, so their order doesn't matter) are part of the key too.
+    private static String getRequestKey(String endpoint, Request request) throws IOException {
+        HttpUrl url = request.url();
+        List<String> query = new ArrayList<>();
+        for (int i = 0; i < url.querySize(); i++) {
+            query.add(url.queryParameterName(i) + "=" + url.queryParameterValue(i));
+        }
+        Collections.sort(query);
+        String body = "";
+        if (request.body() != null) {
+            Buffer buffer = new Buffer();
+            request.body().writeTo(buffer);
+            body = buffer.readUtf8();
+        }
+        String path = "/" + String.join("/", url.pathSegments());
+        return endpoint + " " + mask(path) + "?" + mask(String.join("&", query)) + " "
+                + Hashing.murmur3_128().hashString(mask(body), StandardCharsets.UTF_8);
+    }
+
+    private static String mask(String value) {
+        value = UUID.matcher(value).replaceAll("<uuid>");
+        value = TIMESTAMP.matcher(value).replaceAll("<timestamp>");
+        value = IDENTIFIER.matcher(value).replaceAll("<identifier>");
+        return EMAIL.matcher(value).replaceAll("<email>");
+    }
+
+    private static File getFile(String cassetteName) {
+        return new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), cassetteName + ".ndjson");
+    }
+
+    private static void writeRecordings() {
+        for (Map.Entry<String, List<ObjectNode>> entry : RECORDINGS.entrySet()) {
+            File file = getFile(entry.getKey());
+            file.getParentFile().mkdirs();
+            List<String> lines = new ArrayList<>();
+            synchronized (entry.getValue()) {
+                for (ObjectNode interaction : entry.getValue()) {
+                    lines.add(interaction.toString());
+                }
+            }
+            try {
+                Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                LOG.error("Could not write cassette " + file, e);
+            }
+        }
+    }
+
+    private static void record(String cassetteName, ObjectNode interaction) {
+        List<ObjectNode> interactions = RECORDINGS.computeIfAbsent(cassetteName, k -> new ArrayList<>());
+        synchronized (interactions) {
+            interactions.add(interaction);
+        }
+    }
+
+    /** The recorded interactions of one cassette, consumed in recorded order. */
+    private static final class Tape {
+        private final Map<String, Deque<JsonNode>> byKey = new HashMap<>();
+        private final Map<String, Deque<JsonNode>> byEndpoint = new HashMap<>();
+
+        Tape(File file) throws IOException {
+            if (!file.exists()) {
+                return;
+            }
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                JsonNode interaction = DefaultObjectMapper.INSTANCE.readTree(line);
+                byKey.computeIfAbsent(interaction.get("key").textValue(), k -> new ArrayDeque<>()).add(interaction);
+                byEndpoint.computeIfAbsent(interaction.get("endpoint").textValue(), k -> new ArrayDeque<>())
+                        .add(interaction);
+            }
+        }
+
+        synchronized JsonNode next(String endpoint, String key) {
+            JsonNode interaction = poll(byKey.get(key));
+            if (interaction == null) {
+                interaction = poll(byEndpoint.get(endpoint));
+                if (interaction != null) {
+                    remove(byKey.get(interaction.get("key").textValue()), interaction);
+                }
+            } else {
+                remove(byEndpoint.get(endpoint), interaction);
+            }
+            return interaction;
+        }
+
+        private static JsonNode poll(Deque<JsonNode> queue) {
+            return queue == null ? null : queue.poll();
+        }
+
+        private static void remove(Deque<JsonNode> queue, JsonNode interaction) {
+            if (queue != null) {
+                // Identity, not equality: two identical recordings are still two responses.
+                for (Iterator<JsonNode> i = queue.iterator(); i.hasNext();) {
+                    if (i.next() == interaction) {
+                        i.remove();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class CassetteCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final String endpoint;
+        private final Type responseType;
+        private final String cassetteName;
+        private volatile boolean executed;
+
+        CassetteCall(Call<T> delegate, String endpoint, Type responseType, String cassetteName) {
+            this.delegate = delegate;
+            this.endpoint = endpoint;
+            this.responseType = responseType;
+            this.cassetteName = cassetteName;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            executed = true;
+            String key = getRequestKey(endpoint, delegate.request());
+            return MODE == Mode.RECORD ? executeAndRecord(cassetteName, key) : replay(cassetteName, key);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Response<T> executeAndRecord(String cassetteName, String key) throws IOException {
+            ObjectNode interaction = DefaultObjectMapper.INSTANCE.createObjectNode();
+            interaction.put("endpoint", endpoint);
+            interaction.put("key", key);
+            Response<T> response;
+            try {
+                response = delegate.execute();
+            } catch (RuntimeException e) {
+                // Bridge error responses surface as exceptions thrown by the client's interceptors.
+                interaction.put("exception", e.getClass().getName());
+                interaction.put("message", e.getMessage());
+                record(cassetteName, interaction);
+                throw e;
+            }
+            interaction.put("code", response.code());
+            T body = response.body();
+            if (body instanceof ResponseBody) {
+                // Reading the body consumes it, so hand the caller a copy.
+                String content = ((ResponseBody) body).string();
+                interaction.put("body", content);
+                body = (T) ResponseBody.create(((ResponseBody) body).contentType(), content);
+                response = Response.success(body, response.raw());
+            } else if (body != null) {
+                interaction.put("body", RestUtils.GSON.toJson(body));
+            }
+            record(cassetteName, interaction);
+            return response;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Response<T> replay(String cassetteName, String key) throws IOException {
+            Tape tape = TAPES.computeIfAbsent(cassetteName, name -> {
+                try {
+                    return new Tape(getFile(name));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not read cassette " + name, e);
+                }
+            });
+            JsonNode interaction = tape.next(endpoint, key);
+            if (interaction == null) {
+                throw new IOException("No recorded response for " + endpoint + " in cassette " + cassetteName);
+            }
+            if (interaction.has("exception")) {
+                throw recreateException(interaction.get("exception").textValue(),
+                        interaction.path("message").textValue());
+            }
+            String content = interaction.path("body").textValue();
+            T body = null;
+            if (content != null) {
+                body = responseType == ResponseBody.class ? (T) ResponseBody.create(JSON_MEDIA_TYPE, content)
+                        : RestUtils.GSON.fromJson(content, responseType);
+            }
+            int code = interaction.path("code").asInt(200);
+            okhttp3.Response raw = new okhttp3.Response.Builder().code(code).message("Replayed")
+                    .protocol(Protocol.HTTP_1_1).request(delegate.request()).build();
+            return Response.success(body, raw);
+        }
+
+        // Bridge exceptions are rebuilt from their recorded type and message. Constructor arguments the recording
+        // doesn't have are left null or zero.
+        private RuntimeException recreateException(String className, String message) {
+            try {
+                Class<?> exceptionClass = Class.forName(className);
+                for (Constructor<?> constructor : exceptionClass.getConstructors()) {
+                    Class<?>[] parameterTypes = constructor.getParameterTypes();
+                    Object[] args = new Object[parameterTypes.length];
+                    boolean messagePassed = false;
+                    for (int i = 0; i < parameterTypes.length; i++) {
+                        if (parameterTypes[i] == String.class) {
+                            args[i] = messagePassed ? endpoint : message;
+                            messagePassed = true;
+                        } else if (parameterTypes[i].isPrimitive()) {
+                            args[i] = parameterTypes[i] == boolean.class ? false : 0;
+                        }
+                    }
+                    if (messagePassed) {
+                        return (RuntimeException) constructor.newInstance(args);
+                    }
+                }
+            } catch (ReflectiveOperationException | ClassCastException | IllegalArgumentException e) {
+                LOG.warn("Could not recreate recorded " + className, e);
+            }
+            return new IllegalStateException(className + ": " + message);
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            try {
+                callback.onResponse(this, execute());
+            } catch (Throwable t) {
+                callback.onFailure(this, t);
+            }
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return delegate.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CassetteCall<>(delegate.clone(), endpoint, responseType, cassetteName);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+    }
+}
@@ -42,7 +42,7 @@ public class CompoundActivityDefinitionTest {
     @BeforeClass
     public static void beforeClass() throws Exception {
         developer = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, Role.DEVELOPER);
-        compoundActivityDefinitionsApi = developer.getClient(CompoundActivityDefinitionsApi.class);
+        compoundActivityDefinitionsApi = ApiClients.of(developer, CompoundActivityDefinitionsApi.class);
     }
 
     @Before
@@ -60,6 +60,7 @@ import com.google.common.collect.Iterables;
 
 @Category(IntegrationSmokeTest.class)
 @SuppressWarnings("unchecked")
+@ResourceLock(ResourceLock.API_STUDY)
 public class ConsentTest {
     private static final Withdrawal WITHDRAWAL = new Withdrawal().reason("Reasons");
     private static final String FAKE_IMAGE_DATA = "VGVzdCBzdHJpbmc=";
@@ -83,7 +84,7 @@ public class ConsentTest {
                 .withSignUp(phoneOnlyUser).createAndSignInUser();
 
         // Verify necessary flags (health code export) are enabled
-        ForAdminsApi adminApi = adminUser.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(adminUser, ForAdminsApi.class);
         Study study = adminApi.getUsersStudy().execute().body();
         study.setHealthCodeExportEnabled(true);
         adminApi.updateStudy(study.getIdentifier(), study).execute();
@@ -106,7 +107,7 @@ public class ConsentTest {
     @Test
     public void canToggleDataSharing() throws Exception {
         TestUser testUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true);
-        ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
         try {
             // starts out with no sharing
             UserSessionInfo session = testUser.getSession();
@@ -140,7 +141,7 @@ public class ConsentTest {
             assertTrue(history.getSignedOn().isAfter(DateTime.now().minusHours(1)));
             assertTrue(history.isHasSignedActiveConsent());
             
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             authApi.signOut().execute();
         } finally {
             testUser.signOutAndDeleteUser();
@@ -152,7 +153,7 @@ public class ConsentTest {
     public void giveConsentAndWithdrawTwice() throws Exception {
         TestUser developer = TestUserHelper.createAndSignInUser(ConsentTest.class, true, Role.DEVELOPER);
         TestUser user = TestUserHelper.createAndSignInUser(ConsentTest.class, false);
-        SubpopulationsApi subpopsApi = developer.getClientManager().getClient(SubpopulationsApi.class);
+        SubpopulationsApi subpopsApi = ApiClients.of(developer.getClientManager(), SubpopulationsApi.class);
         GuidVersionHolder keys = null;
         try {
 
@@ -171,7 +172,7 @@ public class ConsentTest {
 
             // Now, this user will consent to both consents, then withdraw from the required consent,
             // then withdraw from the optional consent, and this should work where it didn't before.
-            ForConsentedUsersApi usersApi = user.getClientManager().getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user.getClientManager(), ForConsentedUsersApi.class);
 
             usersApi.createConsentSignature(user.getStudyId(), signature).execute();
             usersApi.createConsentSignature(keys.getGuid(), signature).execute();
@@ -195,7 +196,7 @@ public class ConsentTest {
                 assertFalse(RestUtils.isUserConsented(session));
             }
         } finally {
-            adminUser.getClient(SubpopulationsApi.class).deleteSubpopulation(keys.getGuid(), true).execute();
+            ApiClients.of(adminUser, SubpopulationsApi.class).deleteSubpopulation(keys.getGuid(), true).execute();
             user.signOutAndDeleteUser();
             developer.signOutAndDeleteUser();
         }
@@ -215,7 +216,7 @@ public class ConsentTest {
     public void signedInUserMustGiveConsent() throws Exception {
         TestUser user = TestUserHelper.createAndSignInUser(ConsentTest.class, false);
         try {
-            ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
             assertFalse("User has not consented", user.getSession().isConsented());
             try {
                 userApi.getSchedules().execute();
@@ -248,7 +249,7 @@ public class ConsentTest {
             // this is expected when you sign in.
         }
         try {
-            ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
             try {
                 userApi.getSchedules();
             } catch (ConsentRequiredException e) {
@@ -298,7 +299,7 @@ public class ConsentTest {
         ConsentSignature sig = new ConsentSignature().name(name).birthdate(birthdate).imageData(imageData)
                 .imageMimeType(imageMimeType).scope(SharingScope.ALL_QUALIFIED_RESEARCHERS);
         try {
-            ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
 
             assertFalse("User has not consented", testUser.getSession().isConsented());
             assertFalse(RestUtils.isUserConsented(testUser.getSession()));
@@ -356,7 +357,7 @@ public class ConsentTest {
             }
 
             // The remote session should also reflect the sharing scope
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             authApi.signOut().execute();
 
             session = testUser.signInAgain();
@@ -367,7 +368,7 @@ public class ConsentTest {
 
             // withdraw consent
             Withdrawal withdrawal = new Withdrawal().reason("Withdrawing test user from study");
-            userApi = testUser.getClient(ForConsentedUsersApi.class);
+            userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
             session = userApi.withdrawConsentFromSubpopulation(testUser.getDefaultSubpopulation(), withdrawal).execute()
                     .body();
             
@@ -382,7 +383,7 @@ public class ConsentTest {
             
             // Get the consent signature and verify it is withdrawn. You can't get it as the test 
             // user... the user is withdrawn! 
-            ParticipantsApi participantsApi = researchUser.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researchUser, ParticipantsApi.class);
             StudyParticipant retrieved = participantsApi.getParticipantById(testUser.getUserId(), true).execute().body();
             
             List<UserConsentHistory> history = retrieved.getConsentHistories().get(testUser.getDefaultSubpopulation());
@@ -404,7 +405,7 @@ public class ConsentTest {
     public void canResendConsentAgreement() throws Exception {
         TestUser testUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true);
         try {
-            ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
             userApi.resendConsentAgreement(testUser.getDefaultSubpopulation()).execute();
         } finally {
             testUser.signOutAndDeleteUser();
@@ -414,12 +415,12 @@ public class ConsentTest {
     @Test
     public void canResendConsentAgreementForPhone() throws Exception {
         // Request phone consent.
-        Response<Message> response = phoneOnlyTestUser.getClient(ForConsentedUsersApi.class)
+        Response<Message> response = ApiClients.of(phoneOnlyTestUser, ForConsentedUsersApi.class)
                 .resendConsentAgreement(phoneOnlyTestUser.getDefaultSubpopulation()).execute();
         assertEquals(202, response.code());
 
         // Verify message logs contains the expected message.
-        SmsMessage message = adminUser.getClient(InternalApi.class)
+        SmsMessage message = ApiClients.of(adminUser, InternalApi.class)
                 .getMostRecentSmsMessage(phoneOnlyTestUser.getUserId()).execute().body();
         assertEquals(phoneOnlyTestUser.getPhone().getNumber(), message.getPhoneNumber());
         assertNotNull(message.getMessageId());
@@ -434,14 +435,14 @@ public class ConsentTest {
         assertTrue(message.getSentOn().isAfter(DateTime.now().minusHours(1)));
 
         // Verify the health code matches.
-        StudyParticipant participant = researchUser.getClient(ForResearchersApi.class)
+        StudyParticipant participant = ApiClients.of(researchUser, ForResearchersApi.class)
                 .getParticipantById(phoneOnlyTestUser.getUserId(), false).execute().body();
         assertEquals(participant.getHealthCode(), message.getHealthCode());
 
         // Verify the SMS message log was written to health data.
         Thread.sleep(2000);
         DateTime messageSentOn = message.getSentOn();
-        List<HealthDataRecord> recordList = phoneOnlyTestUser.getClient(InternalApi.class)
+        List<HealthDataRecord> recordList = ApiClients.of(phoneOnlyTestUser, InternalApi.class)
                 .getHealthDataByCreatedOn(messageSentOn, messageSentOn).execute().body().getItems();
         HealthDataRecord smsMessageRecord = recordList.stream()
                 .filter(r -> r.getSchemaId().equals("sms-messages-sent-from-bridge")).findAny().get();
@@ -465,13 +466,13 @@ public class ConsentTest {
             UserSessionInfo session = testUser.getSession();
 
             // Can get activities without an error... user is indeed consented.
-            ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
             userApi.getScheduledActivities("+00:00", 1, null).execute();
 
             assertTrue(RestUtils.isUserConsented(session));
 
             Withdrawal withdrawal = new Withdrawal().reason("I'm just a test user.");
-            testUser.getClient(ForConsentedUsersApi.class).withdrawFromStudy(withdrawal).execute();
+            ApiClients.of(testUser, ForConsentedUsersApi.class).withdrawFromStudy(withdrawal).execute();
 
             try {
                 testUser.signInAgain();
@@ -488,7 +489,7 @@ public class ConsentTest {
         TestUser testUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true);
         String userId = testUser.getSession().getId();
         try {
-            ParticipantsApi participantsApi = researchUser.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researchUser, ParticipantsApi.class);
 
             Withdrawal withdrawal = new Withdrawal().reason("Reason for withdrawal.");
             Message message = participantsApi.withdrawParticipantFromStudy(userId, withdrawal).execute().body();
@@ -521,7 +522,7 @@ public class ConsentTest {
     @Test
     public void consentAndWithdrawFromSubpopUpdatesDataGroupsAndSubstudies() throws Exception {
         withdrawalTest((user, substudyIds, subpop) -> {
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             UserSessionInfo updatedSession = usersApi.withdrawConsentFromSubpopulation(
                     subpop.getGuid(), WITHDRAWAL).execute().body();
             
@@ -534,10 +535,10 @@ public class ConsentTest {
     @Test
     public void consentAndWithdrawFromStudyUpdatesDataGroupsAndSubstudies() throws Exception {
         withdrawalTest((user, substudyIds, subpop) -> {
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             usersApi.withdrawFromStudy(WITHDRAWAL).execute();
             
-            ParticipantsApi participantsApi = researchUser.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researchUser, ParticipantsApi.class);
 
             // verify the participant contains all the correct information
             StudyParticipant participant = participantsApi.getParticipantById(user.getUserId(), false).execute().body();
@@ -551,10 +552,10 @@ public class ConsentTest {
         Substudy substudy = null;
         Subpopulation subpop = null;
         TestUser devUser = TestUserHelper.createAndSignInUser(ConsentTest.class, true, Role.DEVELOPER);
-        SubstudiesApi substudiesApi = adminUser.getClient(SubstudiesApi.class);
-        SubpopulationsApi subpopApi = devUser.getClient(SubpopulationsApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(adminUser, SubstudiesApi.class);
+        SubpopulationsApi subpopApi = ApiClients.of(devUser, SubpopulationsApi.class);
         try {
-            StudiesApi studiesApi = devUser.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(devUser, StudiesApi.class);
             Study study = studiesApi.getUsersStudy().execute().body();
 
             String dataGroup = Iterables.getFirst(study.getDataGroups(), null);
@@ -575,7 +576,7 @@ public class ConsentTest {
 
             // create a user and consent to that subpopulation
             user = TestUserHelper.createAndSignInUser(ConsentTest.class, true);
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
             ConsentSignature sig = new ConsentSignature().name("Test User")
                     .birthdate(LocalDate.parse("2000-01-01")).scope(SharingScope.NO_SHARING);
@@ -594,10 +595,10 @@ public class ConsentTest {
             }
             // delete the subpopulation
             if (subpop != null && subpop.getGuid() != null) {
-                adminUser.getClient(SubpopulationsApi.class).deleteSubpopulation(subpop.getGuid(), true).execute();
+                ApiClients.of(adminUser, SubpopulationsApi.class).deleteSubpopulation(subpop.getGuid(), true).execute();
             }
             if (substudy != null) {
-                adminUser.getClient(SubstudiesApi.class).deleteSubstudy(substudy.getId(), true).execute();
+                ApiClients.of(adminUser, SubstudiesApi.class).deleteSubstudy(substudy.getId(), true).execute();
             }
             devUser.signOutAndDeleteUser();
         }
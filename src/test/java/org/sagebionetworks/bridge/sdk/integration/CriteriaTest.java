@@ -41,7 +41,7 @@ public class CriteriaTest {
     public void after() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
         for (String oneGuid : appConfigGuids) {
-            admin.getClient(ForAdminsApi.class).deleteAppConfig(oneGuid, true).execute();
+            ApiClients.of(admin, ForAdminsApi.class).deleteAppConfig(oneGuid, true).execute();
         }
         if (developer != null) {
             developer.signOutAndDeleteUser();    
@@ -53,7 +53,7 @@ public class CriteriaTest {
     
     @Test
     public void languageFilteringWorksByBestFit() throws IOException {
-        AppConfigsApi appConfigsApi = developer.getClient(AppConfigsApi.class);
+        AppConfigsApi appConfigsApi = ApiClients.of(developer, AppConfigsApi.class);
         
         AppConfig enAppConfig = new AppConfig().label("en app config").criteria(new Criteria().language("en"));
         AppConfig frAppConfig = new AppConfig().label("fr app config").criteria(new Criteria().language("fr"));
@@ -75,7 +75,7 @@ public class CriteriaTest {
         ApiClientProvider provider = new ApiClientProvider(user.getClientManager().getHostUrl(),
                 userAgent, acceptLanguage, STUDY_ID);
         
-        ForConsentedUsersApi userApi = provider.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(provider, ForConsentedUsersApi.class);
         AppConfig appConfig = userApi.getAppConfigForStudy(user.getStudyId()).execute().body();
         // voilà, c'est en francais
         assertEquals("fr", appConfig.getCriteria().getLanguage());
@@ -0,0 +1,84 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency of every REST call made through {@link ApiClients}, kept in one HdrHistogram per endpoint (method and path
+ * template). When the JVM exits, a p50/p90/p99/max table is logged and written to target/endpoint-latency.txt, so
+ * every integration run doubles as a latency probe of the server it ran against.
+ */
+public final class EndpointLatency {
+    private static final Logger LOG = LoggerFactory.getLogger(EndpointLatency.class);
+
+    public static final String REPORT_FILE_PROPERTY = "endpointLatency.report";
+    private static final String DEFAULT_REPORT_FILE = "target/endpoint-latency.txt";
+    // Values are recorded in microseconds; three significant digits is well below network jitter.
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(EndpointLatency::writeReport, "endpoint-latency-report"));
+    }
+
+    private EndpointLatency() {
+    }
+
+    public static void record(String endpoint, long elapsedNanos) {
+        HISTOGRAMS.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(SIGNIFICANT_DIGITS))
+                .recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    /** Snapshot of the histograms recorded so far, by endpoint. Values are in microseconds. */
+    public static Map<String, Histogram> getHistograms() {
+        Map<String, Histogram> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().copy());
+        }
+        return snapshot;
+    }
+
+    private static void writeReport() {
+        Map<String, Histogram> histograms = getHistograms();
+        if (histograms.isEmpty()) {
+            return;
+        }
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-80s %7s %9s %9s %9s %9s%n", "endpoint", "count", "p50 ms", "p90 ms", "p99 ms",
+                "max ms"));
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(String.format("%-80s %7d %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    histogram.getTotalCount(), millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getMaxValue())));
+        }
+        LOG.info("Endpoint latency:\n" + report);
+
+        File file = new File(System.getProperty(REPORT_FILE_PROPERTY, DEFAULT_REPORT_FILE));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.print(report);
+        } catch (IOException e) {
+            LOG.error("Could not write endpoint latency report to " + file, e);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
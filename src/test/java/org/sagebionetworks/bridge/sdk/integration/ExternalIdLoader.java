@@ -0,0 +1,71 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.sagebionetworks.bridge.rest.api.ExternalIdentifiersApi;
+import org.sagebionetworks.bridge.rest.model.ExternalIdentifier;
+
+/**
+ * Bulk loader for external IDs, the way a study launch imports them: creates IDs on a bounded pool of threads. The
+ * IDs are taken from an iterator as threads free up and the work queue is bounded, so 100k+ IDs never sit in memory
+ * as pending tasks; when the queue is full the caller creates the next ID itself. Failures are counted and logged,
+ * not thrown, so one bad ID doesn't abort an import.
+ */
+public class ExternalIdLoader {
+    private final ExternalIdentifiersApi externalIdsApi;
+    private final int threads;
+
+    public ExternalIdLoader(ExternalIdentifiersApi externalIdsApi, int threads) {
+        this.externalIdsApi = externalIdsApi;
+        this.threads = threads;
+    }
+
+    /**
+     * Creates every ID and returns the ones that were created. Records "createExternalId" latency and counts
+     * "created" and {@link LoadMetrics#countError errors} in the given metrics.
+     */
+    public List<ExternalIdentifier> load(Iterator<ExternalIdentifier> externalIds, LoadMetrics metrics)
+            throws InterruptedException {
+        Queue<ExternalIdentifier> created = new ConcurrentLinkedQueue<>();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                new ThreadFactoryBuilder().setNameFormat("external-id-loader-%d").build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            while (externalIds.hasNext()) {
+                ExternalIdentifier externalId = externalIds.next();
+                executor.execute(() -> {
+                    if (create(externalId, metrics)) {
+                        created.add(externalId);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+        return new ArrayList<>(created);
+    }
+
+    private boolean create(ExternalIdentifier externalId, LoadMetrics metrics) {
+        long start = System.nanoTime();
+        try {
+            externalIdsApi.createExternalId(externalId).execute();
+            metrics.record("createExternalId", System.nanoTime() - start);
+            metrics.count("created");
+            return true;
+        } catch (Exception e) {
+            metrics.countError("Could not create external ID " + externalId.getIdentifier(), e);
+        }
+        return false;
+    }
+}
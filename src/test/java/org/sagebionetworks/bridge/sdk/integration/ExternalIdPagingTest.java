@@ -0,0 +1,212 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.common.collect.ImmutableMap;
+import org.HdrHistogram.Histogram;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ExternalIdentifiersApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForResearchersApi;
+import org.sagebionetworks.bridge.rest.model.ExternalIdentifier;
+import org.sagebionetworks.bridge.rest.model.ExternalIdentifierList;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Substudy;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * External ID paging at launch-import volumes. Bulk loads -DexternalIdPaging.count IDs (100k+ for a realistic import)
+ * spread across -DexternalIdPaging.substudies new substudies with {@link ExternalIdLoader}, then walks getExternalIds
+ * end to end for each page size (-DexternalIdPaging.pageSizes) and ID filter. Per-page latency is bucketed by depth
+ * (IDs already paged past, by powers of ten) so the curve shows whether offset-key paging stays flat or degrades the
+ * deeper the walk goes. The curve is written to target/scaling/external-id-paging.tsv. A second test times a walk
+ * with per-ID processing serially and with a prefetching {@link PageIterator}.
+ *
+ * Deleting the IDs takes about as long as creating them; -Dteardown.deferred=true takes it off the test's time.
+ */
+@Category(LoadTest.class)
+@ResourceLock(ResourceLock.API_STUDY)
+public class ExternalIdPagingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ExternalIdPagingTest.class);
+
+    private static final int COUNT = Integer.getInteger("externalIdPaging.count", 10000);
+    private static final int SUBSTUDIES = Integer.getInteger("externalIdPaging.substudies", 4);
+    private static final int THREADS = Integer.getInteger("externalIdPaging.threads", 16);
+    private static final List<Integer> PAGE_SIZES = ScalingCurve.getSweep("externalIdPaging.pageSizes", "10,50,100");
+    private static final int PROCESS_MICROS = Integer.getInteger("externalIdPaging.processMicros", 200);
+
+    private static String prefix;
+    private static TestUser admin;
+    private static TestUser researcher;
+    private static int loaded;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        prefix = RandomStringUtils.randomAlphabetic(5);
+        admin = TestUserHelper.getSignedInAdmin();
+        researcher = TestUserPool.lease(false, Role.RESEARCHER);
+
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
+        List<String> substudyIds = new ArrayList<>();
+        for (int i = 0; i < SUBSTUDIES; i++) {
+            String substudyId = Tests.randomIdentifier(ExternalIdPagingTest.class);
+            adminApi.createSubstudy(new Substudy().id(substudyId).name("Substudy " + substudyId)).execute();
+            Teardown.register(ExternalIdPagingTest.class, Teardown.Stage.SUBSTUDY, "substudy " + substudyId,
+                    () -> adminApi.deleteSubstudy(substudyId, true).execute());
+            substudyIds.add(substudyId);
+        }
+
+        // IDs are generated as the loader asks for them, so the whole import is never held in memory.
+        Iterator<ExternalIdentifier> externalIds = new Iterator<ExternalIdentifier>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < COUNT;
+            }
+
+            @Override
+            public ExternalIdentifier next() {
+                String substudyId = substudyIds.get(next % substudyIds.size());
+                return new ExternalIdentifier().identifier(prefix + "-" + next++).substudyId(substudyId);
+            }
+        };
+        LoadMetrics metrics = new LoadMetrics("External ID bulk load, " + COUNT + " IDs, " + THREADS + " threads");
+        ExternalIdLoader loader = new ExternalIdLoader(ApiClients.of(researcher, ExternalIdentifiersApi.class),
+                THREADS);
+        for (ExternalIdentifier externalId : loader.load(externalIds, metrics)) {
+            Teardown.register(ExternalIdPagingTest.class, Teardown.Stage.ENTITY, "external ID "
+                    + externalId.getIdentifier(), () -> adminApi.deleteExternalId(externalId.getIdentifier())
+                    .execute());
+        }
+        metrics.log();
+        loaded = (int) metrics.getCount("created");
+    }
+
+    @AfterClass
+    public static void deleteEntities() throws Exception {
+        Teardown.run(ExternalIdPagingTest.class);
+    }
+
+    @AfterClass
+    public static void releaseResearcher() throws Exception {
+        TestUserPool.release(researcher);
+    }
+
+    @Test
+    public void pagingScaling() throws Exception {
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
+
+        // "-1" matches IDs whose index starts with 1: about a ninth of them, spread through the whole range.
+        Map<String, String> filters = new LinkedHashMap<>();
+        filters.put("prefix", prefix + "-");
+        filters.put("narrow prefix", prefix + "-1");
+
+        ScalingCurve curve = new ScalingCurve("external-id-paging");
+        for (int pageSize : PAGE_SIZES) {
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                LoadMetrics metrics = new LoadMetrics("External ID paging, " + filter.getKey() + ", pageSize "
+                        + pageSize);
+                // Depth bucket (IDs paged past, rounded down to a power of ten) to per-page latency.
+                Map<Long, Histogram> byDepth = new TreeMap<>();
+                long depth = 0;
+                String offsetKey = null;
+                do {
+                    long start = System.nanoTime();
+                    ExternalIdentifierList page = researcherApi.getExternalIds(offsetKey, pageSize, filter.getValue(),
+                            null).execute().body();
+                    long elapsed = System.nanoTime() - start;
+                    long bucket = getDepthBucket(depth);
+                    metrics.record("page at depth " + bucket, elapsed);
+                    byDepth.put(bucket, metrics.histogram("page at depth " + bucket));
+                    metrics.count("pages");
+                    depth += page.getItems().size();
+                    offsetKey = page.getNextPageOffsetKey();
+                } while (offsetKey != null);
+                metrics.count("IDs", depth);
+                metrics.log();
+
+                for (Map.Entry<Long, Histogram> entry : byDepth.entrySet()) {
+                    curve.add(ImmutableMap.of("IDs", loaded, "pageSize", pageSize, "filter", filter.getKey(),
+                            "depth", entry.getKey()), entry.getValue());
+                }
+                if (filter.getKey().equals("prefix")) {
+                    assertEquals("Walk should see every loaded ID", loaded, depth);
+                }
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+    }
+
+    /**
+     * A batch job's walk: every ID is processed (-DexternalIdPaging.processMicros of busy work each) as it is read,
+     * first page by page, then through a {@link PageIterator} that fetches ahead while the current page is processed.
+     */
+    @Test
+    public void prefetchingWalk() throws Exception {
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
+        int pageSize = PAGE_SIZES.get(PAGE_SIZES.size() - 1);
+        LoadMetrics metrics = new LoadMetrics("External ID walk with processing, pageSize " + pageSize + ", "
+                + PROCESS_MICROS + " us per ID");
+
+        long start = System.nanoTime();
+        long serialCount = 0;
+        String offsetKey = null;
+        do {
+            ExternalIdentifierList page = researcherApi.getExternalIds(offsetKey, pageSize, prefix + "-", null)
+                    .execute().body();
+            for (ExternalIdentifier externalId : page.getItems()) {
+                process(externalId);
+                serialCount++;
+            }
+            offsetKey = page.getNextPageOffsetKey();
+        } while (offsetKey != null);
+        metrics.record("serial walk", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        long prefetchCount = 0;
+        try (PageIterator<ExternalIdentifier> externalIds = PageIterator.ofOffsetKeys(
+                key -> researcherApi.getExternalIds(key, pageSize, prefix + "-", null).execute().body(),
+                ExternalIdentifierList::getItems, ExternalIdentifierList::getNextPageOffsetKey)) {
+            while (externalIds.hasNext()) {
+                process(externalIds.next());
+                prefetchCount++;
+            }
+        }
+        metrics.record("prefetching walk", System.nanoTime() - start);
+        metrics.log();
+
+        assertEquals(loaded, serialCount);
+        assertEquals(loaded, prefetchCount);
+    }
+
+    private static void process(ExternalIdentifier externalId) {
+        long end = System.nanoTime() + PROCESS_MICROS * 1000L;
+        while (System.nanoTime() < end) {
+            // Stands in for per-record work in a batch job.
+        }
+    }
+
+    private static long getDepthBucket(long depth) {
+        long bucket = 1;
+        while (bucket * 10 <= depth) {
+            bucket *= 10;
+        }
+        return (depth == 0) ? 0 : bucket;
+    }
+}
@@ -39,14 +39,14 @@ public class ExternalIdSignUpTest {
     @Before
     public void before() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
-        adminClient = admin.getClient(ForAdminsApi.class);
+        adminClient = ApiClients.of(admin, ForAdminsApi.class);
         
         devResearcher = TestUserHelper.createAndSignInUser(ExternalIdSignUpTest.class, false, Role.DEVELOPER, Role.RESEARCHER);
         externalId1 = Tests.randomIdentifier(ExternalIdSignUpTest.class);
         externalId2 = Tests.randomIdentifier(ExternalIdSignUpTest.class);
         externalId3 = Tests.randomIdentifier(ExternalIdSignUpTest.class);
-        devIdsClient = devResearcher.getClient(ExternalIdentifiersApi.class);
-        researchersClient = devResearcher.getClient(ForResearchersApi.class);        
+        devIdsClient = ApiClients.of(devResearcher, ExternalIdentifiersApi.class);
+        researchersClient = ApiClients.of(devResearcher, ForResearchersApi.class);        
         authClient = TestUserHelper.getNonAuthClient(AuthenticationApi.class, IntegTestUtils.STUDY_ID);
     }
     
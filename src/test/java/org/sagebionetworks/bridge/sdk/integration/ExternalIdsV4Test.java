@@ -38,6 +38,7 @@ import com.google.common.collect.Lists;
 
 import retrofit2.Response;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class ExternalIdsV4Test {
 
     private String prefix;
@@ -65,8 +66,8 @@ public class ExternalIdsV4Test {
         final String extIdB1 = prefix+Tests.randomIdentifier(ExternalIdsV4Test.class);
         final String extIdB2 = prefix+Tests.randomIdentifier(ExternalIdsV4Test.class);
 
-        ForAdminsApi adminClient = admin.getClient(ForAdminsApi.class);
-        ForResearchersApi researcherApi = researcher.getClient(ForResearchersApi.class);
+        ForAdminsApi adminClient = ApiClients.of(admin, ForAdminsApi.class);
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
         String userId = null;
         try {
             Study study = adminClient.getUsersStudy().execute().body();
@@ -117,7 +118,7 @@ public class ExternalIdsV4Test {
             SignUp signUp = new SignUp().study(IntegTestUtils.STUDY_ID);
             signUp.setPassword(Tests.PASSWORD);
             signUp.setExternalId(extIdA);
-            researcher.getClient(AuthenticationApi.class).signUp(signUp).execute();
+            ApiClients.of(researcher, AuthenticationApi.class).signUp(signUp).execute();
 
             // The created account has been associated to the external ID and its related substudy
             StudyParticipant participant = researcherApi.getParticipantByExternalId(extIdA, false).execute().body();
@@ -129,7 +130,7 @@ public class ExternalIdsV4Test {
             assertTrue(participant.getExternalIds().values().contains(extIdA));
 
             // Cannot create another user with this external ID. This should do nothing and fail quietly.
-            Response<Message> response = researcher.getClient(AuthenticationApi.class).signUp(signUp).execute();
+            Response<Message> response = ApiClients.of(researcher, AuthenticationApi.class).signUp(signUp).execute();
             assertEquals(201, response.code());
 
             StudyParticipant participant2 = researcherApi.getParticipantByExternalId(extIdA, false).execute().body();
@@ -163,7 +164,7 @@ public class ExternalIdsV4Test {
             ClientManager userManager = new ClientManager.Builder().withSignIn(signIn).build();
             
             IdentifierUpdate identifierUpdate = new IdentifierUpdate().signIn(signIn).externalIdUpdate(extIdB2);
-            userManager.getClient(ParticipantsApi.class).updateUsersIdentifiers(identifierUpdate).execute();
+            ApiClients.of(userManager, ParticipantsApi.class).updateUsersIdentifiers(identifierUpdate).execute();
 
             StudyParticipant found1 = researcherApi.getParticipantByExternalId(extIdA, false).execute().body();
             StudyParticipant found2 = researcherApi.getParticipantByExternalId(extIdB2, false).execute().body();
@@ -197,8 +198,8 @@ public class ExternalIdsV4Test {
             ids.add(id);
         }
         
-        ForAdminsApi adminClient = admin.getClient(ForAdminsApi.class);
-        ForResearchersApi researcherApi = researcher.getClient(ForResearchersApi.class);
+        ForAdminsApi adminClient = ApiClients.of(admin, ForAdminsApi.class);
+        ForResearchersApi researcherApi = ApiClients.of(researcher, ForResearchersApi.class);
         TestUser user = null;
         try {
             // Create substudy
@@ -257,7 +258,7 @@ public class ExternalIdsV4Test {
                     .withRoles(Role.RESEARCHER, Role.DEVELOPER)
                     .withConsentUser(true).withSignUp(signUp).createAndSignInUser();
             
-            ForResearchersApi scopedResearcherApi = user.getClient(ForResearchersApi.class);
+            ForResearchersApi scopedResearcherApi = ApiClients.of(user, ForResearchersApi.class);
             ExternalIdentifierList scopedList = scopedResearcherApi.getExternalIds(null, null, null, null)
                     .execute().body();
             
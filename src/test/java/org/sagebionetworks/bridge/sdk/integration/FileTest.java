@@ -43,7 +43,7 @@ public class FileTest {
     public void after() throws Exception {
         // in case of earlier test failure, clean up
         if (metadata != null && metadata.getGuid() != null) {
-            ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+            ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
             try {
                 adminsApi.deleteFile(metadata.getGuid(), true).execute();    
             } catch(EntityNotFoundException e) {
@@ -61,7 +61,7 @@ public class FileTest {
         metadata.setDescription("TestFile Description");
         metadata.setDeleted(true);
         
-        ForDevelopersApi devsApi = developer.getClient(ForDevelopersApi.class);
+        ForDevelopersApi devsApi = ApiClients.of(developer, ForDevelopersApi.class);
         
         final GuidVersionHolder keys = devsApi.createFile(metadata).execute().body();
         metadata.setGuid(keys.getGuid());
@@ -116,7 +116,7 @@ public class FileTest {
         assertTrue(list.getItems().stream().anyMatch((file -> file.getGuid().equals(keys.getGuid()))));
         
         // physically delete
-        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         adminsApi.deleteFile(keys.getGuid(), true).execute();        
         
         // it's really deleted
@@ -136,13 +136,13 @@ public class FileTest {
             metadata.setDescription("TestFile Description");
             metadata.setDeleted(true);
             
-            ForDevelopersApi devsApi = developer.getClient(ForDevelopersApi.class);
+            ForDevelopersApi devsApi = ApiClients.of(developer, ForDevelopersApi.class);
             
             final GuidVersionHolder keys = devsApi.createFile(metadata).execute().body();
             metadata.setGuid(keys.getGuid());
             metadata.setVersion(keys.getVersion());
     
-            FilesApi filesApi = developer.getClient(FilesApi.class);
+            FilesApi filesApi = ApiClients.of(developer, FilesApi.class);
             File file = new File("src/test/resources/file-test/test.pdf");
             String url = RestUtils.uploadHostedFileToS3(filesApi, metadata.getGuid(), file);
             
@@ -166,7 +166,7 @@ public class FileTest {
             
         } finally {
             if (metadata != null) {
-                ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+                ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
                 adminsApi.deleteFile(metadata.getGuid(), true).execute();        
             }
         }
@@ -0,0 +1,280 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.HealthDataApi;
+import org.sagebionetworks.bridge.rest.api.InternalApi;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.api.UploadSchemasApi;
+import org.sagebionetworks.bridge.rest.model.DataType;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.HealthDataRecord;
+import org.sagebionetworks.bridge.rest.model.HealthDataSubmission;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.StringConstraints;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.rest.model.SurveyQuestion;
+import org.sagebionetworks.bridge.rest.model.UIHint;
+import org.sagebionetworks.bridge.rest.model.UploadFieldDefinition;
+import org.sagebionetworks.bridge.rest.model.UploadFieldType;
+import org.sagebionetworks.bridge.rest.model.UploadSchema;
+import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Health data submission throughput, at the rate passive-data apps push. HealthDataTest submits one record at a time;
+ * this submits at a constant target rate (-DhealthDataLoad.rate per second, for -DhealthDataLoad.seconds) spread over
+ * -DhealthDataLoad.users consented users, against an upload schema and against a survey, for each data map size in
+ * -DhealthDataLoad.dataSizes. Arrivals are open-loop, as in {@link SignInStormTest}, so accepted-record latency is
+ * measured from when each submission was due.
+ *
+ * After each point, every user's records are read back with getHealthDataByCreatedOn until all the accepted record IDs
+ * are there (or the wait times out), and records that never landed are counted as "missing". The curve is written to
+ * target/scaling/health-data-load.tsv.
+ */
+@Category(LoadTest.class)
+public class HealthDataLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(HealthDataLoadTest.class);
+
+    private static final int USERS = Integer.getInteger("healthDataLoad.users", 10);
+    private static final int RATE_PER_SECOND = Integer.getInteger("healthDataLoad.rate", 30);
+    private static final int SECONDS = Integer.getInteger("healthDataLoad.seconds", 20);
+    private static final int THREADS = Integer.getInteger("healthDataLoad.threads", 64);
+    private static final List<Integer> DATA_SIZES = ScalingCurve.getSweep("healthDataLoad.dataSizes", "1,10,50");
+
+    private static final String APP_VERSION = "version 1.0.0, build 2";
+    private static final String PHONE_INFO = "Integration Tests";
+    private static final long SCHEMA_REV = 1L;
+    // Record indexes are eventually consistent, and they fall further behind the harder they're written.
+    private static final long VERIFY_TIMEOUT_MILLISECONDS = 120000;
+
+    private static TestUser admin;
+    private static TestUser developer;
+    private static List<TestUser> users = new ArrayList<>();
+    private static String schemaId;
+    private static String surveyGuid;
+    private static DateTime surveyCreatedOn;
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+        int maxFields = DATA_SIZES.stream().mapToInt(Integer::intValue).max().orElse(1);
+
+        // A schema and a survey wide enough for the largest data map. Fields are optional, so smaller maps validate.
+        schemaId = Tests.randomIdentifier(HealthDataLoadTest.class);
+        UploadSchema schema = new UploadSchema();
+        schema.setSchemaId(schemaId);
+        schema.setRevision(SCHEMA_REV);
+        schema.setName("Health Data Load Test Schema");
+        schema.setSchemaType(UploadSchemaType.IOS_DATA);
+        for (int i = 0; i < maxFields; i++) {
+            schema.addFieldDefinitionsItem(new UploadFieldDefinition().name("field" + i).required(false)
+                    .type(UploadFieldType.STRING).maxLength(24));
+        }
+        ApiClients.of(developer, UploadSchemasApi.class).createUploadSchema(schema).execute();
+        registerSchemaDeletion(schemaId);
+
+        Survey survey = new Survey().name("Health Data Load Test Survey")
+                .identifier(Tests.randomIdentifier(HealthDataLoadTest.class));
+        for (int i = 0; i < maxFields; i++) {
+            StringConstraints constraints = new StringConstraints();
+            constraints.setDataType(DataType.STRING);
+            constraints.setMaxLength(24);
+
+            SurveyQuestion question = new SurveyQuestion();
+            question.setIdentifier("answer" + i);
+            question.setConstraints(constraints);
+            question.setPrompt("Answer " + i + ":");
+            question.setUiHint(UIHint.TEXTFIELD);
+            survey.addElementsItem(question);
+        }
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
+        GuidCreatedOnVersionHolder surveyKeys = surveysApi.createSurvey(survey).execute().body();
+        surveyGuid = surveyKeys.getGuid();
+        surveyCreatedOn = surveyKeys.getCreatedOn();
+        Teardown.register(HealthDataLoadTest.class, Teardown.Stage.ENTITY, "survey " + surveyGuid,
+                () -> ApiClients.of(admin, SurveysApi.class).deleteSurvey(surveyGuid, surveyCreatedOn, true)
+                        .execute());
+        // Publishing creates the survey's schema, under the survey identifier.
+        surveysApi.publishSurvey(surveyGuid, surveyCreatedOn, false).execute();
+        registerSchemaDeletion(survey.getIdentifier());
+
+        executor = LoadThreads.newExecutor("health-data-load-%d", THREADS);
+        List<Future<TestUser>> futures = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            futures.add(executor.submit(() -> {
+                TestUser user = TestUserHelper.createAndSignInUser(HealthDataLoadTest.class, true);
+                Teardown.register(HealthDataLoadTest.class, user);
+                return user;
+            }));
+        }
+        for (Future<TestUser> future : futures) {
+            users.add(future.get());
+        }
+    }
+
+    @AfterClass
+    public static void deleteEntities() throws Exception {
+        Teardown.run(HealthDataLoadTest.class);
+    }
+
+    @AfterClass
+    public static void releaseDeveloper() throws Exception {
+        TestUserPool.release(developer);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void submissionThroughput() throws Exception {
+        ScalingCurve curve = new ScalingCurve("health-data-load");
+        long missing = 0;
+        for (String target : new String[] { "schema", "survey" }) {
+            for (int dataSize : DATA_SIZES) {
+                LoadMetrics metrics = new LoadMetrics("Health data load, " + target + ", " + dataSize
+                        + " fields, " + USERS + " users at " + RATE_PER_SECOND + "/s for " + SECONDS + " s");
+                missing += runPoint(target, dataSize, metrics);
+                metrics.log();
+                // Over the submit phase only; the run's wall time also includes verification.
+                double acceptedRate = metrics.getCount("accepted") / (metrics.getCount("submit nanos") / 1e9);
+                LOG.info(String.format("Accepted %.1f records/s against a target of %d/s", acceptedRate,
+                        RATE_PER_SECOND));
+                curve.add(new ImmutableMap.Builder<String, Object>()
+                        .put("target", target)
+                        .put("dataSize", dataSize)
+                        .put("users", USERS)
+                        .put("rate", RATE_PER_SECOND)
+                        .put("accepted/s", acceptedRate)
+                        .put("missing", metrics.getCount("missing"))
+                        .build(), metrics.histogram("latency"));
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+        assertEquals("Accepted records missing from getHealthDataByCreatedOn", 0, missing);
+    }
+
+    /** Submits at the target rate, then verifies every accepted record landed. Returns the number missing. */
+    private static long runPoint(String target, int dataSize, LoadMetrics metrics) throws Exception {
+        Map<String, String> data = new HashMap<>();
+        for (int i = 0; i < dataSize; i++) {
+            data.put((target.equals("schema") ? "field" : "answer") + i, "value " + i);
+        }
+        // Accepted record IDs by user, and the createdOn range to read them back with.
+        Map<TestUser, Set<String>> accepted = new ConcurrentHashMap<>();
+        for (TestUser user : users) {
+            accepted.put(user, ConcurrentHashMap.newKeySet());
+        }
+        DateTime rangeStart = DateTime.now(DateTimeZone.UTC);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE_PER_SECOND;
+        int requests = RATE_PER_SECOND * SECONDS;
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            TestUser user = users.get(i % users.size());
+            HealthDataSubmission submission = new HealthDataSubmission().appVersion(APP_VERSION)
+                    .createdOn(DateTime.now(DateTimeZone.UTC)).data(data).phoneInfo(PHONE_INFO);
+            if (target.equals("schema")) {
+                submission.schemaId(schemaId).schemaRevision(SCHEMA_REV);
+            } else {
+                submission.surveyGuid(surveyGuid).surveyCreatedOn(surveyCreatedOn);
+            }
+            futures.add(executor.submit(() -> submit(user, submission, due, accepted.get(user), metrics)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        metrics.count("submit nanos", System.nanoTime() - start);
+        DateTime rangeEnd = DateTime.now(DateTimeZone.UTC);
+        assertTrue("No submissions were accepted", metrics.getCount("accepted") > 0);
+
+        // Users are verified concurrently, so one slow index costs one timeout rather than one per user.
+        long verifyStart = System.nanoTime();
+        List<Future<Long>> verifications = new ArrayList<>(accepted.size());
+        for (Map.Entry<TestUser, Set<String>> entry : accepted.entrySet()) {
+            verifications.add(executor.submit(() -> verify(entry.getKey(), entry.getValue(), rangeStart, rangeEnd)));
+        }
+        for (Future<Long> verification : verifications) {
+            metrics.count("missing", verification.get());
+        }
+        metrics.record("verify", System.nanoTime() - verifyStart);
+        return metrics.getCount("missing");
+    }
+
+    private static void submit(TestUser user, HealthDataSubmission submission, long due, Set<String> accepted,
+            LoadMetrics metrics) {
+        long sent = System.nanoTime();
+        try {
+            HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute()
+                    .body();
+            long done = System.nanoTime();
+            metrics.record("latency", done - due);
+            metrics.record("service", done - sent);
+            metrics.count("accepted");
+            accepted.add(record.getId());
+        } catch (Exception e) {
+            metrics.record("error latency", System.nanoTime() - due);
+            metrics.countError("Submitting health data failed", e);
+        }
+    }
+
+    /** Reads the user's records back until all the accepted IDs are there. Returns how many never showed up. */
+    private static long verify(TestUser user, Set<String> acceptedIds, DateTime rangeStart, DateTime rangeEnd)
+            throws Exception {
+        InternalApi internalApi = ApiClients.of(user, InternalApi.class);
+        Set<String> landedIds = new HashSet<>();
+        try {
+            Await.poll("health data by createdOn").timeout(VERIFY_TIMEOUT_MILLISECONDS).until(() -> {
+                landedIds.addAll(internalApi.getHealthDataByCreatedOn(rangeStart, rangeEnd).execute().body()
+                        .getItems().stream().map(HealthDataRecord::getId).collect(Collectors.toSet()));
+                return landedIds;
+            }, ids -> ids.containsAll(acceptedIds));
+        } catch (AssertionError e) {
+            LOG.warn("Records for " + user.getEmail() + " never all landed: " + e.getMessage());
+        }
+        return acceptedIds.stream().filter(id -> !landedIds.contains(id)).count();
+    }
+
+    private static void registerSchemaDeletion(String id) {
+        Teardown.register(HealthDataLoadTest.class, Teardown.Stage.DEPENDENT_ENTITY, "upload schema " + id,
+                () -> ApiClients.of(admin, ForAdminsApi.class).deleteAllRevisionsOfUploadSchema(id, true).execute());
+    }
+}
@@ -54,6 +54,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 
 @Category(IntegrationSmokeTest.class)
 @SuppressWarnings({ "ConstantConditions", "unchecked" })
+@ResourceLock(ResourceLock.API_STUDY)
 public class HealthDataTest {
     private static final String APP_VERSION = "version 1.0.0, build 2";
     private static final DateTimeZone CREATED_ON_TIMEZONE = DateTimeZone.forOffsetHours(9);
@@ -75,10 +76,10 @@ public class HealthDataTest {
     @BeforeClass
     public static void beforeClass() throws Exception {
         developer = TestUserHelper.createAndSignInUser(HealthDataTest.class, false, Role.DEVELOPER);
-        studiesApi = developer.getClient(StudiesApi.class);
+        studiesApi = ApiClients.of(developer, StudiesApi.class);
 
         // Ensure schema exists, so we have something to submit against.
-        UploadSchemasApi uploadSchemasApi = developer.getClient(UploadSchemasApi.class);
+        UploadSchemasApi uploadSchemasApi = ApiClients.of(developer, UploadSchemasApi.class);
         UploadSchema schema = null;
         try {
             schema = uploadSchemasApi.getUploadSchema(SCHEMA_ID, SCHEMA_REV).execute().body();
@@ -135,7 +136,7 @@ public class HealthDataTest {
                     .addElementsItem(question);
 
             // Create and publish the survey and get its guid/createdOn.
-            SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+            SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
             GuidCreatedOnVersionHolder surveyKeys = surveysApi.createSurvey(survey).execute().body();
             surveysApi.publishSurvey(surveyKeys.getGuid(), surveyKeys.getCreatedOn(), false).execute();
 
@@ -168,7 +169,7 @@ public class HealthDataTest {
         externalIdentifier = Tests.createExternalId(HealthDataTest.class, developer, SUBSTUDY_ID_1);
         user = new TestUserHelper.Builder(UploadTest.class).withExternalId(externalIdentifier.getIdentifier())
                 .withConsentUser(true).createAndSignInUser();
-        ParticipantsApi participantsApi = user.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(user, ParticipantsApi.class);
 
         StudyParticipant participant = participantsApi.getUsersParticipantRecord(false).execute().body();
         participant.setDataGroups(ImmutableList.of("group1"));
@@ -221,7 +222,7 @@ public class HealthDataTest {
                 .data(data).metadata(metadata).phoneInfo(PHONE_INFO).schemaId(SCHEMA_ID).schemaRevision(SCHEMA_REV);
 
         // submit and validate
-        HealthDataRecord record = user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+        HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
         assertEquals(APP_VERSION, record.getAppVersion());
         assertNotNull(record.getId());
         assertEquals(1, record.getDayInStudy().intValue());
@@ -261,7 +262,7 @@ public class HealthDataTest {
 
         // We can get the record back from the API.
         Thread.sleep(2000);
-        List<HealthDataRecord> recordList = user.getClient(InternalApi.class).getHealthDataByCreatedOn(createdOn,
+        List<HealthDataRecord> recordList = ApiClients.of(user, InternalApi.class).getHealthDataByCreatedOn(createdOn,
                 createdOn).execute().body().getItems();
         HealthDataRecord returnedRecord = recordList.stream().filter(r -> r.getSchemaId().equals(SCHEMA_ID)).findAny()
                 .get();
@@ -278,7 +279,7 @@ public class HealthDataTest {
 
         // submit and validate - Most of the record attributes are already validated in the previous test. Just
         // validate survey ID was set properly as the schema ID and that the data is correct.
-        HealthDataRecord record = user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+        HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
         assertEquals(SURVEY_ID, record.getSchemaId());
         assertNotNull(record.getSchemaRevision());
 
@@ -302,7 +303,7 @@ public class HealthDataTest {
 
         // submit and validate - Most of the record attributes are already validated in previous tests. Just validate
         // that the record was successfully submitted, has no schema, and has raw data.
-        HealthDataRecord record = user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+        HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
         assertNotNull(record);
         assertNull(record.getSchemaId());
         assertNull(record.getSchemaRevision());
@@ -319,7 +320,7 @@ public class HealthDataTest {
 
         // submit and validate - Most of the record attributes are already validated in the previous test. Just
         // validate survey ID was set properly as the schema ID and that the data is correct.
-        HealthDataRecord record = developer.getClient(InternalApi.class).submitHealthDataForParticipant(
+        HealthDataRecord record = ApiClients.of(developer, InternalApi.class).submitHealthDataForParticipant(
                 user.getUserId(), submission).execute().body();
         assertEquals(SURVEY_ID, record.getSchemaId());
         assertNotNull(record.getSchemaRevision());
@@ -331,7 +332,7 @@ public class HealthDataTest {
 
         // User can get the health data too.
         Thread.sleep(2000);
-        List<HealthDataRecord> recordList = user.getClient(InternalApi.class).getHealthDataByCreatedOn(createdOn,
+        List<HealthDataRecord> recordList = ApiClients.of(user, InternalApi.class).getHealthDataByCreatedOn(createdOn,
                 createdOn).execute().body().getItems();
         HealthDataRecord returnedRecord = recordList.stream().filter(r -> r.getSchemaId().equals(SURVEY_ID)).findAny()
                 .get();
@@ -349,7 +350,7 @@ public class HealthDataTest {
 
         // submit and catch exception
         try {
-            user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+            ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
             fail("expected exception");
         } catch (BadRequestException ex) {
             assertTrue(ex.getMessage().contains("Required attachment field bar missing"));
@@ -367,7 +368,7 @@ public class HealthDataTest {
 
         // submit and validate - Most of the record attributes are already validated in the previous test. Just
         // validate data and validationErrors.
-        HealthDataRecord record = user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+        HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
         assertTrue(record.getValidationErrors().contains("Required attachment field bar missing"));
 
         Map<String, String> returnedDataMap = RestUtils.toType(record.getData(), Map.class);
@@ -386,7 +387,7 @@ public class HealthDataTest {
 
         // submit and validate - Most of the record attributes are already validated in the previous test. Just
         // validate data and validate that it has no validationErrors.
-        HealthDataRecord record = user.getClient(HealthDataApi.class).submitHealthData(submission).execute().body();
+        HealthDataRecord record = ApiClients.of(user, HealthDataApi.class).submitHealthData(submission).execute().body();
         assertNull(record.getValidationErrors());
 
         Map<String, String> returnedDataMap = RestUtils.toType(record.getData(), Map.class);
@@ -9,7 +9,6 @@ import org.apache.http.client.fluent.Request;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -43,11 +42,11 @@ public class HttpTest {
     @Test
     @Ignore
     public void testPreflight() throws Exception {
-        HttpResponse response = Request.Options(testBaseUrl+"/v3/studies?summary=true")
+        HttpResponse response = RawHttp.execute(Request.Options(testBaseUrl+"/v3/studies?summary=true")
             .setHeader(ACCESS_CONTROL_REQUEST_HEADERS, "accept, content-type")
             .setHeader(ACCESS_CONTROL_REQUEST_METHOD, "POST")
             .setHeader(ORIGIN, "https://some.remote.server.org")
-            .connectTimeout(TIMEOUT).execute().returnResponse();
+            .connectTimeout(TIMEOUT)).returnResponse();
         assertEquals(200, response.getStatusLine().getStatusCode());
         
         assertEquals("Should echo back the origin",
@@ -60,11 +59,11 @@ public class HttpTest {
 
     @Test
     public void testCors() throws Exception {
-        HttpResponse response = Request.Get(testBaseUrl+"/")
+        HttpResponse response = RawHttp.execute(Request.Get(testBaseUrl+"/")
                 .setHeader(ORIGIN, "https://some.remote.server.org")
                 .setHeader(REFERER, "https://some.remote.server.org")
-                .connectTimeout(TIMEOUT)
-                .execute().returnResponse();
+                .connectTimeout(TIMEOUT))
+                .returnResponse();
         assertEquals(200, response.getStatusLine().getStatusCode());
     }
 
@@ -75,7 +74,7 @@ public class HttpTest {
         if (TestUserHelper.getSignedInAdmin().getClientManager().getConfig().getEnvironment() != Environment.LOCAL) {
             
             // You can't use the fluent API because it doesn't allow you to observe redirects.
-            CloseableHttpClient httpclient = HttpClients.custom().disableRedirectHandling().build();
+            CloseableHttpClient httpclient = RawHttp.newClientBuilder().disableRedirectHandling().build();
             
             HttpGet httpGet = new HttpGet(testBaseUrl.replace("https","http")+"/");
             CloseableHttpResponse response = httpclient.execute(httpGet);
@@ -33,6 +33,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class IntentToParticipateTest {
     private TestUser admin;
     private TestUser researcher;
@@ -44,7 +45,7 @@ public class IntentToParticipateTest {
         IntegTestUtils.deletePhoneUser(researcher);
 
         // Add dummy install link to trigger Intent SMS.
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getUsersStudy().execute().body();
         study.setInstallLinks(ImmutableMap.of("Universal", "http://example.com/"));
         adminApi.updateStudy(study.getIdentifier(), study).execute();
@@ -80,7 +81,7 @@ public class IntentToParticipateTest {
             
             ApiClientProvider provider = new ApiClientProvider(baseUrl, clientInfo, lang, IntegTestUtils.STUDY_ID);
             
-            IntentToParticipateApi intentApi = provider.getClient(IntentToParticipateApi.class);
+            IntentToParticipateApi intentApi = ApiClients.of(provider, IntentToParticipateApi.class);
             intentApi.submitIntentToParticipate(intent).execute();
             
             SignUp signUp = new SignUp()
@@ -96,7 +97,7 @@ public class IntentToParticipateTest {
             // Verify message logs contains the expected message. We do this after we create the account, but before
             // we sign-in, because intent is checked on sign-in and sends another SMS message with the consent doc (if
             // the study is configured to do so).
-            SmsMessage message = admin.getClient(InternalApi.class).getMostRecentSmsMessage(user.getUserId()).execute()
+            SmsMessage message = ApiClients.of(admin, InternalApi.class).getMostRecentSmsMessage(user.getUserId()).execute()
                     .body();
             assertEquals(IntegTestUtils.PHONE.getNumber(), message.getPhoneNumber());
             assertNotNull(message.getMessageId());
@@ -114,7 +115,7 @@ public class IntentToParticipateTest {
             assertNull(message.getHealthCode());
 
             // This does not throw a consent exception.
-            AuthenticationApi authApi = provider.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(provider, AuthenticationApi.class);
             UserSessionInfo session = authApi.signInV4(user.getSignIn()).execute().body();
             assertEquals(SharingScope.ALL_QUALIFIED_RESEARCHERS, session.getSharingScope());
             
@@ -151,7 +152,7 @@ public class IntentToParticipateTest {
             
             ApiClientProvider provider = new ApiClientProvider(baseUrl, clientInfo, lang, IntegTestUtils.STUDY_ID);
             
-            IntentToParticipateApi intentApi = provider.getClient(IntentToParticipateApi.class);
+            IntentToParticipateApi intentApi = ApiClients.of(provider, IntentToParticipateApi.class);
             intentApi.submitIntentToParticipate(intent).execute();
             
             SignUp signUp = new SignUp()
@@ -165,7 +166,7 @@ public class IntentToParticipateTest {
                 .createUser();
             
             // This does not throw a consent exception.
-            AuthenticationApi authApi = provider.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(provider, AuthenticationApi.class);
             UserSessionInfo session = authApi.signInV4(user.getSignIn()).execute().body();
             assertEquals(SharingScope.ALL_QUALIFIED_RESEARCHERS, session.getSharingScope());
             
@@ -21,6 +21,7 @@ import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 
 // This test makes raw HTTP requests, because we need to spoof the X-Forwarded-For header.
+@ResourceLock(ResourceLock.API_STUDY)
 public class IpLockingTest {
     private static final ObjectMapper JSON_OBJECT_MAPPER = new ObjectMapper();
 
@@ -34,7 +35,7 @@ public class IpLockingTest {
         // Make test users
         basicUser = TestUserHelper.createAndSignInUser(IpLockingTest.class, true);
         developer = TestUserHelper.createAndSignInUser(IpLockingTest.class, true, Role.DEVELOPER);
-        studiesApi = developer.getClient(StudiesApi.class);
+        studiesApi = ApiClients.of(developer, StudiesApi.class);
 
         // Get host URL
         hostUrl = developer.getClientManager().getHostUrl();
@@ -89,9 +90,9 @@ public class IpLockingTest {
                 "   \"email\":\"" + user.getEmail() + "\",\n" +
                 "   \"password\":\"" + user.getPassword() + "\"\n" +
                 "}";
-        HttpResponse signInResponse = Request.Post(hostUrl + "/v3/auth/signIn")
+        HttpResponse signInResponse = RawHttp.execute(Request.Post(hostUrl + "/v3/auth/signIn")
                 .setHeader("X-Forwarded-For", "same address, same load balancer")
-                .body(new StringEntity(signInText)).execute().returnResponse();
+                .body(new StringEntity(signInText))).returnResponse();
         assertEquals(200, signInResponse.getStatusLine().getStatusCode());
 
         JsonNode signInBodyNode = JSON_OBJECT_MAPPER.readTree(EntityUtils.toString(signInResponse.getEntity()));
@@ -99,24 +100,24 @@ public class IpLockingTest {
         assertNotNull(sessionId);
 
         // Sending a request with the same IP address always works.
-        HttpResponse sameResponse = Request.Get(hostUrl + "/v1/activityevents")
+        HttpResponse sameResponse = RawHttp.execute(Request.Get(hostUrl + "/v1/activityevents")
                 .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "same address, same load balancer")
-                .execute().returnResponse();
+                .setHeader("X-Forwarded-For", "same address, same load balancer"))
+                .returnResponse();
         assertEquals(200, sameResponse.getStatusLine().getStatusCode());
 
         // Different IP address may get locked.
-        HttpResponse differentAddressResponse = Request.Get(hostUrl + "/v1/activityevents")
+        HttpResponse differentAddressResponse = RawHttp.execute(Request.Get(hostUrl + "/v1/activityevents")
                 .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "different address, same load balancer")
-                .execute().returnResponse();
+                .setHeader("X-Forwarded-For", "different address, same load balancer"))
+                .returnResponse();
         assertEquals(shouldLock ? 401 : 200, differentAddressResponse.getStatusLine().getStatusCode());
 
         // Request from a different load balancer but the same source IP always works.
-        HttpResponse differentLoadBalancerResponse = Request.Get(hostUrl + "/v1/activityevents")
+        HttpResponse differentLoadBalancerResponse = RawHttp.execute(Request.Get(hostUrl + "/v1/activityevents")
                 .setHeader("Bridge-Session", sessionId)
-                .setHeader("X-Forwarded-For", "same address, different load balancer")
-                .execute().returnResponse();
+                .setHeader("X-Forwarded-For", "same address, different load balancer"))
+                .returnResponse();
         assertEquals(200, differentLoadBalancerResponse.getStatusLine().getStatusCode());
     }
 }
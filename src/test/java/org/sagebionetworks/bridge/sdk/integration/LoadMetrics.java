@@ -0,0 +1,108 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.exceptions.BridgeSDKException;
+
+/**
+ * Latency histograms and counters for one load harness run, safe to update from any number of threads. Latencies are
+ * kept in microseconds and reported in milliseconds; counters are reported with their rate over the run's wall time.
+ */
+public class LoadMetrics {
+    private static final Logger LOG = LoggerFactory.getLogger(LoadMetrics.class);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    // Enough to diagnose a systematic failure without flooding the log.
+    private static final int LOGGED_ERRORS = 10;
+
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public LoadMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(String metric, long elapsedNanos) {
+        histogram(metric).recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    public void count(String counter) {
+        count(counter, 1);
+    }
+
+    public void count(String counter, long delta) {
+        counters.computeIfAbsent(counter, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Counts a failed operation under "errors" and under its {@link #errorName}, and logs the first few failures of
+     * the run as "description: message", with the stack trace when the failure isn't an HTTP error.
+     */
+    public void countError(String description, Exception e) {
+        long errors = counters.computeIfAbsent("errors", k -> new AtomicLong()).incrementAndGet();
+        count(errorName(e));
+        if (errors <= LOGGED_ERRORS) {
+            if (e instanceof BridgeSDKException) {
+                LOG.warn(description + ": " + e.getMessage());
+            } else {
+                LOG.warn(description + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** "error " and the HTTP status (e.g. "error 429") or, for anything but an HTTP error, the exception class. */
+    public static String errorName(Exception e) {
+        return "error " + ((e instanceof BridgeSDKException) ? ((BridgeSDKException) e).getStatusCode()
+                : e.getClass().getSimpleName());
+    }
+
+    public long getCount(String counter) {
+        AtomicLong value = counters.get(counter);
+        return value == null ? 0 : value.get();
+    }
+
+    public Histogram histogram(String metric) {
+        return histograms.computeIfAbsent(metric, k -> new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /** Count per second of wall time since these metrics were created. */
+    public double getRate(String counter) {
+        return getCount(counter) / (getElapsedNanos() / 1e9);
+    }
+
+    public String summary() {
+        double seconds = getElapsedNanos() / 1e9;
+        StringBuilder summary = new StringBuilder(String.format("%s (%.1f s)%n", name, seconds));
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            summary.append(String.format("  %-40s n=%-7d p50=%9.1f p90=%9.1f p99=%9.1f max=%9.1f ms%n",
+                    entry.getKey(), histogram.getTotalCount(), histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0));
+        }
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(counters).entrySet()) {
+            summary.append(String.format("  %-40s %-9d %.2f/s%n", entry.getKey(), entry.getValue().get(),
+                    entry.getValue().get() / seconds));
+        }
+        return summary.toString();
+    }
+
+    public void log() {
+        LOG.info(summary());
+    }
+}
@@ -0,0 +1,9 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+/**
+ * Category for load and throughput harnesses. These are excluded from the normal run; run them with
+ * -DjunitCategory=loadTests.
+ */
+public interface LoadTest {
+
+}
@@ -0,0 +1,64 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executors for the load harnesses' simulated participants. By default a harness gets a fixed pool of platform threads
+ * as before; with -DloadThreads=virtual (set by the virtual-threads profile, which needs JDK 21+) each task gets its
+ * own virtual thread instead, so one driver can hold tens of thousands of participants blocked in Retrofit's execute()
+ * without a thread each. The thread count is ignored then: concurrency is whatever the harness submits.
+ *
+ * The build targets Java 8, so virtual threads are reached by reflection.
+ */
+public final class LoadThreads {
+    public static final String MODE_PROPERTY = "loadThreads";
+    public static final String VIRTUAL = "virtual";
+
+    private LoadThreads() {
+    }
+
+    /** True when the harnesses should run on virtual threads. */
+    public static boolean isVirtual() {
+        return VIRTUAL.equals(System.getProperty(MODE_PROPERTY));
+    }
+
+    /** True when this JVM has virtual threads. */
+    public static boolean isVirtualAvailable() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** An executor in the configured mode. The name format is as for ThreadFactoryBuilder, e.g. "sign-in-%d". */
+    public static ExecutorService newExecutor(String nameFormat, int threads) {
+        return isVirtual() ? newVirtualExecutor(nameFormat) : newFixedExecutor(nameFormat, threads);
+    }
+
+    public static ExecutorService newFixedExecutor(String nameFormat, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat(nameFormat).build());
+    }
+
+    /** A new virtual thread per task. Throws IllegalStateException on a JVM without virtual threads. */
+    public static ExecutorService newVirtualExecutor(String nameFormat) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+                    nameFormat.replace("%d", ""), 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or later; running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -40,7 +40,7 @@ public class MasterSchedulerTest {
     public void before() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
         
-        adminApi = admin.getClient(ForAdminsApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
         config = Tests.getMastSchedulerConfig();
     }
     
@@ -46,7 +46,7 @@ public class NotificationTopicTest {
 
     @Test
     public void crud() throws IOException {
-        NotificationsApi api = developer.getClient(NotificationsApi.class);
+        NotificationsApi api = ApiClients.of(developer, NotificationsApi.class);
         
         NotificationTopic topic = new NotificationTopic().name("Topic name").shortName("shortname")
                 .description("topic description");
@@ -73,7 +73,7 @@ public class NotificationTopicTest {
         retrieved = api.getNotificationTopic(keys.getGuid()).execute().body();
         assertTrue(retrieved.isDeleted());
         
-        admin.getClient(ForAdminsApi.class).deleteNotificationTopic(retrieved.getGuid(), true).execute();
+        ApiClients.of(admin, ForAdminsApi.class).deleteNotificationTopic(retrieved.getGuid(), true).execute();
         
         // Now it is really deleted
         try {
@@ -86,7 +86,7 @@ public class NotificationTopicTest {
     
     @Test
     public void listTopics() throws Exception {
-        NotificationsApi api = developer.getClient(NotificationsApi.class);
+        NotificationsApi api = ApiClients.of(developer, NotificationsApi.class);
         List<NotificationTopic> list = api.getNotificationTopics(false).execute().body().getItems();
         int startingSize = list.size();
         
@@ -120,7 +120,7 @@ public class NotificationTopicTest {
             assertTrue(guids.contains(keys2.getGuid()));
         } finally {
             // physically delete them all
-            ForAdminsApi adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+            ForAdminsApi adminApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ForAdminsApi.class);
             adminApi.deleteNotificationTopic(keys1.getGuid(), true).execute();
             adminApi.deleteNotificationTopic(keys2.getGuid(), true).execute();
             
@@ -131,7 +131,7 @@ public class NotificationTopicTest {
 
     @Test
     public void withCriteria() throws Exception {
-        NotificationsApi api = developer.getClient(NotificationsApi.class);
+        NotificationsApi api = ApiClients.of(developer, NotificationsApi.class);
 
         // Create.
         NotificationTopic topic = new NotificationTopic().name("topic").shortName("topic").criteria(CRITERIA_1);
@@ -153,7 +153,7 @@ public class NotificationTopicTest {
         assertEquals(CRITERIA_2.getAllOfGroups(), topic.getCriteria().getAllOfGroups());
 
         // Delete.
-        admin.getClient(ForAdminsApi.class).deleteNotificationTopic(topicGuid, true).execute();
+        ApiClients.of(admin, ForAdminsApi.class).deleteNotificationTopic(topicGuid, true).execute();
         topicList = api.getNotificationTopics(true).execute().body().getItems();
         assertTrue(topicList.stream().noneMatch(t -> t.getGuid().equals(topicGuid)));
     }
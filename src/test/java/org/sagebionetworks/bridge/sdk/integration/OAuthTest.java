@@ -20,6 +20,7 @@ import org.sagebionetworks.bridge.rest.model.VersionHolder;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class OAuthTest {
 
     private TestUser admin;
@@ -45,7 +46,7 @@ public class OAuthTest {
     
     @Test(expected = EntityNotFoundException.class)
     public void requestOAuthAccessTokenExists() throws Exception {
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         OAuthAuthorizationToken token = new OAuthAuthorizationToken().authToken("authToken");
         usersApi.requestOAuthAccessToken("vendorId", token).execute().body();
@@ -53,7 +54,7 @@ public class OAuthTest {
     
     @Test
     public void test() throws Exception {
-        ForWorkersApi workersApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workersApi = ApiClients.of(worker, ForWorkersApi.class);
         
         try {
             workersApi.getHealthCodesGrantingOAuthAccess(worker.getStudyId(), "unused-vendor-id", null, null).execute().body();
@@ -67,7 +68,7 @@ public class OAuthTest {
         } catch(EntityNotFoundException e) {
             assertEquals("OAuthProvider not found.", e.getMessage());
         }
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getStudy(worker.getStudyId()).execute().body();
         try {
             OAuthProvider provider = new OAuthProvider().clientId("foo").endpoint("https://webservices.sagebridge.org/")
@@ -0,0 +1,181 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Lazily iterates the items of a paged list endpoint, fetching the next pages in the background while the current one
+ * is consumed, so a batch job's processing overlaps the network round trips instead of waiting on them. At most
+ * bufferedPages pages are held ahead of the consumer; the fetching thread blocks when they're full.
+ *
+ * Works with offset-key and forward-cursor lists (ExternalIdentifierList, ForwardCursorScheduledActivityList,
+ * ForwardCursorReportDataList, UploadList and the like) and with offsetBy lists (AccountSummaryList):
+ *
+ * <pre>
+ * try (PageIterator&lt;ExternalIdentifier&gt; ids = PageIterator.ofOffsetKeys(
+ *         key -&gt; api.getExternalIds(key, 50, null, null).execute().body(),
+ *         ExternalIdentifierList::getItems, ExternalIdentifierList::getNextPageOffsetKey)) {
+ *     ids.forEachRemaining(this::process);
+ * }
+ * </pre>
+ *
+ * Close the iterator (or the stream from {@link #stream()}) when stopping early, so the background fetch is cancelled.
+ * A failed fetch is rethrown from hasNext() or next() once the pages before it have been consumed.
+ */
+public class PageIterator<T> implements Iterator<T>, AutoCloseable {
+    public static final int DEFAULT_BUFFERED_PAGES = 2;
+
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("page-prefetch-%d").setDaemon(true).build());
+
+    private static final Object END = new Object();
+
+    /** Fetches the page at a cursor: an offset key, or an offsetBy. */
+    @FunctionalInterface
+    public interface PageFetcher<K, P> {
+        P fetch(K cursor) throws Exception;
+    }
+
+    /** A failed fetch, queued behind the pages fetched before it. */
+    private static final class Failure {
+        private final Exception exception;
+
+        Failure(Exception exception) {
+            this.exception = exception;
+        }
+    }
+
+    // Each element is a page's List<T>, a Failure, or END.
+    private final BlockingQueue<Object> pages;
+    private final Future<?> prefetch;
+    private Iterator<T> current = Collections.emptyIterator();
+    private boolean done;
+
+    /**
+     * Starts fetching at the first cursor. nextCursor gives the cursor after a page from that page's cursor and the
+     * page itself, or null after the last page.
+     */
+    public <K, P> PageIterator(K firstCursor, PageFetcher<K, P> fetcher, Function<P, List<T>> items,
+            BiFunction<K, P, K> nextCursor, int bufferedPages) {
+        this.pages = new ArrayBlockingQueue<>(bufferedPages);
+        this.prefetch = PREFETCH_EXECUTOR.submit(() -> fetchAll(firstCursor, fetcher, items, nextCursor));
+    }
+
+    /** Pages by nextPageOffsetKey, starting from the first page (a null key). */
+    public static <P, T> PageIterator<T> ofOffsetKeys(PageFetcher<String, P> fetcher, Function<P, List<T>> items,
+            Function<P, String> nextPageOffsetKey) {
+        return ofOffsetKeys(fetcher, items, nextPageOffsetKey, DEFAULT_BUFFERED_PAGES);
+    }
+
+    public static <P, T> PageIterator<T> ofOffsetKeys(PageFetcher<String, P> fetcher, Function<P, List<T>> items,
+            Function<P, String> nextPageOffsetKey, int bufferedPages) {
+        return new PageIterator<>(null, fetcher, items, (key, page) -> nextPageOffsetKey.apply(page), bufferedPages);
+    }
+
+    /** Pages by offsetBy, starting from 0. A page shorter than pageSize is the last one. */
+    public static <P, T> PageIterator<T> ofOffsets(PageFetcher<Integer, P> fetcher, Function<P, List<T>> items,
+            int pageSize) {
+        return ofOffsets(fetcher, items, pageSize, DEFAULT_BUFFERED_PAGES);
+    }
+
+    public static <P, T> PageIterator<T> ofOffsets(PageFetcher<Integer, P> fetcher, Function<P, List<T>> items,
+            int pageSize, int bufferedPages) {
+        return new PageIterator<>(0, fetcher, items, (offsetBy, page) -> {
+            int size = items.apply(page).size();
+            return (size < pageSize) ? null : offsetBy + size;
+        }, bufferedPages);
+    }
+
+    private <K, P> void fetchAll(K firstCursor, PageFetcher<K, P> fetcher, Function<P, List<T>> items,
+            BiFunction<K, P, K> nextCursor) {
+        try {
+            try {
+                K cursor = firstCursor;
+                do {
+                    P page = fetcher.fetch(cursor);
+                    List<T> pageItems = items.apply(page);
+                    if (pageItems != null && !pageItems.isEmpty()) {
+                        pages.put(pageItems);
+                    }
+                    cursor = nextCursor.apply(cursor, page);
+                } while (cursor != null);
+                pages.put(END);
+            } catch (InterruptedException e) {
+                // Closed by the consumer.
+            } catch (Exception e) {
+                pages.put(new Failure(e));
+            }
+        } catch (InterruptedException e) {
+            // Closed while queueing the failure; nobody is left to see it.
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (done) {
+                return false;
+            }
+            Object next = take();
+            if (next == END) {
+                done = true;
+                return false;
+            } else if (next instanceof Failure) {
+                done = true;
+                Exception e = ((Failure) next).exception;
+                throw (e instanceof RuntimeException) ? (RuntimeException) e : new RuntimeException(e);
+            }
+            current = ((List<T>) next).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /** The remaining items as a sequential stream. Closing the stream closes this iterator. */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /** Stops fetching and drops any buffered pages. */
+    @Override
+    public void close() {
+        done = true;
+        current = Collections.emptyIterator();
+        prefetch.cancel(true);
+        pages.clear();
+    }
+
+    private Object take() {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted waiting for the next page", e);
+        }
+    }
+}
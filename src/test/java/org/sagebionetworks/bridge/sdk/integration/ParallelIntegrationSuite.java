@@ -0,0 +1,12 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import org.junit.runner.RunWith;
+
+/**
+ * Entry point for running the whole suite with several test classes in flight at once. Use
+ * <code>mvn test -DparallelClasses=8</code>, which activates the parallel-tests profile. Classes that change shared
+ * state declare it with {@link ResourceLock}.
+ */
+@RunWith(ParallelSuite.class)
+public class ParallelIntegrationSuite {
+}
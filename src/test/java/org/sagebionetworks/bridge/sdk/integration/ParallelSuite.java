@@ -0,0 +1,200 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runner that finds every test class in the annotated class's package and runs them through a
+ * {@link ResourceLockingComputer}. The number of concurrent classes comes from the "parallelClasses" system property,
+ * and the suite can be split across forks with the "shards", "shard" and "shardPlan" system properties.
+ */
+public class ParallelSuite extends Runner {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelSuite.class);
+
+    public static final String THREAD_COUNT_PROPERTY = "parallelClasses";
+    public static final String SHARD_COUNT_PROPERTY = "shards";
+    public static final String SHARD_INDEX_PROPERTY = "shard";
+    public static final String SHARD_PLAN_PROPERTY = "shardPlan";
+    public static final String WRITE_PLAN_PROPERTY = "shardPlan.write";
+    private static final int DEFAULT_THREAD_COUNT = 4;
+
+    private final Runner delegate;
+    private final boolean hasTestClasses;
+
+    public ParallelSuite(Class<?> suiteClass, RunnerBuilder builder) throws InitializationError {
+        Class<?>[] testClasses = selectShard(findTestClasses(suiteClass));
+        this.hasTestClasses = testClasses.length > 0;
+        this.delegate = new ResourceLockingComputer(getThreadCount()).getSuite(builder, testClasses);
+    }
+
+    @Override
+    public Description getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        // Users are created in the background while the first classes start up. Nothing runs when only writing a
+        // shard plan (or when a shard is empty), so no users are created then.
+        if (hasTestClasses) {
+            TestUserPool.prewarm();
+        }
+        delegate.run(notifier);
+    }
+
+    static int getThreadCount() {
+        String value = System.getProperty(THREAD_COUNT_PROPERTY);
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_THREAD_COUNT;
+        }
+        return Integer.parseInt(value.trim());
+    }
+
+    /**
+     * With -Dshards=K -Dshard=i, keeps only the classes in shard i. The plan comes from -DshardPlan, a file written
+     * once by a run with -DshardPlan.write=true, which balances the shards by duration from that run's history (see
+     * {@link ShardPlanner}) and runs no tests. Plan with the -DparallelClasses the forks will use, since the plan packs
+     * each shard for that many concurrent classes. Every fork must read the same plan: forks that planned from their
+     * own history would disagree and skip or repeat classes. Classes missing from the plan (added since) go to a shard
+     * by name hash. Without a plan, classes are split by name only.
+     */
+    static Class<?>[] selectShard(Class<?>[] testClasses) throws InitializationError {
+        String shardCountValue = System.getProperty(SHARD_COUNT_PROPERTY);
+        if (shardCountValue == null || shardCountValue.trim().isEmpty()) {
+            return testClasses;
+        }
+        int shardCount = parseShardProperty(SHARD_COUNT_PROPERTY, shardCountValue);
+        if (shardCount < 1) {
+            throw new InitializationError("-D" + SHARD_COUNT_PROPERTY + " must be at least 1, was " + shardCount);
+        }
+        String planPath = System.getProperty(SHARD_PLAN_PROPERTY);
+        try {
+            if (Boolean.getBoolean(WRITE_PLAN_PROPERTY)) {
+                if (planPath == null) {
+                    throw new InitializationError("-D" + WRITE_PLAN_PROPERTY + " needs -D" + SHARD_PLAN_PROPERTY);
+                }
+                List<ShardPlanner.Shard> shards = new ShardPlanner(PerfHistory.getClassDurations(), getThreadCount())
+                        .plan(Arrays.asList(testClasses), shardCount);
+                ShardPlanner.writePlan(shards, new File(planPath));
+                LOG.info(ShardPlanner.describe(shards));
+                LOG.info("Wrote shard plan to " + planPath + "; no tests run");
+                return new Class<?>[0];
+            }
+
+            String shardIndexValue = System.getProperty(SHARD_INDEX_PROPERTY);
+            if (shardIndexValue == null) {
+                throw new InitializationError("-D" + SHARD_COUNT_PROPERTY + " needs -D" + SHARD_INDEX_PROPERTY);
+            }
+            int shardIndex = parseShardProperty(SHARD_INDEX_PROPERTY, shardIndexValue);
+            if (shardIndex < 0 || shardIndex >= shardCount) {
+                throw new InitializationError("-D" + SHARD_INDEX_PROPERTY + "=" + shardIndex + " is outside [0, "
+                        + shardCount + ")");
+            }
+
+            Map<String, Integer> assignments;
+            if (planPath != null) {
+                assignments = ShardPlanner.readPlan(new File(planPath), shardCount);
+                LOG.info("Running shard " + shardIndex + " of plan " + planPath);
+            } else {
+                LOG.warn("No -D" + SHARD_PLAN_PROPERTY + "; splitting classes by name only, since forks can't agree "
+                        + "on a duration-balanced plan without one");
+                assignments = ShardPlanner.getAssignments(new ShardPlanner(Collections.emptyMap(), getThreadCount())
+                        .plan(Arrays.asList(testClasses), shardCount));
+                LOG.info("Running shard " + shardIndex);
+            }
+
+            List<Class<?>> shardClasses = new ArrayList<>();
+            for (Class<?> testClass : testClasses) {
+                Integer assigned = assignments.get(testClass.getSimpleName());
+                if (assigned == null) {
+                    assigned = Math.floorMod(testClass.getSimpleName().hashCode(), shardCount);
+                    LOG.info(testClass.getSimpleName() + " isn't in the shard plan; assigned to shard " + assigned);
+                }
+                if (assigned == shardIndex) {
+                    shardClasses.add(testClass);
+                }
+            }
+            return shardClasses.toArray(new Class<?>[shardClasses.size()]);
+        } catch (IOException e) {
+            throw new InitializationError(e);
+        }
+    }
+
+    private static int parseShardProperty(String property, String value) throws InitializationError {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InitializationError("-D" + property + " must be a number, was \"" + value + "\"");
+        }
+    }
+
+    static Class<?>[] findTestClasses(Class<?> suiteClass) throws InitializationError {
+        String packagePath = suiteClass.getPackage().getName().replace('.', '/');
+        URL url = suiteClass.getClassLoader().getResource(packagePath);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new InitializationError("Cannot list test classes in " + packagePath);
+        }
+        File[] files;
+        try {
+            files = new File(url.toURI()).listFiles((dir, name) -> name.endsWith("Test.class") && !name.contains("$"));
+        } catch (URISyntaxException e) {
+            throw new InitializationError(e);
+        }
+        if (files == null) {
+            throw new InitializationError("Cannot list test classes in " + url);
+        }
+        // Sorted so the dispatch order, and therefore the run, is repeatable.
+        Arrays.sort(files);
+
+        List<Class<?>> testClasses = new ArrayList<>();
+        for (File file : files) {
+            String className = suiteClass.getPackage().getName() + "."
+                    + file.getName().substring(0, file.getName().length() - ".class".length());
+            try {
+                Class<?> testClass = Class.forName(className, false, suiteClass.getClassLoader());
+                if (testClass != suiteClass && isRunnableTestClass(testClass)) {
+                    testClasses.add(testClass);
+                }
+            } catch (ClassNotFoundException e) {
+                throw new InitializationError(e);
+            }
+        }
+        return testClasses.toArray(new Class<?>[testClasses.size()]);
+    }
+
+    private static boolean isRunnableTestClass(Class<?> testClass) {
+        if (testClass.isInterface() || Modifier.isAbstract(testClass.getModifiers())) {
+            return false;
+        }
+        // Load harnesses only run when asked for (-DjunitCategory=loadTests).
+        Category category = testClass.getAnnotation(Category.class);
+        if (category != null && Arrays.asList(category.value()).contains(LoadTest.class)) {
+            return false;
+        }
+        for (Method method : testClass.getMethods()) {
+            if (method.isAnnotationPresent(Test.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -37,11 +37,11 @@ public class ParticipantIsConsentedTest {
 
         developer = TestUserHelper.createAndSignInUser(ParticipantIsConsentedTest.class, false,
                 Role.DEVELOPER);
-        subpopApi = developer.getClient(SubpopulationsApi.class);
+        subpopApi = ApiClients.of(developer, SubpopulationsApi.class);
 
         researcher = TestUserHelper.createAndSignInUser(ParticipantIsConsentedTest.class, false,
                 Role.RESEARCHER);
-        participantsApi = researcher.getClient(ParticipantsApi.class);
+        participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
 
         // Set up subpops:
         // 1. Default subpop prohibits data group sdk-int-2 and is required.
@@ -65,7 +65,7 @@ public class ParticipantIsConsentedTest {
 
         // Delete subpop2.
         if (subpopGuid2 != null) {
-            admin.getClient(SubpopulationsApi.class).deleteSubpopulation(subpopGuid2, true).execute();
+            ApiClients.of(admin, SubpopulationsApi.class).deleteSubpopulation(subpopGuid2, true).execute();
         }
 
         // Delete developer.
@@ -77,6 +77,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class ParticipantsTest {
     private TestUser admin;
     private TestUser developer;
@@ -97,7 +98,7 @@ public class ParticipantsTest {
         
         IntegTestUtils.deletePhoneUser(researcher);
         
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getUsersStudy().execute().body();
         if (!study.isPhoneSignInEnabled() || !study.isEmailSignInEnabled()) {
             study.setPhoneSignInEnabled(true);
@@ -129,7 +130,7 @@ public class ParticipantsTest {
     public void canGetAndUpdateSelf() throws Exception {
         TestUser user = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true);
         try {
-            ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
             StudyParticipant self = userApi.getUsersParticipantRecord(false).execute().body();
             assertEquals(user.getEmail(), self.getEmail());
@@ -179,8 +180,8 @@ public class ParticipantsTest {
         TestUser user = new TestUserHelper.Builder(ParticipantsTest.class)
                 .withExternalId(externalId.getIdentifier()).createAndSignInUser();
         
-        ParticipantsApi researcherParticipantsApi = researcher.getClient(ParticipantsApi.class);
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ParticipantsApi researcherParticipantsApi = ApiClients.of(researcher, ParticipantsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getStudy(admin.getStudyId()).execute().body();
         
         try {
@@ -219,7 +220,7 @@ public class ParticipantsTest {
     @SuppressWarnings("deprecation")
     @Test
     public void canRetrieveAndPageThroughParticipants() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
 
         AccountSummaryList summaries = participantsApi.getParticipants(0, 10, null, null, null, null).execute().body();
 
@@ -272,7 +273,7 @@ public class ParticipantsTest {
     @SuppressWarnings("deprecation")
     @Test(expected = InvalidEntityException.class)
     public void cannotSetBadOffset() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         participantsApi.getParticipants(-1, 10, null, null, null, null).execute();
     }
@@ -280,7 +281,7 @@ public class ParticipantsTest {
     @SuppressWarnings("deprecation")
     @Test(expected = InvalidEntityException.class)
     public void cannotSetBadPageSize() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         participantsApi.getParticipants(0, 4, null, null, null, null).execute();
     }
@@ -308,7 +309,7 @@ public class ParticipantsTest {
         participant.setStatus(DISABLED); // should be ignored
         participant.setAttributes(attributes);
         
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         IdentifierHolder idHolder = participantsApi.createParticipant(participant).execute().body();
         
         String id = idHolder.getIdentifier();
@@ -394,14 +395,14 @@ public class ParticipantsTest {
             assertEquals(createdOn, retrieved.getCreatedOn()); // hasn't been changed, still exists
         } finally {
             if (id != null) {
-                admin.getClient(ForAdminsApi.class).deleteUser(id).execute();
+                ApiClients.of(admin, ForAdminsApi.class).deleteUser(id).execute();
             }
         }
     }
     
     @Test
     public void canSendRequestResetPasswordEmail() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         // This is sending an email, which is difficult to verify, but this at least should not throw an error.
         Response<Message> response = participantsApi.sendParticipantResetPassword(researcher.getSession().getId()).execute();
@@ -410,7 +411,7 @@ public class ParticipantsTest {
     
     @Test
     public void canResendEmailVerification() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         // This is sending an email, which is difficult to verify, but this at least should not throw an error.
         Response<Message> response = participantsApi.sendParticipantEmailVerification(researcher.getSession().getId()).execute();
@@ -419,7 +420,7 @@ public class ParticipantsTest {
     
     @Test
     public void canResendPhoneVerification() throws Exception {
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         // This is sending an email, which is difficult to verify, but this at least should not throw an error.
         Response<Message> response = participantsApi.sendParticipantPhoneVerification(researcher.getSession().getId()).execute();
@@ -431,7 +432,7 @@ public class ParticipantsTest {
         String userId =  researcher.getSession().getId();
 
         ConsentStatus status = researcher.getSession().getConsentStatuses().values().iterator().next();
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         Response<Message> response = participantsApi
                 .resendParticipantConsentAgreement(userId, status.getSubpopulationGuid()).execute();
@@ -444,7 +445,7 @@ public class ParticipantsTest {
         String userId = user.getSession().getId();
         try {
             // Can get activities without an error... user is indeed consented.
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             
             usersApi.getScheduledActivities("+07:00", 1, null).execute();
             assertTrue(RestUtils.isUserConsented(user.getSession()));
@@ -453,7 +454,7 @@ public class ParticipantsTest {
             Withdrawal withdrawal = new Withdrawal();
             withdrawal.setReason("Testing withdrawal API.");
             
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
             participantsApi.withdrawParticipantFromStudy(userId, withdrawal).execute();
             
             user.signInAgain();
@@ -473,7 +474,7 @@ public class ParticipantsTest {
                 .getSubpopulationGuid();
         try {
             // Can get activities without an error... user is indeed consented.
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             
             usersApi.getScheduledActivities("+07:00", 1, null).execute();
             assertTrue(RestUtils.isUserConsented(user.getSession()));
@@ -482,7 +483,7 @@ public class ParticipantsTest {
             Withdrawal withdrawal = new Withdrawal();
             withdrawal.setReason("Testing withdrawal API.");
             
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
             participantsApi.withdrawParticipantFromSubpopulation(userId, subpopGuid, withdrawal).execute();
             
             user.signInAgain();
@@ -490,7 +491,7 @@ public class ParticipantsTest {
         } catch(ConsentRequiredException e) {
             assertFalse(RestUtils.isUserConsented(e.getSession()));
             
-            ParticipantsApi userApi = user.getClient(ParticipantsApi.class);
+            ParticipantsApi userApi = ApiClients.of(user, ParticipantsApi.class);
             
             StudyParticipant participant = userApi.getUsersParticipantRecord(true).execute().body();
             assertEquals(NO_SHARING, participant.getSharingScope());
@@ -511,9 +512,9 @@ public class ParticipantsTest {
     public void getActivityHistory() throws Exception {
         // Make the user a developer so with one account, we can generate some tasks
         TestUser user = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true, Role.DEVELOPER);
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
-        SchedulesApi schedulePlanApi = user.getClient(SchedulesApi.class);
+        SchedulesApi schedulePlanApi = ApiClients.of(user, SchedulesApi.class);
         SchedulePlan plan = Tests.getDailyRepeatingSchedulePlan();
 
         // Set an identifiable label on the activity so we can find the generated activities later.
@@ -547,7 +548,7 @@ public class ParticipantsTest {
             String activityGuid = ((SimpleScheduleStrategy)plan.getStrategy()).getSchedule().getActivities().get(0).getGuid();
             
             // But the researcher will still see the full list
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
             
             ForwardCursorScheduledActivityList resActivities = participantsApi
                     .getParticipantActivityHistory(userId, activityGuid, null, null, null, 50).execute().body();
@@ -562,7 +563,7 @@ public class ParticipantsTest {
                     .getParticipantActivityHistory(userId, activityGuid, null, null, null, 50).execute().body();
             assertEquals(0, resActivities.getItems().size());
         } finally {
-            admin.getClient(SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid(), true).execute();
+            ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid(), true).execute();
             user.signOutAndDeleteUser();
         }
     }
@@ -570,9 +571,9 @@ public class ParticipantsTest {
     @Test
     public void getActivityHistoryV4() throws Exception {
         TestUser user = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true, Role.DEVELOPER);
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
-        SchedulesApi schedulePlanApi = user.getClient(SchedulesApi.class);
+        SchedulesApi schedulePlanApi = ApiClients.of(user, SchedulesApi.class);
         SchedulePlan plan = Tests.getDailyRepeatingSchedulePlan();
 
         // Set an identifiable label on the activity so we can find the generated activities later.
@@ -591,13 +592,12 @@ public class ParticipantsTest {
             DateTime endsOn = DateTime.now().plusDays(2);
             
             usersApi.getScheduledActivities("+00:00", 4, null).execute().body();
-            ParticipantsApi api = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi api = ApiClients.of(researcher, ParticipantsApi.class);
 
-            // getTaskHistory() uses a secondary global index. Sleep for 2 seconds to help make sure the index is consistent.
-            Thread.sleep(2000);
-
-            ForwardCursorScheduledActivityList list = api
-                    .getParticipantTaskHistory(userId, taskReferentGuid, startsOn, endsOn, null, 100).execute().body();
+            // getTaskHistory() uses a secondary global index. Poll until the activities show up in the index.
+            ForwardCursorScheduledActivityList list = Await.until("task history index", () -> api
+                    .getParticipantTaskHistory(userId, taskReferentGuid, startsOn, endsOn, null, 100).execute().body(),
+                    l -> !l.getItems().isEmpty());
 
             // There should be activities...
             assertFalse(list.getItems().isEmpty());
@@ -611,7 +611,7 @@ public class ParticipantsTest {
                     .execute().body();
             assertTrue(list.getItems().isEmpty());
         } finally {
-            admin.getClient(SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid(), true).execute();
+            ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(planKeys.getGuid(), true).execute();
             user.signOutAndDeleteUser();
         }
     }
@@ -628,20 +628,20 @@ public class ParticipantsTest {
             request.setContentMd5("ABC");
             request.setName("upload.zip");
             
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             UploadSession uploadSession = usersApi.requestUploadSession(request).execute().body();
             
-            // This does depend on a GSI, so pause for a bit.
-            Thread.sleep(500);
-            
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
             
             // Jenkins has gotten minutes off from the current time, causing this query to fail. Adjust the range
             // to ensure if the clock drifts, within reason, the query will still succeed.
             DateTime endTime = DateTime.now(DateTimeZone.UTC).plusHours(2);
             DateTime startTime = endTime.minusDays(1).minusHours(21);
 
-            UploadList results = participantsApi.getParticipantUploads(userId, startTime, endTime, null, null).execute().body();
+            // This does depend on a GSI, so poll until the upload shows up.
+            UploadList results = Await.until("participant uploads index", () -> participantsApi
+                    .getParticipantUploads(userId, startTime, endTime, null, null).execute().body(),
+                    l -> !l.getItems().isEmpty());
             
             String uploadId = results.getItems().get(0).getUploadId();
 
@@ -660,7 +660,7 @@ public class ParticipantsTest {
         SignUp signUp = new SignUp().phone(IntegTestUtils.PHONE).password("P@ssword`1");
         phoneUser = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true, signUp);
         
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         AccountSummaryList list = participantsApi.getParticipants(0, 5, null, "248-6796", null, null).execute().body();
         assertEquals(1, list.getItems().size());
@@ -683,11 +683,11 @@ public class ParticipantsTest {
         String email = IntegTestUtils.makeEmail(ParticipantsTest.class);
         IdentifierUpdate identifierUpdate = new IdentifierUpdate().signIn(signIn).emailUpdate(email);
         
-        ForConsentedUsersApi usersApi = phoneUser.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(phoneUser, ForConsentedUsersApi.class);
         UserSessionInfo info = usersApi.updateUsersIdentifiers(identifierUpdate).execute().body();
         assertEquals(email, info.getEmail());
         
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         StudyParticipant retrieved = participantsApi.getParticipantById(phoneUser.getSession().getId(), true).execute().body();
         assertEquals(email, retrieved.getEmail());
         
@@ -709,11 +709,11 @@ public class ParticipantsTest {
 
         IdentifierUpdate identifierUpdate = new IdentifierUpdate().signIn(signIn).phoneUpdate(IntegTestUtils.PHONE);
         
-        ForConsentedUsersApi usersApi = emailUser.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(emailUser, ForConsentedUsersApi.class);
         UserSessionInfo info = usersApi.updateUsersIdentifiers(identifierUpdate).execute().body();
         assertEquals(IntegTestUtils.PHONE.getNumber(), info.getPhone().getNumber());
         
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         StudyParticipant retrieved = participantsApi.getParticipantById(emailUser.getSession().getId(), true).execute().body();
         assertEquals(IntegTestUtils.PHONE.getNumber(), retrieved.getPhone().getNumber());
         
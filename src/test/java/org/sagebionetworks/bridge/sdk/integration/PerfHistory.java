@@ -0,0 +1,212 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+import org.sagebionetworks.bridge.rest.Config;
+
+/**
+ * Append-only store of per-run timings under target/perf-history/[env]-[mode], one small TSV file per run, and the
+ * comparison of a run against the runs before it. Runs are kept apart by environment and by mode ("server", or "stub"
+ * as set by the stub-server profile), since a stub run's timings say nothing about a real server's. Each line is
+ * "kind, name, count, p50, p95, max" with times in milliseconds, where kind is "endpoint" (from
+ * {@link EndpointLatency}), "test" (test method durations, by test class) or "class" (the wall time of a whole test
+ * class, which has a single value).
+ *
+ * The baseline for a key is the median p95 of the last few runs that recorded it. A key regresses when its p95 is over
+ * the baseline by more than the threshold fraction and by more than a minimum absolute delta, so fast endpoints don't
+ * fail the build over a few milliseconds of jitter.
+ */
+public final class PerfHistory {
+    public static final String DIRECTORY_PROPERTY = "perfHistory.dir";
+    public static final String THRESHOLD_PROPERTY = "perfGate.threshold";
+    public static final String BASELINE_RUNS_PROPERTY = "perfGate.baselineRuns";
+    public static final String MIN_DELTA_PROPERTY = "perfGate.minDeltaMillis";
+    public static final String MODE_PROPERTY = "perfHistory.mode";
+    /** Written when the gate finds regressions; the perf-gate execution in pom.xml fails the build if it exists. */
+    public static final String REGRESSIONS_FILE = "target/perf-gate/regressions.txt";
+
+    private static final String ENDPOINT = "endpoint";
+    private static final String TEST = "test";
+    private static final String CLASS = "class";
+
+    private static final String DEFAULT_DIRECTORY = "target/perf-history";
+    private static final String DEFAULT_MODE = "server";
+    private static final int DEFAULT_BASELINE_RUNS = 5;
+    private static final long DEFAULT_MIN_DELTA_MILLIS = 100;
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormat.forPattern("yyyyMMdd'T'HHmmssSSS'.tsv'");
+
+    private PerfHistory() {
+    }
+
+    /** Writes a new run file and returns it. Existing run files are never modified. */
+    public static File writeRun(Map<String, Histogram> endpoints, Map<String, Histogram> tests,
+            Map<String, Long> classMicros) throws IOException {
+        File directory = getDirectory();
+        directory.mkdirs();
+        DateTime now = DateTime.now(DateTimeZone.UTC);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + now);
+        addLines(lines, ENDPOINT, endpoints);
+        addLines(lines, TEST, tests);
+        for (Map.Entry<String, Long> entry : classMicros.entrySet()) {
+            String millis = millis(entry.getValue());
+            lines.add(String.join("\t", CLASS, entry.getKey(), "1", millis, millis, millis));
+        }
+
+        File file = new File(directory, FILE_NAME_FORMAT.print(now));
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Compares a run against the baseline built from the runs recorded before it, and returns a description of each
+     * regression. An empty list means the run passed. Keys with no history are skipped.
+     */
+    public static List<String> findRegressions(File run) throws IOException {
+        Map<String, double[]> current = readRun(run);
+        List<Map<String, double[]>> history = new ArrayList<>();
+        for (File previous : getPreviousRuns(run, getBaselineRuns())) {
+            history.add(readRun(previous));
+        }
+        double threshold = Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY));
+        long minDelta = Long.getLong(MIN_DELTA_PROPERTY, DEFAULT_MIN_DELTA_MILLIS);
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, double[]> entry : current.entrySet()) {
+            List<Double> baselineValues = new ArrayList<>();
+            for (Map<String, double[]> previous : history) {
+                double[] values = previous.get(entry.getKey());
+                if (values != null) {
+                    baselineValues.add(values[1]);
+                }
+            }
+            if (baselineValues.isEmpty()) {
+                continue;
+            }
+            double baseline = median(baselineValues);
+            double p95 = entry.getValue()[1];
+            if (p95 > baseline * (1 + threshold) && p95 - baseline > minDelta) {
+                regressions.add(String.format("%s p95 %.1f ms vs baseline %.1f ms (+%.0f%%)", entry.getKey(), p95,
+                        baseline, (p95 / baseline - 1) * 100));
+            }
+        }
+        Collections.sort(regressions);
+        return regressions;
+    }
+
+    /**
+     * Expected wall time of each test class in milliseconds: the median of the class's most recent recorded runs. Each
+     * shard of a sharded run writes its own file, so this looks back as far as needed to find the class. Classes that
+     * have never been recorded are missing from the map.
+     */
+    public static Map<String, Double> getClassDurations() throws IOException {
+        File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(".tsv"));
+        if (files == null) {
+            return Collections.emptyMap();
+        }
+        Arrays.sort(files, Collections.reverseOrder());
+        int baselineRuns = getBaselineRuns();
+        Map<String, List<Double>> values = new HashMap<>();
+        for (File file : files) {
+            for (Map.Entry<String, double[]> entry : readRun(file).entrySet()) {
+                if (entry.getKey().startsWith(CLASS + " ")) {
+                    List<Double> classValues = values.computeIfAbsent(entry.getKey().substring(CLASS.length() + 1),
+                            k -> new ArrayList<>());
+                    if (classValues.size() < baselineRuns) {
+                        classValues.add(entry.getValue()[1]);
+                    }
+                }
+            }
+        }
+        Map<String, Double> durations = new HashMap<>();
+        for (Map.Entry<String, List<Double>> entry : values.entrySet()) {
+            durations.put(entry.getKey(), median(entry.getValue()));
+        }
+        return durations;
+    }
+
+    /** True when a regression threshold was given, i.e. the build should fail on regressions. */
+    public static boolean isGateEnabled() {
+        return System.getProperty(THRESHOLD_PROPERTY) != null;
+    }
+
+    private static void addLines(List<String> lines, String kind, Map<String, Histogram> histograms) {
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            lines.add(String.join("\t", kind, entry.getKey(), Long.toString(histogram.getTotalCount()),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getMaxValue())));
+        }
+    }
+
+    // Key is "kind name"; values are p50, p95 and max.
+    private static Map<String, double[]> readRun(File file) throws IOException {
+        Map<String, double[]> run = new HashMap<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            run.put(fields[0] + " " + fields[1], new double[] { Double.parseDouble(fields[3]),
+                    Double.parseDouble(fields[4]), Double.parseDouble(fields[5]) });
+        }
+        return run;
+    }
+
+    private static List<File> getPreviousRuns(File run, int count) {
+        File[] files = getDirectory().listFiles((dir, name) -> name.endsWith(".tsv")
+                && name.compareTo(run.getName()) < 0);
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        // File names are timestamps, so name order is run order.
+        Arrays.sort(files);
+        List<File> runs = Arrays.asList(files);
+        return runs.subList(Math.max(0, runs.size() - count), runs.size());
+    }
+
+    /** Writes the regressions where the build's perf-gate check finds them, and returns the file. */
+    public static File writeRegressions(List<String> regressions) throws IOException {
+        File file = new File(REGRESSIONS_FILE);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), regressions, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static File getDirectory() {
+        String env = new Config().getEnvironment().name().toLowerCase(Locale.ENGLISH);
+        String mode = System.getProperty(MODE_PROPERTY, DEFAULT_MODE);
+        return new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), env + "-" + mode);
+    }
+
+    private static int getBaselineRuns() {
+        return Integer.getInteger(BASELINE_RUNS_PROPERTY, DEFAULT_BASELINE_RUNS);
+    }
+
+    private static double median(List<Double> values) {
+        Collections.sort(values);
+        int middle = values.size() / 2;
+        return values.size() % 2 == 1 ? values.get(middle) : (values.get(middle - 1) + values.get(middle)) / 2;
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records test method durations by test class. When the run finishes, appends the run's endpoint and test timings to
+ * {@link PerfHistory}, with the wall time of each class that ran through {@link ResourceLockingComputer} (which times
+ * the whole class runner, @BeforeClass and @AfterClass included; JUnit 4.12 has no class-level listener hooks, so
+ * classes run any other way have no class timing). If a threshold is given (-DperfGate.threshold=0.25), p95
+ * regressions against the baseline fail the build (see {@link PerfHistory#REGRESSIONS_FILE}).
+ */
+public class PerfHistoryListener extends RunListener {
+    private static final Logger LOG = LoggerFactory.getLogger(PerfHistoryListener.class);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Description, Long> startTimes = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> testHistograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void testStarted(Description description) {
+        startTimes.put(description, System.nanoTime());
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        long now = System.nanoTime();
+        Long start = startTimes.remove(description);
+        if (start != null && description.getClassName() != null) {
+            testHistograms.computeIfAbsent(getClassName(description), k -> new ConcurrentHistogram(SIGNIFICANT_DIGITS))
+                    .recordValue(TimeUnit.NANOSECONDS.toMicros(now - start));
+        }
+    }
+
+    @Override
+    public void testRunFinished(Result result) throws Exception {
+        File run = PerfHistory.writeRun(EndpointLatency.getHistograms(), new TreeMap<>(testHistograms),
+                ResourceLockingComputer.getClassDurations());
+        LOG.info("Recorded run timings in " + run);
+        if (!PerfHistory.isGateEnabled()) {
+            return;
+        }
+        List<String> regressions = PerfHistory.findRegressions(run);
+        if (!regressions.isEmpty()) {
+            // Surefire doesn't reliably fail the build on an exception from a listener, so the regressions go to a
+            // file that the perf-gate execution in pom.xml checks after the tests.
+            File file = PerfHistory.writeRegressions(regressions);
+            LOG.error("Latency regressions against baseline, written to " + file + ":\n  "
+                    + String.join("\n  ", regressions));
+        }
+    }
+
+    private static String getClassName(Description description) {
+        return description.getTestClass() != null ? description.getTestClass().getSimpleName()
+                : description.getClassName();
+    }
+}
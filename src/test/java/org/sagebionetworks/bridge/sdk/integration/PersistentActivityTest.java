@@ -52,7 +52,7 @@ public class PersistentActivityTest {
         if (developer != null) {
             try {
                 if (planGuid != null) {
-                    admin.getClient(SchedulesApi.class).deleteSchedulePlan(planGuid, true).execute();
+                    ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(planGuid, true).execute();
                 }
             } finally {
                 developer.signOutAndDeleteUser();    
@@ -75,10 +75,10 @@ public class PersistentActivityTest {
         plan.setLabel("Criteria plan");
         plan.setStrategy(strategy);
         
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         planGuid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         ScheduledActivityList activities = usersApi.getScheduledActivities("-07:00", 2, null).execute().body();
         List<ScheduledActivity> filteredActivityList = findActivities(activities, activityLabel1);
         assertEquals(1, filteredActivityList.size());
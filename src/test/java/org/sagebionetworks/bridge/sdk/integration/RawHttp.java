@@ -0,0 +1,134 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLSocket;
+
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.fluent.Executor;
+import org.apache.http.client.fluent.Request;
+import org.apache.http.client.fluent.Response;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One bounded, keep-alive connection pool for the tests that make raw HTTP requests (to spoof headers or watch
+ * redirects), instead of each building its own HttpClient. TLS sessions come from one SSL context, so reconnecting to
+ * the same host resumes the session instead of doing a full handshake. Requests, new connections and handshakes (full
+ * and resumed) are counted and logged when the JVM exits, so the pool hit rate shows up at the end of the run.
+ *
+ * The generated *Api clients are unaffected: their OkHttp clients are built inside ClientManager, which has no hook
+ * for a shared pool. Size the pool with -DrawHttp.maxConnections and -DrawHttp.maxConnectionsPerRoute.
+ *
+ * <pre>
+ * HttpResponse response = RawHttp.execute(Request.Get(hostUrl + "/v1/activityevents")
+ *         .setHeader("Bridge-Session", sessionId)).returnResponse();
+ * </pre>
+ */
+public final class RawHttp {
+    private static final Logger LOG = LoggerFactory.getLogger(RawHttp.class);
+
+    private static final int MAX_CONNECTIONS = Integer.getInteger("rawHttp.maxConnections", 50);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = Integer.getInteger("rawHttp.maxConnectionsPerRoute", 20);
+    // Idle connections are kept this long when the server doesn't send a Keep-Alive timeout.
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+    // Connections idle longer than this are checked before reuse.
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private static final AtomicLong REQUESTS = new AtomicLong();
+    private static final AtomicLong CONNECTIONS = new AtomicLong();
+    private static final AtomicLong HANDSHAKES = new AtomicLong();
+    private static final AtomicLong RESUMED_HANDSHAKES = new AtomicLong();
+    private static final Set<String> SESSION_IDS = ConcurrentHashMap.newKeySet();
+    private static final HttpRequestInterceptor COUNT_REQUESTS = (request, context) -> REQUESTS.incrementAndGet();
+
+    private static final PoolingHttpClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+    private static final CloseableHttpClient CLIENT = newClientBuilder()
+            .evictIdleConnections(DEFAULT_KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS).build();
+    private static final Executor EXECUTOR = Executor.newInstance(CLIENT);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RawHttp::logStats, "raw-http-stats"));
+    }
+
+    private RawHttp() {
+    }
+
+    /** Executes a fluent request on the shared pool. */
+    public static Response execute(Request request) throws IOException {
+        return EXECUTOR.execute(request);
+    }
+
+    /**
+     * A client builder on the shared pool, for requests the fluent API can't make (e.g. with redirects disabled).
+     * Closing the built client leaves the pool open.
+     */
+    public static HttpClientBuilder newClientBuilder() {
+        return HttpClients.custom().setConnectionManager(CONNECTION_MANAGER).setConnectionManagerShared(true)
+                .addInterceptorFirst(COUNT_REQUESTS)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+                            context);
+                    return (keepAlive > 0) ? keepAlive : DEFAULT_KEEP_ALIVE_MILLIS;
+                });
+    }
+
+    public static String getStats() {
+        long requests = REQUESTS.get();
+        long connections = CONNECTIONS.get();
+        double hitRate = (requests == 0) ? 0 : 100.0 * (requests - Math.min(requests, connections)) / requests;
+        return String.format("%d requests on %d connections (%.1f%% pool hits), %d TLS handshakes (%d resumed)",
+                requests, connections, hitRate, HANDSHAKES.get(), RESUMED_HANDSHAKES.get());
+    }
+
+    private static void logStats() {
+        if (REQUESTS.get() > 0) {
+            LOG.info("Raw HTTP: " + getStats());
+        }
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager() {
+        SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(SSLContexts.createSystemDefault(),
+                SSLConnectionSocketFactory.getDefaultHostnameVerifier()) {
+            @Override
+            protected void prepareSocket(SSLSocket socket) {
+                // A session ID seen before means the handshake resumed a cached session.
+                socket.addHandshakeCompletedListener(event -> {
+                    HANDSHAKES.incrementAndGet();
+                    if (!SESSION_IDS.add(new BigInteger(1, event.getSession().getId()).toString(16))) {
+                        RESUMED_HANDSHAKES.incrementAndGet();
+                    }
+                });
+            }
+        };
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory).build();
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(registry,
+                (route, config) -> {
+                    CONNECTIONS.incrementAndGet();
+                    return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+                });
+        manager.setMaxTotal(MAX_CONNECTIONS);
+        manager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+        return manager;
+    }
+}
@@ -0,0 +1,264 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityNotFoundException;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Stress mode for reauth token rotation, the call every app makes on resume. ReauthenticationTest covers the rules
+ * with one client; this checks they hold when many clients reauthenticate at once.
+ *
+ * sameToken: all threads reauthenticate one account with the same token at the same moment, so all but the first
+ * request should be answered from the server's reauth cache. Every caller should get the same session and the same
+ * new reauth token back (otherwise the burst rotated the token more than once, or created duplicate sessions), that
+ * token must differ from the one sent (otherwise the rotation was lost), and it must work in the next burst
+ * (otherwise the account was stranded).
+ *
+ * differentTokens: each thread rotates its own account's token in a chain, all threads at once, so every request is a
+ * real rotation, and each new token must differ from the last. Once the reauth cache window has passed, the chain's
+ * first token must be rejected. Comparing the two tests' latencies gives cache hit latency against rotation latency.
+ *
+ * Set the load with -DreauthStress.threads and -DreauthStress.rounds. -DreauthStress.cacheMillis is how long to wait
+ * out the server's reauth cache (default 16 s).
+ */
+@Category(LoadTest.class)
+@ResourceLock(ResourceLock.API_STUDY)
+public class ReauthenticationStressTest {
+    private static final int THREADS = Integer.getInteger("reauthStress.threads", 16);
+    private static final int ROUNDS = Integer.getInteger("reauthStress.rounds", 10);
+    private static final int CACHE_MILLIS = Integer.getInteger("reauthStress.cacheMillis", 16000);
+
+    private static final class Outcome {
+        private final long elapsedNanos;
+        private final long completedNanos;
+        private final UserSessionInfo session;
+        private final Exception error;
+
+        Outcome(long startNanos, long completedNanos, UserSessionInfo session, Exception error) {
+            this.elapsedNanos = completedNanos - startNanos;
+            this.completedNanos = completedNanos;
+            this.session = session;
+            this.error = error;
+        }
+    }
+
+    private static ForAdminsApi adminApi;
+    private static boolean reauthenticationEnabled;
+    // Each test rotates its accounts' tokens, so the tests use separate accounts.
+    private static TestUser burstUser;
+    private static List<TestUser> users = new ArrayList<>();
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        adminApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ForAdminsApi.class);
+        Study study = adminApi.getUsersStudy().execute().body();
+        reauthenticationEnabled = Boolean.TRUE.equals(study.isReauthenticationEnabled());
+        study.setReauthenticationEnabled(true);
+        adminApi.updateStudy(study.getIdentifier(), study).execute();
+
+        executor = LoadThreads.newExecutor("reauth-stress-%d", THREADS);
+        List<Future<TestUser>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                TestUser user = TestUserHelper.createAndSignInUser(ReauthenticationStressTest.class, true);
+                Teardown.register(ReauthenticationStressTest.class, user);
+                return user;
+            }));
+        }
+        for (Future<TestUser> future : futures) {
+            users.add(future.get());
+        }
+        burstUser = TestUserHelper.createAndSignInUser(ReauthenticationStressTest.class, true);
+        Teardown.register(ReauthenticationStressTest.class, burstUser);
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(ReauthenticationStressTest.class);
+    }
+
+    @AfterClass
+    public static void restoreStudy() throws Exception {
+        if (adminApi != null) {
+            Study study = adminApi.getUsersStudy().execute().body();
+            study.setReauthenticationEnabled(reauthenticationEnabled);
+            adminApi.updateStudy(study.getIdentifier(), study).execute();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sameToken() throws Exception {
+        LoadMetrics metrics = new LoadMetrics("Reauth stress, same token, " + THREADS + " threads x " + ROUNDS
+                + " rounds");
+        TestUser user = burstUser;
+        AuthenticationApi authApi = getAuthApi(user);
+        String reauthToken = user.getSession().getReauthToken();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            List<Outcome> outcomes = burst(authApi, user, reauthToken);
+
+            Set<String> sessionTokens = new HashSet<>();
+            Set<String> reauthTokens = new HashSet<>();
+            Outcome last = null;
+            for (Outcome outcome : outcomes) {
+                if (outcome.error != null) {
+                    metrics.countError("Reauthentication failed", outcome.error);
+                    continue;
+                }
+                metrics.record("reauth, same token", outcome.elapsedNanos);
+                metrics.count("reauthenticated");
+                sessionTokens.add(outcome.session.getSessionToken());
+                reauthTokens.add(outcome.session.getReauthToken());
+                if (outcome.session.getReauthToken().equals(reauthToken)) {
+                    metrics.count("lost rotations");
+                }
+                last = outcome;
+            }
+            // The cache answers the whole burst with one session, so one session and one new reauth token.
+            if (sessionTokens.size() > 1) {
+                metrics.count("duplicate sessions", sessionTokens.size() - 1);
+            }
+            if (reauthTokens.size() > 1) {
+                metrics.count("divergent reauth tokens", reauthTokens.size() - 1);
+            }
+            if (last == null) {
+                // Nothing came back; the token the previous round handed out didn't work.
+                metrics.count("stranded accounts");
+                break;
+            }
+            reauthToken = last.session.getReauthToken();
+        }
+        metrics.log();
+        assertEquals(0, metrics.getCount("duplicate sessions"));
+        assertEquals(0, metrics.getCount("divergent reauth tokens"));
+        assertEquals(0, metrics.getCount("lost rotations"));
+        assertEquals(0, metrics.getCount("stranded accounts"));
+    }
+
+    @Test
+    public void differentTokens() throws Exception {
+        LoadMetrics metrics = new LoadMetrics("Reauth stress, different tokens, " + THREADS + " threads x " + ROUNDS
+                + " rounds");
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (TestUser user : users) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                rotateChain(user, metrics);
+                return null;
+            }));
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        metrics.log();
+        assertEquals(0, metrics.getCount("lost rotations"));
+        assertEquals(0, metrics.getCount("stranded accounts"));
+        assertEquals(0, metrics.getCount("old tokens accepted"));
+        assertTrue("No first token was checked after the cache window", metrics.getCount("old tokens rejected") > 0);
+    }
+
+    /** Reauthenticates one account with the same token from every thread at once. */
+    private static List<Outcome> burst(AuthenticationApi authApi, TestUser user, String reauthToken) throws Exception {
+        SignIn signIn = new SignIn().study(user.getStudyId()).email(user.getEmail()).reauthToken(reauthToken);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Outcome>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return reauthenticate(authApi, signIn);
+            }));
+        }
+        startGate.countDown();
+        List<Outcome> outcomes = new ArrayList<>();
+        for (Future<Outcome> future : futures) {
+            outcomes.add(future.get());
+        }
+        // In completion order, so the last outcome holds the token the server issued last (as near as the client can
+        // tell).
+        outcomes.sort((a, b) -> Long.compare(a.completedNanos, b.completedNanos));
+        return outcomes;
+    }
+
+    /**
+     * Rotates one account's token ROUNDS times, each time with the token the previous rotation returned, then waits
+     * out the reauth cache and checks the first token no longer works.
+     */
+    private static void rotateChain(TestUser user, LoadMetrics metrics) throws InterruptedException {
+        AuthenticationApi authApi = getAuthApi(user);
+        String firstReauthToken = user.getSession().getReauthToken();
+        String reauthToken = firstReauthToken;
+        for (int round = 0; round < ROUNDS; round++) {
+            SignIn signIn = new SignIn().study(user.getStudyId()).email(user.getEmail()).reauthToken(reauthToken);
+            Outcome outcome = reauthenticate(authApi, signIn);
+            if (outcome.error != null) {
+                metrics.countError("Reauthentication failed", outcome.error);
+                metrics.count("stranded accounts");
+                return;
+            }
+            metrics.record("reauth, rotation", outcome.elapsedNanos);
+            metrics.count("reauthenticated");
+            if (reauthToken.equals(outcome.session.getReauthToken())) {
+                metrics.count("lost rotations");
+            }
+            reauthToken = outcome.session.getReauthToken();
+        }
+
+        Thread.sleep(CACHE_MILLIS);
+        SignIn signIn = new SignIn().study(user.getStudyId()).email(user.getEmail()).reauthToken(firstReauthToken);
+        Outcome outcome = reauthenticate(authApi, signIn);
+        if (outcome.error instanceof EntityNotFoundException) {
+            metrics.count("old tokens rejected");
+        } else if (outcome.error != null) {
+            metrics.countError("Reauthentication with the first token failed", outcome.error);
+        } else {
+            metrics.count("old tokens accepted");
+        }
+    }
+
+    private static Outcome reauthenticate(AuthenticationApi authApi, SignIn signIn) {
+        long start = System.nanoTime();
+        try {
+            UserSessionInfo session = authApi.reauthenticate(signIn).execute().body();
+            return new Outcome(start, System.nanoTime(), session, null);
+        } catch (Exception e) {
+            return new Outcome(start, System.nanoTime(), null, e);
+        }
+    }
+
+    private static AuthenticationApi getAuthApi(TestUser user) {
+        return ApiClients.of(new ClientManager.Builder().withSignIn(user.getSignIn()).build(),
+                AuthenticationApi.class);
+    }
+}
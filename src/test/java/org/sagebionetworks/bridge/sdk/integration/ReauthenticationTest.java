@@ -38,6 +38,7 @@ import okhttp3.RequestBody;
  * - the token is invalidated when you sign out of the server
  * - if it's wrong, you get a 404 (no indication whether the email is in system or not) 
  */
+@ResourceLock(ResourceLock.API_STUDY)
 public class ReauthenticationTest {
 
     private static final int REAUTH_CACHE_IN_MILLIS = 15000;
@@ -58,7 +59,7 @@ public class ReauthenticationTest {
     @BeforeClass
     public static void turnOnReauthentication() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         
         Study study = adminApi.getStudy("api").execute().body();
         study.setReauthenticationEnabled(true);
@@ -68,7 +69,7 @@ public class ReauthenticationTest {
     @AfterClass
     public static void turnOffReauthentication() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         
         Study study = adminApi.getStudy("api").execute().body();
         study.setReauthenticationEnabled(false);
@@ -77,7 +78,7 @@ public class ReauthenticationTest {
     
     @Test
     public void simulateServerSessionTimeout() throws Exception {
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         usersApi.getActivityEvents().execute().body();
         
         // Simulate loss of the session on the server.
@@ -111,7 +112,7 @@ public class ReauthenticationTest {
         
         Set<String> sessionTokens = new HashSet<>();
         Set<String> reauthTokens = new HashSet<>();
-        AuthenticationApi authApi = user.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(user, AuthenticationApi.class);
 
         UserSessionInfo firstSession = authApi.reauthenticate(signIn).execute().body();
         sessionTokens.add(firstSession.getSessionToken());
@@ -130,7 +131,7 @@ public class ReauthenticationTest {
         reauthTokens.add(thirdSession.getReauthToken());
 
         // User should be able to make this call without incident.
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         usersApi.getActivityEvents().execute();
         
         // All three sign-ins got back unique session tokens and reauth tokens
@@ -178,7 +179,7 @@ public class ReauthenticationTest {
         try {
             String reauthToken = testUser.getSession().getReauthToken();
             
-            ForConsentedUsersApi userApi = testUser.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
             StudyParticipant participant = userApi.getUsersParticipantRecord(false).execute().body();
             participant.setFirstName("Lacy");
             participant.setLastName("Loo");
@@ -193,7 +194,7 @@ public class ReauthenticationTest {
             Thread.sleep(16000);
             
             SignIn signIn = new SignIn().study(testUser.getStudyId()).email(testUser.getEmail()).reauthToken(reauthToken);
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             UserSessionInfo newSession = authApi.reauthenticate(signIn).execute().body();
             assertNotEquals(reauthToken, newSession.getReauthToken());
         } finally {
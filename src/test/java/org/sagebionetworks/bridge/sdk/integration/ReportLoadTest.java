@@ -0,0 +1,299 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForDevelopersApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantReportsApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.api.StudyReportsApi;
+import org.sagebionetworks.bridge.rest.model.ForwardCursorReportDataList;
+import org.sagebionetworks.bridge.rest.model.ReportData;
+import org.sagebionetworks.bridge.rest.model.ReportDataForWorker;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Report throughput harness. Writes months of reports in parallel, in steps: a daily participant report for every user
+ * through ForDevelopersApi, a DateTime-keyed participant report for every user through ForWorkersApi, and a daily study
+ * report. After each step it measures the reads dashboards make as the reports grow: date-range queries of daily
+ * participant and study reports, and offset-key paging through a window of the DateTime-keyed report. Study reports are
+ * keyed by date only, so there is no DateTime-keyed study report.
+ *
+ * The server caps a report query at 45 days, so reads query a random window of -DreportLoad.windowDays within
+ * everything written so far. Set the sweep of report sizes with -DreportLoad.days (comma-separated) and the load with
+ * -DreportLoad.users, -DreportLoad.recordsPerDay (DateTime-keyed records per user per day), -DreportLoad.pageSize,
+ * -DreportLoad.reads and -DreportLoad.threads. The curve is written to target/scaling/reports.tsv.
+ */
+@Category(LoadTest.class)
+@ResourceLock(ResourceLock.API_STUDY)
+public class ReportLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ReportLoadTest.class);
+
+    private static final List<Integer> DAYS = ScalingCurve.getSweep("reportLoad.days", "30,90,180");
+    private static final int USERS = Integer.getInteger("reportLoad.users", 8);
+    private static final int RECORDS_PER_DAY = Integer.getInteger("reportLoad.recordsPerDay", 4);
+    private static final int WINDOW_DAYS = Integer.getInteger("reportLoad.windowDays", 30);
+    private static final int PAGE_SIZE = Integer.getInteger("reportLoad.pageSize", 20);
+    private static final int READS = Integer.getInteger("reportLoad.reads", 10);
+    private static final int THREADS = Integer.getInteger("reportLoad.threads", 16);
+
+    private static final LocalDate FIRST_DAY = LocalDate.parse("2017-01-01");
+    private static final DateTimeZone TIME_ZONE = DateTimeZone.forOffsetHours(-7);
+
+    private static final String WRITE_DAILY = "write participant daily";
+    private static final String WRITE_DATE_TIME = "write participant DateTime";
+    private static final String WRITE_STUDY = "write study daily";
+    private static final String READ_DAILY = "read participant daily range";
+    private static final String READ_STUDY = "read study daily range";
+    private static final String READ_PAGE = "read participant DateTime page";
+    private static final String READ_ALL_PAGES = "read participant DateTime window, all pages";
+
+    private static final class Participant {
+        private final TestUser user;
+        private final String healthCode;
+
+        Participant(TestUser user, String healthCode) {
+            this.user = user;
+            this.healthCode = healthCode;
+        }
+    }
+
+    private static TestUser admin;
+    private static TestUser developer;
+    private static TestUser worker;
+    private static boolean healthCodeExportEnabled;
+    private static String dailyReportId;
+    private static String dateTimeReportId;
+    private static String studyReportId;
+    private static List<Participant> participants = new ArrayList<>();
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+        // The worker is also a researcher, to look up the health codes the worker API needs.
+        worker = TestUserPool.lease(false, Role.WORKER, Role.RESEARCHER);
+
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
+        Study study = adminApi.getStudy("api").execute().body();
+        healthCodeExportEnabled = Boolean.TRUE.equals(study.isHealthCodeExportEnabled());
+        study.setHealthCodeExportEnabled(true);
+        adminApi.updateStudy(study.getIdentifier(), study).execute();
+
+        dailyReportId = Tests.randomIdentifier(ReportLoadTest.class);
+        dateTimeReportId = Tests.randomIdentifier(ReportLoadTest.class);
+        studyReportId = Tests.randomIdentifier(ReportLoadTest.class);
+        // Teardown deletes as admin: with deferred teardown, the pooled developer may already be gone.
+        Teardown.register(ReportLoadTest.class, Teardown.Stage.ENTITY, "study report " + studyReportId,
+                () -> ApiClients.of(admin, ForDevelopersApi.class).deleteAllStudyReportRecords(studyReportId)
+                        .execute());
+        for (String reportId : ImmutableList.of(dailyReportId, dateTimeReportId)) {
+            Teardown.register(ReportLoadTest.class, Teardown.Stage.ENTITY, "participant report index " + reportId,
+                    () -> ApiClients.of(admin, ForAdminsApi.class).deleteParticipantReportIndex(reportId).execute());
+        }
+
+        executor = LoadThreads.newExecutor("report-load-%d", THREADS);
+        List<Future<Participant>> futures = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            futures.add(executor.submit(ReportLoadTest::createParticipant));
+        }
+        for (Future<Participant> future : futures) {
+            participants.add(future.get());
+        }
+    }
+
+    @AfterClass
+    public static void deleteEntities() throws Exception {
+        Teardown.run(ReportLoadTest.class);
+    }
+
+    @AfterClass
+    public static void releaseUsers() throws Exception {
+        TestUserPool.release(developer);
+        TestUserPool.release(worker);
+    }
+
+    @AfterClass
+    public static void restoreStudy() throws Exception {
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
+        Study study = adminApi.getStudy("api").execute().body();
+        study.setHealthCodeExportEnabled(healthCodeExportEnabled);
+        adminApi.updateStudy(study.getIdentifier(), study).execute();
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reportScaling() throws Exception {
+        ScalingCurve curve = new ScalingCurve("reports");
+        LoadMetrics errors = new LoadMetrics("Report load errors");
+        int daysWritten = 0;
+        for (int days : DAYS) {
+            LoadMetrics metrics = new LoadMetrics("Reports, " + USERS + " users, " + days + " days");
+            writeDays(daysWritten, days, metrics, errors);
+            daysWritten = Math.max(daysWritten, days);
+            readWindows(daysWritten, metrics, errors);
+            metrics.log();
+
+            for (String operation : ImmutableList.of(WRITE_DAILY, WRITE_DATE_TIME, WRITE_STUDY, READ_DAILY, READ_STUDY,
+                    READ_PAGE, READ_ALL_PAGES)) {
+                curve.add(ImmutableMap.of("days", daysWritten, "users", USERS, "operation", operation),
+                        metrics.histogram(operation));
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+        errors.log();
+        assertEquals(0, errors.getCount("errors"));
+    }
+
+    /** Writes every report for each day in [fromDay, toDay), all users and days concurrently. */
+    private static void writeDays(int fromDay, int toDay, LoadMetrics metrics, LoadMetrics errors) throws Exception {
+        ForDevelopersApi developerApi = ApiClients.of(developer, ForDevelopersApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
+
+        List<Callable<Void>> writes = new ArrayList<>();
+        for (int day = fromDay; day < toDay; day++) {
+            LocalDate date = FIRST_DAY.plusDays(day);
+            writes.add(() -> {
+                ReportData data = makeReportData(date);
+                timed(WRITE_STUDY, metrics, errors, () -> developerApi.addStudyReportRecord(studyReportId, data)
+                        .execute());
+                return null;
+            });
+            for (Participant participant : participants) {
+                writes.add(() -> {
+                    ReportData data = makeReportData(date);
+                    timed(WRITE_DAILY, metrics, errors, () -> developerApi.addParticipantReportRecordV4(
+                            participant.user.getUserId(), dailyReportId, data).execute());
+                    DateTime startOfDay = date.toDateTimeAtStartOfDay(TIME_ZONE);
+                    for (int i = 0; i < RECORDS_PER_DAY; i++) {
+                        ReportDataForWorker workerData = new ReportDataForWorker();
+                        workerData.setHealthCode(participant.healthCode);
+                        workerData.setDateTime(startOfDay.plusMinutes(i * 24 * 60 / RECORDS_PER_DAY));
+                        workerData.setData(makeReportData(date).getData());
+                        timed(WRITE_DATE_TIME, metrics, errors, () -> workerApi.addParticipantReportRecord(
+                                dateTimeReportId, workerData).execute());
+                    }
+                    return null;
+                });
+            }
+        }
+        for (Future<Void> future : executor.invokeAll(writes)) {
+            future.get();
+        }
+    }
+
+    /** Reads random windows of the reports written so far, READS times per user, all concurrently. */
+    private static void readWindows(int daysWritten, LoadMetrics metrics, LoadMetrics errors) throws Exception {
+        StudyReportsApi studyReportsApi = ApiClients.of(developer, StudyReportsApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
+
+        List<Callable<Void>> reads = new ArrayList<>();
+        for (Participant participant : participants) {
+            ParticipantReportsApi userReportsApi = ApiClients.of(participant.user, ParticipantReportsApi.class);
+            for (int i = 0; i < READS; i++) {
+                reads.add(() -> {
+                    LocalDate start = randomWindowStart(daysWritten);
+                    LocalDate end = start.plusDays(Math.min(WINDOW_DAYS, daysWritten) - 1);
+                    timed(READ_DAILY, metrics, errors, () -> userReportsApi.getParticipantReportRecords(
+                            dailyReportId, start, end).execute());
+                    timed(READ_STUDY, metrics, errors, () -> studyReportsApi.getStudyReportRecords(studyReportId,
+                            start, end).execute());
+                    timed(READ_ALL_PAGES, metrics, errors, () -> readAllPages(workerApi, participant, start, end,
+                            metrics));
+                    return null;
+                });
+            }
+        }
+        for (Future<Void> future : executor.invokeAll(reads)) {
+            future.get();
+        }
+    }
+
+    private static Void readAllPages(ForWorkersApi workerApi, Participant participant, LocalDate start,
+            LocalDate end, LoadMetrics metrics) throws Exception {
+        DateTime startTime = start.toDateTimeAtStartOfDay(TIME_ZONE);
+        DateTime endTime = end.plusDays(1).toDateTimeAtStartOfDay(TIME_ZONE).minusMillis(1);
+        String offsetKey = null;
+        do {
+            long pageStart = System.nanoTime();
+            ForwardCursorReportDataList page = workerApi.getParticipantReportsForParticipantV4(
+                    participant.user.getStudyId(), participant.user.getUserId(), dateTimeReportId, startTime,
+                    endTime, offsetKey, PAGE_SIZE).execute().body();
+            metrics.record(READ_PAGE, System.nanoTime() - pageStart);
+            metrics.count("records read", page.getItems().size());
+            offsetKey = page.getNextPageOffsetKey();
+        } while (offsetKey != null);
+        return null;
+    }
+
+    private static void timed(String operation, LoadMetrics metrics, LoadMetrics errors, Callable<?> call) {
+        long start = System.nanoTime();
+        try {
+            call.call();
+            metrics.record(operation, System.nanoTime() - start);
+        } catch (Exception e) {
+            errors.countError(operation + " failed", e);
+            errors.count(operation + " " + LoadMetrics.errorName(e));
+        }
+    }
+
+    private static Participant createParticipant() throws Exception {
+        TestUser user = TestUserHelper.createAndSignInUser(ReportLoadTest.class, true);
+        // Participant reports outlive the account, so delete them with it.
+        Teardown.register(ReportLoadTest.class, Teardown.Stage.USER, "user " + user.getEmail() + " and reports",
+                () -> {
+                    ForDevelopersApi adminReportsApi = ApiClients.of(admin, ForDevelopersApi.class);
+                    adminReportsApi.deleteAllParticipantReportRecords(user.getUserId(), dailyReportId).execute();
+                    adminReportsApi.deleteAllParticipantReportRecords(user.getUserId(), dateTimeReportId).execute();
+                    user.signOutAndDeleteUser();
+                });
+        String healthCode = ApiClients.of(worker, ParticipantsApi.class).getParticipantById(user.getUserId(), false)
+                .execute().body().getHealthCode();
+        return new Participant(user, healthCode);
+    }
+
+    private static LocalDate randomWindowStart(int daysWritten) {
+        int latestStart = Math.max(0, daysWritten - WINDOW_DAYS);
+        return FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(latestStart + 1));
+    }
+
+    /** About the size of a day of dashboard summary data. */
+    private static ReportData makeReportData(LocalDate date) {
+        ReportData reportData = new ReportData();
+        reportData.setLocalDate(date);
+        reportData.setData(ImmutableMap.of("date", date.toString(), "steps",
+                ThreadLocalRandom.current().nextInt(20000), "minutesActive", ThreadLocalRandom.current().nextInt(600),
+                "surveysCompleted", ThreadLocalRandom.current().nextInt(5)));
+        return reportData;
+    }
+}
@@ -49,6 +49,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
 @SuppressWarnings("unchecked")
+@ResourceLock(ResourceLock.API_STUDY)
 public class ReportTest {
 
     private static final LocalDate SEARCH_START_DATE = LocalDate.parse("2016-02-01");
@@ -82,24 +83,30 @@ public class ReportTest {
         String id2 = Tests.randomIdentifier(SubstudyTest.class);
         
         admin = TestUserHelper.getSignedInAdmin();
-        SubstudiesApi substudiesApi = admin.getClient(SubstudiesApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
         substudy1 = new Substudy().id(id1).name("Substudy " + id1);
         VersionHolder holder = substudiesApi.createSubstudy(substudy1).execute().body();
         substudy1.setVersion(holder.getVersion());
+        // The substudies are deleted after the developer because we put the developer in them.
+        Teardown.register(ReportTest.class, Teardown.Stage.SUBSTUDY, "substudy " + id1,
+                () -> substudiesApi.deleteSubstudy(id1, true).execute());
         
         substudy2 = new Substudy().id(id2).name("Substudy " + id2);
         holder = substudiesApi.createSubstudy(substudy2).execute().body();
         substudy2.setVersion(holder.getVersion());
+        Teardown.register(ReportTest.class, Teardown.Stage.SUBSTUDY, "substudy " + id2,
+                () -> substudiesApi.deleteSubstudy(id2, true).execute());
         
         developer = new TestUserHelper.Builder(ReportTest.class).withRoles(Role.DEVELOPER)
                 .withSubstudyIds(ImmutableSet.of(substudy1.getId())).createAndSignInUser();
+        Teardown.register(ReportTest.class, developer);
 
         // Make this worker a researcher solely for the purpose of getting the healthCode needed to user the worker
         // API
-        worker = TestUserHelper.createAndSignInUser(ReportTest.class, false, Role.WORKER, Role.RESEARCHER);
+        worker = TestUserPool.lease(false, Role.WORKER, Role.RESEARCHER);
 
         // Worker test needs to be able to get healthcode.
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getStudy("api").execute().body();
         study.setHealthCodeExportEnabled(true);
         adminApi.updateStudy(study.getIdentifier(), study).execute().body();
@@ -107,20 +114,20 @@ public class ReportTest {
 
     @Before
     public void before() throws Exception {
-        user = TestUserHelper.createAndSignInUser(ReportTest.class, true);
+        user = TestUserPool.lease(true);
         reportId = Tests.randomIdentifier(ReportTest.class);
     }
 
     @After
     public void after() throws Exception {
-        ForDevelopersApi developerApi = developer.getClient(ForDevelopersApi.class);
+        ForDevelopersApi developerApi = ApiClients.of(developer, ForDevelopersApi.class);
         developerApi.deleteAllParticipantReportRecords(user.getUserId(), reportId).execute();
         developerApi.deleteAllStudyReportRecords(reportId).execute();
 
-        admin.getClient(ForAdminsApi.class).deleteParticipantReportIndex(reportId).execute();
+        ApiClients.of(admin, ForAdminsApi.class).deleteParticipantReportIndex(reportId).execute();
         
         if (user != null) {
-            user.signOutAndDeleteUser();
+            TestUserPool.release(user);
         }
         if (substudyScopedUser != null) {
             substudyScopedUser.signOutAndDeleteUser();
@@ -128,29 +135,20 @@ public class ReportTest {
     }
     
     @AfterClass
-    public static void deleteDeveloper() throws Exception {
-        if (developer != null) {
-            developer.signOutAndDeleteUser();
-        }
-        // The substudy must be deleted after the developer because we put them in the substudy.
-        if (substudy1 != null) {
-            admin.getClient(SubstudiesApi.class).deleteSubstudy(substudy1.getId(), true).execute();
-        }
-        if (substudy2 != null) {
-            admin.getClient(SubstudiesApi.class).deleteSubstudy(substudy2.getId(), true).execute();
-        }
+    public static void deleteEntities() throws Exception {
+        Teardown.run(ReportTest.class);
     }
 
     @AfterClass
     public static void deleteWorker() throws Exception {
         if (worker != null) {
-            worker.signOutAndDeleteUser();
+            TestUserPool.release(worker);
         }
     }
 
     @AfterClass
     public static void unsetHealthCodeExportEnabled() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getStudy("api").execute().body();
         study.setHealthCodeExportEnabled(false);
         adminApi.updateStudy(study.getIdentifier(), study).execute().body();
@@ -159,7 +157,7 @@ public class ReportTest {
     @Test
     public void developerCanCrudParticipantReport() throws Exception {
         String userId = user.getSession().getId();
-        ParticipantReportsApi reportsApi = developer.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi reportsApi = ApiClients.of(developer, ParticipantReportsApi.class);
 
         reportsApi.addParticipantReportRecordV4(userId, reportId, makeReportData(DATE1, "foo", "A"))
                 .execute();
@@ -168,7 +166,7 @@ public class ReportTest {
         reportsApi.addParticipantReportRecordV4(userId, reportId, makeReportData(DATE3, "baz", "C"))
                 .execute();
 
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
         ReportDataList results = usersApi.getParticipantReportRecords(reportId, SEARCH_START_DATE, SEARCH_END_DATE)
                 .execute().body();
@@ -191,7 +189,7 @@ public class ReportTest {
         assertEquals(ReportType.PARTICIPANT, indices.getRequestParams().getReportType());
 
         // but not if we ask for study reports
-        StudyReportsApi studyReportsApi = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi studyReportsApi = ApiClients.of(developer, StudyReportsApi.class);
         indices = studyReportsApi.getStudyReportIndices().execute().body();
         assertFalse(containsThisIdentifier(indices, reportId));
         assertEquals(ReportType.STUDY, indices.getRequestParams().getReportType());
@@ -206,13 +204,13 @@ public class ReportTest {
 
     @Test
     public void workerCanCrudParticipantReportByDate() throws Exception {
-        String healthCode = worker.getClient(ParticipantsApi.class).getParticipantById(user.getSession().getId(),
+        String healthCode = ApiClients.of(worker, ParticipantsApi.class).getParticipantById(user.getSession().getId(),
                 false).execute().body().getHealthCode();
         assertNotNull(healthCode);
         String userId = user.getSession().getId();
 
         // Worker can make reports.
-        ForWorkersApi workerReportsApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workerReportsApi = ApiClients.of(worker, ForWorkersApi.class);
         workerReportsApi.addParticipantReportRecord(reportId, makeReportDataForWorker(healthCode, DATE1, "foo",
                 "A")).execute();
         workerReportsApi.addParticipantReportRecord(reportId, makeReportDataForWorker(healthCode, DATE2, "bar",
@@ -221,7 +219,7 @@ public class ReportTest {
                 "C")).execute();
 
         // User can get those reports.
-        ParticipantReportsApi userReportsApi = user.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi userReportsApi = ApiClients.of(user, ParticipantReportsApi.class);
         ReportDataList results = userReportsApi.getParticipantReportRecords(reportId, SEARCH_START_DATE,
                 SEARCH_END_DATE).execute().body();
         assertEquals(3, results.getItems().size());
@@ -244,13 +242,13 @@ public class ReportTest {
 
     @Test
     public void workerCanCrudParticipantReportByDateTime() throws Exception {
-        String healthCode = worker.getClient(ParticipantsApi.class).getParticipantById(user.getSession().getId(),
+        String healthCode = ApiClients.of(worker, ParticipantsApi.class).getParticipantById(user.getSession().getId(),
                 false).execute().body().getHealthCode();
         assertNotNull(healthCode);
         String userId = user.getSession().getId();
 
         // Worker can make reports.
-        ForWorkersApi workerReportsApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workerReportsApi = ApiClients.of(worker, ForWorkersApi.class);
         workerReportsApi.addParticipantReportRecord(reportId, makeReportDataForWorker(healthCode, DATETIME1, "foo",
                 "A")).execute();
         workerReportsApi.addParticipantReportRecord(reportId, makeReportDataForWorker(healthCode, DATETIME2, "bar",
@@ -259,7 +257,7 @@ public class ReportTest {
                 "C")).execute();
 
         // User can get those reports.
-        ParticipantReportsApi userReportsApi = user.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi userReportsApi = ApiClients.of(user, ParticipantReportsApi.class);
         ForwardCursorReportDataList results = userReportsApi.getParticipantReportRecordsV4(reportId, SEARCH_START_TIME,
                 SEARCH_END_TIME, 20, null).execute().body();
         assertEquals(3, results.getItems().size());
@@ -284,7 +282,7 @@ public class ReportTest {
 
     @Test
     public void canCrudStudyReport() throws Exception {
-        StudyReportsApi devReportClient = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi devReportClient = ApiClients.of(developer, StudyReportsApi.class);
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE1, "foo", "A")).execute();
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE2, "bar", "B")).execute();
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE3, "baz", "C")).execute();
@@ -299,7 +297,7 @@ public class ReportTest {
         assertEquals(SEARCH_END_DATE, results.getRequestParams().getEndDate());
 
         // This search is out of range, and should return no results.
-        ParticipantReportsApi participantReportsApi = developer.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi participantReportsApi = ApiClients.of(developer, ParticipantReportsApi.class);
         results = participantReportsApi.getParticipantReportRecords(reportId, SEARCH_START_DATE.minusDays(30),
                 SEARCH_END_DATE.minusDays(30)).execute().body();
         assertEquals(0, results.getItems().size());
@@ -314,7 +312,7 @@ public class ReportTest {
         assertFalse(containsThisIdentifier(indices, reportId));
         assertEquals(ReportType.PARTICIPANT, indices.getRequestParams().getReportType());
 
-        developer.getClient(StudyReportsApi.class).deleteAllStudyReportRecords(reportId).execute();
+        ApiClients.of(developer, StudyReportsApi.class).deleteAllStudyReportRecords(reportId).execute();
         results = participantReportsApi.getParticipantReportRecords(reportId, SEARCH_START_DATE, SEARCH_END_DATE)
                 .execute().body();
         assertEquals(0, results.getItems().size());
@@ -322,7 +320,7 @@ public class ReportTest {
 
     @Test
     public void canMakeStudyReportPublic() throws Exception {
-        StudyReportsApi devReportClient = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi devReportClient = ApiClients.of(developer, StudyReportsApi.class);
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE1, "foo", "A")).execute();
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE2, "bar", "B")).execute();
         devReportClient.addStudyReportRecord(reportId, makeReportData(DATE3, "baz", "C")).execute();
@@ -358,7 +356,7 @@ public class ReportTest {
         // unlikely to happen again, since the cache was removed. However, in order to verify the fix and prevent
         // future regression, this test has been added.
 
-        StudyReportsApi devReportClient = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi devReportClient = ApiClients.of(developer, StudyReportsApi.class);
         try {
             // Create reports with different IDs.
             devReportClient.addStudyReportRecord(reportId + 1, makeReportData(DATE1, "foo", "A"))
@@ -371,7 +369,7 @@ public class ReportTest {
             assertTrue(containsThisIdentifier(indices, reportId + 1));
             assertTrue(containsThisIdentifier(indices, reportId + 2));
 
-            StudyReportsApi studyReportsApi = developer.getClient(StudyReportsApi.class);
+            StudyReportsApi studyReportsApi = ApiClients.of(developer, StudyReportsApi.class);
             studyReportsApi.deleteAllStudyReportRecords(reportId + 1).execute();
             studyReportsApi.deleteAllStudyReportRecords(reportId + 2).execute();
         } finally {
@@ -382,7 +380,7 @@ public class ReportTest {
 
     @Test
     public void correctExceptionsOnBadRequest() throws Exception {
-        StudyReportsApi devReportClient = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi devReportClient = ApiClients.of(developer, StudyReportsApi.class);
         try {
             devReportClient
                     .getStudyReportRecords(reportId, LocalDate.parse("2010-10-10"), LocalDate.parse("2012-10-10"))
@@ -397,7 +395,7 @@ public class ReportTest {
         } catch (BadRequestException e) {
             assertEquals("Start date 2016-02-20 can't be after end date 2016-02-01", e.getMessage());
         }
-        ParticipantReportsApi participantReportsApi = developer.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi participantReportsApi = ApiClients.of(developer, ParticipantReportsApi.class);
         try {
             participantReportsApi.getParticipantReportRecords(reportId, LocalDate.parse("2010-10-10"),
                     LocalDate.parse("2012-10-10")).execute();
@@ -416,7 +414,7 @@ public class ReportTest {
     
     @Test
     public void userCanCRUDSelfReports() throws Exception {
-        UsersApi userApi = user.getClient(UsersApi.class);
+        UsersApi userApi = ApiClients.of(user, UsersApi.class);
 
         userApi.saveParticipantReportRecordsV4(reportId, makeReportData(DATETIME1, "foo", "A")).execute();
         userApi.saveParticipantReportRecordsV4(reportId, makeReportData(DATETIME2, "bar", "B")).execute();
@@ -453,7 +451,7 @@ public class ReportTest {
             // expected exception
         }
 
-        ParticipantReportsApi reportsApi = developer.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi reportsApi = ApiClients.of(developer, ParticipantReportsApi.class);
         reportsApi.deleteAllParticipantReportRecords(user.getSession().getId(), reportId).execute();
         results = userApi
                 .getParticipantReportRecordsV4("foo", SEARCH_START_TIME, SEARCH_END_TIME, 20, null).execute().body();
@@ -462,7 +460,7 @@ public class ReportTest {
     
     @Test
     public void studyReportsNotVisibleOutsideOfSubstudy() throws Exception {
-        StudyReportsApi devReportClient = developer.getClient(StudyReportsApi.class);
+        StudyReportsApi devReportClient = ApiClients.of(developer, StudyReportsApi.class);
         ReportData data1 = makeReportData(DATE1, "asdf", "A");
         data1.setSubstudyIds(ImmutableList.of(substudy1.getId()));
         ReportData data2 = makeReportData(DATE2, "asdf", "B");
@@ -472,7 +470,7 @@ public class ReportTest {
         // Not a member of the substudy used for these report records
         substudyScopedUser = new TestUserHelper.Builder(ReportTest.class).withConsentUser(true)
                 .withSubstudyIds(ImmutableSet.of(substudy2.getId())).createAndSignInUser();
-        StudyReportsApi reportsApi = substudyScopedUser.getClient(StudyReportsApi.class);
+        StudyReportsApi reportsApi = ApiClients.of(substudyScopedUser, StudyReportsApi.class);
         ReportIndex index = reportsApi.getStudyReportIndex(reportId).execute().body();
         assertTrue(index.getSubstudyIds().contains(substudy1.getId()));
         try {
@@ -519,12 +517,12 @@ public class ReportTest {
         substudyScopedUser = new TestUserHelper.Builder(ReportTest.class).withConsentUser(true)
                 .withSubstudyIds(ImmutableSet.of(substudy2.getId())).createAndSignInUser();
         
-        String healthCode = worker.getClient(ParticipantsApi.class)
+        String healthCode = ApiClients.of(worker, ParticipantsApi.class)
                 .getParticipantById(substudyScopedUser.getUserId(), false).execute().body().getHealthCode();
 
         // Note that the first record saved, sets the substudies in the index and applies to all records after
         // that. So the scoped user cannot then retrieve the records because they are not in substudy1.
-        ForWorkersApi workerApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
         ReportDataForWorker data1 = makeReportDataForWorker(healthCode, DATE1, "asdf", "A");
         data1.setSubstudyIds(ImmutableList.of(substudy1.getId()));
         ReportDataForWorker data2 = makeReportDataForWorker(healthCode, DATE2, "asdf", "B");
@@ -532,7 +530,7 @@ public class ReportTest {
         workerApi.addParticipantReportRecord(reportId, data2).execute();
         
         // The index now exists and can be retrieved.
-        ParticipantReportsApi reportsApi = substudyScopedUser.getClient(ParticipantReportsApi.class);
+        ParticipantReportsApi reportsApi = ApiClients.of(substudyScopedUser, ParticipantReportsApi.class);
         ReportIndex index = reportsApi.getParticipantReportIndex(reportId).execute().body();
         assertTrue(index.getSubstudyIds().contains(substudy1.getId()));
         
@@ -0,0 +1,25 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the shared server-side resources a test class mutates. When the suite is run through
+ * {@link ParallelIntegrationSuite}, two classes that name the same resource are never run at the same time. Classes
+ * without this annotation are assumed to only touch entities they created themselves.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ResourceLock {
+    /** The "api" study's settings (flags, automatic custom events, data groups, etc.). */
+    String API_STUDY = "api-study";
+
+    /** The shared admin session from TestUserHelper.getSignedInAdmin(), when a test switches it to another study. */
+    String ADMIN_SESSION = "admin-session";
+
+    String[] value();
+}
@@ -0,0 +1,152 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.junit.runner.Computer;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * A JUnit computer that runs test classes concurrently on a fixed number of threads. Unlike JUnit's own
+ * ParallelComputer, a class is only started once none of the {@link ResourceLock} resources it declares are held by a
+ * running class, so conflicting classes serialize while everything else overlaps. Methods within a class still run
+ * one at a time, because most classes share state through static fields set up in @BeforeClass.
+ *
+ * Each class's wall time is measured around its whole runner, so @BeforeClass and @AfterClass are included, for
+ * {@link PerfHistoryListener} to record.
+ */
+public class ResourceLockingComputer extends Computer {
+    // Microseconds by test class simple name, for every class run in this JVM.
+    private static final Map<String, Long> CLASS_MICROS = new ConcurrentHashMap<>();
+
+    private final int threadCount;
+
+    public ResourceLockingComputer(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be positive");
+        }
+        this.threadCount = threadCount;
+    }
+
+    @Override
+    public Runner getSuite(RunnerBuilder builder, Class<?>[] classes) throws InitializationError {
+        return new LockingSuite(builder, classes);
+    }
+
+    /** Wall time of each test class run so far in this JVM, fixtures included, in microseconds by simple name. */
+    static Map<String, Long> getClassDurations() {
+        return new TreeMap<>(CLASS_MICROS);
+    }
+
+    static Set<String> getLocks(Class<?> testClass) {
+        ResourceLock annotation = testClass == null ? null : testClass.getAnnotation(ResourceLock.class);
+        if (annotation == null) {
+            return ImmutableSet.of();
+        }
+        return ImmutableSet.copyOf(annotation.value());
+    }
+
+    private class LockingSuite extends Suite {
+        // ParentRunner hands children to the scheduler after filtering and sorting. runChild() only queues them here
+        // so the scheduler's finished() callback can dispatch them in lock order.
+        private final List<Runner> pending = new ArrayList<>();
+        private RunNotifier notifier;
+
+        LockingSuite(RunnerBuilder builder, Class<?>[] classes) throws InitializationError {
+            super(builder, classes);
+            setScheduler(new RunnerScheduler() {
+                @Override
+                public void schedule(Runnable childStatement) {
+                    childStatement.run();
+                }
+
+                @Override
+                public void finished() {
+                    try {
+                        dispatchPending();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+
+        @Override
+        protected void runChild(Runner runner, RunNotifier notifier) {
+            this.notifier = notifier;
+            pending.add(runner);
+        }
+
+        private void dispatchPending() throws InterruptedException {
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                    new ThreadFactoryBuilder().setNameFormat("test-class-%d").build());
+            Set<String> heldLocks = new HashSet<>();
+            int[] running = { 0 };
+            try {
+                synchronized (heldLocks) {
+                    while (!pending.isEmpty()) {
+                        Runner next = null;
+                        if (running[0] < threadCount) {
+                            Iterator<Runner> iterator = pending.iterator();
+                            while (iterator.hasNext()) {
+                                Runner candidate = iterator.next();
+                                Set<String> candidateLocks = getLocks(candidate.getDescription().getTestClass());
+                                if (Collections.disjoint(heldLocks, candidateLocks)) {
+                                    iterator.remove();
+                                    next = candidate;
+                                    break;
+                                }
+                            }
+                        }
+                        if (next == null) {
+                            // Either every thread is busy or every remaining class conflicts with a running one.
+                            heldLocks.wait();
+                            continue;
+                        }
+                        Runner runner = next;
+                        Set<String> locks = getLocks(runner.getDescription().getTestClass());
+                        heldLocks.addAll(locks);
+                        running[0]++;
+                        executor.execute(() -> {
+                            long start = System.nanoTime();
+                            try {
+                                LockingSuite.super.runChild(runner, notifier);
+                            } finally {
+                                Class<?> testClass = runner.getDescription().getTestClass();
+                                if (testClass != null) {
+                                    CLASS_MICROS.put(testClass.getSimpleName(),
+                                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                                }
+                                synchronized (heldLocks) {
+                                    heldLocks.removeAll(locks);
+                                    running[0]--;
+                                    heldLocks.notifyAll();
+                                }
+                            }
+                        });
+                    }
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
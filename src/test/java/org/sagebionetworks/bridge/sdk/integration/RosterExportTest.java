@@ -0,0 +1,131 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Roster export through {@link RosterExporter}. Seeds -DrosterExport.accounts participants, then exports them through
+ * the researcher API and the worker API to target/roster/[api].ndjson, with -DrosterExport.pageSize summaries per page
+ * and -DrosterExport.concurrency participant fetches at a time, and reports records per second. Exports are limited to
+ * the seeded accounts by email, so the count can be checked; -DrosterExport.wholeStudy=true exports every participant
+ * in the study instead.
+ */
+@Category(LoadTest.class)
+public class RosterExportTest {
+    private static final Logger LOG = LoggerFactory.getLogger(RosterExportTest.class);
+
+    private static final int ACCOUNTS = Integer.getInteger("rosterExport.accounts", 500);
+    private static final int PAGE_SIZE = Integer.getInteger("rosterExport.pageSize", 100);
+    private static final int CONCURRENCY = Integer.getInteger("rosterExport.concurrency", 16);
+    private static final boolean WHOLE_STUDY = Boolean.getBoolean("rosterExport.wholeStudy");
+
+    private static String emailPrefix;
+    private static TestUser admin;
+    private static TestUser researcher;
+    private static TestUser worker;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        emailPrefix = "bridge-testing+RosterExportTest-" + RandomStringUtils.randomAlphabetic(4) + "-";
+        admin = TestUserHelper.getSignedInAdmin();
+        researcher = TestUserPool.lease(false, Role.RESEARCHER);
+        worker = TestUserPool.lease(false, Role.WORKER);
+
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
+        List<Callable<Void>> creates = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            SignUp signUp = new SignUp().study(IntegTestUtils.STUDY_ID).email(emailPrefix + i + "@sagebase.org")
+                    .password("P@ssword`1");
+            creates.add(() -> {
+                String id = participantsApi.createParticipant(signUp).execute().body().getIdentifier();
+                Teardown.register(RosterExportTest.class, Teardown.Stage.USER, "account " + id,
+                        () -> ApiClients.of(admin, ForAdminsApi.class).deleteUser(id).execute());
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY,
+                new ThreadFactoryBuilder().setNameFormat("roster-seed-%d").build());
+        try {
+            for (Future<Void> future : executor.invokeAll(creates)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(RosterExportTest.class);
+    }
+
+    @AfterClass
+    public static void releaseUsers() throws Exception {
+        TestUserPool.release(researcher);
+        TestUserPool.release(worker);
+    }
+
+    @Test
+    public void researcherExport() throws Exception {
+        RosterExporter exporter = RosterExporter.forResearcher(ApiClients.of(researcher, ParticipantsApi.class),
+                getEmailFilter(), PAGE_SIZE, CONCURRENCY);
+        runExport("researcher", exporter);
+    }
+
+    @Test
+    public void workerExport() throws Exception {
+        RosterExporter exporter = RosterExporter.forWorker(ApiClients.of(worker, ForWorkersApi.class),
+                IntegTestUtils.STUDY_ID, getEmailFilter(), PAGE_SIZE, CONCURRENCY);
+        runExport("worker", exporter);
+    }
+
+    private static String getEmailFilter() {
+        return WHOLE_STUDY ? null : emailPrefix;
+    }
+
+    private static void runExport(String api, RosterExporter exporter) throws Exception {
+        File file = new File("target/roster", api + ".ndjson");
+        LoadMetrics metrics = new LoadMetrics("Roster export, " + api + " API, pageSize " + PAGE_SIZE + ", "
+                + CONCURRENCY + " concurrent");
+        long exported = exporter.export(file, metrics);
+        metrics.log();
+        LOG.info(String.format("Exported %d participants to %s at %.1f records/s", exported, file,
+                metrics.getRate("exported")));
+
+        assertEquals(0, metrics.getCount("errors"));
+        try (Stream<String> lines = Files.lines(file.toPath(), StandardCharsets.UTF_8)) {
+            assertEquals(exported, lines.count());
+        }
+        if (!WHOLE_STUDY) {
+            assertEquals(ACCOUNTS, exported);
+        }
+    }
+}
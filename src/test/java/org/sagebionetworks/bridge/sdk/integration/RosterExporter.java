@@ -0,0 +1,135 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForWorkersApi;
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.AccountSummary;
+import org.sagebionetworks.bridge.rest.model.AccountSummaryList;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+
+/**
+ * Streams a study's participant roster to an NDJSON file, one StudyParticipant per line. Account summaries are paged
+ * through with a {@link PageIterator}, which fetches the next page while the current one is being worked on, and each
+ * summary is expanded to the full participant (with consent histories) on a bounded pool of threads. At most one page
+ * is buffered ahead and at most two pages' worth of participants are in flight, so memory stays flat however large
+ * the study is. Lines are written as participants come back, not in roster order.
+ *
+ * Failures to fetch a participant are counted and logged, not thrown, as in {@link ExternalIdLoader}; a failure to
+ * fetch a page ends the export with an exception, since the rest of the roster can't be reached.
+ */
+public class RosterExporter {
+    /** One page of account summaries. */
+    @FunctionalInterface
+    public interface PageFetcher {
+        AccountSummaryList fetch(int offsetBy, int pageSize) throws Exception;
+    }
+
+    /** The full participant for an account summary's ID. */
+    @FunctionalInterface
+    public interface ParticipantFetcher {
+        StudyParticipant fetch(String userId) throws Exception;
+    }
+
+    private final PageFetcher pageFetcher;
+    private final ParticipantFetcher participantFetcher;
+    private final int pageSize;
+    private final int concurrency;
+
+    public RosterExporter(PageFetcher pageFetcher, ParticipantFetcher participantFetcher, int pageSize,
+            int concurrency) {
+        this.pageFetcher = pageFetcher;
+        this.participantFetcher = participantFetcher;
+        this.pageSize = pageSize;
+        this.concurrency = concurrency;
+    }
+
+    /** Exports the caller's study through the researcher API. A null email filter exports every participant. */
+    public static RosterExporter forResearcher(ParticipantsApi participantsApi, String emailFilter, int pageSize,
+            int concurrency) {
+        return new RosterExporter(
+                (offsetBy, size) -> participantsApi.getParticipants(offsetBy, size, emailFilter, null, null, null)
+                        .execute().body(),
+                userId -> participantsApi.getParticipantById(userId, true).execute().body(),
+                pageSize, concurrency);
+    }
+
+    /** Exports any study through the worker API. A null email filter exports every participant. */
+    public static RosterExporter forWorker(ForWorkersApi workersApi, String studyId, String emailFilter, int pageSize,
+            int concurrency) {
+        return new RosterExporter(
+                (offsetBy, size) -> workersApi.getParticipantsForStudy(studyId, offsetBy, size, emailFilter, null,
+                        null, null).execute().body(),
+                userId -> workersApi.getParticipantByIdForStudy(studyId, userId, true).execute().body(),
+                pageSize, concurrency);
+    }
+
+    /**
+     * Writes the roster to the given file and returns the number of participants written. Records "page" and
+     * "participant" latency and counts "exported" and {@link LoadMetrics#countError errors} (fetch or write failures)
+     * in the given metrics; metrics.getRate("exported") is records per second.
+     */
+    public long export(File file, LoadMetrics metrics) throws Exception {
+        file.getParentFile().mkdirs();
+        ExecutorService participantExecutor = Executors.newFixedThreadPool(concurrency,
+                new ThreadFactoryBuilder().setNameFormat("roster-participant-%d").build());
+        Semaphore inFlight = new Semaphore(pageSize * 2);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                StandardCharsets.UTF_8));
+                PageIterator<AccountSummary> summaries = PageIterator.ofOffsets(
+                        offsetBy -> fetchPage(offsetBy, metrics), AccountSummaryList::getItems, pageSize, 1)) {
+            while (summaries.hasNext()) {
+                AccountSummary summary = summaries.next();
+                inFlight.acquire();
+                participantExecutor.execute(() -> {
+                    try {
+                        expand(summary.getId(), writer, metrics);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            participantExecutor.shutdown();
+            participantExecutor.awaitTermination(1, TimeUnit.HOURS);
+        } finally {
+            participantExecutor.shutdownNow();
+        }
+        return metrics.getCount("exported");
+    }
+
+    private AccountSummaryList fetchPage(int offsetBy, LoadMetrics metrics) throws Exception {
+        long start = System.nanoTime();
+        AccountSummaryList page = pageFetcher.fetch(offsetBy, pageSize);
+        metrics.record("page", System.nanoTime() - start);
+        metrics.count("pages");
+        return page;
+    }
+
+    private void expand(String userId, Writer writer, LoadMetrics metrics) {
+        long start = System.nanoTime();
+        try {
+            StudyParticipant participant = participantFetcher.fetch(userId);
+            metrics.record("participant", System.nanoTime() - start);
+            String line = RestUtils.GSON.toJson(participant);
+            synchronized (writer) {
+                writer.write(line);
+                writer.write('\n');
+            }
+            metrics.count("exported");
+        } catch (Exception e) {
+            metrics.countError("Could not export participant " + userId, e);
+        }
+    }
+}
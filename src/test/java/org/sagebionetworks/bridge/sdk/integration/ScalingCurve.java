@@ -0,0 +1,93 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency at each point of a benchmark's parameter sweep (e.g. daysAhead x users), written as a table to
+ * target/scaling/[name].tsv so runs against different releases can be diffed or plotted. Each point has the
+ * benchmark's own columns (parameters and values such as payload bytes) followed by latency percentiles in
+ * milliseconds. Set the directory with -Dscaling.dir.
+ */
+public class ScalingCurve {
+    private static final Logger LOG = LoggerFactory.getLogger(ScalingCurve.class);
+
+    public static final String DIRECTORY_PROPERTY = "scaling.dir";
+    private static final String DEFAULT_DIRECTORY = "target/scaling";
+
+    private final String name;
+    private final List<Map<String, Object>> points = new ArrayList<>();
+
+    public ScalingCurve(String name) {
+        this.name = name;
+    }
+
+    /** The sweep values of a comma-separated system property, e.g. -DscheduleScaling.users=1,4,16. */
+    public static List<Integer> getSweep(String property, String defaultValue) {
+        List<Integer> values = new ArrayList<>();
+        for (String value : System.getProperty(property, defaultValue).split(",")) {
+            values.add(Integer.parseInt(value.trim()));
+        }
+        return values;
+    }
+
+    /**
+     * Adds a point. Columns are the keys of the given map, in iteration order, so pass a LinkedHashMap or an
+     * ImmutableMap; latency is a histogram in microseconds, as kept by {@link LoadMetrics}.
+     */
+    public synchronized void add(Map<String, ?> columns, Histogram latency) {
+        Map<String, Object> point = new LinkedHashMap<>(columns);
+        point.put("n", latency.getTotalCount());
+        point.put("p50 ms", latency.getValueAtPercentile(50) / 1000.0);
+        point.put("p95 ms", latency.getValueAtPercentile(95) / 1000.0);
+        point.put("p99 ms", latency.getValueAtPercentile(99) / 1000.0);
+        point.put("max ms", latency.getMaxValue() / 1000.0);
+        points.add(point);
+    }
+
+    /** Logs the curve and writes it to the scaling directory. */
+    public synchronized File write() throws IOException {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Map<String, Object> point : points) {
+            columns.addAll(point.keySet());
+        }
+        StringBuilder table = new StringBuilder(String.join("\t", columns)).append('\n');
+        for (Map<String, Object> point : points) {
+            List<String> cells = new ArrayList<>();
+            for (String column : columns) {
+                cells.add(format(point.get(column)));
+            }
+            table.append(String.join("\t", cells)).append('\n');
+        }
+        LOG.info("Scaling curve " + name + ":\n" + table);
+
+        File file = new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), name + ".tsv");
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.print(table);
+        }
+        return file;
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        } else if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%.1f", ((Number) value).doubleValue());
+        }
+        return value.toString();
+    }
+}
@@ -35,6 +35,7 @@ import org.sagebionetworks.bridge.rest.model.VersionHolder;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class ScheduleActivityOnceTest {
     private static final String FILTERED_LABEL = "ScheduleActivityOnceTest";
     private TestUser admin;
@@ -50,10 +51,10 @@ public class ScheduleActivityOnceTest {
         user = new TestUserHelper.Builder(ScheduleActivityOnceTest.class).withConsentUser(true).withSignUp(signUp)
                 .createAndSignInUser();
         
-        SchedulePlanList list = developer.getClient(SchedulesApi.class).getSchedulePlans(true).execute().body();
+        SchedulePlanList list = ApiClients.of(developer, SchedulesApi.class).getSchedulePlans(true).execute().body();
         for (SchedulePlan plan : list.getItems()) {
             if (plan.getLabel().contains(FILTERED_LABEL)) {
-                admin.getClient(ForAdminsApi.class).deleteSchedulePlan(plan.getGuid(), true).execute();    
+                ApiClients.of(admin, ForAdminsApi.class).deleteSchedulePlan(plan.getGuid(), true).execute();    
             }
         }
     }
@@ -67,17 +68,17 @@ public class ScheduleActivityOnceTest {
             user.signOutAndDeleteUser();
         }
         if (schedulePlan != null) {
-            admin.getClient(SchedulesApi.class).deleteSchedulePlan(schedulePlan.getGuid(), true).execute();
+            ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(schedulePlan.getGuid(), true).execute();
         }
     }
     
     @Test
     public void test() throws Exception {
-        Study study = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        Study study = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         if (study.isExternalIdRequiredOnSignup()) {
             study.setExternalIdRequiredOnSignup(false);
             
-            VersionHolder version = admin.getClient(ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute().body();
+            VersionHolder version = ApiClients.of(admin, ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute().body();
             study.setVersion(version.getVersion());
         }
         Schedule schedule = new Schedule();
@@ -97,11 +98,11 @@ public class ScheduleActivityOnceTest {
         schedulePlan.setLabel(FILTERED_LABEL);
         schedulePlan.setStrategy(strategy);
         
-        GuidVersionHolder keys = developer.getClient(SchedulesApi.class).createSchedulePlan(schedulePlan).execute().body();
+        GuidVersionHolder keys = ApiClients.of(developer, SchedulesApi.class).createSchedulePlan(schedulePlan).execute().body();
         schedulePlan.setGuid(keys.getGuid());
         schedulePlan.setVersion(keys.getVersion());
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         ScheduledActivityList first = filterList(userApi.getScheduledActivities("-07:00", 4, null).execute().body(), keys.getGuid());
         ScheduledActivityList second = filterList(userApi.getScheduledActivities("+03:00", 4, null).execute().body(), keys.getGuid());
         assertEquals(1, first.getItems().size());
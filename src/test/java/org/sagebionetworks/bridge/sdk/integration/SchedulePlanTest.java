@@ -59,9 +59,9 @@ public class SchedulePlanTest {
         developer = TestUserHelper.createAndSignInUser(SchedulePlanTest.class, true, Role.DEVELOPER);
         user = TestUserHelper.createAndSignInUser(SchedulePlanTest.class, true);
 
-        schedulesApi = developer.getClient(SchedulesApi.class);
-        surveysApi = developer.getClient(SurveysApi.class);
-        usersApi = user.getClient(ForConsentedUsersApi.class);
+        schedulesApi = ApiClients.of(developer, SchedulesApi.class);
+        surveysApi = ApiClients.of(developer, SurveysApi.class);
+        usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
     }
 
     @After
@@ -85,7 +85,7 @@ public class SchedulePlanTest {
         SchedulePlan retrieved = schedulesApi.getSchedulePlan(keys.getGuid()).execute().body();
         assertTrue(retrieved.isDeleted());
         
-        admin.getClient(SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
+        ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
         
         try {
             schedulesApi.getSchedulePlan(keys.getGuid()).execute().body();
@@ -102,7 +102,7 @@ public class SchedulePlanTest {
             normalUser = TestUserHelper.createAndSignInUser(SchedulePlanTest.class, true);
             SchedulePlan plan = Tests.getABTestSchedulePlan();
             
-            normalUser.getClient(SchedulesApi.class).createSchedulePlan(plan).execute();
+            ApiClients.of(normalUser, SchedulesApi.class).createSchedulePlan(plan).execute();
             fail("Should have returned Forbidden status");
         } catch (UnauthorizedException e) {
             assertEquals("Non-researcher gets 403 forbidden", 403, e.getStatusCode());
@@ -126,7 +126,7 @@ public class SchedulePlanTest {
 
         SchedulePlan plan = Tests.getABTestSchedulePlan();
 
-        SchedulesApi newSchedulesApi = manager.getClient(SchedulesApi.class);
+        SchedulesApi newSchedulesApi = ApiClients.of(manager, SchedulesApi.class);
         
         // Create
         assertNull(plan.getVersion());
@@ -172,7 +172,7 @@ public class SchedulePlanTest {
         assertTrue(withDeleted.getItems().stream().anyMatch(onePlan -> onePlan.getGuid().equals(retrieved.getGuid())));
         
         // Physical delete
-        admin.getClient(SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
+        ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
         
         // It is now not in the list.
         withDeleted = newSchedulesApi.getSchedulePlans(true).execute().body();
@@ -261,7 +261,7 @@ public class SchedulePlanTest {
             assertEquals(scheduleCriteria2, retrievedStrategy.getScheduleCriteria().get(1));
         } finally {
             if (retrievedPlan != null) {
-                admin.getClient(SchedulesApi.class).deleteSchedulePlan(retrievedPlan.getGuid(), true).execute();
+                ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(retrievedPlan.getGuid(), true).execute();
             }
         }
     }
@@ -321,10 +321,10 @@ public class SchedulePlanTest {
             assertEquals(plan, newPlan);
         } finally {
             if (keys != null) {
-                admin.getClient(SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
+                ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
             }
             if (surveyKeys != null) {
-                SurveysApi surveysApi = admin.getClient(SurveysApi.class);
+                SurveysApi surveysApi = ApiClients.of(admin, SurveysApi.class);
                 surveysApi.deleteSurvey(surveyKeys.getGuid(), surveyKeys.getCreatedOn(), true).execute();
             }
         }
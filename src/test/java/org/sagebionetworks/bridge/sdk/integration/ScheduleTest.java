@@ -60,7 +60,7 @@ public class ScheduleTest {
         if (developer != null) {
             try {
                 if (planGuid != null) {
-                    SchedulesApi schedulesApi = admin.getClient(SchedulesApi.class);
+                    SchedulesApi schedulesApi = ApiClients.of(admin, SchedulesApi.class);
                     schedulesApi.deleteSchedulePlan(planGuid, true).execute();
                 }
             } finally {
@@ -71,7 +71,7 @@ public class ScheduleTest {
     
     @Test
     public void canScheduleASequence() throws Exception {
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         
         SchedulePlan plan = Tests.getSimpleSchedulePlan();
         plan.setLabel("This is a sequenced recurring schedule");
@@ -94,7 +94,7 @@ public class ScheduleTest {
 
         planGuid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         String scheduledOn1 = LocalDate.now(DateTimeZone.UTC).toString() + "T14:00:00.000Z";
         String scheduledOn2 = LocalDate.now(DateTimeZone.UTC).plusDays(1).toString() + "T14:00:00.000Z";
@@ -111,7 +111,7 @@ public class ScheduleTest {
 
     @Test
     public void schedulePlanIsCorrect() throws Exception {
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         planGuid = schedulesApi.createSchedulePlan(Tests.getSimpleSchedulePlan()).execute().body().getGuid();
         
         SchedulePlan originalPlan = Tests.getSimpleSchedulePlan();
@@ -144,10 +144,10 @@ public class ScheduleTest {
         SchedulePlan schedulePlan = Tests.getSimpleSchedulePlan();
         Tests.getSimpleSchedule(schedulePlan).setLabel(label);
 
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         planGuid = schedulesApi.createSchedulePlan(schedulePlan).execute().body().getGuid();
 
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
         // There may be multiple schedules from other tests. Loop through all schedules until we find the one we're
         // looking for.
@@ -164,7 +164,7 @@ public class ScheduleTest {
     @Test
     public void persistentSchedulePlanMarkedPersistent() throws Exception {
         SchedulePlan plan = Tests.getPersistentSchedulePlan();
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         
         planGuid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
 
@@ -177,7 +177,7 @@ public class ScheduleTest {
     @Test
     public void simpleSchedulePlanNotMarkedPersistent() throws Exception {
         SchedulePlan plan = Tests.getSimpleSchedulePlan();
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
 
         planGuid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
 
@@ -224,7 +224,7 @@ public class ScheduleTest {
         plan.setStrategy(strategy);
         
         user.signOut();        
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         planGuid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
         
         // Manipulate the User-Agent string and see scheduled activity change accordingly
@@ -264,7 +264,7 @@ public class ScheduleTest {
     }
 
     private void activitiesShouldContainTask(String activityLabel) throws Exception {
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         ScheduledActivityList activities = usersApi.getScheduledActivities("+00:00", 1, null).execute().body();
 
         // There may be other tasks, but there should only be one task with this label. Loop through tasks and count
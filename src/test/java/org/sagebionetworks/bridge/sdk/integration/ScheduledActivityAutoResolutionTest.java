@@ -78,14 +78,15 @@ public class ScheduledActivityAutoResolutionTest {
         // init users and clients
         developer = TestUserHelper.createAndSignInUser(ScheduledActivityAutoResolutionTest.class, false,
                 Role.DEVELOPER);
-        compoundActivityDefinitionsApi = developer.getClient(CompoundActivityDefinitionsApi.class);
-        schedulePlanApi = developer.getClient(SchedulesApi.class);
-        adminSurveyApi = TestUserHelper.getSignedInAdmin().getClient(SurveysApi.class);
-        surveyApi = developer.getClient(SurveysApi.class);
+        compoundActivityDefinitionsApi = ApiClients.of(developer,
+                CompoundActivityDefinitionsApi.class);
+        schedulePlanApi = ApiClients.of(developer, SchedulesApi.class);
+        adminSurveyApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), SurveysApi.class);
+        surveyApi = ApiClients.of(developer, SurveysApi.class);
 
         // Make sure we have a dummy schema to resolve to. Otherwise, getScheduledActivities will fail spectacularly.
         // Create two revs of the schema. This allows us to also test the minAppVersion flag.
-        UploadSchemasApi schemaApi = developer.getClient(UploadSchemasApi.class);
+        UploadSchemasApi schemaApi = ApiClients.of(developer, UploadSchemasApi.class);
 
         // rev1 has minAppVersion=2
         UploadSchema schemaRev1 = null;
@@ -142,7 +143,7 @@ public class ScheduledActivityAutoResolutionTest {
 
         // Delete schedules first, or we get constraint violation exceptions.
         if (schedulePlanGuidToDelete != null) {
-            admin.getClient(SchedulesApi.class).deleteSchedulePlan(schedulePlanGuidToDelete, true).execute();
+            ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(schedulePlanGuidToDelete, true).execute();
         }
 
         // Delete compound activity, if any
@@ -176,7 +177,7 @@ public class ScheduledActivityAutoResolutionTest {
             // Note that we can't cache the scheduled activity API, because changing the client info requires us to get
             // a new client.
             user.setClientInfo(Tests.getClientInfoWithVersion(INTEG_TEST_OS_NAME, 3));
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             // Study may have other schedules. Find the scheduled activity for our test using the label.
@@ -190,7 +191,7 @@ public class ScheduledActivityAutoResolutionTest {
         // Now user has app v5. Should get schema rev2 back.
         {
             user.setClientInfo(Tests.getClientInfoWithVersion(INTEG_TEST_OS_NAME, 5));
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             ScheduledActivity gettedScheduledActivity = findScheduledActivityByLabel(activityLabel,
@@ -215,7 +216,7 @@ public class ScheduledActivityAutoResolutionTest {
 
         // User gets survey back in scheduled activities.
         {
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             ScheduledActivity gettedScheduledActivity = findScheduledActivityByLabel(activityLabel,
@@ -234,7 +235,7 @@ public class ScheduledActivityAutoResolutionTest {
 
         // User now gets the new survey createdOn back.
         {
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             ScheduledActivity gettedScheduledActivity = findScheduledActivityByLabel(activityLabel,
@@ -259,7 +260,7 @@ public class ScheduledActivityAutoResolutionTest {
         SurveyReference surveyRef = new SurveyReference().guid(surveyKeys.getGuid()).identifier(surveyId);
         CompoundActivityDefinition compoundActivityDefinition = new CompoundActivityDefinition()
                 .addSchemaListItem(schemaRef).addSurveyListItem(surveyRef).taskId(compoundTaskId);
-        CompoundActivityDefinitionsApi compoundActivityDefinitionsApi = developer.getClient(
+        CompoundActivityDefinitionsApi compoundActivityDefinitionsApi = ApiClients.of(developer,
                 CompoundActivityDefinitionsApi.class);
         compoundActivityDefinitionsApi.createCompoundActivityDefinition(compoundActivityDefinition).execute();
         compoundTaskIdToDelete = compoundTaskId;
@@ -271,7 +272,7 @@ public class ScheduledActivityAutoResolutionTest {
 
         // User gets schema rev 2 and whatever survey createdOn that is.
         {
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             ScheduledActivity gettedScheduledActivity = findScheduledActivityByLabel(activityLabel,
@@ -298,7 +299,7 @@ public class ScheduledActivityAutoResolutionTest {
 
         // Get scheduled activities again. Now we should get the updated compound activity.
         {
-            List<ScheduledActivity> scheduledActivityList = user.getClient(ActivitiesApi.class).getScheduledActivities(
+            List<ScheduledActivity> scheduledActivityList = ApiClients.of(user, ActivitiesApi.class).getScheduledActivities(
                     "+0:00", 2, null).execute().body().getItems();
 
             ScheduledActivity gettedScheduledActivity = findScheduledActivityByLabel(activityLabel,
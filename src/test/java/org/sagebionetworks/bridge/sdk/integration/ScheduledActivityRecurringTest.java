@@ -37,6 +37,7 @@ import org.sagebionetworks.bridge.rest.model.VersionHolder;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class ScheduledActivityRecurringTest {
     private static final String FILTERED_LABEL = "ScheduledActivityRecurringTest";
     private static final String M_TIME_OF_DAY = "T00:00:00.000+12:00"; // Gilbert Islands, +12:00, offset M
@@ -61,12 +62,12 @@ public class ScheduledActivityRecurringTest {
         user = new TestUserHelper.Builder(ScheduledActivityRecurringTest.class).withConsentUser(true).withSignUp(signUp)
                 .createAndSignInUser();
         
-        Study study = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        Study study = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         if (study.isExternalIdRequiredOnSignup() || !study.getActivityEventKeys().contains(CUSTOM_EVENT)) {
             study.setExternalIdRequiredOnSignup(false);
             study.getActivityEventKeys().add(CUSTOM_EVENT);
             
-            VersionHolder version = admin.getClient(ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute().body();
+            VersionHolder version = ApiClients.of(admin, ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute().body();
             study.setVersion(version.getVersion());
         }
         Schedule schedule = new Schedule();
@@ -93,7 +94,7 @@ public class ScheduledActivityRecurringTest {
         schedulePlan.setLabel(FILTERED_LABEL);
         schedulePlan.setStrategy(strategy);
         
-        GuidVersionHolder keys = developer.getClient(SchedulesApi.class).createSchedulePlan(schedulePlan).execute().body();
+        GuidVersionHolder keys = ApiClients.of(developer, SchedulesApi.class).createSchedulePlan(schedulePlan).execute().body();
         schedulePlan.setGuid(keys.getGuid());
         schedulePlan.setVersion(keys.getVersion());
     }
@@ -107,7 +108,7 @@ public class ScheduledActivityRecurringTest {
             user.signOutAndDeleteUser();
         }
         if (schedulePlan != null) {
-            admin.getClient(SchedulesApi.class).deleteSchedulePlan(schedulePlan.getGuid(), true).execute();
+            ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(schedulePlan.getGuid(), true).execute();
         }
     }
     
@@ -115,7 +116,7 @@ public class ScheduledActivityRecurringTest {
     // should make sense to the end user.
     @Test
     public void retrievalActivitiesAcrossTimeAndTimeZones() throws Exception {
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         DateTime now = DateTime.now();
         
@@ -0,0 +1,200 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.api.SchedulesApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SchedulePlan;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityList;
+import org.sagebionetworks.bridge.rest.model.ScheduledActivityListV4;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Scaling benchmark for the endpoints apps call most: getScheduledActivities (v3, by daysAhead) and
+ * getScheduledActivitiesByDateRange (v4). Seeds schedule plans of increasing complexity (A/B test, cron, daily
+ * repeating and persistent, in rotation), then measures latency and payload size over a sweep of plan count x
+ * concurrent users x days ahead. The curve is written to target/scaling/scheduled-activities.tsv (see
+ * {@link ScalingCurve}) for comparison across releases.
+ *
+ * Set the sweep with -DscheduleScaling.plans, -DscheduleScaling.users and -DscheduleScaling.daysAhead (comma-separated
+ * values) and the requests each user makes at each point with -DscheduleScaling.requests. Payload size is the response
+ * body re-serialized as JSON, which tracks the size on the wire before compression.
+ */
+@Category(LoadTest.class)
+@ResourceLock(ResourceLock.API_STUDY)
+public class ScheduledActivityScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledActivityScalingTest.class);
+
+    private static final List<Integer> PLAN_COUNTS = ScalingCurve.getSweep("scheduleScaling.plans", "1,4,16");
+    private static final List<Integer> USER_COUNTS = ScalingCurve.getSweep("scheduleScaling.users", "1,4,16");
+    private static final List<Integer> DAYS_AHEAD = ScalingCurve.getSweep("scheduleScaling.daysAhead", "1,2,4");
+    private static final int REQUESTS = Integer.getInteger("scheduleScaling.requests", 5);
+
+    private static final DateTimeZone TIME_ZONE = DateTimeZone.forOffsetHours(-7);
+    private static final String TIME_ZONE_OFFSET = "-07:00";
+
+    private static final List<Supplier<SchedulePlan>> PLAN_SHAPES = ImmutableList.of(Tests::getABTestSchedulePlan,
+            Tests::getSimpleSchedulePlan, Tests::getDailyRepeatingSchedulePlan, Tests::getPersistentSchedulePlan);
+
+    private static final String V3 = "v3 daysAhead";
+    private static final String V4 = "v4 date range";
+
+    private static TestUser developer;
+    private static TestUser admin;
+    private static List<TestUser> users = new ArrayList<>();
+    private static List<String> planGuids = new ArrayList<>();
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+        admin = TestUserHelper.getSignedInAdmin();
+        int maxUsers = USER_COUNTS.stream().mapToInt(Integer::intValue).max().orElse(1);
+        executor = LoadThreads.newExecutor("schedule-scaling-%d", maxUsers);
+
+        List<Future<TestUser>> futures = new ArrayList<>();
+        for (int i = 0; i < maxUsers; i++) {
+            futures.add(executor.submit(() -> {
+                TestUser user = TestUserHelper.createAndSignInUser(ScheduledActivityScalingTest.class, true);
+                Teardown.register(ScheduledActivityScalingTest.class, user);
+                return user;
+            }));
+        }
+        for (Future<TestUser> future : futures) {
+            users.add(future.get());
+        }
+    }
+
+    @AfterClass
+    public static void deleteEntities() throws Exception {
+        Teardown.run(ScheduledActivityScalingTest.class);
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        TestUserPool.release(developer);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void scheduledActivityScaling() throws Exception {
+        ScalingCurve curve = new ScalingCurve("scheduled-activities");
+        LoadMetrics errors = new LoadMetrics("Scheduled activity scaling errors");
+        for (int planCount : PLAN_COUNTS) {
+            seedPlans(planCount);
+            for (int userCount : USER_COUNTS) {
+                for (int daysAhead : DAYS_AHEAD) {
+                    LoadMetrics metrics = new LoadMetrics("Scheduled activities, " + planCount + " plans, "
+                            + userCount + " users, " + daysAhead + " days ahead");
+                    runPoint(users.subList(0, userCount), daysAhead, metrics, errors);
+                    metrics.log();
+                    for (String endpoint : ImmutableList.of(V3, V4)) {
+                        long responses = metrics.histogram(endpoint).getTotalCount();
+                        curve.add(new ImmutableMap.Builder<String, Object>()
+                                .put("plans", planCount)
+                                .put("users", userCount)
+                                .put("daysAhead", daysAhead)
+                                .put("endpoint", endpoint)
+                                .put("mean bytes", mean(metrics.getCount(endpoint + " bytes"), responses))
+                                .put("mean activities", mean(metrics.getCount(endpoint + " activities"), responses))
+                                .build(), metrics.histogram(endpoint));
+                    }
+                }
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+        errors.log();
+        assertEquals(0, errors.getCount("errors"));
+    }
+
+    /** Tops up the study's plans to the given count, rotating through the plan shapes in Tests. */
+    private static void seedPlans(int planCount) throws Exception {
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
+        while (planGuids.size() < planCount) {
+            SchedulePlan plan = PLAN_SHAPES.get(planGuids.size() % PLAN_SHAPES.size()).get();
+            String guid = schedulesApi.createSchedulePlan(plan).execute().body().getGuid();
+            planGuids.add(guid);
+            Teardown.register(ScheduledActivityScalingTest.class, Teardown.Stage.DEPENDENT_ENTITY,
+                    "schedule plan " + guid,
+                    () -> ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(guid, true).execute());
+        }
+    }
+
+    /** Every user fetches their activities REQUESTS times through each endpoint, all users at once. */
+    private static void runPoint(List<TestUser> pointUsers, int daysAhead, LoadMetrics metrics, LoadMetrics errors)
+            throws Exception {
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (TestUser user : pointUsers) {
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < REQUESTS; i++) {
+                    fetch(usersApi, daysAhead, metrics, errors);
+                }
+                return null;
+            }));
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static void fetch(ForConsentedUsersApi usersApi, int daysAhead, LoadMetrics metrics, LoadMetrics errors) {
+        try {
+            long start = System.nanoTime();
+            ScheduledActivityList v3 = usersApi.getScheduledActivities(TIME_ZONE_OFFSET, daysAhead, null).execute()
+                    .body();
+            metrics.record(V3, System.nanoTime() - start);
+            metrics.count(V3 + " bytes", payloadBytes(v3));
+            metrics.count(V3 + " activities", v3.getItems().size());
+
+            DateTime startsOn = DateTime.now(TIME_ZONE);
+            start = System.nanoTime();
+            ScheduledActivityListV4 v4 = usersApi.getScheduledActivitiesByDateRange(startsOn,
+                    startsOn.plusDays(daysAhead)).execute().body();
+            metrics.record(V4, System.nanoTime() - start);
+            metrics.count(V4 + " bytes", payloadBytes(v4));
+            metrics.count(V4 + " activities", v4.getItems().size());
+        } catch (Exception e) {
+            errors.countError("Fetching scheduled activities failed", e);
+        }
+    }
+
+    private static long payloadBytes(Object body) {
+        return RestUtils.GSON.toJson(body).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static double mean(long total, long count) {
+        return (count == 0) ? 0 : (double) total / count;
+    }
+}
@@ -61,6 +61,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
 @Category(IntegrationSmokeTest.class)
 @SuppressWarnings("ConstantConditions")
+@ResourceLock(ResourceLock.API_STUDY)
 public class ScheduledActivityTest {
     
     private static final String TASK_ID = "task:AAA";
@@ -111,7 +112,7 @@ public class ScheduledActivityTest {
         researcher = TestUserHelper.createAndSignInUser(ScheduledActivityTest.class, true, Role.RESEARCHER);
         developer = TestUserHelper.createAndSignInUser(ScheduledActivityTest.class, true, Role.DEVELOPER);
         
-        StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
         Study study = studiesApi.getUsersStudy().execute().body();
         if (!study.getAutomaticCustomEvents().containsKey("two_weeks_before_enrollment")) {
             study.getAutomaticCustomEvents().put("two_weeks_before_enrollment", "enrollment:P-14D");
@@ -120,8 +121,8 @@ public class ScheduledActivityTest {
         
         user = TestUserHelper.createAndSignInUser(ScheduledActivityTest.class, true);
 
-        schedulePlansApi = developer.getClient(SchedulesApi.class);
-        usersApi = user.getClient(ForConsentedUsersApi.class);
+        schedulePlansApi = ApiClients.of(developer, SchedulesApi.class);
+        usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
         // Run ID is a random string, used to uniquely identify schedules for this test.
         runId = Tests.randomIdentifier(ScheduledActivityTest.class);
@@ -226,7 +227,7 @@ public class ScheduledActivityTest {
         schema.setFieldDefinitions(Lists.newArrayList(fieldDef));
         
         // create it
-        UploadSchemasApi schemasApi = developer.getClient(UploadSchemasApi.class);
+        UploadSchemasApi schemasApi = ApiClients.of(developer, UploadSchemasApi.class);
         schemaKeys = schemasApi.createUploadSchema(schema).execute().body();
         
         Schedule schedule = new Schedule();
@@ -265,7 +266,7 @@ public class ScheduledActivityTest {
         Survey survey = TestSurvey.getSurvey(ScheduledActivityTest.class);
         
         // create it
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         surveyKeys = surveysApi.createSurvey(survey).execute().body();
         surveyKeys = surveysApi.publishSurvey(surveyKeys.getGuid(), surveyKeys.getCreatedOn(), false).execute().body();
         
@@ -331,11 +332,11 @@ public class ScheduledActivityTest {
     @After
     public void after() throws Exception {
         if (schemaKeys != null) {
-            admin.getClient(UploadSchemasApi.class)
+            ApiClients.of(admin, UploadSchemasApi.class)
                     .deleteUploadSchema(schemaKeys.getSchemaId(), schemaKeys.getRevision(), true).execute();
         }
         try {
-            SchedulesApi schedulesApi = admin.getClient(SchedulesApi.class);
+            SchedulesApi schedulesApi = ApiClients.of(admin, SchedulesApi.class);
             for (String oneSchedulePlanGuid : schedulePlanGuidList) {
                 schedulesApi.deleteSchedulePlan(oneSchedulePlanGuid, true).execute();
             }
@@ -351,7 +352,7 @@ public class ScheduledActivityTest {
             }
         }
         if (surveyKeys != null) {
-            admin.getClient(SurveysApi.class)
+            ApiClients.of(admin, SurveysApi.class)
                     .deleteSurvey(surveyKeys.getGuid(), surveyKeys.getCreatedOn(), true).execute();
         }
     }
@@ -362,12 +363,11 @@ public class ScheduledActivityTest {
         
         usersApi.getScheduledActivitiesByDateRange(STARTS_ON, ENDS_ON).execute();
 
-        // getTaskHistory() uses a secondary global index. Sleep for 2 seconds to help make sure the index is consistent.
-        Thread.sleep(2000);
-
+        // getTaskHistory() uses a secondary global index. Poll until all the activities show up in the index.
         // Now we should see those in the latest API:
-        ForwardCursorScheduledActivityList list = filterPages(true, (offsetKey) ->
-            usersApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10).execute().body());
+        ForwardCursorScheduledActivityList list = Await.until("task history index", () -> filterPages(true,
+                (offsetKey) -> usersApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10).execute().body()),
+                l -> l.getItems().size() >= 16);
         
         // Joda DateTime equality is only object instance equality, use strings to compare
         assertNotNull(list.getNextPageOffsetKey()); 
@@ -407,7 +407,7 @@ public class ScheduledActivityTest {
         assertEquals(schActivity, retrievedFromHistory);
         
         // You can see this activity in the researcher API
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         list = participantsApi.getParticipantActivityHistory(user.getSession().getId(), activity.getGuid(),
                 startDateTime, endDateTime, null, 5).execute().body();
         
@@ -493,7 +493,7 @@ public class ScheduledActivityTest {
         assertEquals(schActivity, retrievedFromHistory);
         
         // You can see this activity in the researcher API
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         list = participantsApi.getParticipantActivityHistory(user.getSession().getId(), activity.getGuid(),
                 startDateTime, endDateTime, null, 5).execute().body();
         
@@ -607,16 +607,15 @@ public class ScheduledActivityTest {
     public void getCompoundActivityHistory() throws Exception {
         compoundDailyTask();
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         usersApi.getScheduledActivitiesByDateRange(STARTS_ON, ENDS_ON).execute();
 
-        // getCompoundActivityHistory() uses a secondary global index. Sleep for 2 seconds to help make sure the index
-        // is consistent.
-        Thread.sleep(2000);
-
-        ForwardCursorScheduledActivityList list = filterPages(true, (offsetKey) ->
-            userApi.getCompoundActivityHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10).execute().body());
+        // getCompoundActivityHistory() uses a secondary global index. Poll until all the activities show up in the
+        // index.
+        ForwardCursorScheduledActivityList list = Await.until("compound activity history index", () -> filterPages(
+                true, (offsetKey) -> userApi.getCompoundActivityHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10)
+                        .execute().body()), l -> l.getItems().size() >= 16);
 
         for (ScheduledActivity act : list.getItems()) {
             assertEquals(TASK_ID, act.getActivity().getCompoundActivity().getTaskIdentifier());
@@ -646,16 +645,14 @@ public class ScheduledActivityTest {
     public void getSurveyHistory() throws Exception {
         dailySurvey();
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         usersApi.getScheduledActivitiesByDateRange(STARTS_ON, ENDS_ON).execute();
 
-        // getSurveyHistory() uses a secondary global index. Sleep for 2 seconds to help make sure the index
-        // is consistent.
-        Thread.sleep(2000);
-
-        ForwardCursorScheduledActivityList list = filterPages(true, (offsetKey) ->
-            userApi.getSurveyHistory(surveyKeys.getGuid(), STARTS_ON, ENDS_ON, offsetKey, 10).execute().body());
+        // getSurveyHistory() uses a secondary global index. Poll until all the activities show up in the index.
+        ForwardCursorScheduledActivityList list = Await.until("survey history index", () -> filterPages(true,
+                (offsetKey) -> userApi.getSurveyHistory(surveyKeys.getGuid(), STARTS_ON, ENDS_ON, offsetKey, 10)
+                        .execute().body()), l -> l.getItems().size() >= 16);
 
         for (ScheduledActivity act : list.getItems()) {
             assertEquals(surveyKeys.getGuid(), act.getActivity().getSurvey().getGuid());
@@ -685,16 +682,14 @@ public class ScheduledActivityTest {
     public void getTaskHistory() throws Exception {
         dailyTaskAt4Times();
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         usersApi.getScheduledActivitiesByDateRange(STARTS_ON, ENDS_ON).execute();
 
-        // getTaskHistory() uses a secondary global index. Sleep for 2 seconds to help make sure the index
-        // is consistent.
-        Thread.sleep(2000);
-
-        ForwardCursorScheduledActivityList list = filterPages(true, (offsetKey) ->
-            userApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10).execute().body());
+        // getTaskHistory() uses a secondary global index. Poll until all the activities show up in the index.
+        ForwardCursorScheduledActivityList list = Await.until("task history index", () -> filterPages(true,
+                (offsetKey) -> userApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, offsetKey, 10).execute().body()),
+                l -> l.getItems().size() >= 16);
         
         for (ScheduledActivity act : list.getItems()) {
             assertEquals(TASK_ID, act.getActivity().getTask().getIdentifier());
@@ -724,7 +719,7 @@ public class ScheduledActivityTest {
     public void getScheduledActivityHistoryV3InvalidOffsetKey() throws Exception {
         dailyTaskAt4Times();
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         userApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, "bad-key:key", 10).execute();
     }
@@ -733,7 +728,7 @@ public class ScheduledActivityTest {
     public void getScheduledActivityHistoryV3NormalPaging() throws Exception {
         dailyTaskAt4Times();
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         
         ScheduledActivityListV4 actList = filterPagesV4((offsetKey) -> 
             userApi.getScheduledActivitiesByDateRange(STARTS_ON, ENDS_ON).execute().body());
@@ -754,7 +749,7 @@ public class ScheduledActivityTest {
     
     @Test(expected = BadRequestException.class)
     public void getScheduledActivityHistoryV3PathologicalPaging() throws Exception {
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
         userApi.getTaskHistory(TASK_ID, STARTS_ON, ENDS_ON, null, -10).execute();
     }
     
@@ -13,6 +13,7 @@ import org.sagebionetworks.bridge.rest.model.Study;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class SelfStudyTest {
 
     private TestUser admin;
@@ -38,19 +39,19 @@ public class SelfStudyTest {
     
     @Test
     public void getCurrentStudy() throws Exception {
-        Study study = researcher.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        Study study = ApiClients.of(researcher, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals("api", study.getIdentifier());
         
-        study = developer.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        study = ApiClients.of(developer, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals("api", study.getIdentifier());
         
-        study = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        study = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals("api", study.getIdentifier());
     }
     
     @Test(expected = UnauthorizedException.class)
     public void researcherCannotUpdateStudy() throws Exception {
-        StudiesApi studiesApi = researcher.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(researcher, StudiesApi.class);
         Study study = studiesApi.getUsersStudy().execute().body();
         study.setName("Test");
         studiesApi.updateUsersStudy(study).execute();
@@ -58,7 +59,7 @@ public class SelfStudyTest {
     
     @Test(expected = UnauthorizedException.class)
     public void adminCannotUpdateStudyThroughResearcherAPI() throws Exception {
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(admin, StudiesApi.class);
         Study study = studiesApi.getUsersStudy().execute().body();
         study.setName("Test");
         studiesApi.updateUsersStudy(study).execute();
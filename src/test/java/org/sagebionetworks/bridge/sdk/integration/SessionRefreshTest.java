@@ -38,14 +38,14 @@ public class SessionRefreshTest {
     @Test
     public void testReauthenticationThrowsConsentException() throws Exception {
         // User starts out signed in. Initial call succeeds.
-        user.getClient(ParticipantsApi.class).getUsersParticipantRecord(false).execute();
+        ApiClients.of(user, ParticipantsApi.class).getUsersParticipantRecord(false).execute();
 
         // Sign user out.
         user.signOut();
 
         // Call should succeed again. Sign-in happens again behind the scenes
         try {
-            user.getClient(ForConsentedUsersApi.class)
+            ApiClients.of(user, ForConsentedUsersApi.class)
                     .getScheduledActivitiesByDateRange(DateTime.now().minusDays(2), DateTime.now()).execute();
             fail("ConsentRequiredException expected");
         } catch (ConsentRequiredException e) {
@@ -56,12 +56,12 @@ public class SessionRefreshTest {
     @Test
     public void testReauthenticationAcrossStudies() throws Exception {
         // Use developer from the Shared study to test across studies. Initial call succeeds.
-        sharedDeveloper.getClient(ParticipantsApi.class).getUsersParticipantRecord(false).execute();
+        ApiClients.of(sharedDeveloper, ParticipantsApi.class).getUsersParticipantRecord(false).execute();
 
         // Sign user out.
         sharedDeveloper.signOut();
 
         // Call should succeed again. Sign-in happens again behind the scenes
-        sharedDeveloper.getClient(ParticipantsApi.class).getUsersParticipantRecord(false).execute();
+        ApiClients.of(sharedDeveloper, ParticipantsApi.class).getUsersParticipantRecord(false).execute();
     }
 }
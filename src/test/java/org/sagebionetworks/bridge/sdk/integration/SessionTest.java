@@ -54,7 +54,7 @@ public class SessionTest {
             assertTrue(status.isSignedMostRecentConsent());
             assertTrue(status.getSignedOn().isAfter(startOfTest.minusHours(1)));
 
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
             Withdrawal withdrawal = new Withdrawal().reason("No longer want to be a test subject");
             UserSessionInfo session2 = usersApi.withdrawConsentFromSubpopulation(IntegTestUtils.STUDY_ID, withdrawal).execute().body();
@@ -81,7 +81,7 @@ public class SessionTest {
             List<String> dataGroups = Lists.newArrayList("group1");
             List<String> languages = Lists.newArrayList("de");
             
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
             StudyParticipant updated = usersApi.getUsersParticipantRecord(false).execute().body();
             updated.setFirstName("TestFirstName");
@@ -121,7 +121,7 @@ public class SessionTest {
             List<String> dataGroups = Lists.newArrayList("group1");
             List<String> languages = Lists.newArrayList("de", "fr");
 
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
 
             StudyParticipant participant = participantsApi.getParticipantById(researcher.getSession().getId(), false).execute().body();
             participant.setFirstName("TestFirstName");
@@ -0,0 +1,208 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits test classes into shards of near-equal expected wall time, so each JVM fork finishes at about the same time
+ * instead of one fork running SurveyTest, ScheduledActivityTest and ReauthenticationTest back to back while the others
+ * sit idle. Each fork runs several classes at once (-DparallelClasses), starting the next class whenever a thread
+ * frees up, so a shard is modeled as that many lanes and its expected time is that of its busiest lane. Uses
+ * longest-processing-time-first over all the lanes: classes are taken from longest to shortest and each goes to the
+ * lane that frees up first. The result is within 4/3 of the best possible makespan. The model ignores
+ * {@link ResourceLock}s, which can make classes in one fork wait for each other.
+ *
+ * Expected times come from {@link PerfHistory}: the wall time of each whole class, fixtures included, as measured by
+ * {@link ResourceLockingComputer}. Classes with no history are assumed to take the median of the classes that have
+ * one. Forks on different hosts have different histories, so a plan is computed once and written to a plan file that
+ * every fork reads (see {@link ParallelSuite}).
+ */
+public class ShardPlanner {
+    /** Used when there is no history at all, so unknown classes still spread round-robin. */
+    private static final double DEFAULT_CLASS_MILLIS = 30000;
+    private static final String PLAN_HEADER = "# shards=";
+
+    public static final class Shard {
+        private final int index;
+        private final List<Class<?>> testClasses = new ArrayList<>();
+        // Expected busy time of each of the fork's threads.
+        private final double[] laneMillis;
+
+        Shard(int index, int lanes) {
+            this.index = index;
+            this.laneMillis = new double[lanes];
+        }
+
+        private int getFreestLane() {
+            int freest = 0;
+            for (int i = 1; i < laneMillis.length; i++) {
+                if (laneMillis[i] < laneMillis[freest]) {
+                    freest = i;
+                }
+            }
+            return freest;
+        }
+
+        private double getFreeAtMillis() {
+            return laneMillis[getFreestLane()];
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<Class<?>> getTestClasses() {
+            return Collections.unmodifiableList(testClasses);
+        }
+
+        /** Expected wall time of the shard: the time its busiest thread finishes. */
+        public double getExpectedMillis() {
+            double expected = 0;
+            for (double lane : laneMillis) {
+                expected = Math.max(expected, lane);
+            }
+            return expected;
+        }
+
+        /** Expected time of the shard's classes run one after another. */
+        public double getSerialMillis() {
+            double serial = 0;
+            for (double lane : laneMillis) {
+                serial += lane;
+            }
+            return serial;
+        }
+    }
+
+    private final Map<String, Double> expectedMillis;
+    private final int threadsPerShard;
+    private final double defaultMillis;
+
+    /**
+     * @param expectedMillis expected wall time by test class simple name
+     * @param threadsPerShard classes each fork runs at once
+     */
+    public ShardPlanner(Map<String, Double> expectedMillis, int threadsPerShard) {
+        if (threadsPerShard < 1) {
+            throw new IllegalArgumentException("threadsPerShard must be positive");
+        }
+        this.expectedMillis = expectedMillis;
+        this.threadsPerShard = threadsPerShard;
+        List<Double> known = new ArrayList<>(expectedMillis.values());
+        Collections.sort(known);
+        this.defaultMillis = known.isEmpty() ? DEFAULT_CLASS_MILLIS : known.get(known.size() / 2);
+    }
+
+    public double getExpectedMillis(Class<?> testClass) {
+        return expectedMillis.getOrDefault(testClass.getSimpleName(), defaultMillis);
+    }
+
+    public List<Shard> plan(List<Class<?>> testClasses, int shardCount) {
+        List<Class<?>> longestFirst = new ArrayList<>(testClasses);
+        // Ties broken by name so every fork computes the same plan.
+        longestFirst.sort(Comparator.comparingDouble((Class<?> c) -> -getExpectedMillis(c))
+                .thenComparing(Class::getName));
+
+        List<Shard> shards = new ArrayList<>();
+        PriorityQueue<Shard> byFreeLane = new PriorityQueue<>(Comparator.comparingDouble(Shard::getFreeAtMillis)
+                .thenComparingDouble(Shard::getSerialMillis).thenComparingInt(Shard::getIndex));
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(i, threadsPerShard);
+            shards.add(shard);
+            byFreeLane.add(shard);
+        }
+        for (Class<?> testClass : longestFirst) {
+            Shard shard = byFreeLane.poll();
+            shard.testClasses.add(testClass);
+            shard.laneMillis[shard.getFreestLane()] += getExpectedMillis(testClass);
+            byFreeLane.add(shard);
+        }
+        return shards;
+    }
+
+    /** The expected wall time of the whole run: the expected time of the slowest shard. */
+    public static double getMakespan(List<Shard> shards) {
+        double makespan = 0;
+        for (Shard shard : shards) {
+            makespan = Math.max(makespan, shard.getExpectedMillis());
+        }
+        return makespan;
+    }
+
+    /** Writes the plan as one "shard, class" line per test class, under a header giving the shard count. */
+    public static void writePlan(List<Shard> shards, File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(PLAN_HEADER + shards.size());
+        for (Shard shard : shards) {
+            for (Class<?> testClass : shard.getTestClasses()) {
+                lines.add(shard.getIndex() + "\t" + testClass.getSimpleName());
+            }
+        }
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a plan written by {@link #writePlan}, as shard index by test class simple name. Throws IOException if the
+     * plan was made for a different number of shards.
+     */
+    public static Map<String, Integer> readPlan(File file, int shardCount) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        String header = PLAN_HEADER + shardCount;
+        if (lines.isEmpty() || !lines.get(0).equals(header)) {
+            throw new IOException("Shard plan " + file + " doesn't start with \"" + header + "\"");
+        }
+        Map<String, Integer> assignments = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.isEmpty()) {
+                String[] fields = line.split("\t");
+                assignments.put(fields[1], Integer.parseInt(fields[0]));
+            }
+        }
+        return assignments;
+    }
+
+    /** Shard index by test class simple name. */
+    public static Map<String, Integer> getAssignments(List<Shard> shards) {
+        Map<String, Integer> assignments = new HashMap<>();
+        for (Shard shard : shards) {
+            for (Class<?> testClass : shard.getTestClasses()) {
+                assignments.put(testClass.getSimpleName(), shard.getIndex());
+            }
+        }
+        return assignments;
+    }
+
+    public static String describe(List<Shard> shards) {
+        double total = 0;
+        int lanes = 0;
+        for (Shard shard : shards) {
+            total += shard.getSerialMillis();
+            lanes += shard.laneMillis.length;
+        }
+        StringBuilder description = new StringBuilder(String.format(
+                "%d shards, expected makespan %.0f s (perfect balance %.0f s, %.0f s of classes in all)%n",
+                shards.size(), getMakespan(shards) / 1000, total / lanes / 1000, total / 1000));
+        for (Shard shard : shards) {
+            description.append(String.format("  shard %d: %.0f s (%.0f s serial), %d classes:", shard.getIndex(),
+                    shard.getExpectedMillis() / 1000, shard.getSerialMillis() / 1000,
+                    shard.getTestClasses().size()));
+            for (Class<?> testClass : shard.getTestClasses()) {
+                description.append(' ').append(testClass.getSimpleName());
+            }
+            description.append(String.format("%n"));
+        }
+        return description.toString();
+    }
+}
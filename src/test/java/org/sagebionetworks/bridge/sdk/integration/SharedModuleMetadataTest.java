@@ -44,6 +44,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class SharedModuleMetadataTest {
     private static final Logger LOG = LoggerFactory.getLogger(SharedModuleMetadataTest.class);
 
@@ -77,15 +78,15 @@ public class SharedModuleMetadataTest {
     public static void beforeClass() throws Exception {
         TestUserHelper.TestUser admin = TestUserHelper.getSignedInAdmin();
         apiDeveloper = TestUserHelper.createAndSignInUser(SharedModuleMetadataTest.class, false, DEVELOPER);
-        apiDeveloperModulesApi = apiDeveloper.getClient(SharedModulesApi.class);
+        apiDeveloperModulesApi = ApiClients.of(apiDeveloper, SharedModulesApi.class);
         sharedDeveloper = TestUserHelper.createAndSignInUser(SharedModuleMetadataTest.class, SHARED_STUDY_ID, DEVELOPER);
-        sharedDeveloperModulesApi = sharedDeveloper.getClient(SharedModulesApi.class);
+        sharedDeveloperModulesApi = ApiClients.of(sharedDeveloper, SharedModulesApi.class);
         nonAuthSharedModulesApi = TestUserHelper.getNonAuthClient(SharedModulesApi.class, IntegTestUtils.STUDY_ID);
-        devUploadSchemasApi = sharedDeveloper.getClient(UploadSchemasApi.class);
-        devSurveysApi = sharedDeveloper.getClient(SurveysApi.class);
-        adminsApi = admin.getClient(ForAdminsApi.class);
+        devUploadSchemasApi = ApiClients.of(sharedDeveloper, UploadSchemasApi.class);
+        devSurveysApi = ApiClients.of(sharedDeveloper, SurveysApi.class);
+        adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         adminsApi.adminChangeStudy(Tests.SHARED_SIGNIN).execute();
-        adminSurveysApi = admin.getClient(SurveysApi.class);
+        adminSurveysApi = ApiClients.of(admin, SurveysApi.class);
     }
 
     @Before
@@ -33,6 +33,7 @@ import org.sagebionetworks.bridge.rest.model.UploadSchema;
 import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class SharedModuleTest {
     private static final Logger LOG = LoggerFactory.getLogger(SharedModuleTest.class);
 
@@ -77,7 +78,7 @@ public class SharedModuleTest {
     public void deleteTestObjects() throws Exception {
         // Delete schemas created by test. We do it in a single After method instead of multiple, in case there are any
         // referential integrity concerns.
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
 
         if (module != null) {
             try {
@@ -139,11 +140,11 @@ public class SharedModuleTest {
         module = createModuleForSchema(sharedSchema);
 
         // Copy to local study.
-        SharedModuleImportStatus importStatus = apiDeveloper.getClient(SharedModulesApi.class)
+        SharedModuleImportStatus importStatus = ApiClients.of(apiDeveloper, SharedModulesApi.class)
                 .importModuleByIdAndVersion(module.getId(), module.getVersion()).execute().body();
 
         // Get local schema and verify some fields.
-        localSchema = apiDeveloper.getClient(UploadSchemasApi.class).getUploadSchema(importStatus.getSchemaId(),
+        localSchema = ApiClients.of(apiDeveloper, UploadSchemasApi.class).getUploadSchema(importStatus.getSchemaId(),
                 importStatus.getSchemaRevision().longValue()).execute().body();
 
         assertLocalSchema(sharedSchema, localSchema, module);
@@ -159,11 +160,11 @@ public class SharedModuleTest {
         module = createModuleForSurvey(sharedSurvey);
 
         // Copy to local study.
-        SharedModuleImportStatus importStatus = apiDeveloper.getClient(SharedModulesApi.class)
+        SharedModuleImportStatus importStatus = ApiClients.of(apiDeveloper, SharedModulesApi.class)
                 .importModuleByIdAndVersion(module.getId(), module.getVersion()).execute().body();
 
         // Get local survey and verify some fields.
-        localSurvey = apiDeveloper.getClient(SurveysApi.class).getSurvey(importStatus.getSurveyGuid(),
+        localSurvey = ApiClients.of(apiDeveloper, SurveysApi.class).getSurvey(importStatus.getSurveyGuid(),
                 DateTime.parse(importStatus.getSurveyCreatedOn())).execute().body();
         assertLocalSurvey(sharedSurvey, localSurvey, module);
 
@@ -178,11 +179,11 @@ public class SharedModuleTest {
         module = createModuleForSchema(sharedSchema);
 
         // Copy to local study.
-        SharedModuleImportStatus importStatus = apiDeveloper.getClient(SharedModulesApi.class)
+        SharedModuleImportStatus importStatus = ApiClients.of(apiDeveloper, SharedModulesApi.class)
                 .importModuleByIdLatestPublishedVersion(module.getId()).execute().body();
 
         // Get local schema and verify some fields.
-        localSchema = apiDeveloper.getClient(UploadSchemasApi.class).getUploadSchema(importStatus.getSchemaId(),
+        localSchema = ApiClients.of(apiDeveloper, UploadSchemasApi.class).getUploadSchema(importStatus.getSchemaId(),
                 importStatus.getSchemaRevision().longValue()).execute().body();
 
         assertLocalSchema(sharedSchema, localSchema, module);
@@ -197,7 +198,7 @@ public class SharedModuleTest {
         UploadFieldDefinition fieldDef = new UploadFieldDefinition().name("foo").type(UploadFieldType.INT);
         UploadSchema schemaToCreate = new UploadSchema().schemaId(schemaId).name("Shared Module Test Schema")
                 .schemaType(UploadSchemaType.IOS_DATA).addFieldDefinitionsItem(fieldDef);
-        return sharedDeveloper.getClient(UploadSchemasApi.class).createUploadSchema(schemaToCreate).execute().body();
+        return ApiClients.of(sharedDeveloper, UploadSchemasApi.class).createUploadSchema(schemaToCreate).execute().body();
     }
 
     // Helper method to create a shared module referencing the given schema. Returns the created module.
@@ -205,7 +206,7 @@ public class SharedModuleTest {
         String moduleId = "test-module-" + RandomStringUtils.randomAlphabetic(4);
         SharedModuleMetadata moduleToCreate = new SharedModuleMetadata().id(moduleId).name("Test Module With Schema")
                 .published(true).schemaId(schema.getSchemaId()).schemaRevision(schema.getRevision().intValue());
-        return sharedDeveloper.getClient(SharedModulesApi.class).createMetadata(moduleToCreate).execute().body();
+        return ApiClients.of(sharedDeveloper, SharedModulesApi.class).createMetadata(moduleToCreate).execute().body();
     }
 
     // Helper method to verify shared schema and local schema match. Because the schemas are in different studies, they
@@ -223,7 +224,7 @@ public class SharedModuleTest {
 
         // imported schemas can't be updated
         try {
-            apiDeveloper.getClient(UploadSchemasApi.class).updateUploadSchema(localSchema.getSchemaId(),
+            ApiClients.of(apiDeveloper, UploadSchemasApi.class).updateUploadSchema(localSchema.getSchemaId(),
                     localSchema.getRevision(), localSchema).execute();
             fail("expected exception");
         } catch (BadRequestException ex) {
@@ -234,7 +235,7 @@ public class SharedModuleTest {
 
     // Helper method to create a survey in the shared module library. Returns the created survey.
     private static Survey createAndPublishSharedSurvey() throws Exception {
-        SurveysApi sharedSurveyApi = sharedDeveloper.getClient(SurveysApi.class);
+        SurveysApi sharedSurveyApi = ApiClients.of(sharedDeveloper, SurveysApi.class);
         Survey surveyToCreate = TestSurvey.getSurvey(SharedModuleTest.class);
         GuidCreatedOnVersionHolder createdSurveyKey = sharedSurveyApi.createSurvey(surveyToCreate).execute().body();
         sharedSurveyApi.publishSurvey(createdSurveyKey.getGuid(), createdSurveyKey.getCreatedOn(), null).execute();
@@ -246,7 +247,7 @@ public class SharedModuleTest {
         String moduleId = "test-module-" + RandomStringUtils.randomAlphabetic(4);
         SharedModuleMetadata moduleToCreate = new SharedModuleMetadata().id(moduleId).name("Test Module With Survey")
                 .published(true).surveyGuid(survey.getGuid()).surveyCreatedOn(survey.getCreatedOn().toString());
-        return sharedDeveloper.getClient(SharedModulesApi.class).createMetadata(moduleToCreate).execute().body();
+        return ApiClients.of(sharedDeveloper, SharedModulesApi.class).createMetadata(moduleToCreate).execute().body();
     }
 
     // Helper method to verify shared survey and local survey match. Similar to assertLocalSchema().
@@ -0,0 +1,251 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.api.AuthenticationApi;
+import org.sagebionetworks.bridge.rest.api.ForAdminsApi;
+import org.sagebionetworks.bridge.rest.exceptions.EntityAlreadyExistsException;
+import org.sagebionetworks.bridge.rest.model.Phone;
+import org.sagebionetworks.bridge.rest.model.SignIn;
+import org.sagebionetworks.bridge.rest.model.SignUp;
+import org.sagebionetworks.bridge.rest.model.Study;
+import org.sagebionetworks.bridge.rest.model.UserSessionInfo;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * Sign-in storm harness, modeled on a mass app launch. A population of pre-created accounts signs in at a constant
+ * target rate by email and password, phone and password, reauth token, or a mix of all three.
+ *
+ * Arrivals are open-loop: request i is due at start + i / rate whether or not earlier requests have come back, and its
+ * latency is measured from when it was due, not from when a thread got around to sending it. A closed loop of N
+ * threads slows its own arrival rate when the server slows down, which hides exactly the tail latency this is meant to
+ * find (coordinated omission). "service" latency, from when the request was actually sent, is reported alongside.
+ *
+ * Set the load with -DsignInStorm.accounts, -DsignInStorm.rate (sign-ins per second), -DsignInStorm.seconds and
+ * -DsignInStorm.threads. Errors are counted by HTTP status (e.g. "error 429") or exception class.
+ */
+@Category(LoadTest.class)
+@ResourceLock(ResourceLock.API_STUDY)
+public class SignInStormTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SignInStormTest.class);
+
+    private static final int ACCOUNTS = Integer.getInteger("signInStorm.accounts", 20);
+    // Numbers in the 555 exchange, and the half of the accounts that sign in by phone.
+    private static final int PHONE_NUMBERS = 10000;
+    private static final int PHONE_ACCOUNTS = (ACCOUNTS + 1) / 2;
+    private static final int PHONE_ATTEMPTS = 3;
+    private static final int RATE_PER_SECOND = Integer.getInteger("signInStorm.rate", 10);
+    private static final int SECONDS = Integer.getInteger("signInStorm.seconds", 30);
+    // Enough that the pool isn't the bottleneck at the target rate. Requests beyond it queue, and the wait counts
+    // towards their latency.
+    private static final int THREADS = Integer.getInteger("signInStorm.threads", 64);
+
+    private enum Path {
+        EMAIL, PHONE, REAUTH
+    }
+
+    /** One pre-created account, with its own client so sessions from different accounts don't collide. */
+    private static final class Account {
+        private final TestUser user;
+        private final Path path;
+        private final AuthenticationApi authApi;
+        // Each reauthentication rotates the token, so the latest one is kept here.
+        private final AtomicReference<String> reauthToken;
+
+        Account(TestUser user, Path path) {
+            this.user = user;
+            this.path = path;
+            this.authApi = ApiClients.of(new ClientManager.Builder().withSignIn(getSignIn(user, path)).build(),
+                    AuthenticationApi.class);
+            this.reauthToken = new AtomicReference<>(user.getSession().getReauthToken());
+        }
+    }
+
+    private static ForAdminsApi adminApi;
+    private static boolean phoneSignInEnabled;
+    private static boolean reauthenticationEnabled;
+    private static List<Account> accounts = new ArrayList<>();
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        assertTrue("At most " + PHONE_NUMBERS + " phone accounts fit in the 555 exchange",
+                PHONE_ACCOUNTS <= PHONE_NUMBERS);
+        adminApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ForAdminsApi.class);
+        Study study = adminApi.getUsersStudy().execute().body();
+        phoneSignInEnabled = Boolean.TRUE.equals(study.isPhoneSignInEnabled());
+        reauthenticationEnabled = Boolean.TRUE.equals(study.isReauthenticationEnabled());
+        study.setPhoneSignInEnabled(true);
+        study.setReauthenticationEnabled(true);
+        adminApi.updateStudy(study.getIdentifier(), study).execute();
+
+        executor = LoadThreads.newExecutor("sign-in-storm-%d", THREADS);
+
+        // Create the population concurrently; it can be large. Accounts alternate email and phone identifiers.
+        List<Future<Account>> futures = new ArrayList<>();
+        int phoneBlock = ThreadLocalRandom.current().nextInt(PHONE_NUMBERS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Path path = (i % 2 == 0) ? Path.EMAIL : Path.PHONE;
+            int phoneIndex = phoneBlock + i / 2;
+            futures.add(executor.submit(() -> createAccount(path, phoneIndex)));
+        }
+        for (Future<Account> future : futures) {
+            accounts.add(future.get());
+        }
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(SignInStormTest.class);
+    }
+
+    @AfterClass
+    public static void restoreStudy() throws Exception {
+        if (adminApi != null) {
+            Study study = adminApi.getUsersStudy().execute().body();
+            study.setPhoneSignInEnabled(phoneSignInEnabled);
+            study.setReauthenticationEnabled(reauthenticationEnabled);
+            adminApi.updateStudy(study.getIdentifier(), study).execute();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void emailAndPassword() throws Exception {
+        runStorm(Path.EMAIL);
+    }
+
+    @Test
+    public void phoneAndPassword() throws Exception {
+        runStorm(Path.PHONE);
+    }
+
+    @Test
+    public void reauthToken() throws Exception {
+        runStorm(Path.REAUTH);
+    }
+
+    /** Every account at once, each by its password path or its reauth token at random, as on a real app launch. */
+    @Test
+    public void mixed() throws Exception {
+        runStorm(null);
+    }
+
+    private static void runStorm(Path onlyPath) throws Exception {
+        List<Account> population = new ArrayList<>();
+        for (Account account : accounts) {
+            if (onlyPath == null || onlyPath == Path.REAUTH || account.path == onlyPath) {
+                population.add(account);
+            }
+        }
+        String description = (onlyPath == null) ? "mixed" : onlyPath.name().toLowerCase(Locale.ENGLISH);
+        LoadMetrics metrics = new LoadMetrics("Sign-in storm, " + description + ", " + population.size()
+                + " accounts at " + RATE_PER_SECOND + "/s for " + SECONDS + " s");
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE_PER_SECOND;
+        int requests = RATE_PER_SECOND * SECONDS;
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Account account = population.get(i % population.size());
+            Path path = (onlyPath != null) ? onlyPath
+                    : (ThreadLocalRandom.current().nextBoolean() ? Path.REAUTH : account.path);
+            futures.add(executor.submit(() -> signIn(account, path, due, metrics)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        metrics.log();
+        LOG.info(String.format("Achieved %.1f sign-ins/s against a target of %d/s", metrics.getRate("signed in"),
+                RATE_PER_SECOND));
+        assertTrue("No sign-ins succeeded", metrics.getCount("signed in") > 0);
+    }
+
+    private static void signIn(Account account, Path path, long due, LoadMetrics metrics) {
+        long sent = System.nanoTime();
+        try {
+            if (path == Path.REAUTH) {
+                SignIn signIn = getSignIn(account.user, account.path).password(null)
+                        .reauthToken(account.reauthToken.get());
+                UserSessionInfo session = account.authApi.reauthenticate(signIn).execute().body();
+                account.reauthToken.set(session.getReauthToken());
+            } else {
+                // Signing in issues a new reauth token too.
+                UserSessionInfo session = account.authApi.signInV4(getSignIn(account.user, path)).execute().body();
+                account.reauthToken.set(session.getReauthToken());
+            }
+            long done = System.nanoTime();
+            metrics.record(path + " latency", done - due);
+            metrics.record(path + " service", done - sent);
+            metrics.count("signed in");
+        } catch (Exception e) {
+            metrics.record(path + " error latency", System.nanoTime() - due);
+            metrics.countError("Sign in failed", e);
+        }
+    }
+
+    /**
+     * Phone accounts get consecutive numbers in the 555 exchange from a random starting point for the run, so a run's
+     * accounts never collide with each other. A number left over from an earlier run that wasn't cleaned up moves the
+     * account on by a whole run's worth of numbers.
+     */
+    private static Account createAccount(Path path, int phoneIndex) throws Exception {
+        TestUser user = null;
+        if (path == Path.PHONE) {
+            for (int attempt = 0; user == null; attempt++) {
+                int number = (phoneIndex + attempt * PHONE_ACCOUNTS) % PHONE_NUMBERS;
+                Phone phone = new Phone().regionCode("US").number(String.format("+1206555%04d", number));
+                SignUp signUp = new SignUp().study(IntegTestUtils.STUDY_ID).consent(true).phone(phone);
+                try {
+                    user = new TestUserHelper.Builder(SignInStormTest.class).withConsentUser(true).withSignUp(signUp)
+                            .createAndSignInUser();
+                } catch (EntityAlreadyExistsException e) {
+                    if (attempt + 1 >= PHONE_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOG.info("Phone " + phone.getNumber() + " is already taken; trying another");
+                }
+            }
+        } else {
+            user = TestUserHelper.createAndSignInUser(SignInStormTest.class, true);
+        }
+        Teardown.register(SignInStormTest.class, user);
+        return new Account(user, path);
+    }
+
+    private static SignIn getSignIn(TestUser user, Path path) {
+        SignIn signIn = new SignIn().study(user.getStudyId()).password(user.getPassword());
+        return (path == Path.PHONE) ? signIn.phone(user.getPhone()) : signIn.email(user.getEmail());
+    }
+}
@@ -70,7 +70,7 @@ public class SignInTest {
     public void canGetDataGroups() throws Exception {
         List<String> dataGroups = Lists.newArrayList("sdk-int-1");
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
 
         StudyParticipant participant = new StudyParticipant();
         participant.setDataGroups(dataGroups);
@@ -87,7 +87,7 @@ public class SignInTest {
     @SuppressWarnings("deprecation")
     @Test
     public void createComplexUser() throws Exception {
-        AuthenticationApi authApi = researcher.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(researcher, AuthenticationApi.class);
         
         ExternalIdentifier externalId = Tests.createExternalId(SignInTest.class, developer, SUBSTUDY_ID_1);
         
@@ -111,7 +111,7 @@ public class SignInTest {
                 
         authApi.signUp(signUp).execute();
 
-        ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
         
         AccountSummaryList summaries = participantsApi.getParticipants(0, 10, signUp.getEmail(), null, null, null).execute()
                 .body();
@@ -132,7 +132,7 @@ public class SignInTest {
         Tests.deleteExternalId(externalId);
         
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        admin.getClient(ForAdminsApi.class).deleteUser(retrieved.getId()).execute();
+        ApiClients.of(admin, ForAdminsApi.class).deleteUser(retrieved.getId()).execute();
     }
 
     @Test(expected = EntityNotFoundException.class)
@@ -142,7 +142,7 @@ public class SignInTest {
         SignIn signIn = new SignIn().study(IntegTestUtils.STUDY_ID).email(email).password(PASSWORD);
 
         ClientManager newUserClientManager = new ClientManager.Builder().withSignIn(signIn).build();
-        AuthenticationApi newUserAuthApi = newUserClientManager.getClient(AuthenticationApi.class);
+        AuthenticationApi newUserAuthApi = ApiClients.of(newUserClientManager, AuthenticationApi.class);
         newUserAuthApi.signInV4(signIn).execute();
     }
 
@@ -152,7 +152,7 @@ public class SignInTest {
         SignIn signIn = new SignIn().study(IntegTestUtils.STUDY_ID).email(user.getEmail()).password("This is not my password");
 
         ClientManager newUserClientManager = new ClientManager.Builder().withSignIn(signIn).build();
-        AuthenticationApi newUserAuthApi = newUserClientManager.getClient(AuthenticationApi.class);
+        AuthenticationApi newUserAuthApi = ApiClients.of(newUserClientManager, AuthenticationApi.class);
         newUserAuthApi.signInV4(signIn).execute();
     }
 
@@ -160,14 +160,14 @@ public class SignInTest {
     public void signInAccountUnverified() throws Exception {
         // Mark account as unverified. In the v4 API, if sign in is first successful, we throw unauthorized exception
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        ParticipantsApi participantsApi = admin.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(admin, ParticipantsApi.class);
         StudyParticipant participant = participantsApi.getParticipantById(user.getSession().getId(), false).execute().body();
         participant.setStatus(AccountStatus.UNVERIFIED);
         participantsApi.updateParticipant(user.getSession().getId(), participant).execute();
 
         // Sign in should now fail with a 404 not found.
         ClientManager newUserClientManager = new ClientManager.Builder().withSignIn(user.getSignIn()).build();
-        AuthenticationApi newUserAuthApi = newUserClientManager.getClient(AuthenticationApi.class);
+        AuthenticationApi newUserAuthApi = ApiClients.of(newUserClientManager, AuthenticationApi.class);
         newUserAuthApi.signInV4(user.getSignIn()).execute();
     }
 }
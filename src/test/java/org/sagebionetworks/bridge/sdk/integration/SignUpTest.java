@@ -29,7 +29,7 @@ public class SignUpTest {
     public void defaultValuesExist() throws Exception {
         TestUser testUser = TestUserHelper.createAndSignInUser(SignUpTest.class, true);
         try {
-            ParticipantsApi participantsApi = testUser.getClientManager().getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(testUser.getClientManager(), ParticipantsApi.class);
 
             StudyParticipant participant = participantsApi.getUsersParticipantRecord(false).execute().body();
             assertTrue(participant.isNotifyByEmail());
@@ -43,7 +43,7 @@ public class SignUpTest {
     public void canAuthenticateAndCreateClientAndSignOut() throws IOException {
         TestUser testUser = TestUserHelper.createAndSignInUser(SignUpTest.class, true);
         try {
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             
             authApi.signOut().execute();
             
@@ -62,7 +62,7 @@ public class SignUpTest {
     public void badStudyReturns404() throws IOException {
         TestUser testUser = TestUserHelper.createAndSignInUser(SignUpTest.class, true);
         try {
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             
             SignIn email = new SignIn().study("junk").email("bridge-testing@sagebase.org");
             authApi.requestResetPassword(email).execute();
@@ -75,7 +75,7 @@ public class SignUpTest {
     public void badEmailCredentialsReturnsException() throws IOException {
         TestUser testUser = TestUserHelper.createAndSignInUser(SignUpTest.class, true);
         try {
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             
             SignIn email = new SignIn().email("bridge-testing@sagebase.org");
             authApi.requestResetPassword(email).execute();
@@ -91,14 +91,14 @@ public class SignUpTest {
         
         TestUser admin = TestUserHelper.getSignedInAdmin();
         
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         adminApi.createStudy(study).execute();
 
         SignUp signUp = new SignUp()
                 .study(study.getIdentifier())
                 .email(IntegTestUtils.makeEmail(SignUpTest.class))
                 .password("P@ssword`1");
-        AuthenticationApi authApi = admin.getClient(AuthenticationApi.class);
+        AuthenticationApi authApi = ApiClients.of(admin, AuthenticationApi.class);
         try {
             try {
                 authApi.signUp(signUp).execute();
@@ -47,7 +47,7 @@ public class SmsNotificationRegistrationTest {
         // 3. manual-topic (not managed by criteria)
         developer = TestUserHelper.createAndSignInUser(SmsNotificationRegistrationTest.class, false,
                 Role.DEVELOPER);
-        NotificationsApi notificationsApi = developer.getClient(NotificationsApi.class);
+        NotificationsApi notificationsApi = ApiClients.of(developer, NotificationsApi.class);
 
         List<NotificationTopic> topicList = notificationsApi.getNotificationTopics(false).execute().body().getItems();
         for (NotificationTopic oneTopic : topicList) {
@@ -112,7 +112,7 @@ public class SmsNotificationRegistrationTest {
 
     @Test
     public void userCreateRegistration() throws Exception {
-        ForConsentedUsersApi api = phoneUser.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi api = ApiClients.of(phoneUser, ForConsentedUsersApi.class);
 
         // Create notification.
         NotificationRegistration registration = new NotificationRegistration()
@@ -183,10 +183,10 @@ public class SmsNotificationRegistrationTest {
     public void researcherCreatesRegistration() throws Exception {
         // Create registration.
         String userId = phoneUser.getUserId();
-        researcher.getClient(InternalApi.class).createSmsRegistration(userId).execute();
+        ApiClients.of(researcher, InternalApi.class).createSmsRegistration(userId).execute();
 
         // Verify the user's registration.
-        List<NotificationRegistration> registrationList = researcher.getClient(NotificationsApi.class)
+        List<NotificationRegistration> registrationList = ApiClients.of(researcher, NotificationsApi.class)
                 .getParticipantPushNotificationRegistrations(userId).execute().body().getItems();
         assertEquals(1, registrationList.size());
 
@@ -195,7 +195,7 @@ public class SmsNotificationRegistrationTest {
         assertEquals(IntegTestUtils.PHONE.getNumber(), registration.getEndpoint());
 
         // Verify auto-subscriptions.
-        Map<String, Boolean> subscriptionsByGuid = phoneUser.getClient(ForConsentedUsersApi.class)
+        Map<String, Boolean> subscriptionsByGuid = ApiClients.of(phoneUser, ForConsentedUsersApi.class)
                 .getTopicSubscriptions(registration.getGuid()).execute().body().getItems().stream()
                 .collect(Collectors.toMap(SubscriptionStatus::getTopicGuid, SubscriptionStatus::isSubscribed));
         assertTrue(subscriptionsByGuid.get(autoTopicGuid1));
@@ -0,0 +1,114 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+
+/**
+ * Upload path for large files, in place of RestUtils.makeUploadRequestForFile and RestUtils.uploadToS3, which read the
+ * whole file onto the heap to compute Content-MD5. Here the digest is computed over memory-mapped windows of the file,
+ * and the S3 PUT body is sent from the file channel with transferTo, so neither step holds more than a small buffer
+ * of the file on the heap whatever its size. Request and headers are the same as RestUtils sends, so the session's
+ * presigned URL accepts them.
+ *
+ * <pre>
+ * UploadRequest request = StreamingUpload.makeUploadRequestForFile(file);
+ * UploadSession session = usersApi.requestUploadSession(request).execute().body();
+ * StreamingUpload.uploadToS3(file, session.getUrl(), request.getContentMd5());
+ * </pre>
+ */
+public final class StreamingUpload {
+    public static final String CONTENT_TYPE = "application/zip";
+
+    // Mapped a window at a time, so files larger than 2 GB (the limit of one mapping) still work.
+    private static final long MAP_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private static final OkHttpClient S3_CLIENT = new OkHttpClient.Builder().connectTimeout(2, TimeUnit.MINUTES)
+            .readTimeout(2, TimeUnit.MINUTES).writeTimeout(2, TimeUnit.MINUTES).build();
+
+    private StreamingUpload() {
+    }
+
+    public static UploadRequest makeUploadRequestForFile(File file) throws IOException {
+        return new UploadRequest().name(file.getName()).contentLength(file.length()).contentType(CONTENT_TYPE)
+                .contentMd5(md5Base64(file));
+    }
+
+    /** The file's MD5, base64 encoded as for Content-MD5, in one pass over the mapped file. */
+    public static String md5Base64(File file) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, size - position));
+                md5.update(window);
+            }
+        }
+        return Base64.getEncoder().encodeToString(md5.digest());
+    }
+
+    /** PUTs the file to the upload session's presigned URL. Throws IOException if S3 doesn't return 2xx. */
+    public static void uploadToS3(File file, String url, String contentMd5) throws IOException {
+        Request request = new Request.Builder().url(url).put(new FileChannelBody(file))
+                .header("Content-MD5", contentMd5).build();
+        try (Response response = S3_CLIENT.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("S3 PUT of " + file.getName() + " failed: " + response.code() + " "
+                        + response.body().string());
+            }
+        }
+    }
+
+    private static final class FileChannelBody extends RequestBody {
+        private final File file;
+
+        FileChannelBody(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse(CONTENT_TYPE);
+        }
+
+        @Override
+        public long contentLength() {
+            return file.length();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(sink.outputStream());
+                long size = channel.size();
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        }
+    }
+}
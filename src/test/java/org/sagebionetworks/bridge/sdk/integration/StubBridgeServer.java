@@ -0,0 +1,1004 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.json.DefaultObjectMapper;
+import org.sagebionetworks.bridge.rest.ClientManager;
+import org.sagebionetworks.bridge.rest.model.Environment;
+import org.sagebionetworks.bridge.util.IntegTestUtils;
+
+/**
+ * An in-memory stand-in for the Bridge server, for running tests on hosts that can't reach a Bridge environment and
+ * as a zero-latency baseline when measuring client-side overhead. It implements the routes behind AuthenticationApi,
+ * ForConsentedUsersApi (participant record, consent, empty activity lists), ParticipantsApi, SurveysApi, SchedulesApi
+ * and UploadSchemasApi, plus the admin user routes TestUserHelper needs. Entities are kept as JSON trees, so the
+ * server accepts and echoes whatever fields the client models send. Stored entities are never changed in place: an
+ * update replaces the node with an updated copy, so requests on the server's threads can read and serialize any node
+ * they hold without locking.
+ *
+ * Nothing here reproduces server-side validation, scheduling or eventual consistency; tests that depend on those still
+ * need a real environment. The server listens on the LOCAL environment's address, so run tests against it with the
+ * stub-server profile (-Dstub), which also sets env=local.
+ */
+public class StubBridgeServer {
+    private static final Logger LOG = LoggerFactory.getLogger(StubBridgeServer.class);
+
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final String SESSION_HEADER = "Bridge-Session";
+    private static final String ADMIN = "admin";
+    private static final String DEVELOPER = "developer";
+    private static final String RESEARCHER = "researcher";
+    private static final String WORKER = "worker";
+
+    private final int port;
+    private final List<Route> routes = new ArrayList<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    // In-memory storage. Keys are the entity's natural ID. Revision lists are guarded by their own monitors.
+    private final Map<String, ObjectNode> accounts = new ConcurrentHashMap<>();
+    private final Map<String, String> sessions = new ConcurrentHashMap<>();
+    private final Map<String, String> reauthTokens = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> surveys = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> schedulePlans = new ConcurrentHashMap<>();
+    private final Map<String, List<ObjectNode>> uploadSchemas = new ConcurrentHashMap<>();
+    // Held while checking for a duplicate account and storing the new one.
+    private final Object accountCreation = new Object();
+
+    public StubBridgeServer(int port) {
+        this.port = port;
+        registerRoutes();
+        ObjectNode admin = newAccount(IntegTestUtils.CONFIG.getAdminEmail(), IntegTestUtils.CONFIG.getAdminPassword());
+        admin.set("roles", JSON.arrayNode().add(ADMIN));
+        admin.put("consented", true);
+        accounts.put(admin.path("id").asText(), admin);
+    }
+
+    /** Port of the LOCAL environment's URL, which is where the suite's clients send requests when env=local. */
+    public static int getLocalPort() {
+        return URI.create(ClientManager.getUrl(Environment.LOCAL)).getPort();
+    }
+
+    public synchronized void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        executor = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("stub-bridge-%d").setDaemon(true).build());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        LOG.info("Stub Bridge server listening on port " + port);
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    private void registerRoutes() {
+        // Authentication
+        route("POST", "/v3/auth/signUp", null, this::signUp);
+        route("POST", "/v3/auth/signIn", null, this::signIn);
+        route("POST", "/v3/auth/admin/signIn", null, this::signIn);
+        route("POST", "/v3/auth/reauth", null, this::reauthenticate);
+        route("POST", "/v3/auth/signOut", null, this::signOut);
+
+        // Admin user management, used by TestUserHelper
+        route("POST", "/v3/users", ADMIN, this::createUser);
+        route("DELETE", "/v3/users/{userId}", ADMIN, this::deleteUser);
+
+        // For consented users
+        route("GET", "/v3/participants/self", "", req -> ok(participant(req.account)));
+        route("POST", "/v3/participants/self", "", this::updateSelf);
+        route("POST", "/v3/subpopulations/{subpopGuid}/consents/signature", "", this::consent);
+        route("GET", "/v3/activities", "", req -> ok(list(JSON.arrayNode())));
+        route("GET", "/v4/activities", "", req -> ok(list(JSON.arrayNode())));
+
+        // Participants
+        route("GET", "/v3/participants", RESEARCHER, this::getParticipants);
+        route("POST", "/v3/participants", RESEARCHER, this::createParticipant);
+        route("POST", "/v3/participants/search", RESEARCHER, this::getParticipants);
+        route("GET", "/v3/participants/{userId}", RESEARCHER, req -> ok(participant(getAccount(req))));
+        route("POST", "/v3/participants/{userId}", RESEARCHER, this::updateParticipant);
+        route("POST", "/v3/participants/{userId}/signOut", RESEARCHER, this::signOutParticipant);
+
+        // Surveys. The fixed path segments are registered before the {createdOn} routes they overlap.
+        route("GET", "/v3/surveys", DEVELOPER, req -> ok(list(mostRecent(surveys, req, false))));
+        route("POST", "/v3/surveys", DEVELOPER, this::createSurvey);
+        route("GET", "/v3/surveys/recent", DEVELOPER, req -> ok(list(mostRecent(surveys, req, false))));
+        route("GET", "/v3/surveys/published", DEVELOPER, req -> ok(list(mostRecent(surveys, req, true))));
+        route("GET", "/v3/surveys/{guid}/revisions", DEVELOPER, this::getSurveyRevisions);
+        route("GET", "/v3/surveys/{guid}/revisions/recent", DEVELOPER, req -> ok(latest(survey(req), false)));
+        route("GET", "/v3/surveys/{guid}/revisions/published", DEVELOPER, req -> ok(latest(survey(req), true)));
+        route("GET", "/v3/surveys/{guid}/revisions/{createdOn}", "", req -> ok(surveyRevision(req)));
+        route("POST", "/v3/surveys/{guid}/revisions/{createdOn}", DEVELOPER, this::updateSurvey);
+        route("POST", "/v3/surveys/{guid}/revisions/{createdOn}/version", DEVELOPER, this::versionSurvey);
+        route("POST", "/v3/surveys/{guid}/revisions/{createdOn}/publish", DEVELOPER, this::publishSurvey);
+        route("DELETE", "/v3/surveys/{guid}/revisions/{createdOn}", DEVELOPER, this::deleteSurvey);
+
+        // Schedule plans
+        route("GET", "/v3/scheduleplans", DEVELOPER, this::getSchedulePlans);
+        route("POST", "/v3/scheduleplans", DEVELOPER, this::createSchedulePlan);
+        route("GET", "/v3/scheduleplans/{guid}", DEVELOPER, req -> ok(schedulePlan(req)));
+        route("POST", "/v3/scheduleplans/{guid}", DEVELOPER, this::updateSchedulePlan);
+        route("DELETE", "/v3/scheduleplans/{guid}", DEVELOPER, this::deleteSchedulePlan);
+
+        // Upload schemas
+        route("GET", "/v3/uploadschemas", DEVELOPER, req -> ok(list(mostRecent(uploadSchemas, req, false))));
+        route("GET", "/v4/uploadschemas", DEVELOPER, req -> ok(list(mostRecent(uploadSchemas, req, false))));
+        route("POST", "/v3/uploadschemas", DEVELOPER, this::createUploadSchema);
+        route("POST", "/v4/uploadschemas", DEVELOPER, this::createUploadSchema);
+        route("GET", "/v4/uploadschemas/{schemaId}", DEVELOPER, req -> ok(list(toArray(schemaRevisions(req)))));
+        route("GET", "/v4/uploadschemas/{schemaId}/recent", DEVELOPER, req -> ok(latest(schemaRevisions(req), false)));
+        route("GET", "/v3/uploadschemas/{schemaId}/recent", DEVELOPER,
+                req -> ok(latest(schemaRevisions(req), false)));
+        route("GET", "/v4/uploadschemas/{schemaId}/revisions/{revision}", DEVELOPER,
+                req -> ok(schemaRevision(req)));
+        route("POST", "/v4/uploadschemas/{schemaId}/revisions/{revision}", DEVELOPER, this::updateUploadSchema);
+        route("DELETE", "/v4/uploadschemas/{schemaId}/revisions/{revision}", DEVELOPER, this::deleteSchemaRevision);
+        route("DELETE", "/v3/uploadschemas/{schemaId}", DEVELOPER, this::deleteSchema);
+    }
+
+    // Routing
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Request request) throws StubException;
+    }
+
+    /** A change to a copy of a stored entity, which then replaces the original. */
+    @FunctionalInterface
+    private interface Update {
+        void apply(ObjectNode entity) throws StubException;
+    }
+
+    private static final class Route {
+        final String method;
+        final Pattern pattern;
+        final List<String> paramNames = new ArrayList<>();
+        final String requiredRole;
+        final Handler handler;
+
+        Route(String method, String template, String requiredRole, Handler handler) {
+            this.method = method;
+            this.requiredRole = requiredRole;
+            this.handler = handler;
+            Matcher matcher = Pattern.compile("\\{(\\w+)}").matcher(template);
+            StringBuffer regex = new StringBuffer();
+            while (matcher.find()) {
+                paramNames.add(matcher.group(1));
+                matcher.appendReplacement(regex, "([^/]+)");
+            }
+            matcher.appendTail(regex);
+            this.pattern = Pattern.compile(regex.toString());
+        }
+    }
+
+    private static final class Request {
+        final String method;
+        final Map<String, String> pathParams = new HashMap<>();
+        final Map<String, String> queryParams;
+        final JsonNode body;
+        ObjectNode account;
+
+        Request(String method, Map<String, String> queryParams, JsonNode body) {
+            this.method = method;
+            this.queryParams = queryParams;
+            this.body = body;
+        }
+
+        String path(String name) {
+            return pathParams.get(name);
+        }
+
+        boolean flag(String name) {
+            return Boolean.parseBoolean(queryParams.get(name));
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final JsonNode body;
+
+        Response(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private static final class StubException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        final String type;
+        final JsonNode session;
+
+        StubException(int status, String type, String message) {
+            this(status, type, message, null);
+        }
+
+        StubException(int status, String type, String message, JsonNode session) {
+            super(message);
+            this.status = status;
+            this.type = type;
+            this.session = session;
+        }
+    }
+
+    /**
+     * Registers a route. requiredRole is null for unauthenticated routes, "" for any signed-in user, or a role name.
+     * Admins pass every role check.
+     */
+    private void route(String method, String template, String requiredRole, Handler handler) {
+        routes.add(new Route(method, template, requiredRole, handler));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        Response response;
+        try {
+            response = dispatch(exchange);
+        } catch (StubException e) {
+            ObjectNode error = e.session != null ? ((ObjectNode) e.session).deepCopy() : JSON.objectNode();
+            error.put("statusCode", e.status);
+            error.put("message", e.getMessage());
+            error.put("type", e.type);
+            response = new Response(e.status, error);
+        } catch (RuntimeException e) {
+            LOG.error("Stub Bridge server error", e);
+            ObjectNode error = JSON.objectNode().put("statusCode", 500).put("message", String.valueOf(e.getMessage()))
+                    .put("type", "BridgeServiceException");
+            response = new Response(500, error);
+        }
+        byte[] bytes = DefaultObjectMapper.INSTANCE.writeValueAsBytes(response.body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Response dispatch(HttpExchange exchange) throws IOException, StubException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Matcher matcher = route.pattern.matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            pathMatched = true;
+            if (!route.method.equals(method)) {
+                continue;
+            }
+            // Bridge answers a request it can't parse (malformed JSON, a bad date or parameter) with a 400.
+            try {
+                Request request = new Request(method, parseQuery(exchange.getRequestURI().getRawQuery()),
+                        readBody(exchange));
+                for (int i = 0; i < route.paramNames.size(); i++) {
+                    request.pathParams.put(route.paramNames.get(i), decode(matcher.group(i + 1)));
+                }
+                if (route.requiredRole != null) {
+                    request.account = authenticate(exchange, route.requiredRole);
+                }
+                return route.handler.handle(request);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                throw new StubException(400, "BadRequestException", e.getMessage());
+            }
+        }
+        if (pathMatched) {
+            throw new StubException(405, "UnsupportedVersionException", method + " not supported for " + path);
+        }
+        throw new StubException(404, "EntityNotFoundException", "No stub route for " + method + " " + path);
+    }
+
+    private ObjectNode authenticate(HttpExchange exchange, String requiredRole) throws StubException {
+        String token = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+        String userId = token == null ? null : sessions.get(token);
+        ObjectNode account = userId == null ? null : accounts.get(userId);
+        if (account == null) {
+            throw new StubException(401, "NotAuthenticatedException", "Not signed in.");
+        }
+        if (!requiredRole.isEmpty() && !hasRole(account, requiredRole) && !hasRole(account, ADMIN)) {
+            throw new StubException(403, "UnauthorizedException", "Caller does not have permission to access this "
+                    + "service.");
+        }
+        return account;
+    }
+
+    // Authentication and accounts
+
+    private Response signUp(Request req) throws StubException {
+        createAccount(req.body);
+        return new Response(201, message("Signed up."));
+    }
+
+    private Response signIn(Request req) throws StubException {
+        ObjectNode account = findAccount(req.body);
+        if (account == null || !req.body.path("password").asText().equals(account.path("password").asText())) {
+            throw new StubException(404, "EntityNotFoundException", "Account not found.");
+        }
+        return sessionResponse(account);
+    }
+
+    private Response reauthenticate(Request req) throws StubException {
+        String userId = reauthTokens.remove(req.body.path("reauthToken").asText());
+        ObjectNode account = userId == null ? null : accounts.get(userId);
+        if (account == null) {
+            throw new StubException(404, "EntityNotFoundException", "Account not found.");
+        }
+        return sessionResponse(account);
+    }
+
+    private Response signOut(Request req) {
+        return ok(message("Signed out."));
+    }
+
+    private Response signOutParticipant(Request req) throws StubException {
+        String userId = getAccount(req).path("id").asText();
+        sessions.values().removeIf(userId::equals);
+        return ok(message("User signed out."));
+    }
+
+    private Response createUser(Request req) throws StubException {
+        boolean consented = req.flag("consent") || req.body.path("consent").asBoolean();
+        ObjectNode account = createAccount(req.body, a -> a.put("consented", consented));
+        return new Response(201, session(account, newSessionToken(account)));
+    }
+
+    private Response deleteUser(Request req) throws StubException {
+        String userId = getAccount(req).path("id").asText();
+        accounts.remove(userId);
+        sessions.values().removeIf(userId::equals);
+        reauthTokens.values().removeIf(userId::equals);
+        return ok(message("User deleted."));
+    }
+
+    private Response updateSelf(Request req) throws StubException {
+        ObjectNode account = replace(accounts, req.account.path("id").asText(), "Account",
+                a -> mergeParticipant(a, req.body));
+        return ok(session(account, sessionTokenOf(account)));
+    }
+
+    private Response consent(Request req) throws StubException {
+        ObjectNode account = replace(accounts, req.account.path("id").asText(), "Account", a -> {
+            a.put("consented", true);
+            if (req.body.has("scope")) {
+                a.set("sharingScope", req.body.get("scope"));
+            }
+        });
+        return new Response(201, session(account, sessionTokenOf(account)));
+    }
+
+    private Response getParticipants(Request req) {
+        JsonNode search = req.body != null ? req.body : JSON.objectNode();
+        String emailFilter = Optional.ofNullable(req.queryParams.get("emailFilter"))
+                .orElse(search.path("emailFilter").asText(null));
+        int offsetBy = intParam(req, search, "offsetBy", 0);
+        int pageSize = intParam(req, search, "pageSize", 50);
+
+        List<ObjectNode> matches = accounts.values().stream()
+                .filter(a -> emailFilter == null || a.path("email").asText("").contains(emailFilter))
+                .filter(a -> search.path("language").isMissingNode() || containsText(a.path("languages"),
+                        search.path("language").asText()))
+                .filter(a -> allOf(a.path("dataGroups"), search.path("allOfGroups")))
+                .filter(a -> noneOf(a.path("dataGroups"), search.path("noneOfGroups")))
+                .sorted(Comparator.comparing(a -> a.path("createdOn").asText()))
+                .collect(Collectors.toList());
+
+        ArrayNode items = JSON.arrayNode();
+        matches.stream().skip(offsetBy).limit(pageSize).forEach(a -> items.add(summary(a)));
+        ObjectNode list = list(items);
+        list.put("total", matches.size());
+        list.set("requestParams", JSON.objectNode().put("offsetBy", offsetBy).put("pageSize", pageSize)
+                .put("emailFilter", emailFilter));
+        return ok(list);
+    }
+
+    private Response createParticipant(Request req) throws StubException {
+        ObjectNode account = createAccount(req.body);
+        return new Response(201, JSON.objectNode().put("identifier", account.path("id").asText()));
+    }
+
+    private Response updateParticipant(Request req) throws StubException {
+        replace(accounts, req.path("userId"), "Account", a -> mergeParticipant(a, req.body));
+        return ok(message("Participant updated."));
+    }
+
+    private ObjectNode createAccount(JsonNode signUp) throws StubException {
+        return createAccount(signUp, account -> {
+        });
+    }
+
+    /** Builds the account, applies any further setup, and only then stores it, unless the identifier is taken. */
+    private ObjectNode createAccount(JsonNode signUp, Update setup) throws StubException {
+        ObjectNode account = newAccount(signUp.path("email").asText(null), signUp.path("password").asText(null));
+        mergeParticipant(account, signUp);
+        if (signUp.has("roles")) {
+            account.set("roles", signUp.get("roles"));
+        }
+        setup.apply(account);
+        synchronized (accountCreation) {
+            if (findAccount(signUp) != null) {
+                throw new StubException(409, "EntityAlreadyExistsException", "Account already exists.");
+            }
+            accounts.put(account.path("id").asText(), account);
+        }
+        return account;
+    }
+
+    private ObjectNode newAccount(String email, String password) {
+        ObjectNode account = JSON.objectNode();
+        String id = UUID.randomUUID().toString();
+        account.put("id", id);
+        account.put("healthCode", UUID.randomUUID().toString());
+        account.put("email", email);
+        account.put("password", password);
+        account.put("createdOn", DateTime.now(DateTimeZone.UTC).toString());
+        account.put("status", "enabled");
+        account.put("sharingScope", "no_sharing");
+        account.put("consented", false);
+        account.set("roles", JSON.arrayNode());
+        account.set("dataGroups", JSON.arrayNode());
+        account.set("substudyIds", JSON.arrayNode());
+        account.set("languages", JSON.arrayNode());
+        account.set("attributes", JSON.objectNode());
+        return account;
+    }
+
+    private static void mergeParticipant(ObjectNode account, JsonNode update) {
+        // The client sends the whole participant back on update. Identity and role fields can't be changed this way.
+        Iterator<Map.Entry<String, JsonNode>> fields = update.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            switch (field.getKey()) {
+                case "id":
+                case "healthCode":
+                case "roles":
+                case "createdOn":
+                case "type":
+                    break;
+                default:
+                    if (!field.getValue().isNull()) {
+                        account.set(field.getKey(), field.getValue());
+                    }
+            }
+        }
+    }
+
+    private ObjectNode findAccount(JsonNode identifier) {
+        String email = identifier.path("email").asText(null);
+        String phone = identifier.path("phone").path("number").asText(null);
+        String externalId = identifier.path("externalId").asText(null);
+        for (ObjectNode account : accounts.values()) {
+            if ((email != null && email.equalsIgnoreCase(account.path("email").asText(null)))
+                    || (phone != null && phone.equals(account.path("phone").path("number").asText(null)))
+                    || (externalId != null && externalId.equals(account.path("externalId").asText(null)))) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    private ObjectNode getAccount(Request req) throws StubException {
+        ObjectNode account = accounts.get(req.path("userId"));
+        if (account == null) {
+            throw new StubException(404, "EntityNotFoundException", "Account not found.");
+        }
+        return account;
+    }
+
+    private Response sessionResponse(ObjectNode account) throws StubException {
+        ObjectNode session = session(account, newSessionToken(account));
+        if (!account.path("consented").asBoolean() && account.path("roles").size() == 0) {
+            // The client turns a 412 into a ConsentRequiredException that still carries the session.
+            throw new StubException(412, "ConsentRequiredException", "Consent is required before continuing.",
+                    session);
+        }
+        return ok(session);
+    }
+
+    private String newSessionToken(ObjectNode account) {
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, account.path("id").asText());
+        return token;
+    }
+
+    private String sessionTokenOf(ObjectNode account) {
+        String userId = account.path("id").asText();
+        return sessions.entrySet().stream().filter(e -> e.getValue().equals(userId)).map(Map.Entry::getKey)
+                .findFirst().orElseGet(() -> newSessionToken(account));
+    }
+
+    private ObjectNode session(ObjectNode account, String sessionToken) {
+        String reauthToken = UUID.randomUUID().toString();
+        reauthTokens.put(reauthToken, account.path("id").asText());
+
+        boolean consented = account.path("consented").asBoolean();
+        ObjectNode consentStatus = JSON.objectNode().put("name", "Default Consent Group")
+                .put("subpopulationGuid", IntegTestUtils.STUDY_ID).put("required", true).put("consented", consented)
+                .put("signedMostRecentConsent", consented);
+
+        ObjectNode session = participant(account);
+        session.remove("healthCode");
+        session.put("authenticated", true);
+        session.put("consented", consented);
+        session.put("signedMostRecentConsent", consented);
+        session.put("sessionToken", sessionToken);
+        session.put("reauthToken", reauthToken);
+        session.put("environment", "local");
+        session.set("consentStatuses", JSON.objectNode().set(IntegTestUtils.STUDY_ID, consentStatus));
+        session.put("type", "UserSessionInfo");
+        return session;
+    }
+
+    private static ObjectNode participant(ObjectNode account) {
+        ObjectNode participant = account.deepCopy();
+        participant.remove("password");
+        participant.remove("consented");
+        participant.put("type", "StudyParticipant");
+        return participant;
+    }
+
+    private static ObjectNode summary(ObjectNode account) {
+        ObjectNode summary = JSON.objectNode();
+        for (String field : new String[] { "id", "email", "phone", "externalId", "firstName", "lastName",
+                "createdOn", "status", "substudyIds" }) {
+            if (account.has(field)) {
+                summary.set(field, account.get(field));
+            }
+        }
+        summary.put("studyIdentifier", IntegTestUtils.STUDY_ID);
+        summary.put("type", "AccountSummary");
+        return summary;
+    }
+
+    private static boolean hasRole(ObjectNode account, String role) {
+        return containsText(account.path("roles"), role);
+    }
+
+    // Surveys
+
+    private Response createSurvey(Request req) {
+        ObjectNode survey = ((ObjectNode) req.body).deepCopy();
+        survey.put("guid", UUID.randomUUID().toString());
+        List<ObjectNode> revisions = new ArrayList<>();
+        surveys.put(survey.path("guid").asText(), revisions);
+        return new Response(201, keys(addSurveyRevision(revisions, survey)));
+    }
+
+    private Response getSurveyRevisions(Request req) throws StubException {
+        boolean includeDeleted = req.flag("includeDeleted");
+        ArrayNode items = JSON.arrayNode();
+        survey(req).stream().filter(s -> includeDeleted || !s.path("deleted").asBoolean()).forEach(items::add);
+        return ok(list(items));
+    }
+
+    private Response updateSurvey(Request req) throws StubException {
+        ObjectNode revision = replaceRevision(survey(req), surveyRevision(req), "Survey", r -> {
+            if (r.path("published").asBoolean()) {
+                throw new StubException(400, "PublishedSurveyException", "A published survey cannot be updated.");
+            }
+            mergeVersioned(r, req.body);
+            assignElementGuids(r);
+        });
+        return ok(keys(revision));
+    }
+
+    private Response versionSurvey(Request req) throws StubException {
+        ObjectNode copy = surveyRevision(req).deepCopy();
+        copy.put("published", false);
+        return new Response(201, keys(addSurveyRevision(survey(req), copy)));
+    }
+
+    private Response publishSurvey(Request req) throws StubException {
+        ObjectNode revision = replaceRevision(survey(req), surveyRevision(req), "Survey", r -> {
+            r.put("published", true);
+            r.put("version", r.path("version").asLong() + 1);
+        });
+        return ok(keys(revision));
+    }
+
+    private Response deleteSurvey(Request req) throws StubException {
+        List<ObjectNode> revisions = survey(req);
+        ObjectNode revision = surveyRevision(req);
+        if (req.flag("physical")) {
+            synchronized (revisions) {
+                revisions.remove(revision);
+            }
+        } else {
+            replaceRevision(revisions, revision, "Survey", r -> r.put("deleted", true));
+        }
+        return ok(message("Survey deleted."));
+    }
+
+    private ObjectNode addSurveyRevision(List<ObjectNode> revisions, ObjectNode survey) {
+        DateTime createdOn = DateTime.now(DateTimeZone.UTC);
+        synchronized (revisions) {
+            // Revisions are keyed by createdOn, so make sure two revisions never share a millisecond.
+            if (!revisions.isEmpty()) {
+                DateTime last = DateTime.parse(revisions.get(revisions.size() - 1).path("createdOn").asText());
+                if (!createdOn.isAfter(last)) {
+                    createdOn = last.plusMillis(1);
+                }
+            }
+            survey.put("createdOn", createdOn.toString());
+            survey.put("modifiedOn", createdOn.toString());
+            survey.put("version", 1L);
+            survey.put("published", false);
+            survey.put("deleted", false);
+            survey.put("type", "Survey");
+            assignElementGuids(survey);
+            revisions.add(survey);
+        }
+        return survey;
+    }
+
+    private static void assignElementGuids(ObjectNode survey) {
+        for (JsonNode element : survey.path("elements")) {
+            if (element.isObject() && !element.hasNonNull("guid")) {
+                ((ObjectNode) element).put("guid", UUID.randomUUID().toString());
+            }
+        }
+    }
+
+    private List<ObjectNode> survey(Request req) throws StubException {
+        String guid = req.path("guid");
+        List<ObjectNode> revisions = null;
+        if (guid.startsWith("identifier:")) {
+            String identifier = guid.substring("identifier:".length());
+            for (List<ObjectNode> candidate : surveys.values()) {
+                synchronized (candidate) {
+                    if (!candidate.isEmpty() && identifier.equals(candidate.get(0).path("identifier").asText())) {
+                        revisions = candidate;
+                    }
+                }
+            }
+        } else {
+            revisions = surveys.get(guid);
+        }
+        if (revisions == null) {
+            throw new StubException(404, "EntityNotFoundException", "Survey not found.");
+        }
+        return revisions;
+    }
+
+    private ObjectNode surveyRevision(Request req) throws StubException {
+        DateTime createdOn = DateTime.parse(req.path("createdOn"));
+        List<ObjectNode> revisions = survey(req);
+        synchronized (revisions) {
+            for (ObjectNode revision : revisions) {
+                if (DateTime.parse(revision.path("createdOn").asText()).isEqual(createdOn)) {
+                    return revision;
+                }
+            }
+        }
+        throw new StubException(404, "EntityNotFoundException", "Survey not found.");
+    }
+
+    private static ObjectNode keys(ObjectNode survey) {
+        return JSON.objectNode().put("guid", survey.path("guid").asText())
+                .put("createdOn", survey.path("createdOn").asText()).put("version", survey.path("version").asLong())
+                .put("type", "GuidCreatedOnVersionHolder");
+    }
+
+    // Schedule plans
+
+    private Response getSchedulePlans(Request req) {
+        ArrayNode items = JSON.arrayNode();
+        schedulePlans.values().stream().filter(p -> req.flag("includeDeleted") || !p.path("deleted").asBoolean())
+                .forEach(items::add);
+        return ok(list(items));
+    }
+
+    private Response createSchedulePlan(Request req) {
+        ObjectNode plan = ((ObjectNode) req.body).deepCopy();
+        plan.put("guid", UUID.randomUUID().toString());
+        plan.put("version", 1L);
+        plan.put("modifiedOn", DateTime.now(DateTimeZone.UTC).toString());
+        plan.put("deleted", false);
+        schedulePlans.put(plan.path("guid").asText(), plan);
+        return new Response(201, guidVersion(plan));
+    }
+
+    private Response updateSchedulePlan(Request req) throws StubException {
+        ObjectNode plan = replace(schedulePlans, req.path("guid"), "SchedulePlan", p -> mergeVersioned(p, req.body));
+        return ok(guidVersion(plan));
+    }
+
+    private Response deleteSchedulePlan(Request req) throws StubException {
+        ObjectNode plan = schedulePlan(req);
+        if (req.flag("physical")) {
+            schedulePlans.remove(plan.path("guid").asText());
+        } else {
+            replace(schedulePlans, plan.path("guid").asText(), "SchedulePlan", p -> p.put("deleted", true));
+        }
+        return ok(message("Schedule plan deleted."));
+    }
+
+    private ObjectNode schedulePlan(Request req) throws StubException {
+        ObjectNode plan = schedulePlans.get(req.path("guid"));
+        if (plan == null) {
+            throw new StubException(404, "EntityNotFoundException", "SchedulePlan not found.");
+        }
+        return plan;
+    }
+
+    private static ObjectNode guidVersion(ObjectNode entity) {
+        return JSON.objectNode().put("guid", entity.path("guid").asText())
+                .put("version", entity.path("version").asLong()).put("type", "GuidVersionHolder");
+    }
+
+    // Upload schemas
+
+    private Response createUploadSchema(Request req) throws StubException {
+        ObjectNode schema = ((ObjectNode) req.body).deepCopy();
+        String schemaId = schema.path("schemaId").asText();
+        List<ObjectNode> revisions = uploadSchemas.computeIfAbsent(schemaId, k -> new ArrayList<>());
+        synchronized (revisions) {
+            long revision = schema.path("revision").asLong(0);
+            long latest = revisions.isEmpty() ? 0 : revisions.get(revisions.size() - 1).path("revision").asLong();
+            if (revision != 0 && revision <= latest) {
+                throw new StubException(409, "ConcurrentModificationException", "Schema revision already exists.");
+            }
+            schema.put("revision", revision == 0 ? latest + 1 : revision);
+            schema.put("version", 1L);
+            schema.put("type", "UploadSchema");
+            revisions.add(schema);
+        }
+        return new Response(201, schema);
+    }
+
+    private Response updateUploadSchema(Request req) throws StubException {
+        ObjectNode schema = replaceRevision(schemaRevisions(req), schemaRevision(req), "UploadSchema",
+                r -> mergeVersioned(r, req.body));
+        return ok(schema);
+    }
+
+    private Response deleteSchemaRevision(Request req) throws StubException {
+        List<ObjectNode> revisions = schemaRevisions(req);
+        ObjectNode schema = schemaRevision(req);
+        synchronized (revisions) {
+            revisions.remove(schema);
+        }
+        return ok(message("Schema has been deleted."));
+    }
+
+    private Response deleteSchema(Request req) throws StubException {
+        if (uploadSchemas.remove(req.path("schemaId")) == null) {
+            throw new StubException(404, "EntityNotFoundException", "UploadSchema not found.");
+        }
+        return ok(message("Schemas have been deleted."));
+    }
+
+    private List<ObjectNode> schemaRevisions(Request req) throws StubException {
+        List<ObjectNode> revisions = uploadSchemas.get(req.path("schemaId"));
+        if (revisions == null || revisions.isEmpty()) {
+            throw new StubException(404, "EntityNotFoundException", "UploadSchema not found.");
+        }
+        return revisions;
+    }
+
+    private ObjectNode schemaRevision(Request req) throws StubException {
+        long revision = Long.parseLong(req.path("revision"));
+        List<ObjectNode> revisions = schemaRevisions(req);
+        synchronized (revisions) {
+            for (ObjectNode schema : revisions) {
+                if (schema.path("revision").asLong() == revision) {
+                    return schema;
+                }
+            }
+        }
+        throw new StubException(404, "EntityNotFoundException", "UploadSchema not found.");
+    }
+
+    // Shared helpers
+
+    /**
+     * Replaces a stored entity with an updated copy and returns the copy. If another request replaced the entity
+     * first, the update is applied again to the newer entity, so version checks see the latest version.
+     */
+    private static ObjectNode replace(Map<String, ObjectNode> store, String key, String type, Update update)
+            throws StubException {
+        while (true) {
+            ObjectNode current = store.get(key);
+            if (current == null) {
+                throw new StubException(404, "EntityNotFoundException", type + " not found.");
+            }
+            ObjectNode updated = current.deepCopy();
+            update.apply(updated);
+            if (store.replace(key, current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /** Replaces one revision in a revision list with an updated copy, under the list's lock, and returns the copy. */
+    private static ObjectNode replaceRevision(List<ObjectNode> revisions, ObjectNode revision, String type,
+            Update update) throws StubException {
+        synchronized (revisions) {
+            for (int i = 0; i < revisions.size(); i++) {
+                if (revisions.get(i) == revision) {
+                    ObjectNode updated = revision.deepCopy();
+                    update.apply(updated);
+                    revisions.set(i, updated);
+                    return updated;
+                }
+            }
+        }
+        // Deleted, or replaced by another request, since it was looked up.
+        throw new StubException(409, "ConcurrentModificationException", type + " was modified concurrently.");
+    }
+
+    /** Applies an update to a versioned entity, enforcing optimistic locking the way the server does. */
+    private static void mergeVersioned(ObjectNode entity, JsonNode update) throws StubException {
+        long version = entity.path("version").asLong();
+        if (update.has("version") && update.path("version").asLong() != version) {
+            throw new StubException(409, "ConcurrentModificationException", "Entity has the wrong version number; "
+                    + "it may have been saved in the background.");
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = update.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getKey().equals("guid") && !field.getKey().equals("createdOn")) {
+                entity.set(field.getKey(), field.getValue());
+            }
+        }
+        entity.put("version", version + 1);
+        entity.put("modifiedOn", DateTime.now(DateTimeZone.UTC).toString());
+    }
+
+    /** The newest revision of each entity, optionally only those that are published, for list APIs. */
+    private static ArrayNode mostRecent(Map<String, List<ObjectNode>> store, Request req, boolean published) {
+        boolean includeDeleted = req.flag("includeDeleted");
+        ArrayNode items = JSON.arrayNode();
+        for (List<ObjectNode> revisions : store.values()) {
+            synchronized (revisions) {
+                ObjectNode latest = null;
+                for (ObjectNode revision : revisions) {
+                    if ((!published || revision.path("published").asBoolean())
+                            && (includeDeleted || !revision.path("deleted").asBoolean())) {
+                        latest = revision;
+                    }
+                }
+                if (latest != null) {
+                    items.add(latest);
+                }
+            }
+        }
+        return items;
+    }
+
+    private static ObjectNode latest(List<ObjectNode> revisions, boolean published) throws StubException {
+        synchronized (revisions) {
+            for (int i = revisions.size() - 1; i >= 0; i--) {
+                ObjectNode revision = revisions.get(i);
+                if ((!published || revision.path("published").asBoolean()) && !revision.path("deleted").asBoolean()) {
+                    return revision;
+                }
+            }
+        }
+        throw new StubException(404, "EntityNotFoundException", "Entity not found.");
+    }
+
+    private static ArrayNode toArray(List<ObjectNode> entities) {
+        ArrayNode items = JSON.arrayNode();
+        synchronized (entities) {
+            entities.forEach(items::add);
+        }
+        return items;
+    }
+
+    private static ObjectNode list(ArrayNode items) {
+        ObjectNode list = JSON.objectNode();
+        list.set("items", items);
+        list.put("type", "ResourceList");
+        return list;
+    }
+
+    private static ObjectNode message(String message) {
+        return JSON.objectNode().put("message", message).put("type", "Message");
+    }
+
+    private static Response ok(JsonNode body) {
+        return new Response(200, body);
+    }
+
+    private static boolean containsText(JsonNode array, String value) {
+        for (JsonNode node : array) {
+            if (node.asText().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean allOf(JsonNode values, JsonNode required) {
+        for (JsonNode node : required) {
+            if (!containsText(values, node.asText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean noneOf(JsonNode values, JsonNode excluded) {
+        for (JsonNode node : excluded) {
+            if (containsText(values, node.asText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int intParam(Request req, JsonNode search, String name, int defaultValue) {
+        String value = req.queryParams.get(name);
+        if (value != null) {
+            return Integer.parseInt(value);
+        }
+        return search.path(name).asInt(defaultValue);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int index = pair.indexOf('=');
+                if (index > 0) {
+                    params.put(decode(pair.substring(0, index)), decode(pair.substring(index + 1)));
+                }
+            }
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = ByteStreams.toByteArray(in);
+            return bytes.length == 0 ? JSON.objectNode() : DefaultObjectMapper.INSTANCE.readTree(bytes);
+        }
+    }
+}
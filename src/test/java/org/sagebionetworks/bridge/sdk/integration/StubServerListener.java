@@ -0,0 +1,26 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+/**
+ * Starts a {@link StubBridgeServer} before the test run and stops it afterwards. Registered as a surefire listener by
+ * the stub-server profile (-Dstub).
+ */
+public class StubServerListener extends RunListener {
+    private StubBridgeServer server;
+
+    @Override
+    public void testRunStarted(Description description) throws Exception {
+        server = new StubBridgeServer(StubBridgeServer.getLocalPort());
+        server.start();
+    }
+
+    @Override
+    public void testRunFinished(Result result) throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
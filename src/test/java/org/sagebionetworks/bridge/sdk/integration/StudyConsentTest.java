@@ -34,7 +34,7 @@ public class StudyConsentTest {
     @After
     public void after() throws Exception {
         if (subpopGuid != null) {
-            admin.getClient(SubpopulationsApi.class).deleteSubpopulation(subpopGuid, true).execute();
+            ApiClients.of(admin, SubpopulationsApi.class).deleteSubpopulation(subpopGuid, true).execute();
         }
         if (developer != null) {
             developer.signOutAndDeleteUser();    
@@ -48,7 +48,7 @@ public class StudyConsentTest {
             StudyConsent consent = new StudyConsent();
             consent.setDocumentContent("<p>Test content.</p>");
 
-            user.getClient(StudyConsentsApi.class).createConsent(user.getDefaultSubpopulation(), consent).execute();
+            ApiClients.of(user, StudyConsentsApi.class).createConsent(user.getDefaultSubpopulation(), consent).execute();
         } finally {
             user.signOutAndDeleteUser();
         }
@@ -61,7 +61,7 @@ public class StudyConsentTest {
             StudyConsent consent = new StudyConsent();
             consent.setDocumentContent("<p>Test content.</p>");
 
-            researcher.getClient(StudyConsentsApi.class).createConsent(researcher.getDefaultSubpopulation(), consent).execute();
+            ApiClients.of(researcher, StudyConsentsApi.class).createConsent(researcher.getDefaultSubpopulation(), consent).execute();
         } finally {
             researcher.signOutAndDeleteUser();
         }
@@ -69,8 +69,8 @@ public class StudyConsentTest {
     
     @Test
     public void addAndActivateConsent() throws Exception {
-        StudyConsentsApi studyConsentsApi = developer.getClient(StudyConsentsApi.class);
-        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        StudyConsentsApi studyConsentsApi = ApiClients.of(developer, StudyConsentsApi.class);
+        SubpopulationsApi subpopulationsApi = ApiClients.of(developer, SubpopulationsApi.class);
 
         // Create a subpopulation to test this so we can delete the subpopulation to clean up.
         // Because we create it from scratch, we know the exact number of consents that are in it.
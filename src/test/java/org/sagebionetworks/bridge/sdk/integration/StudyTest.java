@@ -71,6 +71,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
 @SuppressWarnings("deprecation")
+@ResourceLock({ ResourceLock.API_STUDY, ResourceLock.ADMIN_SESSION })
 public class StudyTest {
     
     private TestUser admin;
@@ -109,7 +110,7 @@ public class StudyTest {
     @After
     public void after() throws Exception {
         if (studyId != null) {
-            admin.getClient(ForAdminsApi.class).deleteStudy(studyId, true).execute();
+            ApiClients.of(admin, ForAdminsApi.class).deleteStudy(studyId, true).execute();
         }
         if (project != null) {
             synapseClient.deleteEntityById(project.getId());
@@ -148,7 +149,7 @@ public class StudyTest {
         // only use developer to signin
         TestUser developer = TestUserHelper.createAndSignInUser(StudyTest.class, false, Role.DEVELOPER);
         try {
-            StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
 
             // integration test with synapseclient
             // pre-setup - remove current study's project and team info
@@ -218,7 +219,7 @@ public class StudyTest {
 
     @Test
     public void crudStudy() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
 
         studyId = Tests.randomIdentifier(StudyTest.class);
         Study study = Tests.getStudy(studyId, null);
@@ -364,12 +365,12 @@ public class StudyTest {
             studyId = Tests.randomIdentifier(StudyTest.class);
             Study study = Tests.getStudy(studyId, null);
 
-            ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+            ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
             adminApi.createStudy(study).execute();
 
             try {
                 // Researcher getting an admin client, an error should result
-                ForAdminsApi resStudiesApi = researcher.getClient(ForAdminsApi.class);
+                ForAdminsApi resStudiesApi = ApiClients.of(researcher, ForAdminsApi.class);
                 resStudiesApi.getStudy(studyId).execute();
                 fail("Should not have been able to get this other study");
             } catch(UnauthorizedException e) {
@@ -384,7 +385,7 @@ public class StudyTest {
     public void butNormalUserCannotAccessStudy() throws Exception {
         TestUser user = TestUserHelper.createAndSignInUser(StudyTest.class, false);
         try {
-            StudiesApi studiesApi = user.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(user, StudiesApi.class);
             studiesApi.getUsersStudy().execute();
         } finally {
             user.signOutAndDeleteUser();
@@ -395,7 +396,7 @@ public class StudyTest {
     public void developerCannotChangeAdminOnlySettings() throws Exception {
         TestUser developer = TestUserHelper.createAndSignInUser(StudyTest.class, false, Role.DEVELOPER);
         try {
-            StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
 
             Study study = studiesApi.getUsersStudy().execute().body();
             boolean originalHealthCodeExportEnabled = study.isHealthCodeExportEnabled();
@@ -428,7 +429,7 @@ public class StudyTest {
         // We currently can't check an email address as part of a test. Just verify that the call succeeds.
         TestUser developer = TestUserHelper.createAndSignInUser(StudyTest.class, false, Role.DEVELOPER);
         try {
-            StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
             Response<Message> response = studiesApi.resendVerifyEmail("consent_notification").execute();
             assertEquals(200, response.code());
         } finally {
@@ -440,7 +441,7 @@ public class StudyTest {
     public void verifyConsentNotificationEmail() throws Exception {
         // We can't currently check an email address to get a real verification token. This test is mainly to make sure
         // that our Java SDK is set up correctly.
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(admin, StudiesApi.class);
         try {
             studiesApi.verifyEmailForStudy(IntegTestUtils.STUDY_ID, "dummy-token", "consent_notification").execute();
             fail("expected exception");
@@ -451,7 +452,7 @@ public class StudyTest {
 
     @Test
     public void uploadMetadataFieldDefinitions() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
 
         // Random field name, so they don't conflict.
         String fieldName = "test-field-" + RandomStringUtils.randomAlphabetic(4);
@@ -462,7 +463,7 @@ public class StudyTest {
 
         TestUser developer = TestUserHelper.createAndSignInUser(StudyTest.class, false, Role.DEVELOPER);
         try {
-            StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
             Study study = studiesApi.getUsersStudy().execute().body();
 
             // Append the field to the study's metadata.
@@ -600,7 +601,7 @@ public class StudyTest {
 
     @Test
     public void adminCanGetAllStudies() throws Exception {
-        StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(admin, StudiesApi.class);
 
         StudyList studies = studiesApi.getStudies(null).execute().body();
         assertTrue("Should be more than zero studies", studies.getItems().size() > 0);
@@ -608,7 +609,7 @@ public class StudyTest {
 
     @Test
     public void userCannotAccessApisWithDeprecatedClient() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminApi.getStudy(IntegTestUtils.STUDY_ID).execute().body();
         // Set a minimum value that should not any other tests
         if (study.getMinSupportedAppVersions().get("Android") == null) {
@@ -631,7 +632,7 @@ public class StudyTest {
                     .withClientInfo(clientInfo)
                     .build();
 
-            ForConsentedUsersApi usersApi = manager.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(manager, ForConsentedUsersApi.class);
 
             usersApi.getScheduledActivities("+00:00", 3, null).execute();
             fail("Should have thrown exception");
@@ -649,7 +650,7 @@ public class StudyTest {
         TestUser user = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true);
         TestUser user2 = TestUserHelper.createAndSignInUser(ParticipantsTest.class, true);
         try {
-            UploadsApi adminUploadsApi = admin.getClient(UploadsApi.class);
+            UploadsApi adminUploadsApi = ApiClients.of(admin, UploadsApi.class);
             DateTime startTime = DateTime.now(DateTimeZone.UTC).minusHours(2);
             DateTime endTime = startTime.plusHours(4);
 
@@ -662,19 +663,20 @@ public class StudyTest {
             request.setContentLength(100L);
             request.setContentMd5("ABC");
 
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             UploadSession uploadSession = usersApi.requestUploadSession(request).execute().body();
 
             UploadSession uploadSession2 = usersApi.requestUploadSession(request).execute().body();
 
-            Thread.sleep(1000); // This does depend on a GSI, so pause for a bit.
-
             // This should retrieve both of the user's uploads.
             // NOTE: This assumes that there aren't more than a few dozen uploads in the API study in the last few
             // hours.
-            StudiesApi studiesApi = admin.getClient(StudiesApi.class);
+            StudiesApi studiesApi = ApiClients.of(admin, StudiesApi.class);
 
-            UploadList results = studiesApi.getUploads(startTime, endTime, MAX_PAGE_SIZE, null).execute().body();
+            // This does depend on a GSI, so poll until both uploads show up.
+            UploadList results = Await.until("study uploads index", () -> studiesApi
+                    .getUploads(startTime, endTime, MAX_PAGE_SIZE, null).execute().body(),
+                    l -> getUpload(l, uploadSession.getId()) != null && getUpload(l, uploadSession2.getId()) != null);
           
             assertEquals(startTime, results.getRequestParams().getStartTime());
             assertEquals(endTime, results.getRequestParams().getEndTime());
@@ -65,13 +65,13 @@ public class SubpopulationTest {
     public void deleteEntities() throws Exception {
         // These now need to be deleted in a specific order
         if (subpop1 != null) {
-            admin.getClient(ForAdminsApi.class).deleteSubpopulation(subpop1.getGuid(), true).execute();
+            ApiClients.of(admin, ForAdminsApi.class).deleteSubpopulation(subpop1.getGuid(), true).execute();
         }
         if (subpop2 != null) {
-            admin.getClient(ForAdminsApi.class).deleteSubpopulation(subpop2.getGuid(), true).execute();
+            ApiClients.of(admin, ForAdminsApi.class).deleteSubpopulation(subpop2.getGuid(), true).execute();
         }
         if (substudy != null) {
-            admin.getClient(SubstudiesApi.class).deleteSubstudy(substudy.getId(), true).execute();
+            ApiClients.of(admin, SubstudiesApi.class).deleteSubstudy(substudy.getId(), true).execute();
         }
     }
     
@@ -79,21 +79,21 @@ public class SubpopulationTest {
     public void canCRUD() throws Exception {
         // First, to do this test, we need to create some valid data groups and substudies if they
         // don't already exist.
-        StudiesApi studiesApi = developer.getClient(StudiesApi.class);
+        StudiesApi studiesApi = ApiClients.of(developer, StudiesApi.class);
         Study study = studiesApi.getUsersStudy().execute().body();
 
         String dataGroup = Iterables.getFirst(study.getDataGroups(), null);
         List<String> dataGroupList = ImmutableList.of(dataGroup);
 
         // Create a substudy, if needed
-        SubstudiesApi substudiesApi = admin.getClient(SubstudiesApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
         String substudyId = Tests.randomIdentifier(SubpopulationTest.class);
         substudy = new Substudy().id(substudyId).name("Substudy " + substudyId);
         substudiesApi.createSubstudy(substudy).execute().body();
         List<String> substudyIds = ImmutableList.of(substudy.getId());
         
         // Now proceed with the subpopulation test
-        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        SubpopulationsApi subpopulationsApi = ApiClients.of(developer, SubpopulationsApi.class);
         
         // Study has a default subpopulation
         SubpopulationList subpops = subpopulationsApi.getSubpopulations(false).execute().body();
@@ -152,7 +152,7 @@ public class SubpopulationTest {
         assertNotNull(findByName(subpops.getItems(), "Later Consent Group"));
 
         // Delete it (logically)
-        SubpopulationsApi adminSubpopApi = admin.getClient(SubpopulationsApi.class);
+        SubpopulationsApi adminSubpopApi = ApiClients.of(admin, SubpopulationsApi.class);
         adminSubpopApi.deleteSubpopulation(retrieved.getGuid(), false).execute();
         assertEquals(initialCount, subpopulationsApi.getSubpopulations(false).execute().body().getItems().size());
         assertEquals(initialCount+1, subpopulationsApi.getSubpopulations(true).execute().body().getItems().size());
@@ -178,7 +178,7 @@ public class SubpopulationTest {
     
     @Test
     public void cannotLogicallyDeleteDefaultSubpopulation() throws IOException {
-        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        SubpopulationsApi subpopulationsApi = ApiClients.of(developer, SubpopulationsApi.class);
         try {
             SubpopulationList subpops = subpopulationsApi.getSubpopulations(false).execute().body();
             Subpopulation defaultSubpop = findByName(subpops.getItems(), "Default Consent Group");
@@ -192,7 +192,7 @@ public class SubpopulationTest {
     
     @Test
     public void createSubpopulationsWithCriteriaAndVerifyFiltering() throws Exception {
-        SubpopulationsApi subpopulationsApi = developer.getClient(SubpopulationsApi.class);
+        SubpopulationsApi subpopulationsApi = ApiClients.of(developer, SubpopulationsApi.class);
         
         TestUser user = TestUserHelper.createAndSignInUser(SubpopulationTest.class, false);
         user.signOut();
@@ -219,7 +219,7 @@ public class SubpopulationTest {
             // required subpopulations
             try {
                 ClientManager manager = clientManager(user.getSignIn(), getClientInfoWithVersion("Android", 2));
-                manager.getClient(AuthenticationApi.class).signInV4(user.getSignIn()).execute();
+                ApiClients.of(manager, AuthenticationApi.class).signInV4(user.getSignIn()).execute();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
@@ -232,7 +232,7 @@ public class SubpopulationTest {
                 
                 ClientManager manager = null;
                 manager = clientManager(user.getSignIn(), getClientInfoWithVersion("Android", 12));    
-                manager.getClient(AuthenticationApi.class).signInV4(user.getSignIn()).execute();
+                ApiClients.of(manager, AuthenticationApi.class).signInV4(user.getSignIn()).execute();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
@@ -243,7 +243,7 @@ public class SubpopulationTest {
             try {
                 user.signOut();
                 ClientManager manager = clientManager(user.getSignIn(), getClientInfoWithVersion("iPhone OS", 12));
-                manager.getClient(AuthenticationApi.class).signInV4(user.getSignIn()).execute();
+                ApiClients.of(manager, AuthenticationApi.class).signInV4(user.getSignIn()).execute();
                 fail("Should have thrown exception");
             } catch(ConsentRequiredException e) {
                 Map<String,ConsentStatus> statuses = e.getSession().getConsentStatuses();
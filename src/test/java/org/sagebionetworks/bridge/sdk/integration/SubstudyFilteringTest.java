@@ -51,6 +51,7 @@ import org.sagebionetworks.bridge.util.IntegTestUtils;
 
 import com.google.common.collect.ImmutableList;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class SubstudyFilteringTest {
     public static class UserInfo {
         private final String userId;
@@ -82,7 +83,7 @@ public class SubstudyFilteringTest {
     @BeforeClass
     public static void before() throws Exception { 
         admin = TestUserHelper.getSignedInAdmin();
-        substudiesApi = admin.getClient(SubstudiesApi.class);
+        substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
         
         developer = TestUserHelper.createAndSignInUser(SubstudyFilteringTest.class, false, Role.DEVELOPER);
         
@@ -105,7 +106,7 @@ public class SubstudyFilteringTest {
 
     @AfterClass
     public static void after() throws Exception {
-        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         for (String userId : userIdsToDelete) {
             try {
                 adminsApi.deleteUser(userId).execute();    
@@ -133,7 +134,7 @@ public class SubstudyFilteringTest {
     public void filterParticipants() throws Exception { 
         // researcherA
         ClientManager manager = new ClientManager.Builder().withSignIn(researcherA).build();
-        ForResearchersApi researcherApiForA = manager.getClient(ForResearchersApi.class);
+        ForResearchersApi researcherApiForA = ApiClients.of(manager, ForResearchersApi.class);
         
         // This researcher sees A substudy users only
         AccountSummaryList list = researcherApiForA.getParticipants(null, null, null, null, null, null).execute().body();
@@ -142,7 +143,7 @@ public class SubstudyFilteringTest {
         
         // researcherB
         manager = new ClientManager.Builder().withSignIn(researcherB).build();
-        ForResearchersApi researcherApiForB = manager.getClient(ForResearchersApi.class);
+        ForResearchersApi researcherApiForB = ApiClients.of(manager, ForResearchersApi.class);
         
         // This researcher sees B substudy users only
         list = researcherApiForB.getParticipants(null, null, null, null, null, null).execute().body();
@@ -188,24 +189,24 @@ public class SubstudyFilteringTest {
         subpopA.criteria(criteria);
         subpopA.setName("Optional consent for substudy A");
         
-        SubpopulationsApi subpopApi = developer.getClient(SubpopulationsApi.class);
+        SubpopulationsApi subpopApi = ApiClients.of(developer, SubpopulationsApi.class);
         GuidVersionHolder keys = null;
         try {
             keys = subpopApi.createSubpopulation(subpopA).execute().body();
             
             // If the rules are being applied, user A can see this optional subpop on sign in, but user B cannot.
             ClientManager aClient = new ClientManager.Builder().withSignIn(userA.getSignIn()).build();
-            aClient.getClient(ForConsentedUsersApi.class).getActivityEvents().execute();
+            ApiClients.of(aClient, ForConsentedUsersApi.class).getActivityEvents().execute();
             Map<String, ConsentStatus> statusesA = aClient.getSessionOfClients().getConsentStatuses();
             assertNotNull(statusesA.get(keys.getGuid()));
             
             ClientManager bClient = new ClientManager.Builder().withSignIn(userB.getSignIn()).build();
-            bClient.getClient(ForConsentedUsersApi.class).getActivityEvents().execute();
+            ApiClients.of(bClient, ForConsentedUsersApi.class).getActivityEvents().execute();
             Map<String, ConsentStatus> statusesB = bClient.getSessionOfClients().getConsentStatuses();
             assertNull(statusesB.get(keys.getGuid()));
         } finally {
             if (keys != null) {
-                admin.getClient(ForAdminsApi.class).deleteSubpopulation(keys.getGuid(), true).execute();
+                ApiClients.of(admin, ForAdminsApi.class).deleteSubpopulation(keys.getGuid(), true).execute();
             }
         }
     }
@@ -214,10 +215,10 @@ public class SubstudyFilteringTest {
     public void filterScheduling() throws Exception {
         String activityLabel = Tests.randomIdentifier(SubstudyFilteringTest.class);
         
-        Study study = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        Study study = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         if (study.getTaskIdentifiers().isEmpty()) {
             study.setTaskIdentifiers(ImmutableList.of("task1"));
-            admin.getClient(StudiesApi.class).updateUsersStudy(study).execute();
+            ApiClients.of(admin, StudiesApi.class).updateUsersStudy(study).execute();
         }
         String taskId = study.getTaskIdentifiers().get(0);
         
@@ -245,7 +246,7 @@ public class SubstudyFilteringTest {
         plan.setLabel(SubstudyFilteringTest.class.getSimpleName() + " Schedule Plan");
         plan.setStrategy(strategy);
         
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
         GuidVersionHolder keys = null;
         try {
             keys = schedulesApi.createSchedulePlan(plan).execute().body();
@@ -255,22 +256,22 @@ public class SubstudyFilteringTest {
             
             // If the rules are being applied, user AB can see this activity, but neither A nor B can see it
             ClientManager abClient = new ClientManager.Builder().withSignIn(userAB.getSignIn()).build();
-            ScheduledActivityListV4 abList = abClient.getClient(ForConsentedUsersApi.class)
+            ScheduledActivityListV4 abList = ApiClients.of(abClient, ForConsentedUsersApi.class)
                     .getScheduledActivitiesByDateRange(startOn, endOn).execute().body();
             assertFalse(someMatchActivityLabel(abList.getItems(), activityLabel));
             
             ClientManager aClient = new ClientManager.Builder().withSignIn(userA.getSignIn()).build();
-            ScheduledActivityListV4 aList = aClient.getClient(ForConsentedUsersApi.class)
+            ScheduledActivityListV4 aList = ApiClients.of(aClient, ForConsentedUsersApi.class)
                     .getScheduledActivitiesByDateRange(startOn, endOn).execute().body();
             assertTrue(someMatchActivityLabel(aList.getItems(), activityLabel));
             
             ClientManager bClient = new ClientManager.Builder().withSignIn(userB.getSignIn()).build();
-            ScheduledActivityListV4 bList = bClient.getClient(ForConsentedUsersApi.class)
+            ScheduledActivityListV4 bList = ApiClients.of(bClient, ForConsentedUsersApi.class)
                     .getScheduledActivitiesByDateRange(startOn, endOn).execute().body();
             assertTrue(someMatchActivityLabel(bList.getItems(), activityLabel));
         } finally {
             if (keys != null) {
-                admin.getClient(ForAdminsApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
+                ApiClients.of(admin, ForAdminsApi.class).deleteSchedulePlan(keys.getGuid(), true).execute();
             }
         }
     }
@@ -307,7 +308,7 @@ public class SubstudyFilteringTest {
             signUp.setRoles(ImmutableList.of(role));
         }
                 
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         String userId = adminApi.createUser(signUp).execute().body().getId();
         userIdsToDelete.add(userId);
         return new UserInfo(userId, email);
@@ -35,6 +35,7 @@ import org.sagebionetworks.bridge.util.IntegTestUtils;
 
 import com.google.common.collect.ImmutableList;
 
+@ResourceLock(ResourceLock.API_STUDY)
 public class SubstudyMembershipTest {
     private TestUser admin;
     private TestUser studyAdmin;
@@ -48,7 +49,7 @@ public class SubstudyMembershipTest {
         admin = TestUserHelper.getSignedInAdmin();
         studyAdmin = TestUserHelper.createAndSignInUser(SubstudyMembershipTest.class, false, DEVELOPER, RESEARCHER,
                 ADMIN); // to change substudy membership, user must also be an admin.
-        substudiesApi = admin.getClient(SubstudiesApi.class);
+        substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
 
         substudyIdsToDelete = new HashSet<>();
         externalIdsToDelete = new HashSet<>();
@@ -57,7 +58,7 @@ public class SubstudyMembershipTest {
 
     @After
     public void after() throws Exception {
-        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = adminsApi.getUsersStudy().execute().body();
         study.setExternalIdRequiredOnSignup(false);
         adminsApi.updateStudy(study.getIdentifier(), study).execute();
@@ -71,7 +72,7 @@ public class SubstudyMembershipTest {
             }
         }
         if (studyAdmin != null) {
-            ExternalIdentifiersApi extIdsApi = studyAdmin.getClient(ExternalIdentifiersApi.class);
+            ExternalIdentifiersApi extIdsApi = ApiClients.of(studyAdmin, ExternalIdentifiersApi.class);
             for (String externalId : externalIdsToDelete) {
                 try {
                     extIdsApi.deleteExternalId(externalId).execute();    
@@ -92,9 +93,9 @@ public class SubstudyMembershipTest {
 
     @Test
     public void addingExternalIdsAssociatesToSubstudy() throws Exception {
-        Study study = admin.getClient(ForAdminsApi.class).getUsersStudy().execute().body();
+        Study study = ApiClients.of(admin, ForAdminsApi.class).getUsersStudy().execute().body();
         study.setExternalIdRequiredOnSignup(true);
-        admin.getClient(ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute();
+        ApiClients.of(admin, ForAdminsApi.class).updateStudy(study.getIdentifier(), study).execute();
         
         // Create two substudies
         String idA = createSubstudy();
@@ -106,8 +107,8 @@ public class SubstudyMembershipTest {
 
         // create an account, sign in and consent, assigned to substudy A
         TestUser user = createUser(extIdA);
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
-        ParticipantsApi participantsApi = studyAdmin.getClient(ParticipantsApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(studyAdmin, ParticipantsApi.class);
 
         Map<String, String> externalIds = user.getSession().getExternalIds();
         assertEquals(extIdA, externalIds.get(idA));
@@ -180,8 +181,8 @@ public class SubstudyMembershipTest {
         TestUser user = TestUserHelper.createAndSignInUser(SubstudyMembershipTest.class, true);
         usersToDelete.add(user);
         
-        ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
-        //ParticipantsApi participantsApi = studyAdmin.getClient(ParticipantsApi.class);
+        ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
+        //ParticipantsApi participantsApi = ApiClients.of(studyAdmin, ParticipantsApi.class);
 
         // add an external ID the old fashioned way, using the StudyParticipant. This works the first time because
         // the user isn't associated to a substudy yet
@@ -208,7 +209,7 @@ public class SubstudyMembershipTest {
     }
 
     private String createExternalId(String substudyId, String id) throws Exception {
-        ExternalIdentifiersApi externalIdApi = studyAdmin.getClient(ExternalIdentifiersApi.class);
+        ExternalIdentifiersApi externalIdApi = ApiClients.of(studyAdmin, ExternalIdentifiersApi.class);
         ExternalIdentifier extId = new ExternalIdentifier().identifier(id + substudyId).substudyId(substudyId);
         externalIdApi.createExternalId(extId).execute();
         externalIdsToDelete.add(extId.getIdentifier());
@@ -57,7 +57,7 @@ public class SubstudyTest {
     @After
     public void after() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         for (String userId : userIdsToDelete) {
             try {
                 adminsApi.deleteUser(userId).execute();
@@ -76,7 +76,7 @@ public class SubstudyTest {
     public void test() throws IOException {
         TestUser admin = TestUserHelper.getSignedInAdmin();
         
-        SubstudiesApi substudiesApi = admin.getClient(SubstudiesApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
         
         int initialCount = substudiesApi.getSubstudies(false).execute().body().getItems().size();
         
@@ -145,7 +145,7 @@ public class SubstudyTest {
         String id2 = Tests.randomIdentifier(SubstudyTest.class);
         Substudy substudy2 = new Substudy().id(id2).name("Substudy " + id2);
         
-        SubstudiesApi substudiesApi = admin.getClient(SubstudiesApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(admin, SubstudiesApi.class);
         substudiesApi.createSubstudy(substudy1).execute();
         substudyIdsToDelete.add(id1);
         substudiesApi.createSubstudy(substudy2).execute();
@@ -157,11 +157,11 @@ public class SubstudyTest {
         researcherSignUp.roles(ImmutableList.of(Role.RESEARCHER));
         researcherSignUp.substudyIds(ImmutableList.of(id1));
 
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         String researcherId = adminApi.createUser(researcherSignUp).execute().body().getId();
         userIdsToDelete.add(researcherId);
         
-        ParticipantsApi participantApi = testResearcher.getClient(ParticipantsApi.class);
+        ParticipantsApi participantApi = ApiClients.of(testResearcher, ParticipantsApi.class);
         StudyParticipant researcher = participantApi.getParticipantById(researcherId, false).execute().body();
         assertEquals(id1, researcher.getSubstudyIds().get(0));
         
@@ -178,7 +178,7 @@ public class SubstudyTest {
         ClientManager manager = new ClientManager.Builder()
                 .withSignIn(new SignIn().email(researcherEmail).password("P@ssword`1").study(IntegTestUtils.STUDY_ID))
                 .build();
-        ParticipantsApi participantsApi = manager.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(manager, ParticipantsApi.class);
 
         String email2 = IntegTestUtils.makeEmail(SubstudyTest.class);
         SignUp signUp2 = new SignUp().email(email2).password("P@ssword`1").study(IntegTestUtils.STUDY_ID);
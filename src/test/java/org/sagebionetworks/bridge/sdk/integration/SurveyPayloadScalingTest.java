@@ -0,0 +1,157 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.joda.time.DateTime;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.Response;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.SurveysApi;
+import org.sagebionetworks.bridge.rest.model.GuidCreatedOnVersionHolder;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.Survey;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Survey payload scaling. Generates surveys of -DsurveyScaling.elements questions (comma-separated, 10 to 2000), each
+ * repeating every constraint type in {@link TestSurvey}, and measures the survey lifecycle at each size: create,
+ * version, publish, getSurvey and getPublishedSurveyVersion (the most recently published version). Request and
+ * response bytes are recorded alongside, and so is the time Gson takes to write and read the survey on the client, so
+ * the curve separates server cost from client cost as surveys grow. For the API calls the bytes are the bodies as
+ * sent and received (see {@link ApiClients#getResponseBytes}); a response of unknown length, e.g. a chunked one, is
+ * left out of the mean, which reads "unknown" if no response had a length. For the client rows they are the size of
+ * the JSON Gson wrote. Each size is run -DsurveyScaling.repetitions times. The curve is written to
+ * target/scaling/survey-payload.tsv.
+ */
+@Category(LoadTest.class)
+public class SurveyPayloadScalingTest {
+    private static final Logger LOG = LoggerFactory.getLogger(SurveyPayloadScalingTest.class);
+
+    private static final List<Integer> ELEMENT_COUNTS = ScalingCurve.getSweep("surveyScaling.elements",
+            "10,100,250,500,1000,2000");
+    private static final int REPETITIONS = Integer.getInteger("surveyScaling.repetitions", 3);
+
+    private static final String CREATE = "createSurvey";
+    private static final String VERSION = "versionSurvey";
+    private static final String PUBLISH = "publishSurvey";
+    private static final String GET = "getSurvey";
+    private static final String GET_PUBLISHED = "getPublishedSurveyVersion";
+    private static final String SERIALIZE = "client serialize";
+    private static final String DESERIALIZE = "client deserialize";
+    private static final List<String> OPERATIONS = ImmutableList.of(CREATE, VERSION, PUBLISH, GET, GET_PUBLISHED,
+            SERIALIZE, DESERIALIZE);
+
+    private static TestUser admin;
+    private static TestUser developer;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        admin = TestUserHelper.getSignedInAdmin();
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+    }
+
+    @AfterClass
+    public static void deleteEntities() throws Exception {
+        Teardown.run(SurveyPayloadScalingTest.class);
+    }
+
+    @AfterClass
+    public static void releaseDeveloper() throws Exception {
+        TestUserPool.release(developer);
+    }
+
+    @Test
+    public void surveyPayloadScaling() throws Exception {
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
+
+        ScalingCurve curve = new ScalingCurve("survey-payload");
+        for (int elementCount : ELEMENT_COUNTS) {
+            LoadMetrics metrics = new LoadMetrics("Survey payload, " + elementCount + " elements");
+            for (int i = 0; i < REPETITIONS; i++) {
+                runLifecycle(surveysApi, elementCount, metrics);
+            }
+            metrics.log();
+            for (String operation : OPERATIONS) {
+                curve.add(ImmutableMap.of("elements", elementCount, "operation", operation,
+                        "mean request bytes", mean(metrics, operation + " request"),
+                        "mean response bytes", mean(metrics, operation + " response")),
+                        metrics.histogram(operation));
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+    }
+
+    private static void runLifecycle(SurveysApi surveysApi, int elementCount, LoadMetrics metrics) throws Exception {
+        Survey survey = TestSurvey.getSurvey(SurveyPayloadScalingTest.class, elementCount);
+
+        long start = System.nanoTime();
+        String json = RestUtils.GSON.toJson(survey);
+        metrics.record(SERIALIZE, System.nanoTime() - start);
+        start = System.nanoTime();
+        RestUtils.GSON.fromJson(json, Survey.class);
+        metrics.record(DESERIALIZE, System.nanoTime() - start);
+        countBytes(metrics, SERIALIZE + " request", bytes(json));
+        countBytes(metrics, DESERIALIZE + " request", bytes(json));
+
+        GuidCreatedOnVersionHolder key = exchange(metrics, CREATE, surveysApi.createSurvey(survey));
+        registerDeletion(key.getGuid(), key.getCreatedOn());
+
+        GuidCreatedOnVersionHolder versionKey = exchange(metrics, VERSION,
+                surveysApi.versionSurvey(key.getGuid(), key.getCreatedOn()));
+        registerDeletion(versionKey.getGuid(), versionKey.getCreatedOn());
+
+        exchange(metrics, PUBLISH, surveysApi.publishSurvey(versionKey.getGuid(), versionKey.getCreatedOn(), false));
+
+        Survey retrieved = exchange(metrics, GET, surveysApi.getSurvey(versionKey.getGuid(),
+                versionKey.getCreatedOn()));
+        assertEquals(elementCount, retrieved.getElements().size());
+
+        Survey published = exchange(metrics, GET_PUBLISHED, surveysApi.getPublishedSurveyVersion(key.getGuid()));
+        assertEquals(elementCount, published.getElements().size());
+    }
+
+    /** Executes the call, recording its latency and the request and response bytes that crossed the wire. */
+    private static <T> T exchange(LoadMetrics metrics, String operation, Call<T> call) throws IOException {
+        long start = System.nanoTime();
+        Response<T> response = call.execute();
+        metrics.record(operation, System.nanoTime() - start);
+        countBytes(metrics, operation + " request", ApiClients.getRequestBytes(response));
+        countBytes(metrics, operation + " response", ApiClients.getResponseBytes(response));
+        return response.body();
+    }
+
+    private static void countBytes(LoadMetrics metrics, String body, long bytes) {
+        if (bytes >= 0) {
+            metrics.count(body + " bytes", bytes);
+            metrics.count(body + "s measured");
+        }
+    }
+
+    private static void registerDeletion(String guid, DateTime createdOn) {
+        Teardown.register(SurveyPayloadScalingTest.class, Teardown.Stage.ENTITY, "survey " + guid + " " + createdOn,
+                () -> ApiClients.of(admin, SurveysApi.class).deleteSurvey(guid, createdOn, true).execute());
+    }
+
+    private static long bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static Object mean(LoadMetrics metrics, String body) {
+        long measured = metrics.getCount(body + "s measured");
+        return measured == 0 ? "unknown" : (Object) ((double) metrics.getCount(body + " bytes") / measured);
+    }
+}
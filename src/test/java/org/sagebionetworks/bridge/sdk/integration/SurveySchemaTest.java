@@ -60,8 +60,8 @@ public class SurveySchemaTest {
     public static void beforeClass() throws Exception {
         admin = TestUserHelper.getSignedInAdmin();
         developer = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, Role.DEVELOPER);
-        schemasApi = developer.getClient(UploadSchemasApi.class);
-        surveysApi = developer.getClient(SurveysApi.class);
+        schemasApi = ApiClients.of(developer, UploadSchemasApi.class);
+        surveysApi = ApiClients.of(developer, SurveysApi.class);
     }
 
     @Before
@@ -76,7 +76,7 @@ public class SurveySchemaTest {
     @After
     public void after() throws Exception {
         // cleanup surveys
-        SurveysApi surveysApi = admin.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(admin, SurveysApi.class);
         for (GuidCreatedOnVersionHolder oneSurvey : surveysToDelete) {
             try {
                 surveysApi.deleteSurvey(oneSurvey.getGuid(), oneSurvey.getCreatedOn(), true).execute();
@@ -88,7 +88,7 @@ public class SurveySchemaTest {
 
     @After
     public void deleteSchemas() throws Exception {
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         try {
             adminApi.deleteAllRevisionsOfUploadSchema(surveyId, true).execute();
         } catch (EntityNotFoundException ex) {
@@ -138,6 +138,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SuppressWarnings("ConstantConditions")
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class SurveyTest {
     private static final Logger LOG = LoggerFactory.getLogger(SurveyTest.class);
     
@@ -160,14 +161,18 @@ public class SurveyTest {
     @BeforeClass
     public static void beforeClass() throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        adminsApi = admin.getClient(ForAdminsApi.class);
+        adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         developer = TestUserHelper.createAndSignInUser(SurveyTest.class, false, Role.DEVELOPER);
+        Teardown.register(SurveyTest.class, developer);
         user = TestUserHelper.createAndSignInUser(SurveyTest.class, true);
+        Teardown.register(SurveyTest.class, user);
         worker = TestUserHelper.createAndSignInUser(SurveyTest.class, false, Role.WORKER);
+        Teardown.register(SurveyTest.class, worker);
 
         sharedDeveloper = TestUserHelper.createAndSignInUser(SurveyTest.class, SHARED_STUDY_ID, DEVELOPER);        
-        sharedDeveloperModulesApi = sharedDeveloper.getClient(SharedModulesApi.class);
-        sharedSurveysApi = sharedDeveloper.getClient(SurveysApi.class);
+        Teardown.register(SurveyTest.class, sharedDeveloper);
+        sharedDeveloperModulesApi = ApiClients.of(sharedDeveloper, SharedModulesApi.class);
+        sharedSurveysApi = ApiClients.of(sharedDeveloper, SurveysApi.class);
     }
 
     @Before
@@ -181,7 +186,7 @@ public class SurveyTest {
         // cleanup surveys
         TestUser admin = TestUserHelper.getSignedInAdmin();
         
-        SurveysApi surveysApi = admin.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(admin, SurveysApi.class);
         for (GuidCreatedOnVersionHolder oneSurvey : surveysToDelete) {
             try {
                 surveysApi.deleteSurvey(oneSurvey.getGuid(), oneSurvey.getCreatedOn(), true).execute();    
@@ -192,33 +197,10 @@ public class SurveyTest {
     }
 
     @AfterClass
-    public static void deleteDeveloper() throws Exception {
-        if (developer != null) {
-            developer.signOutAndDeleteUser();
-        }
-    }
-
-    @AfterClass
-    public static void deleteUser() throws Exception {
-        if (user != null) {
-            user.signOutAndDeleteUser();
-        }
+    public static void deleteUsers() throws Exception {
+        Teardown.run(SurveyTest.class);
     }
 
-    @AfterClass
-    public static void deleteWorker() throws Exception {
-        if (worker != null) {
-            worker.signOutAndDeleteUser();
-        }
-    }
-    
-    @AfterClass
-    public static void deleteSharedDeveloper() throws Exception {
-        if (sharedDeveloper != null) {
-            sharedDeveloper.signOutAndDeleteUser();
-        }
-    }
-    
     @Test
     public void allowPastTrueByDefaultInSDK() {
         DateTimeConstraints dtc = new DateTimeConstraints();
@@ -235,7 +217,7 @@ public class SurveyTest {
     // Info screen is still tested separately. 
     @Test
     public void canRountripSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         GuidCreatedOnVersionHolder key = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         
@@ -515,7 +497,7 @@ public class SurveyTest {
 
     @Test
     public void cannotCreateSurveyWithDuplicateId() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         // Create survey. This succeeds.
         Survey survey = new Survey().name(SURVEY_NAME).identifier(surveyId);
@@ -537,12 +519,12 @@ public class SurveyTest {
 
     @Test(expected=UnauthorizedException.class)
     public void cannotSubmitAsNormalUser() throws Exception {
-        user.getClient(SurveysApi.class).getMostRecentSurveys(false).execute().body();
+        ApiClients.of(user, SurveysApi.class).getMostRecentSurveys(false).execute().body();
     }
 
     @Test
     public void cannotUpdateSurveyId() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         // Create survey.
         Survey survey = new Survey().name(SURVEY_NAME).identifier(surveyId);
@@ -560,7 +542,7 @@ public class SurveyTest {
 
     @Test
     public void cannotUpdateSurveyIdWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         // Create survey.
         Survey survey = new Survey().name(SURVEY_NAME).identifier(surveyId);
@@ -580,7 +562,7 @@ public class SurveyTest {
 
     @Test
     public void saveAndRetrieveSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         GuidCreatedOnVersionHolder key = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         Survey survey = surveysApi.getSurvey(key.getGuid(), key.getCreatedOn()).execute().body();
 
@@ -589,7 +571,7 @@ public class SurveyTest {
         assertEquals("Prompt is correct.", "When did you last have a medical check-up?", prompt);
         surveysApi.publishSurvey(key.getGuid(), key.getCreatedOn(), false).execute();
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         survey = usersApi.getPublishedSurveyVersion(key.getGuid()).execute().body();
         // And again, correct
         questions = survey.getElements();
@@ -604,7 +586,7 @@ public class SurveyTest {
 
     @Test
     public void saveAndRetrieveSurveyWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         GuidCreatedOnVersionHolder keys = createSurveyWithIdentifier(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
 
         Survey survey = surveysApi.getSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body();
@@ -614,7 +596,7 @@ public class SurveyTest {
         assertEquals("Prompt is correct.", "When did you last have a medical check-up?", prompt);
         surveysApi.publishSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute();
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         survey = usersApi.getPublishedSurveyVersion(keys.getGuid()).execute().body();
         assertEquals(keys.getGuid(), IDENTIFIER_PREFIX+survey.getIdentifier());
         
@@ -631,7 +613,7 @@ public class SurveyTest {
     
     @Test
     public void createVersionPublish() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         assertNull(survey.getGuid());
@@ -655,7 +637,7 @@ public class SurveyTest {
 
     @Test
     public void createVersionPublishWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         assertNull(survey.getGuid());
@@ -689,13 +671,13 @@ public class SurveyTest {
         // validation messages.
 
         Survey survey = new Survey().addElementsItem(new SurveyQuestion().constraints(new IntegerConstraints()));
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         surveysApi.createSurvey(survey).execute();
     }
 
     @Test
     public void getAllVersionsOfASurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder key = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         key = versionSurvey(surveysApi, key);
@@ -714,7 +696,7 @@ public class SurveyTest {
 
     @Test
     public void getAllVersionsOfASurveyWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder key = createSurveyWithIdentifier(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         String prefix = key.getGuid();
@@ -735,7 +717,7 @@ public class SurveyTest {
 
     @Test
     public void canGetMostRecentOrRecentlyPublishedSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder key = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         key = versionSurvey(surveysApi, key);
@@ -749,29 +731,30 @@ public class SurveyTest {
         key2 = versionSurvey(surveysApi, key2);
         key2 = versionSurvey(surveysApi, key2);
 
-        // Sleep to clear eventual consistency problems.
-        Thread.sleep(2000);
-        SurveyList recentSurveys = surveysApi.getMostRecentSurveys(false).execute().body();
-        containsAll(recentSurveys.getItems(), key, key1, key2);
+        // Wait out eventual consistency problems.
+        GuidCreatedOnVersionHolder[] recentKeys = { key, key1, key2 };
+        Await.untilPasses("most recent surveys index", () -> containsAll(
+                surveysApi.getMostRecentSurveys(false).execute().body().getItems(), recentKeys));
 
         key = surveysApi.publishSurvey(key.getGuid(), key.getCreatedOn(), false).execute().body();
         key2 = surveysApi.publishSurvey(key2.getGuid(), key2.getCreatedOn(), false).execute().body();
 
-        Thread.sleep(2000);
-        SurveyList publishedSurveys = surveysApi.getPublishedSurveys(false).execute().body();
-        containsAll(publishedSurveys.getItems(), key, key2);
+        GuidCreatedOnVersionHolder[] publishedKeys = { key, key2 };
+        Await.untilPasses("published surveys index", () -> containsAll(
+                surveysApi.getPublishedSurveys(false).execute().body().getItems(), publishedKeys));
         
         // verify logical deletion
         surveysApi.deleteSurvey(key2.getGuid(), key2.getCreatedOn(), false).execute();
 
-        Thread.sleep(2000);
-        anyDeleted(surveysApi.getMostRecentSurveys(true));
-        noneDeleted(surveysApi.getMostRecentSurveys(false));
+        Await.untilPasses("most recent surveys index", () -> {
+            anyDeleted(surveysApi.getMostRecentSurveys(true));
+            noneDeleted(surveysApi.getMostRecentSurveys(false));
+        });
     }
     
     @Test
     public void canGetMostRecentOrRecentlyPublishedSurveyWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder key = createSurveyWithIdentifier(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         String key_prefix = key.getGuid();
@@ -787,29 +770,30 @@ public class SurveyTest {
         key2 = versionSurvey(surveysApi, key2);
         key2 = versionSurvey(surveysApi, key2);
 
-        // Sleep to clear eventual consistency problems.
-        Thread.sleep(2000);
-        SurveyList recentSurveys = surveysApi.getMostRecentSurveys(false).execute().body();
-        containsAll(recentSurveys.getItems(), key, key1, key2);
+        // Wait out eventual consistency problems.
+        GuidCreatedOnVersionHolder[] recentKeys = { key, key1, key2 };
+        Await.untilPasses("most recent surveys index", () -> containsAll(
+                surveysApi.getMostRecentSurveys(false).execute().body().getItems(), recentKeys));
 
         key = surveysApi.publishSurvey(key_prefix, key.getCreatedOn(), false).execute().body();
         key2 = surveysApi.publishSurvey(key2_prefix, key2.getCreatedOn(), false).execute().body();
 
-        Thread.sleep(2000);
-        SurveyList publishedSurveys = surveysApi.getPublishedSurveys(false).execute().body();
-        containsAll(publishedSurveys.getItems(), key, key2);
+        GuidCreatedOnVersionHolder[] publishedKeys = { key, key2 };
+        Await.untilPasses("published surveys index", () -> containsAll(
+                surveysApi.getPublishedSurveys(false).execute().body().getItems(), publishedKeys));
         
         // verify logical deletion
         surveysApi.deleteSurvey(key2_prefix, key2.getCreatedOn(), false).execute();
 
-        Thread.sleep(2000);
-        anyDeleted(surveysApi.getMostRecentSurveys(true));
-        noneDeleted(surveysApi.getMostRecentSurveys(false));
+        Await.untilPasses("most recent surveys index", () -> {
+            anyDeleted(surveysApi.getMostRecentSurveys(true));
+            noneDeleted(surveysApi.getMostRecentSurveys(false));
+        });
     }
 
     @Test
     public void canUpdateASurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         GuidCreatedOnVersionHolder key = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         Survey survey = surveysApi.getSurvey(key.getGuid(), key.getCreatedOn()).execute().body();
@@ -826,7 +810,7 @@ public class SurveyTest {
 
     @Test
     public void canUpdateASurveyWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         GuidCreatedOnVersionHolder key = createSurveyWithIdentifier(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         Survey survey = surveysApi.getSurvey(key.getGuid(), key.getCreatedOn()).execute().body();
@@ -845,7 +829,7 @@ public class SurveyTest {
     
     @Test
     public void researcherCannotUpdatePublishedSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, survey);
@@ -863,7 +847,7 @@ public class SurveyTest {
 
     @Test
     public void canGetMostRecentlyPublishedSurveyWithoutTimestamp() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
 
@@ -881,7 +865,7 @@ public class SurveyTest {
     
     @Test
     public void canGetMostRecentlyPublishedSurveyWithoutTimestampWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
 
@@ -900,7 +884,7 @@ public class SurveyTest {
 
     @Test
     public void canCallMultiOperationMethodToMakeSurveyUpdate() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
 
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, survey);
@@ -929,7 +913,7 @@ public class SurveyTest {
     
     @Test
     public void canSaveAndRetrieveInfoScreen() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = new Survey();
         survey.setIdentifier("test-survey");
@@ -987,7 +971,7 @@ public class SurveyTest {
     
     @Test
     public void canSaveAndRetrieveInfoScreenWithIdentifier() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = new Survey();
         survey.setIdentifier("test-survey");
@@ -1051,7 +1035,7 @@ public class SurveyTest {
         // testing in the API study to test basic functionality.
 
         // Create two surveys with two published versions.
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder survey1aKeys = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         surveysApi.publishSurvey(survey1aKeys.getGuid(), survey1aKeys.getCreatedOn(), false).execute();
@@ -1063,9 +1047,7 @@ public class SurveyTest {
         GuidCreatedOnVersionHolder survey2bKeys = versionSurvey(surveysApi, survey2aKeys);
         surveysApi.publishSurvey(survey2bKeys.getGuid(), survey2bKeys.getCreatedOn(), false).execute();
 
-        // Sleep to clear eventual consistency problems.
-        ForWorkersApi workerApi = worker.getClient(ForWorkersApi.class);
-        Thread.sleep(2000);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
 
         // The surveys we created were just dummies. Just check that the surveys are not null and that the keys match.
         Survey survey1a = workerApi.getSurvey(survey1aKeys.getGuid(), survey1aKeys.getCreatedOn()).execute().body();
@@ -1082,24 +1064,25 @@ public class SurveyTest {
         Survey survey1aAgain = workerApi.getSurvey(survey1aKeys.getGuid(), survey1aKeys.getCreatedOn()).execute().body();
         assertKeysEqual(survey1aKeys, survey1aAgain);
 
-        // We only expect the most recently published versions, namely 1b and 2b.
-        SurveyList surveyResourceList = workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, false).execute().body();
-        containsAll(surveyResourceList.getItems(), new MutableHolder(survey1b), new MutableHolder(survey2b));
+        // We only expect the most recently published versions, namely 1b and 2b. This list comes from an index, so
+        // wait for it to catch up.
+        Await.untilPasses("published surveys index", () -> containsAll(
+                workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, false).execute().body().getItems(),
+                new MutableHolder(survey1b), new MutableHolder(survey2b)));
         
         // Delete 2b.
-        developer.getClient(SurveysApi.class).deleteSurvey(survey2b.getGuid(), survey2b.getCreatedOn(), false).execute();
+        ApiClients.of(developer, SurveysApi.class).deleteSurvey(survey2b.getGuid(), survey2b.getCreatedOn(), false).execute();
 
-        // Sleep to clear eventual consistency problems.
-        Thread.sleep(2000);
-
-        // Verify includeDeleted works
-        noneDeleted(workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, false));
-        anyDeleted(workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, true));
+        // Verify includeDeleted works, once the index is consistent.
+        Await.untilPasses("published surveys index", () -> {
+            noneDeleted(workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, false));
+            anyDeleted(workerApi.getAllPublishedSurveys(IntegTestUtils.STUDY_ID, true));
+        });
     }
     
     @Test
     public void verifyEndSurveyRule() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = new Survey();
         survey.setIdentifier("test-survey");
@@ -1135,7 +1118,7 @@ public class SurveyTest {
     
     @Test
     public void canLogicallyDeletePublishedSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         
@@ -1143,21 +1126,21 @@ public class SurveyTest {
         
         surveysApi.deleteSurvey(keys.getGuid(), keys.getCreatedOn(), false).execute();
 
-        // getPublishedSurveys() uses a secondary global index. Sleep for 2 seconds to help make sure the index is consistent.
-        Thread.sleep(2000);
+        // getPublishedSurveys() uses a secondary global index. Poll until the index is consistent.
+        Await.untilPasses("published surveys index", () -> {
+            // no longer in the list
+            SurveyList list = surveysApi.getPublishedSurveys(false).execute().body();
+            assertFalse(list.getItems().stream().anyMatch(survey -> survey.getGuid().equals(keys.getGuid())));
 
-        // no longer in the list
-        SurveyList list = surveysApi.getPublishedSurveys(false).execute().body();
-        assertFalse(list.getItems().stream().anyMatch(survey -> survey.getGuid().equals(keys.getGuid())));
-
-        // you can still retrieve the logically deleted survey in the list
-        list = surveysApi.getPublishedSurveys(true).execute().body();
-        assertTrue(list.getItems().stream().anyMatch(survey -> survey.getGuid().equals(keys.getGuid())));
+            // you can still retrieve the logically deleted survey in the list
+            list = surveysApi.getPublishedSurveys(true).execute().body();
+            assertTrue(list.getItems().stream().anyMatch(survey -> survey.getGuid().equals(keys.getGuid())));
+        });
     }
     
     @Test
     public void cannotLogicallyDeleteSurveyTwice() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         
@@ -1176,8 +1159,8 @@ public class SurveyTest {
     
     @Test
     public void cannotPhysicallyDeleteSurveyInSchedule() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
-        SchedulesApi schedulesApi = developer.getClient(SchedulesApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
+        SchedulesApi schedulesApi = ApiClients.of(developer, SchedulesApi.class);
 
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         
@@ -1199,7 +1182,7 @@ public class SurveyTest {
     
     @Test
     public void canPhysicallyDeleteLogicallyDeletedSurvey() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
 
         GuidCreatedOnVersionHolder keys = createSurvey(surveysApi, TestSurvey.getSurvey(SurveyTest.class));
         
@@ -1239,7 +1222,7 @@ public class SurveyTest {
         
         element.setBeforeRules(Lists.newArrayList(endSurvey, skipTo, assignGroup, displayIf, displayUnless));
         
-        SurveysApi devSurveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi devSurveysApi = ApiClients.of(developer, SurveysApi.class);
         
         GuidCreatedOnVersionHolder keys = createSurvey(devSurveysApi, survey);
         Survey created = devSurveysApi.getSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body();
@@ -1285,7 +1268,7 @@ public class SurveyTest {
         
         element.setAfterRules(Lists.newArrayList(endSurvey, skipTo, assignGroup));
         
-        SurveysApi devSurveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi devSurveysApi = ApiClients.of(developer, SurveysApi.class);
         
         GuidCreatedOnVersionHolder keys = createSurvey(devSurveysApi, survey);
         Survey created = devSurveysApi.getSurvey(keys.getGuid(), keys.getCreatedOn()).execute().body();
@@ -1328,7 +1311,7 @@ public class SurveyTest {
         
         element.setAfterRules(Lists.newArrayList(displayIf, displayUnless));
         
-        SurveysApi devSurveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi devSurveysApi = ApiClients.of(developer, SurveysApi.class);
         
         try {
             devSurveysApi.createSurvey(survey).execute().body();
@@ -1343,7 +1326,7 @@ public class SurveyTest {
     
     @Test
     public void canRetrieveDeletedSurveys() throws Exception {
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         
@@ -1389,7 +1372,7 @@ public class SurveyTest {
     @Test
     public void getPublishedSurveyVersionAndDelete() throws Exception {
         // Test the interaction of publication and the two kinds of deletion
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         GuidCreatedOnVersionHolder keys1 = createSurvey(surveysApi, survey);
@@ -1406,15 +1389,16 @@ public class SurveyTest {
         surveysApi.publishSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
         surveysApi.deleteSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
         
-        Thread.sleep(1000);
-        anyDeleted(surveysApi.getPublishedSurveys(true));
-        noneDeleted(surveysApi.getPublishedSurveys(false));
+        Await.untilPasses("published surveys index", () -> {
+            anyDeleted(surveysApi.getPublishedSurveys(true));
+            noneDeleted(surveysApi.getPublishedSurveys(false));
+        });
     }
     
     @Test
     public void getMostRecentSurveyVersionAndDelete() throws Exception {
         // Test the interaction of publication and the two kinds of deletion
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         GuidCreatedOnVersionHolder keys1 = createSurvey(surveysApi, survey);
@@ -1431,19 +1415,20 @@ public class SurveyTest {
         }
         surveysApi.publishSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
         surveysApi.deleteSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
-        Thread.sleep(1000);
         
-        try {
-            surveysApi.getMostRecentSurveyVersion(guid).execute().body();
-            fail("Should have thrown exception");
-        } catch(EntityNotFoundException e) {
-        }
+        Await.untilPasses("most recent survey version", () -> {
+            try {
+                surveysApi.getMostRecentSurveyVersion(guid).execute().body();
+                fail("Should have thrown exception");
+            } catch(EntityNotFoundException e) {
+            }
+        });
     }
     
     @Test
     public void getMostRecentSurveyVersionAndDeleteWithIdentifier() throws Exception {
         // Test the interaction of publication and the two kinds of deletion
-        SurveysApi surveysApi = developer.getClient(SurveysApi.class);
+        SurveysApi surveysApi = ApiClients.of(developer, SurveysApi.class);
         
         Survey survey = TestSurvey.getSurvey(SurveyTest.class);
         GuidCreatedOnVersionHolder keys1 = createSurveyWithIdentifier(surveysApi, survey);
@@ -1460,13 +1445,14 @@ public class SurveyTest {
         }
         surveysApi.publishSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
         surveysApi.deleteSurvey(keys2.getGuid(), keys2.getCreatedOn(), false).execute();
-        Thread.sleep(1000);
         
-        try {
-            surveysApi.getMostRecentSurveyVersion(guid).execute().body();
-            fail("Should have thrown exception");
-        } catch(EntityNotFoundException e) {
-        }
+        Await.untilPasses("most recent survey version", () -> {
+            try {
+                surveysApi.getMostRecentSurveyVersion(guid).execute().body();
+                fail("Should have thrown exception");
+            } catch(EntityNotFoundException e) {
+            }
+        });
     }
     
     private void anyDeleted(Call<SurveyList> call) throws IOException {
@@ -0,0 +1,161 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Registry of entities a test class created and must delete. Instead of a chain of @AfterClass methods that run one
+ * at a time, a test registers each entity when it creates it, and a single @AfterClass calls {@link #run(Class)}.
+ * Deletions run concurrently on a bounded pool, one {@link Stage} at a time, so entities are still deleted in
+ * dependency order (e.g. users before the substudies they belong to).
+ *
+ * With -Dteardown.deferred=true, {@link #run(Class)} does nothing and everything is deleted together when the JVM
+ * exits, which takes teardown off every test class's critical path. Deferred deletion failures are logged, not
+ * reported as test failures.
+ */
+public final class Teardown {
+    private static final Logger LOG = LoggerFactory.getLogger(Teardown.class);
+
+    public static final String DEFERRED_PROPERTY = "teardown.deferred";
+    public static final String THREADS_PROPERTY = "teardown.threads";
+    private static final int DEFAULT_THREADS = 8;
+
+    /** Deletion stages, in the order they run. Everything in a stage finishes before the next stage starts. */
+    public enum Stage {
+        /** Accounts, which may reference any of the entities below. */
+        USER,
+        /** Entities that reference other study configuration, such as schedule plans, which reference surveys. */
+        DEPENDENT_ENTITY,
+        /** Surveys, schemas, reports, external IDs and other study configuration. */
+        ENTITY,
+        /** Substudies, which can't be deleted while accounts or external IDs still reference them. */
+        SUBSTUDY
+    }
+
+    @FunctionalInterface
+    public interface Deletion {
+        void delete() throws Exception;
+    }
+
+    // A queue rather than a copy-on-write list: bulk fixtures register a hundred thousand entries one at a time.
+    private static final Map<Class<?>, Queue<Entry>> REGISTRY = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS),
+            new ThreadFactoryBuilder().setNameFormat("teardown-%d").setDaemon(true).build());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Teardown::runDeferred, "teardown-deferred"));
+    }
+
+    private Teardown() {
+    }
+
+    /** Registers a deletion to run at the end of the test class, in the given stage. */
+    public static void register(Class<?> testClass, Stage stage, String description, Deletion deletion) {
+        REGISTRY.computeIfAbsent(testClass, k -> new ConcurrentLinkedQueue<>())
+                .add(new Entry(stage, description, deletion));
+    }
+
+    /** Registers a test user to be signed out and deleted at the end of the test class. Null is ignored. */
+    public static void register(Class<?> testClass, TestUser user) {
+        if (user != null) {
+            register(testClass, Stage.USER, "user " + user.getEmail(), user::signOutAndDeleteUser);
+        }
+    }
+
+    /**
+     * Runs the test class's deletions, unless teardown is deferred. Every deletion is attempted; if any fail, the first
+     * failure is thrown after all stages have run, with the others attached as suppressed exceptions.
+     */
+    public static void run(Class<?> testClass) throws Exception {
+        if (Boolean.getBoolean(DEFERRED_PROPERTY)) {
+            return;
+        }
+        Queue<Entry> entries = REGISTRY.remove(testClass);
+        if (entries != null) {
+            List<Exception> failures = execute(entries);
+            if (!failures.isEmpty()) {
+                Exception first = failures.get(0);
+                for (Exception failure : failures.subList(1, failures.size())) {
+                    first.addSuppressed(failure);
+                }
+                throw first;
+            }
+        }
+    }
+
+    private static void runDeferred() {
+        List<Entry> entries = new ArrayList<>();
+        for (Class<?> testClass : new ArrayList<>(REGISTRY.keySet())) {
+            Queue<Entry> classEntries = REGISTRY.remove(testClass);
+            if (classEntries != null) {
+                entries.addAll(classEntries);
+            }
+        }
+        for (Exception failure : execute(entries)) {
+            LOG.error("Deferred teardown failed: " + failure.getMessage(), failure);
+        }
+    }
+
+    private static List<Exception> execute(Collection<Entry> entries) {
+        List<Exception> failures = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            List<Entry> stageEntries = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.stage == stage) {
+                    stageEntries.add(entry);
+                    futures.add(EXECUTOR.submit(() -> {
+                        entry.deletion.delete();
+                        return null;
+                    }));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    LOG.warn("Could not delete " + stageEntries.get(i) + ": " + e.getCause().getMessage());
+                    failures.add(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.add(e);
+                    return failures;
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static final class Entry {
+        private final Stage stage;
+        private final String description;
+        private final Deletion deletion;
+
+        Entry(Stage stage, String description, Deletion deletion) {
+            this.stage = stage;
+            this.description = description;
+            this.deletion = deletion;
+        }
+
+        @Override
+        public String toString() {
+            return stage + " " + description;
+        }
+    }
+}
@@ -43,7 +43,7 @@ public class TemplateTest {
     public void after() throws Exception {
         // in case of earlier test failure, clean up
         if (template != null && template.getGuid() != null) {
-            ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+            ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
             try {
                 adminsApi.deleteTemplate(template.getGuid(), true).execute();    
             } catch(EntityNotFoundException e) {
@@ -68,7 +68,7 @@ public class TemplateTest {
         // These should be ignored
         template.setDeleted(true);
         
-        ForDevelopersApi devsApi = developer.getClient(ForDevelopersApi.class);
+        ForDevelopersApi devsApi = ApiClients.of(developer, ForDevelopersApi.class);
         
         final GuidVersionHolder keys = devsApi.createTemplate(template).execute().body();
         template.setGuid(keys.getGuid());
@@ -132,7 +132,7 @@ public class TemplateTest {
         assertTrue(list.getItems().stream().anyMatch((template -> template.getGuid().equals(keys.getGuid()))));
         
         // physically delete
-        ForAdminsApi adminsApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(admin, ForAdminsApi.class);
         adminsApi.deleteTemplate(keys.getGuid(), true).execute();        
         
         // it's really deleted
@@ -151,7 +151,7 @@ public class TemplateTest {
         template.setDescription("TestTemplate Description");
         template.setTemplateType(EMAIL_ACCOUNT_EXISTS);
 
-        ForDevelopersApi devsApi = developer.getClient(ForDevelopersApi.class);
+        ForDevelopersApi devsApi = ApiClients.of(developer, ForDevelopersApi.class);
         
         GuidVersionHolder keys = devsApi.createTemplate(template).execute().body();
         template.setGuid(keys.getGuid());
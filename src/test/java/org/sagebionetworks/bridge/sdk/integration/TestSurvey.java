@@ -2,6 +2,8 @@ package org.sagebionetworks.bridge.sdk.integration;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -329,4 +331,35 @@ public class TestSurvey {
         return survey;
     }
 
+    /**
+     * A survey of elementCount questions, for payload scaling: the questions above repeated in order. Each copy after
+     * the first has "_[copy]" appended to its identifiers and rule targets, so identifiers stay unique. Rules whose
+     * target was cut off by elementCount are dropped.
+     */
+    public static Survey getSurvey(Class<?> cls, int elementCount) throws Exception {
+        Survey survey = getSurvey(cls);
+        List<SurveyElement> elements = survey.getElements();
+        for (int copy = 1; elements.size() < elementCount; copy++) {
+            for (SurveyElement element : getSurvey(cls).getElements()) {
+                element.setIdentifier(element.getIdentifier() + "_" + copy);
+                if (element instanceof SurveyQuestion && ((SurveyQuestion) element).getAfterRules() != null) {
+                    for (SurveyRule rule : ((SurveyQuestion) element).getAfterRules()) {
+                        rule.setSkipTo(rule.getSkipTo() + "_" + copy);
+                    }
+                }
+                elements.add(element);
+            }
+        }
+        while (elements.size() > elementCount) {
+            elements.remove(elements.size() - 1);
+        }
+
+        Set<String> identifiers = elements.stream().map(SurveyElement::getIdentifier).collect(Collectors.toSet());
+        for (SurveyElement element : elements) {
+            if (element instanceof SurveyQuestion && ((SurveyQuestion) element).getAfterRules() != null) {
+                ((SurveyQuestion) element).getAfterRules().removeIf(rule -> !identifiers.contains(rule.getSkipTo()));
+            }
+        }
+        return survey;
+    }
 }
@@ -0,0 +1,197 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.SharingScope;
+import org.sagebionetworks.bridge.rest.model.StudyParticipant;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Hands out signed-in test users that were created ahead of time, so a test class doesn't pay for sign up, consent
+ * and sign in in its @BeforeClass. Users are grouped by role set and consent status. Returning a user resets its data
+ * groups and sharing scope and puts it back in the pool instead of deleting it; the pool deletes whatever is left when
+ * the JVM exits.
+ *
+ * Only lease users for tests that don't depend on a fresh account (e.g. dayInStudy, activity history, enrollment
+ * events). The pool size per kind of user is set with the "testUserPool.size" system property.
+ */
+public final class TestUserPool {
+    private static final Logger LOG = LoggerFactory.getLogger(TestUserPool.class);
+
+    public static final String POOL_SIZE_PROPERTY = "testUserPool.size";
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int CREATION_THREADS = 8;
+
+    private static final Map<Key, BlockingQueue<Future<TestUser>>> POOL = new ConcurrentHashMap<>();
+    private static final Set<TestUser> LEASED = ConcurrentHashMap.newKeySet();
+    private static final Map<TestUser, Key> KEYS = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(CREATION_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("test-user-pool-%d").setDaemon(true).build());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(TestUserPool::deleteAll, "test-user-pool-cleanup"));
+    }
+
+    private TestUserPool() {
+    }
+
+    /**
+     * Starts creating the kinds of users most test classes ask for: developers, researchers, workers and consented
+     * participants. Safe to call more than once.
+     */
+    public static void prewarm() {
+        getQueue(new Key(true, ImmutableSet.of()));
+        getQueue(new Key(false, ImmutableSet.of(Role.DEVELOPER)));
+        getQueue(new Key(false, ImmutableSet.of(Role.RESEARCHER)));
+        getQueue(new Key(false, ImmutableSet.of(Role.WORKER)));
+    }
+
+    /** Equivalent to TestUserHelper.createAndSignInUser(cls, consentUser, roles), but may return a pooled user. */
+    public static TestUser lease(boolean consentUser, Role... roles) throws Exception {
+        Key key = new Key(consentUser, ImmutableSet.copyOf(roles));
+        BlockingQueue<Future<TestUser>> queue = getQueue(key);
+
+        Future<TestUser> future = queue.poll();
+        // Keep the pool topped up for the next caller.
+        if (queue.size() < getPoolSize()) {
+            queue.add(EXECUTOR.submit(() -> createUser(key)));
+        }
+
+        TestUser user;
+        try {
+            user = future != null ? future.get() : createUser(key);
+        } catch (ExecutionException e) {
+            // Background creation failed; try once more in the foreground so the error surfaces in the test.
+            LOG.warn("Pooled user creation failed, creating user directly", e.getCause());
+            user = createUser(key);
+        }
+        KEYS.put(user, key);
+        LEASED.add(user);
+        return user;
+    }
+
+    /**
+     * Returns a leased user to the pool. Users that can't be reset to a clean state (e.g. they were added to a
+     * substudy) are deleted instead. Safe to call with null, or with a user that didn't come from the pool.
+     */
+    public static void release(TestUser user) throws Exception {
+        if (user == null) {
+            return;
+        }
+        Key key = KEYS.get(user);
+        if (key == null || !LEASED.remove(user)) {
+            user.signOutAndDeleteUser();
+            return;
+        }
+        try {
+            if (reset(user)) {
+                getQueue(key).add(CompletableFuture.completedFuture(user));
+                return;
+            }
+        } catch (Exception e) {
+            LOG.warn("Could not reset pooled user " + user.getEmail() + ", deleting it", e);
+        }
+        KEYS.remove(user);
+        user.signOutAndDeleteUser();
+    }
+
+    private static BlockingQueue<Future<TestUser>> getQueue(Key key) {
+        return POOL.computeIfAbsent(key, k -> {
+            BlockingQueue<Future<TestUser>> queue = new LinkedBlockingQueue<>();
+            for (int i = 0; i < getPoolSize(); i++) {
+                queue.add(EXECUTOR.submit(() -> createUser(k)));
+            }
+            return queue;
+        });
+    }
+
+    private static TestUser createUser(Key key) throws Exception {
+        TestUser user = new TestUserHelper.Builder(TestUserPool.class).withConsentUser(key.consentUser)
+                .withRoles(key.roles.toArray(new Role[key.roles.size()])).createAndSignInUser();
+        KEYS.put(user, key);
+        return user;
+    }
+
+    private static boolean reset(TestUser user) throws Exception {
+        ParticipantsApi participantsApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ParticipantsApi.class);
+        StudyParticipant participant = participantsApi.getParticipantById(user.getUserId(), false).execute().body();
+        if (participant.getSubstudyIds() != null && !participant.getSubstudyIds().isEmpty()) {
+            return false;
+        }
+        participant.setDataGroups(ImmutableList.of());
+        participant.setSharingScope(SharingScope.NO_SHARING);
+        participantsApi.updateParticipant(user.getUserId(), participant).execute();
+
+        // Pick up the reset state in the user's session.
+        user.signInAgain();
+        return true;
+    }
+
+    private static void deleteAll() {
+        for (BlockingQueue<Future<TestUser>> queue : POOL.values()) {
+            Future<TestUser> future;
+            while ((future = queue.poll()) != null) {
+                try {
+                    future.get().signOutAndDeleteUser();
+                } catch (Exception e) {
+                    LOG.error("Error deleting pooled user: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static int getPoolSize() {
+        return Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+    }
+
+    private static final class Key {
+        private final boolean consentUser;
+        private final Set<Role> roles;
+
+        Key(boolean consentUser, Set<Role> roles) {
+            this.consentUser = consentUser;
+            this.roles = ImmutableSet.copyOf(roles);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(consentUser, roles);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return consentUser == other.consentUser && roles.equals(other.roles);
+        }
+
+        @Override
+        public String toString() {
+            return "Key [consentUser=" + consentUser + ", roles=" + roles + "]";
+        }
+    }
+}
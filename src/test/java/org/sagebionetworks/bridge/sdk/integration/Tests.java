@@ -306,24 +306,24 @@ public class Tests {
     public static ExternalIdentifier createExternalId(Class<?> clazz, TestUser developer, String substudyId) throws Exception {
         String externalId = Tests.randomIdentifier(clazz);
         
-        SubstudiesApi substudiesApi = developer.getClient(SubstudiesApi.class);
+        SubstudiesApi substudiesApi = ApiClients.of(developer, SubstudiesApi.class);
         SubstudyList substudyList = substudiesApi.getSubstudies(false).execute().body();
         
         Set<String> existingSubstudyIds = substudyList.getItems().stream().map(Substudy::getId).collect(Collectors.toSet());
         if (!existingSubstudyIds.contains(substudyId)) {
             TestUser admin = TestUserHelper.getSignedInAdmin();
             Substudy substudy = new Substudy().id(substudyId).name(substudyId);
-            admin.getClient(SubstudiesApi.class).createSubstudy(substudy).execute();
+            ApiClients.of(admin, SubstudiesApi.class).createSubstudy(substudy).execute();
         }
         ExternalIdentifier externalIdentifier = new ExternalIdentifier().identifier(externalId).substudyId(substudyId);
-        int code = developer.getClient(ExternalIdentifiersApi.class).createExternalId(externalIdentifier).execute().code();
+        int code = ApiClients.of(developer, ExternalIdentifiersApi.class).createExternalId(externalIdentifier).execute().code();
         assertEquals(code, 201);
         return externalIdentifier;
     }
     
     public static void deleteExternalId(ExternalIdentifier externalId) throws Exception {
         TestUser admin = TestUserHelper.getSignedInAdmin();
-        admin.getClient(ForAdminsApi.class).deleteExternalId(externalId.getIdentifier()).execute();
+        ApiClients.of(admin, ForAdminsApi.class).deleteExternalId(externalId.getIdentifier()).execute();
     }    
     
     public static MasterSchedulerConfig getMastSchedulerConfig() {
@@ -16,12 +16,13 @@ import static org.junit.Assert.assertEquals;
 import static org.sagebionetworks.bridge.util.IntegTestUtils.STUDY_ID;
 
 @Category(IntegrationSmokeTest.class)
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class UTF8Test {
     @Test
     public void canSaveAndRetrieveDataStoredInDynamo() throws Exception {
         String studyId = Tests.randomIdentifier(UTF8Test.class);
         String studyName = "☃지구상의　３대　극지라　불리는";
-        ForAdminsApi adminApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ForAdminsApi.class);
 
         // make minimal study
         Study study = new Study();
@@ -54,7 +55,7 @@ public class UTF8Test {
     public void canSaveAndRetrieveDataStoredInRedis() throws Exception {
         TestUser testUser = TestUserHelper.createAndSignInUser(UTF8Test.class, true);
         try {
-            ForConsentedUsersApi usersApi = testUser.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(testUser, ForConsentedUsersApi.class);
 
             StudyParticipant participant = new StudyParticipant();
             participant.setFirstName("☃");
@@ -63,7 +64,7 @@ public class UTF8Test {
             usersApi.updateUsersParticipantRecord(participant).execute();
 
             // Force a refresh of the Redis session cache.
-            AuthenticationApi authApi = testUser.getClient(AuthenticationApi.class);
+            AuthenticationApi authApi = ApiClients.of(testUser, AuthenticationApi.class);
             authApi.signOut().execute();
             UserSessionInfo session = authApi.signInV4(testUser.getSignIn()).execute().body();
 
@@ -0,0 +1,165 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.bouncycastle.cms.CMSAlgorithm;
+import org.bouncycastle.cms.CMSEnvelopedDataGenerator;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.jcajce.JceCMSContentEncryptorBuilder;
+import org.bouncycastle.cms.jcajce.JceKeyTransRecipientInfoGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.StudiesApi;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Encrypted upload fixtures, built from the unencrypted templates in src/test/resources/upload-test/unencrypted and
+ * encrypted (CMS, as the apps do) with the study's public certificate, so a new fixture is one zip rather than one
+ * pre-encrypted file per environment. Results are cached under target/upload-fixtures (-DuploadFixtures.dir), keyed by
+ * the SHA-256 of the zip and of the certificate, so identical payloads are only encrypted once, across runs too. CMS
+ * uses a fresh content key each time, so any cached ciphertext of a payload is as good as a new one.
+ *
+ * {@link #variant} gives a payload distinct from every other variant of the same fixture (the zip's archive comment
+ * differs, which upload validation ignores), for load runs that need thousands of distinct uploads.
+ *
+ * With -DuploadFixtures.prebuilt=true, {@link #get} returns the checked-in pre-encrypted files for the environment
+ * instead, and variants aren't available.
+ */
+public final class UploadFixtures {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadFixtures.class);
+
+    public static final String PREBUILT_PROPERTY = "uploadFixtures.prebuilt";
+    public static final String ENCRYPTED_SUFFIX = "-encrypted";
+
+    private static final String FIXTURE_DIRECTORY = "src/test/resources/upload-test";
+    private static final String TEMPLATE_DIRECTORY = FIXTURE_DIRECTORY + "/unencrypted";
+    private static final String CACHE_DIRECTORY = System.getProperty("uploadFixtures.dir", "target/upload-fixtures");
+
+    // One per environment and study; the certificate is fetched the first time.
+    private static final Map<String, UploadFixtures> BY_STUDY = new ConcurrentHashMap<>();
+
+    private final String envName;
+    private final X509Certificate certificate;
+    private final File cacheDirectory;
+
+    private UploadFixtures(String envName, X509Certificate certificate) throws GeneralSecurityException {
+        this.envName = envName;
+        this.certificate = certificate;
+        String certificateHash = certificate == null ? "prebuilt"
+                : Hashing.sha256().hashBytes(certificate.getEncoded()).toString();
+        this.cacheDirectory = new File(CACHE_DIRECTORY, certificateHash);
+    }
+
+    public static boolean isPrebuilt() {
+        return Boolean.getBoolean(PREBUILT_PROPERTY);
+    }
+
+    /** Fixtures for the developer's environment and study. The developer role is needed to read the certificate. */
+    public static UploadFixtures forStudy(TestUser developer) throws Exception {
+        String envName = developer.getClientManager().getConfig().getEnvironment().name().toLowerCase(Locale.ENGLISH);
+        String key = envName + "/" + developer.getStudyId();
+        UploadFixtures fixtures = BY_STUDY.get(key);
+        if (fixtures == null) {
+            X509Certificate certificate = null;
+            if (!isPrebuilt()) {
+                String pem = ApiClients.of(developer, StudiesApi.class).getStudyPublicCsr().execute().body()
+                        .getPublicKey();
+                certificate = (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(
+                        new ByteArrayInputStream(pem.getBytes(StandardCharsets.UTF_8)));
+            }
+            fixtures = new UploadFixtures(envName, certificate);
+            UploadFixtures existing = BY_STUDY.putIfAbsent(key, fixtures);
+            if (existing != null) {
+                fixtures = existing;
+            }
+        }
+        return fixtures;
+    }
+
+    /**
+     * The encrypted fixture, by template name (e.g. "generic-survey") or by the name of the pre-encrypted file
+     * ("generic-survey-encrypted").
+     */
+    public File get(String fixture) throws IOException {
+        if (isPrebuilt()) {
+            return new File(FIXTURE_DIRECTORY + "/" + envName + "/" + templateName(fixture) + ENCRYPTED_SUFFIX);
+        }
+        return encrypt(readTemplate(fixture));
+    }
+
+    /** The fixture with the given salt as its zip comment, so each salt is a distinct payload. */
+    public File variant(String fixture, String salt) throws IOException {
+        if (isPrebuilt()) {
+            throw new IllegalStateException("Variants can't be made from prebuilt fixtures; unset -D"
+                    + PREBUILT_PROPERTY);
+        }
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(readTemplate(fixture)));
+                ZipOutputStream out = new ZipOutputStream(zip)) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                // Keep each entry's time, so the same salt always gives the same bytes and hits the cache.
+                ZipEntry copy = new ZipEntry(entry.getName());
+                copy.setTime(entry.getTime());
+                out.putNextEntry(copy);
+                ByteStreams.copy(in, out);
+                out.closeEntry();
+            }
+            out.setComment(salt);
+        }
+        return encrypt(zip.toByteArray());
+    }
+
+    /** Encrypts the zip for this study, or returns the cached encryption of the same bytes. */
+    public File encrypt(byte[] zip) throws IOException {
+        File file = new File(cacheDirectory, Hashing.sha256().hashBytes(zip).toString() + ENCRYPTED_SUFFIX);
+        if (file.exists()) {
+            return file;
+        }
+        byte[] encrypted;
+        try {
+            CMSEnvelopedDataGenerator generator = new CMSEnvelopedDataGenerator();
+            generator.addRecipientInfoGenerator(new JceKeyTransRecipientInfoGenerator(certificate));
+            encrypted = generator.generate(new CMSProcessableByteArray(zip),
+                    new JceCMSContentEncryptorBuilder(CMSAlgorithm.AES256_CBC).build()).getEncoded();
+        } catch (GeneralSecurityException | CMSException e) {
+            throw new IOException("Couldn't encrypt upload fixture: " + e.getMessage(), e);
+        }
+
+        // Concurrent writers of the same payload each move a complete file into place; either one will do.
+        Files.createDirectories(cacheDirectory.toPath());
+        Path temp = Files.createTempFile(cacheDirectory.toPath(), "fixture", ".tmp");
+        Files.write(temp, encrypted);
+        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOG.debug("Encrypted upload fixture " + file);
+        return file;
+    }
+
+    private static byte[] readTemplate(String fixture) throws IOException {
+        return Files.readAllBytes(new File(TEMPLATE_DIRECTORY, templateName(fixture) + ".zip").toPath());
+    }
+
+    private static String templateName(String fixture) {
+        return fixture.endsWith(ENCRYPTED_SUFFIX) ? fixture.substring(0, fixture.length() - ENCRYPTED_SUFFIX.length())
+                : fixture;
+    }
+}
@@ -0,0 +1,169 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.Role;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.rest.model.UploadStatus;
+import org.sagebionetworks.bridge.rest.model.UploadValidationStatus;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Upload capacity harness. For each of the UploadTest fixtures, N users each make M uploads, all concurrently, and the
+ * harness reports requestUploadSession latency, S3 PUT throughput, time from completing the upload to SUCCEEDED, and
+ * validated records per second. Set the load with -DuploadLoad.users and -DuploadLoad.uploadsPerUser. Files go
+ * through {@link StreamingUpload}, so large fixtures don't each hold a copy on the heap. Each upload is a distinct
+ * payload from {@link UploadFixtures#variant} unless -DuploadLoad.distinctPayloads=false (or fixtures are prebuilt).
+ */
+@Category(LoadTest.class)
+public class UploadLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadLoadTest.class);
+
+    private static final int USERS = Integer.getInteger("uploadLoad.users", 4);
+    private static final int UPLOADS_PER_USER = Integer.getInteger("uploadLoad.uploadsPerUser", 5);
+    private static final boolean DISTINCT_PAYLOADS = Boolean.parseBoolean(System.getProperty(
+            "uploadLoad.distinctPayloads", String.valueOf(!UploadFixtures.isPrebuilt())));
+
+    // Validation slows down as the upload queue backs up, so allow much longer than UploadTest does.
+    private static final long VALIDATION_INITIAL_DELAY_MILLISECONDS = 500;
+    private static final long VALIDATION_MAX_DELAY_MILLISECONDS = 5000;
+    private static final long VALIDATION_TIMEOUT_MILLISECONDS = 300000;
+
+    private static TestUser developer;
+    private static List<TestUser> users = new ArrayList<>();
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+        UploadTest.createSchemasIfMissing(developer);
+        for (int i = 0; i < USERS; i++) {
+            TestUser user = TestUserHelper.createAndSignInUser(UploadLoadTest.class, true);
+            Teardown.register(UploadLoadTest.class, user);
+            users.add(user);
+        }
+        executor = LoadThreads.newExecutor("upload-load-%d", USERS * UPLOADS_PER_USER);
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(UploadLoadTest.class);
+    }
+
+    @AfterClass
+    public static void deleteDeveloper() throws Exception {
+        TestUserPool.release(developer);
+    }
+
+    @AfterClass
+    public static void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void legacySurvey() throws Exception {
+        runLoad("legacy-survey-encrypted");
+    }
+
+    @Test
+    public void genericSurvey() throws Exception {
+        runLoad("generic-survey-encrypted");
+    }
+
+    @Test
+    public void legacyNonSurvey() throws Exception {
+        runLoad("legacy-non-survey-encrypted");
+    }
+
+    @Test
+    public void genericNonSurvey() throws Exception {
+        runLoad("generic-non-survey-encrypted");
+    }
+
+    @Test
+    public void schemaless() throws Exception {
+        runLoad("schemaless-encrypted");
+    }
+
+    private static void runLoad(String fileLeafName) throws Exception {
+        UploadFixtures fixtures = UploadFixtures.forStudy(developer);
+        LoadMetrics metrics = new LoadMetrics("Upload load, " + fileLeafName + ", " + USERS + " users x "
+                + UPLOADS_PER_USER + " uploads");
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int u = 0; u < users.size(); u++) {
+            ForConsentedUsersApi usersApi = ApiClients.of(users.get(u), ForConsentedUsersApi.class);
+            for (int i = 0; i < UPLOADS_PER_USER; i++) {
+                // Salted by position rather than user ID, so reruns find the variants already encrypted.
+                File file = DISTINCT_PAYLOADS ? fixtures.variant(fileLeafName, "upload-load-" + u + "-" + i)
+                        : fixtures.get(fileLeafName);
+                futures.add(executor.submit(() -> upload(usersApi, file, metrics)));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Exception cause = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+                metrics.countError("Upload failed", cause);
+            }
+        }
+        metrics.log();
+        // The summary's rates are over the whole run, most of which is validation polling, so PUT throughput is
+        // bytes over the time spent in PUTs.
+        double putSeconds = metrics.getCount("S3 PUT nanos") / 1e9;
+        if (putSeconds > 0) {
+            LOG.info(String.format("S3 PUT throughput %.2f MB/s per upload", metrics.getCount("S3 bytes")
+                    / (1024.0 * 1024.0) / putSeconds));
+        }
+        assertEquals(USERS * UPLOADS_PER_USER, metrics.getCount("records"));
+    }
+
+    private static Void upload(ForConsentedUsersApi usersApi, File file, LoadMetrics metrics) throws Exception {
+        UploadRequest request = StreamingUpload.makeUploadRequestForFile(file);
+
+        long start = System.nanoTime();
+        UploadSession session = usersApi.requestUploadSession(request).execute().body();
+        metrics.record("requestUploadSession", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        StreamingUpload.uploadToS3(file, session.getUrl(), request.getContentMd5());
+        long putNanos = System.nanoTime() - start;
+        metrics.record("S3 PUT", putNanos);
+        metrics.count("S3 PUT nanos", putNanos);
+        metrics.count("S3 bytes", file.length());
+
+        start = System.nanoTime();
+        usersApi.completeUploadSession(session.getId(), false, false).execute();
+        UploadValidationStatus status = Await.poll("upload validation under load")
+                .initialDelay(VALIDATION_INITIAL_DELAY_MILLISECONDS).maxDelay(VALIDATION_MAX_DELAY_MILLISECONDS)
+                .timeout(VALIDATION_TIMEOUT_MILLISECONDS)
+                .until(() -> usersApi.getUploadStatus(session.getId()).execute().body(),
+                        s -> s.getStatus() == UploadStatus.SUCCEEDED || s.getStatus() == UploadStatus.VALIDATION_FAILED);
+        metrics.record("complete to SUCCEEDED", System.nanoTime() - start);
+        if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
+            throw new IllegalStateException("Upload validation failed, UploadId=" + session.getId());
+        }
+        metrics.count("records");
+        return null;
+    }
+}
@@ -47,6 +47,7 @@ import org.sagebionetworks.bridge.rest.model.UploadSchemaType;
 import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class UploadSchemaTest {
     // We put spaces in the schema ID to test URL encoding.
     private static final String TEST_SCHEMA_ID_PREFIX = "integration test schema ";
@@ -67,15 +68,19 @@ public class UploadSchemaTest {
     public static void beforeClass() throws Exception {
         TestUserHelper.TestUser admin = TestUserHelper.getSignedInAdmin();
         developer = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, DEVELOPER);
+        Teardown.register(UploadSchemaTest.class, developer);
         user = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, true);
+        Teardown.register(UploadSchemaTest.class, user);
         worker = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, false, WORKER);
+        Teardown.register(UploadSchemaTest.class, worker);
         sharedDeveloper = TestUserHelper.createAndSignInUser(UploadSchemaTest.class, SHARED_STUDY_ID, DEVELOPER);
-        sharedDeveloperModulesApi = sharedDeveloper.getClient(SharedModulesApi.class);
+        Teardown.register(UploadSchemaTest.class, sharedDeveloper);
+        sharedDeveloperModulesApi = ApiClients.of(sharedDeveloper, SharedModulesApi.class);
 
-        adminApi = admin.getClient(ForAdminsApi.class);
-        devUploadSchemasApi = developer.getClient(UploadSchemasApi.class);
-        sharedUploadSchemasApi = sharedDeveloper.getClient(UploadSchemasApi.class);
-        workerUploadSchemasApi = worker.getClient(ForWorkersApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
+        devUploadSchemasApi = ApiClients.of(developer, UploadSchemasApi.class);
+        sharedUploadSchemasApi = ApiClients.of(sharedDeveloper, UploadSchemasApi.class);
+        workerUploadSchemasApi = ApiClients.of(worker, ForWorkersApi.class);
     }
 
     @Before
@@ -94,31 +99,8 @@ public class UploadSchemaTest {
     }
 
     @AfterClass
-    public static void deleteResearcher() throws Exception {
-        if (developer != null) {
-            developer.signOutAndDeleteUser();
-        }
-    }
-
-    @AfterClass
-    public static void deleteUser() throws Exception {
-        if (user != null) {
-            user.signOutAndDeleteUser();
-        }
-    }
-
-    @AfterClass
-    public static void deleteWorker() throws Exception {
-        if (worker != null) {
-            worker.signOutAndDeleteUser();
-        }
-    }
-    
-    @AfterClass
-    public static void deleteSharedDeveloper() throws Exception {
-        if (sharedDeveloper != null) {
-            sharedDeveloper.signOutAndDeleteUser();
-        }
+    public static void deleteUsers() throws Exception {
+        Teardown.run(UploadSchemaTest.class);
     }
 
     @Test
@@ -525,7 +507,7 @@ public class UploadSchemaTest {
 
     @Test(expected=UnauthorizedException.class)
     public void unauthorizedTest() throws Exception {
-        user.getClient(UploadSchemasApi.class).getMostRecentUploadSchemas(false).execute();
+        ApiClients.of(user, UploadSchemasApi.class).getMostRecentUploadSchemas(false).execute();
     }
 
     @Test
@@ -0,0 +1,164 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.RestUtils;
+import org.sagebionetworks.bridge.rest.api.ForConsentedUsersApi;
+import org.sagebionetworks.bridge.rest.model.UploadRequest;
+import org.sagebionetworks.bridge.rest.model.UploadSession;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * Heap allocation and throughput of the two upload paths, RestUtils and {@link StreamingUpload}, over payloads of
+ * -DuploadStreaming.sizesMb (default 1 MB to 1 GB of random bytes). For each size and path, the harness computes the
+ * upload request (Content-MD5) and, unless -DuploadStreaming.put=false, requests an upload session and PUTs the file to
+ * S3, -DuploadStreaming.repetitions times. Allocation is the bytes the calling thread allocated per operation, from
+ * the JVM's per-thread counter, so it covers the digest and the request body but not OkHttp's own threads. Sessions
+ * are never completed, so nothing is validated. A RestUtils digest that runs out of heap is recorded as such and the
+ * run continues.
+ *
+ * The curve is written to target/scaling/upload-streaming.tsv.
+ */
+@Category(LoadTest.class)
+public class UploadStreamingBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(UploadStreamingBenchmarkTest.class);
+
+    private static final List<Integer> SIZES_MB = ScalingCurve.getSweep("uploadStreaming.sizesMb",
+            "1,16,128,512,1024");
+    private static final int REPETITIONS = Integer.getInteger("uploadStreaming.repetitions", 3);
+    private static final boolean PUT = Boolean.parseBoolean(System.getProperty("uploadStreaming.put", "true"));
+
+    private static final int MB = 1024 * 1024;
+    private static final String REST_UTILS = "RestUtils";
+    private static final String STREAMING = "streaming";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static TestUser user;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        user = TestUserHelper.createAndSignInUser(UploadStreamingBenchmarkTest.class, true);
+        Teardown.register(UploadStreamingBenchmarkTest.class, user);
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(UploadStreamingBenchmarkTest.class);
+    }
+
+    @Test
+    public void allocationAndThroughput() throws Exception {
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
+        ScalingCurve curve = new ScalingCurve("upload-streaming");
+        for (int sizeMb : SIZES_MB) {
+            File file = createPayload(sizeMb);
+            try {
+                // Both paths must produce the same Content-MD5, or the streaming path's PUTs would be rejected.
+                if (sizeMb <= 64) {
+                    assertEquals(RestUtils.makeUploadRequestForFile(file).getContentMd5(),
+                            StreamingUpload.md5Base64(file));
+                }
+                for (String path : new String[] { REST_UTILS, STREAMING }) {
+                    LoadMetrics metrics = new LoadMetrics("Upload " + path + ", " + sizeMb + " MB");
+                    runPoint(usersApi, path, file, metrics);
+                    metrics.log();
+                    addPoint(curve, path, "digest", sizeMb, metrics);
+                    if (PUT) {
+                        addPoint(curve, path, "S3 PUT", sizeMb, metrics);
+                    }
+                }
+            } finally {
+                if (!file.delete()) {
+                    LOG.warn("Couldn't delete " + file);
+                }
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+    }
+
+    private static void runPoint(ForConsentedUsersApi usersApi, String path, File file, LoadMetrics metrics)
+            throws Exception {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < REPETITIONS; i++) {
+            UploadRequest request;
+            long allocated = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            try {
+                request = path.equals(STREAMING) ? StreamingUpload.makeUploadRequestForFile(file)
+                        : RestUtils.makeUploadRequestForFile(file);
+            } catch (OutOfMemoryError e) {
+                metrics.count("digest out of memory");
+                return;
+            }
+            measured(metrics, "digest", file, start, threadId, allocated);
+
+            if (PUT) {
+                UploadSession session = usersApi.requestUploadSession(request).execute().body();
+                allocated = THREADS.getThreadAllocatedBytes(threadId);
+                start = System.nanoTime();
+                if (path.equals(STREAMING)) {
+                    StreamingUpload.uploadToS3(file, session.getUrl(), request.getContentMd5());
+                } else {
+                    RestUtils.uploadToS3(file, session.getUrl());
+                }
+                measured(metrics, "S3 PUT", file, start, threadId, allocated);
+            }
+        }
+    }
+
+    private static void measured(LoadMetrics metrics, String step, File file, long start, long threadId,
+            long allocatedBefore) {
+        long elapsed = System.nanoTime() - start;
+        metrics.record(step, elapsed);
+        metrics.count(step + " nanos", elapsed);
+        metrics.count(step + " bytes", file.length());
+        metrics.count(step + " allocated bytes", THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore);
+    }
+
+    private static void addPoint(ScalingCurve curve, String path, String step, int sizeMb, LoadMetrics metrics) {
+        long operations = metrics.histogram(step).getTotalCount();
+        double seconds = metrics.getCount(step + " nanos") / 1e9;
+        curve.add(new ImmutableMap.Builder<String, Object>()
+                .put("path", path)
+                .put("step", step)
+                .put("size MB", sizeMb)
+                .put("MB/s", seconds == 0 ? 0 : metrics.getCount(step + " bytes") / (double) MB / seconds)
+                .put("allocated MB/op", operations == 0 ? 0
+                        : metrics.getCount(step + " allocated bytes") / (double) MB / operations)
+                .put("out of memory", metrics.getCount(step + " out of memory") > 0)
+                .build(), metrics.histogram(step));
+    }
+
+    /** A temp file of random bytes, so S3 and any compression on the way can't shortcut it. */
+    private static File createPayload(int sizeMb) throws IOException {
+        File file = File.createTempFile("upload-streaming-" + sizeMb + "mb-", ".zip");
+        file.deleteOnExit();
+        byte[] chunk = new byte[MB];
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                ThreadLocalRandom.current().nextBytes(chunk);
+                out.write(chunk);
+            }
+        }
+        return file;
+    }
+}
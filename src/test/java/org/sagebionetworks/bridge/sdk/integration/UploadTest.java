@@ -9,8 +9,8 @@ import static org.sagebionetworks.bridge.sdk.integration.Tests.SUBSTUDY_ID_1;
 
 import java.io.File;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
@@ -59,12 +59,13 @@ public class UploadTest {
     private static final String EXTERNAL_ID = "upload-test-extid";
     
     // On a cold server, validation could take up to 8 seconds (most of this is downloading and caching the encryption
-    // certs for the first time). Subsequent validation attempts take about 2 seconds. 5 second delay is a good
-    // compromise between fast tests and not having to retry a bunch of times.
-    private static final int UPLOAD_STATUS_DELAY_MILLISECONDS = 5000;
+    // certs for the first time). Subsequent validation attempts take about 2 seconds. Start polling after 1 second and
+    // back off to at most 5 seconds between polls.
+    private static final long UPLOAD_STATUS_INITIAL_DELAY_MILLISECONDS = 1000;
+    private static final long UPLOAD_STATUS_MAX_DELAY_MILLISECONDS = 5000;
 
-    // Retry up to 6 times, so we don't spend more than 30 seconds per test.
-    private static final int UPLOAD_STATUS_DELAY_RETRIES = 6;
+    // Don't spend more than 30 seconds per test.
+    private static final long UPLOAD_STATUS_TIMEOUT_MILLISECONDS = 30000;
     
     private static TestUserHelper.TestUser worker;
     private static TestUserHelper.TestUser developer;
@@ -77,20 +78,24 @@ public class UploadTest {
         admin = TestUserHelper.getSignedInAdmin();
 
         try {
-            admin.getClient(ForAdminsApi.class).getSubstudy(SUBSTUDY_ID_1).execute();
+            ApiClients.of(admin, ForAdminsApi.class).getSubstudy(SUBSTUDY_ID_1).execute();
         } catch(EntityNotFoundException e) {
             Substudy substudy = new Substudy().name(SUBSTUDY_ID_1).id(SUBSTUDY_ID_1);
-            VersionHolder version = admin.getClient(ForAdminsApi.class).createSubstudy(substudy).execute().body();
+            VersionHolder version = ApiClients.of(admin, ForAdminsApi.class).createSubstudy(substudy).execute().body();
             substudy.setVersion(version.getVersion());
         }
         
         // developer is to ensure schemas exist. user is to do uploads
-        worker = TestUserHelper.createAndSignInUser(UploadTest.class, false, Role.WORKER);
-        developer = TestUserHelper.createAndSignInUser(UploadTest.class, false, Role.DEVELOPER);
-        researcher = TestUserHelper.createAndSignInUser(UploadTest.class, false, Role.RESEARCHER);
+        worker = TestUserPool.lease(false, Role.WORKER);
+        developer = TestUserPool.lease(false, Role.DEVELOPER);
+        researcher = TestUserPool.lease(false, Role.RESEARCHER);
+
+        // ensure schemas exist, so we have something to upload against. They don't depend on the rest of the
+        // fixture, so they're created while the user is set up.
+        CompletableFuture<Void> schemas = AsyncApi.run(() -> createSchemasIfMissing(developer));
         
         ExternalIdentifier extId = new ExternalIdentifier().identifier(EXTERNAL_ID).substudyId(SUBSTUDY_ID_1);
-        ForResearchersApi researchersApi = researcher.getClient(ForResearchersApi.class);
+        ForResearchersApi researchersApi = ApiClients.of(researcher, ForResearchersApi.class);
         researchersApi.createExternalId(extId).execute();
         
         String emailAddress = IntegTestUtils.makeEmail(UploadTest.class);
@@ -98,8 +103,12 @@ public class UploadTest {
         signUp.setExternalId(EXTERNAL_ID); // which should, in turn, associate account to SUBSTUDY_ID.
         user = TestUserHelper.createAndSignInUser(UploadTest.class, true, signUp);
 
-        // ensure schemas exist, so we have something to upload against
-        UploadSchemasApi uploadSchemasApi = developer.getClient(UploadSchemasApi.class);
+        AsyncApi.join(schemas);
+    }
+
+    // Also used by UploadLoadTest, which uploads the same fixtures.
+    static void createSchemasIfMissing(TestUserHelper.TestUser developer) throws Exception {
+        UploadSchemasApi uploadSchemasApi = ApiClients.of(developer, UploadSchemasApi.class);
 
         UploadSchema legacySurveySchema = null;
         try {
@@ -173,23 +182,23 @@ public class UploadTest {
     @AfterClass
     public static void deleteWorker() throws Exception {
         if (worker != null) {
-            worker.signOutAndDeleteUser();
+            TestUserPool.release(worker);
         }
     }
 
     @AfterClass
     public static void deleteDeveloper() throws Exception {
         if (developer != null) {
-            developer.signOutAndDeleteUser();
+            TestUserPool.release(developer);
         }
     }
 
     @AfterClass
     public static void deleteResearcher() throws Exception {
-        ForAdminsApi adminsApi = TestUserHelper.getSignedInAdmin().getClient(ForAdminsApi.class);
+        ForAdminsApi adminsApi = ApiClients.of(TestUserHelper.getSignedInAdmin(), ForAdminsApi.class);
         adminsApi.deleteExternalId(EXTERNAL_ID).execute();
         if (researcher != null) {
-            researcher.signOutAndDeleteUser();
+            TestUserPool.release(researcher);
         }
     }
     
@@ -278,27 +287,24 @@ public class UploadTest {
         // set up request
         File file = resolveFilePath(fileLeafName);
         
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         UploadSession session = RestUtils.upload(usersApi, file);
         
         String uploadId = session.getId();
         
         // get validation status
-        UploadValidationStatus status = null;
-        for (int i = 0; i < UPLOAD_STATUS_DELAY_RETRIES; i++) {
-            Thread.sleep(UPLOAD_STATUS_DELAY_MILLISECONDS);
-
-            status = usersApi.getUploadStatus(session.getId()).execute().body();
-            if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
-                // Short-circuit. Validation failed. No need to retry.
-                fail("Upload validation failed, UploadId=" + uploadId);
-            } else if (status.getStatus() == UploadStatus.SUCCEEDED) {
-                break;
-            }
+        UploadValidationStatus status = Await.poll("upload validation")
+                .initialDelay(UPLOAD_STATUS_INITIAL_DELAY_MILLISECONDS).maxDelay(UPLOAD_STATUS_MAX_DELAY_MILLISECONDS)
+                .timeout(UPLOAD_STATUS_TIMEOUT_MILLISECONDS)
+                .until(() -> usersApi.getUploadStatus(session.getId()).execute().body(),
+                        s -> s.getStatus() == UploadStatus.SUCCEEDED || s.getStatus() == UploadStatus.VALIDATION_FAILED);
+        if (status.getStatus() == UploadStatus.VALIDATION_FAILED) {
+            // Short-circuit. Validation failed. No need to retry.
+            fail("Upload validation failed, UploadId=" + uploadId);
         }
         // userClient.upload marks the download complete
         // marking an already completed download as complete again should succeed (and be a no-op)
-        worker.getClient(ForWorkersApi.class).completeUploadSession(session.getId(), false, false)
+        ApiClients.of(worker, ForWorkersApi.class).completeUploadSession(session.getId(), false, false)
                 .execute();
 
         validateUploadValidationStatus(uploadId, status);
@@ -310,7 +316,7 @@ public class UploadTest {
         RecordExportStatusRequest statusRequest = new RecordExportStatusRequest();
         statusRequest.setRecordIds(ImmutableList.of(record.getId()));
         statusRequest.setSynapseExporterStatus(SynapseExporterStatus.NOT_EXPORTED);
-        worker.getClient(ForWorkersApi.class).updateRecordExportStatuses(statusRequest).execute();
+        ApiClients.of(worker, ForWorkersApi.class).updateRecordExportStatuses(statusRequest).execute();
 
         status = usersApi.getUploadStatus(session.getId()).execute().body();
         assertEquals(SynapseExporterStatus.NOT_EXPORTED, status.getRecord().getSynapseExporterStatus());
@@ -326,7 +332,7 @@ public class UploadTest {
         File file = resolveFilePath("generic-survey-encrypted");
 
         // Set user sharing scope, just to test metadata in upload validation.
-        ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
         StudyParticipant participant = usersApi.getUsersParticipantRecord(false).execute().body();
         participant.setSharingScope(SharingScope.ALL_QUALIFIED_RESEARCHERS);
         usersApi.updateUsersParticipantRecord(participant).execute();
@@ -360,7 +366,7 @@ public class UploadTest {
         assertEquals("3", bbbAnswerList.get(2));
         
         // Should be possible to retrieve this record
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         
         Upload retrieved1 = adminApi.getUploadById(status.getId()).execute().body();
         Upload retrieved2 = adminApi.getUploadByRecordId(record.getId()).execute().body();
@@ -370,7 +376,7 @@ public class UploadTest {
         assertEquals(retrieved1, retrieved2);
 
         // Worker can also retrieve this records.
-        ForWorkersApi workerApi = worker.getClient(ForWorkersApi.class);
+        ForWorkersApi workerApi = ApiClients.of(worker, ForWorkersApi.class);
 
         Upload retrieved3 = workerApi.getUploadById(status.getId()).execute().body();
         Upload retrieved4 = workerApi.getUploadByRecordId(record.getId()).execute().body();
@@ -395,11 +401,13 @@ public class UploadTest {
         assertEquals(record.getData(), record2.getData());
     }
 
-    // returns the path relative to the root of the project
-    private static File resolveFilePath(String fileLeafName) {
-        String envName = user.getClientManager().getConfig().getEnvironment().name().toLowerCase(Locale.ENGLISH);
-        String filePath = "src/test/resources/upload-test/" + envName + "/" + fileLeafName;
-        return new File(filePath);
+    private static File resolveFilePath(String fileLeafName) throws Exception {
+        return resolveFilePath(developer, fileLeafName);
+    }
+
+    // The fixture encrypted for the developer's study; see UploadFixtures.
+    static File resolveFilePath(TestUserHelper.TestUser developer, String fileLeafName) throws Exception {
+        return UploadFixtures.forStudy(developer).get(fileLeafName);
     }
 
     private static void validateUploadValidationStatus(String uploadId, UploadValidationStatus status) {
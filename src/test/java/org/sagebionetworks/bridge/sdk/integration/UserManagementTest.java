@@ -24,6 +24,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper;
 import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
+@ResourceLock(ResourceLock.ADMIN_SESSION)
 public class UserManagementTest {
     
     private static final String API = "api";
@@ -57,7 +58,7 @@ public class UserManagementTest {
         signUp.setConsent(true);
         signUp.setPassword(password);
         
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         
         UserSessionInfo userSession = adminApi.createUser(signUp).execute().body();
         assertNotNull(userSession.getId());
@@ -65,7 +66,7 @@ public class UserManagementTest {
         // Can sign in with this user.
         SignIn signIn = new SignIn().study(admin.getStudyId()).email(email).password(password);
         ClientManager newUserClientManager = new ClientManager.Builder().withSignIn(signIn).build();
-        AuthenticationApi newUserAuthApi = newUserClientManager.getClient(AuthenticationApi.class);
+        AuthenticationApi newUserAuthApi = ApiClients.of(newUserClientManager, AuthenticationApi.class);
         newUserAuthApi.signInV4(signIn).execute();
 
         // Creating the user again throws an EntityAlreadyExists.
@@ -79,7 +80,7 @@ public class UserManagementTest {
         adminApi.deleteUser(userSession.getId()).execute();
 
         try {
-            ParticipantsApi participantsApi = researcher.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(researcher, ParticipantsApi.class);
             participantsApi.getParticipantById(userSession.getId(), false).execute();
             fail("Should have thrown an exception");
         } catch(EntityNotFoundException e) {
@@ -93,35 +94,35 @@ public class UserManagementTest {
         // don't get any mistakes
         admin.signOut();
         
-        ForAdminsApi adminApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi adminApi = ApiClients.of(admin, ForAdminsApi.class);
         SignIn signIn = new SignIn().study(admin.getStudyId())
                 .email(admin.getEmail()).password((admin.getPassword()));
         
         adminApi.adminSignIn(signIn).execute().body();
-        Study currentStudy = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        Study currentStudy = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals(API, currentStudy.getIdentifier());
         
-        adminApi = admin.getClient(ForAdminsApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
         adminApi.adminChangeStudy(Tests.SHARED_SIGNIN).execute().body();
         
-        currentStudy = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        currentStudy = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals(SHARED, currentStudy.getIdentifier());
         
         // now reverse the order
         admin.signOut(); // so it's not necessary to switch back to the API study for future tests
         
-        adminApi = admin.getClient(ForAdminsApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
         signIn = new SignIn().study(SHARED)
                 .email(admin.getEmail()).password((admin.getPassword()));
         
         adminApi.adminSignIn(signIn).execute().body();
-        currentStudy = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        currentStudy = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals(SHARED, currentStudy.getIdentifier());
         
-        adminApi = admin.getClient(ForAdminsApi.class);
+        adminApi = ApiClients.of(admin, ForAdminsApi.class);
         adminApi.adminChangeStudy(Tests.API_SIGNIN).execute().body();
         
-        currentStudy = admin.getClient(StudiesApi.class).getUsersStudy().execute().body();
+        currentStudy = ApiClients.of(admin, StudiesApi.class).getUsersStudy().execute().body();
         assertEquals(API, currentStudy.getIdentifier());
     }
 }
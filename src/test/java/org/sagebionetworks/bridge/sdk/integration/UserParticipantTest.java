@@ -55,7 +55,7 @@ public class UserParticipantTest {
     public void canUpdateProfile() throws Exception {
         TestUser user = TestUserHelper.createAndSignInUser(UserParticipantTest.class, true);
         try {
-            ParticipantsApi participantsApi = user.getClient(ParticipantsApi.class);
+            ParticipantsApi participantsApi = ApiClients.of(user, ParticipantsApi.class);
 
             StudyParticipant participant = participantsApi.getUsersParticipantRecord(false).execute().body();
 
@@ -99,7 +99,7 @@ public class UserParticipantTest {
         
         TestUser user = TestUserHelper.createAndSignInUser(UserParticipantTest.class, true);
         try {
-            ForConsentedUsersApi usersApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi usersApi = ApiClients.of(user, ForConsentedUsersApi.class);
             StudyParticipant participant = usersApi.getUsersParticipantRecord(false).execute().body();
             participant.setExternalId(externalId1.getIdentifier());
 
@@ -127,7 +127,7 @@ public class UserParticipantTest {
     public void canUpdateDataGroups() throws Exception {
         List<String> dataGroups = ImmutableList.of("sdk-int-1", "sdk-int-2");
 
-        ForConsentedUsersApi usersApi = developer.getClient(ForConsentedUsersApi.class);
+        ForConsentedUsersApi usersApi = ApiClients.of(developer, ForConsentedUsersApi.class);
 
         StudyParticipant participant = new StudyParticipant();
         participant.setDataGroups(dataGroups);
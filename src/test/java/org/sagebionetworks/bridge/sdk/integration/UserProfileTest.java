@@ -61,7 +61,7 @@ public class UserProfileTest {
         assertEquals(200, response.code());
         
         // Now get the participant record and verify that notifyByEmail is true (the default)
-        ParticipantsApi participantsApi = testUser.getClient(ParticipantsApi.class);
+        ParticipantsApi participantsApi = ApiClients.of(testUser, ParticipantsApi.class);
         
         StudyParticipant participant = participantsApi.getUsersParticipantRecord(false).execute().body();
         
@@ -0,0 +1,158 @@
+package org.sagebionetworks.bridge.sdk.integration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.sagebionetworks.bridge.rest.api.ParticipantsApi;
+import org.sagebionetworks.bridge.user.TestUserHelper;
+import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
+
+/**
+ * How many simulated participants one driver host can hold, on a fixed pool of platform threads versus a virtual
+ * thread per participant (see {@link LoadThreads}). Each participant makes a blocking call every
+ * -DvirtualThreadCapacity.thinkMillis, -DvirtualThreadCapacity.rounds times, with participants staggered so the
+ * offered load is steady. A call is on time when the driver starts it within -DvirtualThreadCapacity.lagMillis of when
+ * it was due, and the achieved rate is on-time calls over the scheduled window, so server latency at the end of the
+ * run doesn't count against the driver. A point is sustained when the driver achieves 95% of the offered rate with p99
+ * latency (from when each call was due) under -DvirtualThreadCapacity.sloMillis; capacity is the most participants
+ * sustained.
+ *
+ * The participant counts are -DvirtualThreadCapacity.participants and the fixed pool has
+ * -DvirtualThreadCapacity.poolSize threads. The virtual mode only runs on JDK 21+ (the virtual-threads profile).
+ * This measures the driver, not the server, so run it against the stub server (-Dstub) unless the environment is
+ * sized for the load. The curve is written to target/scaling/virtual-thread-capacity.tsv.
+ */
+@Category(LoadTest.class)
+public class VirtualThreadCapacityTest {
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadCapacityTest.class);
+
+    private static final List<Integer> PARTICIPANTS = ScalingCurve.getSweep("virtualThreadCapacity.participants",
+            "100,500,2000,5000");
+    private static final int POOL_SIZE = Integer.getInteger("virtualThreadCapacity.poolSize", 200);
+    private static final int THINK_MILLIS = Integer.getInteger("virtualThreadCapacity.thinkMillis", 1000);
+    private static final int ROUNDS = Integer.getInteger("virtualThreadCapacity.rounds", 10);
+    private static final int LAG_MILLIS = Integer.getInteger("virtualThreadCapacity.lagMillis", 100);
+    private static final int SLO_MILLIS = Integer.getInteger("virtualThreadCapacity.sloMillis", 1000);
+
+    private static final String FIXED = "fixed pool";
+    private static final String VIRTUAL = "virtual threads";
+
+    private static TestUser user;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        user = TestUserHelper.createAndSignInUser(VirtualThreadCapacityTest.class, true);
+        Teardown.register(VirtualThreadCapacityTest.class, user);
+    }
+
+    @AfterClass
+    public static void deleteUsers() throws Exception {
+        Teardown.run(VirtualThreadCapacityTest.class);
+    }
+
+    @Test
+    public void participantsPerDriver() throws Exception {
+        List<String> modes = new ArrayList<>();
+        modes.add(FIXED);
+        if (LoadThreads.isVirtualAvailable()) {
+            modes.add(VIRTUAL);
+        } else {
+            LOG.info("No virtual threads on Java " + System.getProperty("java.version") + "; measuring the fixed pool "
+                    + "only");
+        }
+
+        ScalingCurve curve = new ScalingCurve("virtual-thread-capacity");
+        Map<String, Integer> capacity = new LinkedHashMap<>();
+        for (String mode : modes) {
+            capacity.put(mode, 0);
+            for (int participants : PARTICIPANTS) {
+                LoadMetrics metrics = new LoadMetrics("Driver capacity, " + mode + ", " + participants
+                        + " participants");
+                ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                threads.resetPeakThreadCount();
+                runPoint(mode, participants, metrics);
+                metrics.log();
+
+                double offered = participants * 1000.0 / THINK_MILLIS;
+                double achieved = metrics.getCount("on time") / (ROUNDS * THINK_MILLIS / 1000.0);
+                double p99Millis = metrics.histogram("latency").getValueAtPercentile(99) / 1000.0;
+                boolean sustained = achieved >= offered * 0.95 && p99Millis <= SLO_MILLIS
+                        && metrics.getCount("errors") == 0;
+                if (sustained) {
+                    capacity.put(mode, participants);
+                }
+                curve.add(new ImmutableMap.Builder<String, Object>()
+                        .put("mode", mode)
+                        .put("participants", participants)
+                        .put("offered/s", offered)
+                        .put("achieved/s", achieved)
+                        .put("peak platform threads", threads.getPeakThreadCount())
+                        .put("sustained", sustained)
+                        .build(), metrics.histogram("latency"));
+            }
+        }
+        LOG.info("Wrote scaling curve to " + curve.write());
+        LOG.info("Participants sustained per driver: " + capacity);
+    }
+
+    /** Every participant makes ROUNDS calls THINK_MILLIS apart, staggered evenly over the first think interval. */
+    private static void runPoint(String mode, int participants, LoadMetrics metrics) throws Exception {
+        ParticipantsApi participantsApi = ApiClients.of(user, ParticipantsApi.class);
+        ExecutorService executor = mode.equals(VIRTUAL) ? LoadThreads.newVirtualExecutor("capacity-virtual-%d")
+                : LoadThreads.newFixedExecutor("capacity-fixed-%d", POOL_SIZE);
+        try {
+            long thinkNanos = TimeUnit.MILLISECONDS.toNanos(THINK_MILLIS);
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(participants);
+            for (int i = 0; i < participants; i++) {
+                long firstDue = start + thinkNanos * i / participants;
+                futures.add(executor.submit(() -> {
+                    for (int round = 0; round < ROUNDS; round++) {
+                        long due = firstDue + round * thinkNanos;
+                        long wait = due - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        call(participantsApi, due, metrics);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void call(ParticipantsApi participantsApi, long due, LoadMetrics metrics) {
+        long lag = System.nanoTime() - due;
+        metrics.record("start lag", lag);
+        if (lag <= TimeUnit.MILLISECONDS.toNanos(LAG_MILLIS)) {
+            metrics.count("on time");
+        }
+        try {
+            participantsApi.getUsersParticipantRecord(false).execute();
+            metrics.record("latency", System.nanoTime() - due);
+            metrics.count("calls");
+        } catch (Exception e) {
+            metrics.countError("Getting the participant record failed", e);
+        }
+    }
+}
@@ -46,6 +46,7 @@ import org.sagebionetworks.bridge.user.TestUserHelper.TestUser;
 import org.sagebionetworks.bridge.util.IntegTestUtils;
 
 @SuppressWarnings("unchecked")
+@ResourceLock(ResourceLock.API_STUDY)
 public class WorkerApiTest {
     private static final DateTimeZone TEST_USER_TIME_ZONE = DateTimeZone.forOffsetHours(-8);
     private static final String TEST_USER_TIME_ZONE_STRING = "-08:00";
@@ -64,10 +65,10 @@ public class WorkerApiTest {
         worker = TestUserHelper.createAndSignInUser(WorkerApiTest.class, true, Role.WORKER);
         researcher = TestUserHelper.createAndSignInUser(WorkerApiTest.class, true, Role.RESEARCHER);
         developer = TestUserHelper.createAndSignInUser(WorkerApiTest.class, true, Role.DEVELOPER);
-        workersApi = worker.getClient(ForWorkersApi.class);
+        workersApi = ApiClients.of(worker, ForWorkersApi.class);
         
         // Turn on healthcode sharing, it is usually off 
-        ForAdminsApi studiesApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi studiesApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = studiesApi.getStudy(STUDY_ID).execute().body();
         if (!study.isHealthCodeExportEnabled()) {
             study.setHealthCodeExportEnabled(true);
@@ -82,7 +83,7 @@ public class WorkerApiTest {
         }
 
         // Turn off healthcode sharing to clean up
-        ForAdminsApi studiesApi = admin.getClient(ForAdminsApi.class);
+        ForAdminsApi studiesApi = ApiClients.of(admin, ForAdminsApi.class);
         Study study = studiesApi.getStudy(STUDY_ID).execute().body();
         if (study.isHealthCodeExportEnabled()) {
             study.setHealthCodeExportEnabled(false);
@@ -123,7 +124,7 @@ public class WorkerApiTest {
                 .withExternalId(externalId.getIdentifier()).createAndSignInUser();
 
         // Have the user get activities, to bootstrap timezone.
-        user.getClient(ActivitiesApi.class).getScheduledActivitiesByDateRange(DateTime.now(TEST_USER_TIME_ZONE),
+        ApiClients.of(user, ActivitiesApi.class).getScheduledActivitiesByDateRange(DateTime.now(TEST_USER_TIME_ZONE),
                 DateTime.now(TEST_USER_TIME_ZONE).plusDays(1)).execute();
 
         // Get all participants
@@ -181,7 +182,7 @@ public class WorkerApiTest {
     @Test
     public void retrieveStudiesSchedulePlans() throws Exception {
         SchedulePlan plan = Tests.getABTestSchedulePlan();
-        SchedulesApi planApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi planApi = ApiClients.of(developer, SchedulesApi.class);
         GuidVersionHolder guid = null;
         try {
             guid = planApi.createSchedulePlan(plan).execute().body();
@@ -194,7 +195,7 @@ public class WorkerApiTest {
             }
         } finally {
             if (guid != null) {
-                admin.getClient(SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();
+                ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();
             }
         }
     }
@@ -210,7 +211,7 @@ public class WorkerApiTest {
     @Test
     public void retrieveUsersActivities() throws Exception {
         SchedulePlan plan = Tests.getDailyRepeatingSchedulePlan();
-        SchedulesApi planApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi planApi = ApiClients.of(developer, SchedulesApi.class);
         
         user = new TestUserHelper.Builder(WorkerApiTest.class).withConsentUser(true).createAndSignInUser();
         
@@ -219,7 +220,7 @@ public class WorkerApiTest {
             guid = planApi.createSchedulePlan(plan).execute().body();
             plan = planApi.getSchedulePlan(guid.getGuid()).execute().body();
             
-            ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
             userApi.getScheduledActivities("-07:00", 4, 1).execute();
             
             String activityGuid = ((SimpleScheduleStrategy) plan.getStrategy())
@@ -231,7 +232,7 @@ public class WorkerApiTest {
             assertFalse(list.getItems().isEmpty());
         } finally {
             if (guid != null) {
-                admin.getClient(SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();    
+                ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();    
             }
         }
     }
@@ -239,7 +240,7 @@ public class WorkerApiTest {
     @Test
     public void retrieveUsersActivitiesByType() throws Exception {
         SchedulePlan plan = Tests.getDailyRepeatingSchedulePlan();
-        SchedulesApi planApi = developer.getClient(SchedulesApi.class);
+        SchedulesApi planApi = ApiClients.of(developer, SchedulesApi.class);
         
         user = new TestUserHelper.Builder(WorkerApiTest.class).withConsentUser(true).createAndSignInUser();
         
@@ -248,20 +249,19 @@ public class WorkerApiTest {
             guid = planApi.createSchedulePlan(plan).execute().body();
             plan = planApi.getSchedulePlan(guid.getGuid()).execute().body();
             
-            ForConsentedUsersApi userApi = user.getClient(ForConsentedUsersApi.class);
+            ForConsentedUsersApi userApi = ApiClients.of(user, ForConsentedUsersApi.class);
             userApi.getScheduledActivities("-07:00", 4, 1).execute();
 
-            // Sleep to wait for global secondary index
-            Thread.sleep(2000);
-
-            ForwardCursorScheduledActivityList list = workersApi.getParticipantTaskHistoryForStudy(user.getStudyId(), 
-                    user.getSession().getId(), "task:CCC", DateTime.now().minusDays(2), DateTime.now().plusDays(2), 
-                    null, 50).execute().body();
+            // Task history comes from a global secondary index, so poll until the activities show up.
+            ForwardCursorScheduledActivityList list = Await.until("task history index", () -> workersApi
+                    .getParticipantTaskHistoryForStudy(user.getStudyId(), user.getSession().getId(), "task:CCC",
+                            DateTime.now().minusDays(2), DateTime.now().plusDays(2), null, 50).execute().body(),
+                    l -> !l.getItems().isEmpty());
 
             assertFalse(list.getItems().isEmpty());
         } finally {
             if (guid != null) {
-                admin.getClient(SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();    
+                ApiClients.of(admin, SchedulesApi.class).deleteSchedulePlan(guid.getGuid(), true).execute();    
             }
         }
     }
@@ -278,7 +278,7 @@ public class WorkerApiTest {
 
         // User should get activities to set that initial timezone.
         DateTime startTime = DateTime.now(TEST_USER_TIME_ZONE);
-        user.getClient(ActivitiesApi.class).getScheduledActivitiesByDateRange(startTime, startTime.plusDays(1))
+        ApiClients.of(user, ActivitiesApi.class).getScheduledActivitiesByDateRange(startTime, startTime.plusDays(1))
                 .execute();
 
         // Test sending SMS from worker.
@@ -290,7 +290,7 @@ public class WorkerApiTest {
 
     private void verifyPromotionalMessage(String expectedMessageBody) throws Exception {
         // Verify message logs contains the expected message.
-        SmsMessage message = admin.getClient(InternalApi.class).getMostRecentSmsMessage(user.getUserId()).execute()
+        SmsMessage message = ApiClients.of(admin, InternalApi.class).getMostRecentSmsMessage(user.getUserId()).execute()
                 .body();
         assertEquals(user.getPhone().getNumber(), message.getPhoneNumber());
         assertEquals(expectedMessageBody, message.getMessageBody());
@@ -310,7 +310,7 @@ public class WorkerApiTest {
         // Verify the SMS message log was written to health data.
         Thread.sleep(2000);
         DateTime messageSentOn = message.getSentOn();
-        List<HealthDataRecord> recordList = user.getClient(InternalApi.class).getHealthDataByCreatedOn(messageSentOn,
+        List<HealthDataRecord> recordList = ApiClients.of(user, InternalApi.class).getHealthDataByCreatedOn(messageSentOn,
                 messageSentOn).execute().body().getItems();
         HealthDataRecord smsMessageRecord = recordList.stream()
                 .filter(r -> r.getSchemaId().equals("sms-messages-sent-from-bridge")).findAny().get();